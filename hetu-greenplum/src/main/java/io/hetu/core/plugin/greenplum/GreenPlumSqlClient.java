@@ -30,6 +30,8 @@ import io.prestosql.plugin.jdbc.BlockReadFunction;
 import io.prestosql.plugin.jdbc.BlockWriteFunction;
 import io.prestosql.plugin.jdbc.ColumnMapping;
 import io.prestosql.plugin.jdbc.ConnectionFactory;
+import io.prestosql.plugin.jdbc.CopyTextBulkLoader;
+import io.prestosql.plugin.jdbc.JdbcBulkLoader;
 import io.prestosql.plugin.jdbc.JdbcColumnHandle;
 import io.prestosql.plugin.jdbc.JdbcIdentity;
 import io.prestosql.plugin.jdbc.JdbcOutputTableHandle;
@@ -440,6 +442,15 @@ public class GreenPlumSqlClient
         return super.toPrestoType(session, connection, typeHandle);
     }
 
+    @Override
+    public Optional<JdbcBulkLoader> getBulkLoader(ConnectorSession session, JdbcOutputTableHandle handle)
+    {
+        return CopyTextBulkLoader.forTable(
+                handle.getColumnTypes(),
+                quoted(handle.getCatalogName(), handle.getSchemaName(), handle.getTemporaryTableName()),
+                (connection, sql, data) -> connection.unwrap(PgConnection.class).getCopyAPI().copyIn(sql, data));
+    }
+
     @Override
     public WriteMapping toWriteMapping(ConnectorSession session, Type type)
     {
@@ -246,7 +246,7 @@ public class HanaClient
     public Connection getConnection(JdbcIdentity identity, JdbcSplit split)
             throws SQLException
     {
-        Connection connection = connectionFactory.openConnection(identity);
+        Connection connection = openConnection(identity, split);
         return connection;
     }
 
@@ -135,9 +135,9 @@ public class HetuHBaseMetastore
 
             for (DatabaseEntity db : dbs) {
                 List<TableEntity> tables = hetuMetastore.getAllTables(db.getCatalogName(), db.getName());
+                // the listed tables come with their columns, so they are not looked up again one by one
                 for (TableEntity table : tables) {
-                    HBaseTable hBaseTable = getHBaseTableFromHetuMetastore(table.getCatalogName(), table.getDatabaseName(),
-                            table.getName());
+                    HBaseTable hBaseTable = tableEntityToHBaseTable(table);
                     hbaseTablesTemp.put(hBaseTable.getFullTableName(), hBaseTable);
                 }
             }
@@ -174,12 +174,13 @@ public class HetuHBaseMetastore
 
     private HBaseTable getHBaseTableFromHetuMetastore(String catalog, String schema, String table)
     {
-        TableEntity tableEntity = hetuMetastore.getTable(catalog, schema, table).orElse(null);
-
-        if (tableEntity == null) {
-            return null;
-        }
+        return hetuMetastore.getTable(catalog, schema, table)
+                .map(this::tableEntityToHBaseTable)
+                .orElse(null);
+    }
 
+    private HBaseTable tableEntityToHBaseTable(TableEntity tableEntity)
+    {
         Map<String, ColumnHandle> columnsMap = new HashMap<>();
         List<HBaseColumnHandle> columns = new ArrayList<>();
 
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hetu.core.plugin.heuristicindex.index;
+
+import org.openjdk.jol.info.ClassLayout;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static io.airlift.slice.SizeOf.sizeOfCharArray;
+import static io.airlift.slice.SizeOf.sizeOfIntArray;
+
+/**
+ * Reading and writing of the memory-mapped index files of the Bitmap and BTree indexes
+ */
+public final class IndexFileUtils
+{
+    private static final int STRING_INSTANCE_SIZE = ClassLayout.parseClass(String.class).instanceSize();
+    private static final int BIG_DECIMAL_INSTANCE_SIZE = ClassLayout.parseClass(BigDecimal.class).instanceSize();
+    private static final int BIG_INTEGER_INSTANCE_SIZE = ClassLayout.parseClass(BigInteger.class).instanceSize();
+    private static final int DATE_INSTANCE_SIZE = ClassLayout.parseClass(Date.class).instanceSize();
+    // boxed primitives are at most as large as a Long
+    private static final int BOXED_INSTANCE_SIZE = ClassLayout.parseClass(Long.class).instanceSize();
+
+    private IndexFileUtils()
+    {
+    }
+
+    /**
+     * Read length bytes at offset, as a view of the mapped file if it's mapped
+     */
+    public static ByteBuffer read(FileChannel channel, ByteBuffer mapped, long offset, int length)
+            throws IOException
+    {
+        if (mapped != null) {
+            ByteBuffer slice = mapped.duplicate();
+            slice.position((int) offset);
+            slice.limit((int) offset + length);
+            return slice.slice();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of index file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    public static byte[] toArray(ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    public static void writeString(DataOutput out, String value)
+            throws IOException
+    {
+        // writeUTF is limited to 64KB, values such as the symbol table can be larger
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(DataInput in)
+            throws IOException
+    {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void writeKey(DataOutput out, String keyType, Object key)
+            throws IOException
+    {
+        switch (keyType) {
+            case "long":
+            case "Long":
+                out.writeLong((Long) key);
+                return;
+            case "Slice":
+            case "String":
+                writeString(out, (String) key);
+                return;
+            case "int":
+            case "Integer":
+                out.writeInt((Integer) key);
+                return;
+            case "float":
+            case "Float":
+                out.writeFloat((Float) key);
+                return;
+            case "double":
+            case "Double":
+                out.writeDouble((Double) key);
+                return;
+            case "boolean":
+            case "Boolean":
+                out.writeBoolean((Boolean) key);
+                return;
+            case "BigDecimal":
+                writeString(out, key.toString());
+                return;
+            case "Date":
+                out.writeLong(((Date) key).getTime());
+                return;
+        }
+        throw new RuntimeException("Index is not supported for type: (" + keyType + ")");
+    }
+
+    public static Object readKey(DataInput in, String keyType)
+            throws IOException
+    {
+        switch (keyType) {
+            case "long":
+            case "Long":
+                return in.readLong();
+            case "Slice":
+            case "String":
+                return readString(in);
+            case "int":
+            case "Integer":
+                return in.readInt();
+            case "float":
+            case "Float":
+                return in.readFloat();
+            case "double":
+            case "Double":
+                return in.readDouble();
+            case "boolean":
+            case "Boolean":
+                return in.readBoolean();
+            case "BigDecimal":
+                return new BigDecimal(readString(in));
+            case "Date":
+                return new Date(in.readLong());
+        }
+        throw new RuntimeException("Index is not supported for type: (" + keyType + ")");
+    }
+
+    /**
+     * Estimated heap size of a key returned by {@link #readKey}
+     */
+    public static long getKeyRetainedSize(Object key)
+    {
+        if (key instanceof String) {
+            return STRING_INSTANCE_SIZE + sizeOfCharArray(((String) key).length());
+        }
+        if (key instanceof BigDecimal) {
+            // unscaled values that don't fit in a long are kept in a BigInteger
+            return BIG_DECIMAL_INSTANCE_SIZE + BIG_INTEGER_INSTANCE_SIZE + sizeOfIntArray(((BigDecimal) key).unscaledValue().bitLength() / Integer.SIZE + 1);
+        }
+        if (key instanceof Date) {
+            return DATE_INSTANCE_SIZE;
+        }
+        return BOXED_INSTANCE_SIZE;
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hetu.core.plugin.heuristicindex.index.bitmap;
+
+import com.google.common.io.CountingOutputStream;
+import org.openjdk.jol.info.ClassLayout;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static io.airlift.slice.SizeOf.sizeOf;
+import static io.hetu.core.plugin.heuristicindex.index.IndexFileUtils.getKeyRetainedSize;
+import static io.hetu.core.plugin.heuristicindex.index.IndexFileUtils.read;
+import static io.hetu.core.plugin.heuristicindex.index.IndexFileUtils.readKey;
+import static io.hetu.core.plugin.heuristicindex.index.IndexFileUtils.toArray;
+import static io.hetu.core.plugin.heuristicindex.index.IndexFileUtils.writeKey;
+
+/**
+ * Immutable on-disk bitmap file used by {@link BitmapIndex}.
+ * <p>
+ * Bitmaps are stored uncompressed in the portable Roaring format, in key order, followed by
+ * a directory holding every key and the location of its bitmap:
+ * <pre>
+ * [MAGIC][key type][bitmap]...[directory][directory offset][MAGIC]
+ * </pre>
+ * Readers memory-map the file and keep only the directory on heap, bitmaps are returned as
+ * {@link ImmutableRoaringBitmap} views over the mapped file so they are never copied onto the heap.
+ * Closing the file only closes its channel. The mapping is released by the garbage collector once
+ * the file and all bitmaps returned by it are unreachable, since lookups may still be reading a
+ * bitmap when the index cache closes the file.
+ */
+public class BitmapFile
+        implements Closeable
+{
+    public static final int MAGIC = 0x48424d31; // "HBM1"
+
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(BitmapFile.class).instanceSize();
+    private static final int FOOTER_SIZE = Long.BYTES + Integer.BYTES;
+
+    private final FileChannel channel;
+    private final ByteBuffer mapped;
+    private final Object[] keys;
+    private final long[] offsets;
+    private final int[] lengths;
+    private final long retainedSizeInBytes;
+
+    private BitmapFile(FileChannel channel, ByteBuffer mapped, Object[] keys, long[] offsets, int[] lengths)
+    {
+        this.channel = channel;
+        this.mapped = mapped;
+        this.keys = keys;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        long keysSize = 0;
+        for (Object key : keys) {
+            keysSize += getKeyRetainedSize(key);
+        }
+        this.retainedSizeInBytes = INSTANCE_SIZE + sizeOf(keys) + keysSize + sizeOf(offsets) + sizeOf(lengths);
+    }
+
+    /**
+     * Writes the entries, which must be sorted by key and have distinct keys
+     */
+    public static void write(OutputStream outputStream, String keyType, Iterator<Map.Entry<Object, RoaringBitmap>> entries)
+            throws IOException
+    {
+        CountingOutputStream counting = new CountingOutputStream(new BufferedOutputStream(outputStream));
+        DataOutputStream out = new DataOutputStream(counting);
+        out.writeInt(MAGIC);
+        out.writeUTF(keyType);
+
+        List<Object> keys = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        while (entries.hasNext()) {
+            Map.Entry<Object, RoaringBitmap> entry = entries.next();
+            long offset = counting.getCount();
+            entry.getValue().serialize(out);
+            keys.add(entry.getKey());
+            offsets.add(offset);
+            lengths.add((int) (counting.getCount() - offset));
+        }
+
+        long directoryOffset = counting.getCount();
+        out.writeInt(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            writeKey(out, keyType, keys.get(i));
+            out.writeLong(offsets.get(i));
+            out.writeInt(lengths.get(i));
+        }
+        out.writeLong(directoryOffset);
+        out.writeInt(MAGIC);
+        out.flush();
+    }
+
+    /**
+     * Opens a file written by {@link #write}. Files up to 2GB are memory-mapped,
+     * bitmaps of larger ones are read one by one from the file channel.
+     */
+    public static BitmapFile open(File file)
+            throws IOException
+    {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            ByteBuffer mapped = fileSize <= Integer.MAX_VALUE ? channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize) : null;
+
+            ByteBuffer footer = read(channel, mapped, fileSize - FOOTER_SIZE, FOOTER_SIZE);
+            long directoryOffset = footer.getLong();
+            if (footer.getInt() != MAGIC) {
+                throw new IOException("Not a Bitmap index file: " + file);
+            }
+
+            DataInputStream header = new DataInputStream(new ByteArrayInputStream(toArray(read(channel, mapped, 0, (int) Math.min(fileSize, Short.MAX_VALUE)))));
+            header.readInt();
+            String keyType = header.readUTF();
+
+            int directoryLength = (int) (fileSize - FOOTER_SIZE - directoryOffset);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(toArray(read(channel, mapped, directoryOffset, directoryLength))));
+            int count = in.readInt();
+            Object[] keys = new Object[count];
+            long[] offsets = new long[count];
+            int[] lengths = new int[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = readKey(in, keyType);
+                offsets[i] = in.readLong();
+                lengths[i] = in.readInt();
+            }
+            return new BitmapFile(channel, mapped, keys, offsets, lengths);
+        }
+        catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int size()
+    {
+        return keys.length;
+    }
+
+    /**
+     * Estimated number of bytes kept on heap for the key directory
+     */
+    public long getRetainedSizeInBytes()
+    {
+        return retainedSizeInBytes;
+    }
+
+    public Object firstKey()
+    {
+        if (keys.length == 0) {
+            throw new NoSuchElementException();
+        }
+        return keys[0];
+    }
+
+    public Object lastKey()
+    {
+        if (keys.length == 0) {
+            throw new NoSuchElementException();
+        }
+        return keys[keys.length - 1];
+    }
+
+    public int compare(Object key1, Object key2)
+    {
+        return ((Comparable) key1).compareTo(key2);
+    }
+
+    public ImmutableRoaringBitmap get(Object key)
+            throws IOException
+    {
+        int position = binarySearch(key);
+        return position >= 0 ? bitmap(position) : null;
+    }
+
+    /**
+     * Bitmaps of all keys in the given range, in key order
+     */
+    public List<ImmutableRoaringBitmap> range(Object from, boolean fromInclusive, Object to, boolean toInclusive)
+            throws IOException
+    {
+        List<ImmutableRoaringBitmap> result = new ArrayList<>();
+        int position = binarySearch(from);
+        if (position < 0) {
+            position = -position - 1;
+        }
+        else if (!fromInclusive) {
+            position++;
+        }
+        for (; position < keys.length; position++) {
+            int toComparison = compare(keys[position], to);
+            if (toComparison > 0 || (toComparison == 0 && !toInclusive)) {
+                break;
+            }
+            result.add(bitmap(position));
+        }
+        return result;
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        channel.close();
+    }
+
+    private int binarySearch(Object key)
+    {
+        int low = 0;
+        int high = keys.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = compare(keys[mid], key);
+            if (comparison < 0) {
+                low = mid + 1;
+            }
+            else if (comparison > 0) {
+                high = mid - 1;
+            }
+            else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private ImmutableRoaringBitmap bitmap(int position)
+            throws IOException
+    {
+        return new ImmutableRoaringBitmap(read(channel, mapped, offsets[position], lengths[position]));
+    }
+}
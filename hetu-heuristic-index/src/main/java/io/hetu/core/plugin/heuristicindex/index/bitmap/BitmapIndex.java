@@ -23,7 +23,6 @@ import io.prestosql.spi.predicate.Marker;
 import io.prestosql.spi.predicate.Range;
 import io.prestosql.spi.predicate.SortedRangeSet;
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang3.ArrayUtils;
 import org.mapdb.BTreeMap;
 import org.mapdb.DB;
 import org.mapdb.DBMaker;
@@ -31,14 +30,13 @@ import org.mapdb.Serializer;
 import org.mapdb.serializer.GroupSerializer;
 import org.mapdb.serializer.SerializerCompressionWrapper;
 import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.buffer.BufferFastAggregation;
 import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 import org.xerial.snappy.SnappyInputStream;
-import org.xerial.snappy.SnappyOutputStream;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -54,8 +52,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static io.hetu.core.heuristicindex.util.IndexServiceUtils.extractType;
@@ -64,7 +62,12 @@ import static io.prestosql.spi.heuristicindex.TypeUtils.getActualValue;
 
 /**
  * <pre>
- * Bitmap index based on Btree and RoaringBitmap.
+ * Bitmap index based on RoaringBitmap.
+ *
+ * Bitmaps are persisted uncompressed in the portable Roaring format (see {@link BitmapFile}),
+ * a loaded index memory-maps the file and evaluates lookups on {@link ImmutableRoaringBitmap}
+ * views of it, so no bitmap is copied onto the heap. Indexes written by older versions as
+ * Snappy compressed MapDB Btrees can still be read.
  *
  * Usage:
  * 1. Create new instance of index: BitmapIndex idx = new BitmapIndex()
@@ -91,6 +94,7 @@ public class BitmapIndex
     /**
      * increasing this value may result in smaller index size because there will be more data to compress per node
      * however, lookups will be slower because the entire node needs to be uncompressed to read values
+     * only applies to indexes in the legacy MapDB format
      */
     protected static final String MAX_VALUES_PER_NODE_KEY = "bitmap.values_per_node";
 
@@ -106,8 +110,8 @@ public class BitmapIndex
     private File file;
     private AtomicBoolean closed = new AtomicBoolean(false);
     private AtomicBoolean updateAllowed = new AtomicBoolean(true);
-    private final Map<Object, RoaringBitmap> cache = new HashMap<>();
-    private long memoryUsage;
+    private TreeMap<Object, RoaringBitmap> bitmaps;
+    private BitmapFile bitmapFile;
 
     @Override
     public Set<CreateIndexMetadata.Level> getSupportedIndexLevels()
@@ -153,21 +157,15 @@ public class BitmapIndex
             return true;
         }
 
-        List<kotlin.Pair> bitmaps = new ArrayList<>(positions.size());
+        bitmaps = new TreeMap<>();
         for (Map.Entry<Object, ArrayList<Integer>> e : positions.entrySet()) {
-            int[] valuePositions = ArrayUtils.toPrimitive(e.getValue().toArray(new Integer[0]));
-            RoaringBitmap rr = RoaringBitmap.bitmapOf(valuePositions);
+            RoaringBitmap rr = new RoaringBitmap();
+            for (Integer position : e.getValue()) {
+                rr.add(position);
+            }
             rr.runOptimize();
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            DataOutputStream dos = new DataOutputStream(bos);
-            rr.serialize(dos);
-            dos.close();
-            Object value = convertToSupportedType(e.getKey());
-
-            bitmaps.add(new kotlin.Pair(value, bos.toByteArray()));
+            bitmaps.put(convertToSupportedType(e.getKey()), rr);
         }
-        Collections.sort(bitmaps, (o1, o2) -> ((Comparable) o1.component1()).compareTo(o2.component1()));
-        getBtreeWriteOptimized(bitmaps.iterator().next().component1(), bitmaps.iterator());
 
         return true;
     }
@@ -178,28 +176,6 @@ public class BitmapIndex
         return lookUp(expression).hasNext();
     }
 
-    /**
-     * The lookup value is used to cache the created RoaringBitmap for
-     * future queries
-     * @param lookupValue
-     * @param byteArray
-     * @return
-     */
-    private RoaringBitmap byteArrayToBitmap(Object lookupValue, Object byteArray)
-    {
-        return cache.computeIfAbsent(lookupValue, k -> {
-            if (byteArray == null) {
-                return null;
-            }
-            byte[] value = (byte[]) byteArray;
-            ByteBuffer bb = ByteBuffer.wrap(value);
-            ImmutableRoaringBitmap bm = new ImmutableRoaringBitmap(bb);
-            RoaringBitmap result = new RoaringBitmap(bm);
-            memoryUsage += result.getSizeInBytes();
-            return result;
-        });
-    }
-
     @Override
     public Iterator<Integer> lookUp(Object expression)
     {
@@ -210,14 +186,13 @@ public class BitmapIndex
             List<Range> ranges = ((SortedRangeSet) (predicate.getValues())).getOrderedRanges();
 
             try {
-                ArrayList<RoaringBitmap> allMatches = new ArrayList<>();
+                List<ImmutableRoaringBitmap> allMatches = new ArrayList<>();
                 for (Range range : ranges) {
                     if (range.isSingleValue()) {
                         // unique value(for example: id=1, id in (1,2) (IN operator gives single exact values one by one)), bound: EXACTLY
                         Object value = getActualValue(predicate.getType(), range.getSingleValue());
-                        Object byteArray = getBtreeReadOptimized().get(value);
-                        if (byteArray != null) {
-                            RoaringBitmap bitmap = byteArrayToBitmap(value, byteArray);
+                        ImmutableRoaringBitmap bitmap = get(value);
+                        if (bitmap != null) {
                             allMatches.add(bitmap);
                         }
                     }
@@ -225,54 +200,49 @@ public class BitmapIndex
                         // <, <=, >=, >, BETWEEN
                         boolean highBoundless = range.getHigh().isUpperUnbounded();
                         boolean lowBoundless = range.getLow().isLowerUnbounded();
-                        ConcurrentNavigableMap<Object, byte[]> concurrentNavigableMap = null;
+                        if (size() == 0) {
+                            continue;
+                        }
 
                         if (highBoundless && !lowBoundless) {
                             // >= or >
                             Object low = getActualValue(predicate.getType(), range.getLow().getValue());
-                            Object high = getBtreeReadOptimized().lastKey();
+                            Object high = lastKey();
                             boolean fromInclusive = range.getLow().getBound().equals(Marker.Bound.EXACTLY);
-                            if (getBtreeReadOptimized().comparator().compare(low, high) > 0) {
+                            if (compare(low, high) > 0) {
                                 Object temp = low;
                                 low = high;
                                 high = temp;
                             }
-                            concurrentNavigableMap = getBtreeReadOptimized().subMap(low, fromInclusive, high, true);
+                            allMatches.addAll(range(low, fromInclusive, high, true));
                         }
                         else if (!highBoundless && lowBoundless) {
                             // <= or <
-                            Object low = getBtreeReadOptimized().firstKey();
+                            Object low = firstKey();
                             Object high = getActualValue(predicate.getType(), range.getHigh().getValue());
                             boolean toInclusive = range.getHigh().getBound().equals(Marker.Bound.EXACTLY);
-                            if (getBtreeReadOptimized().comparator().compare(low, high) > 0) {
+                            if (compare(low, high) > 0) {
                                 Object temp = low;
                                 low = high;
                                 high = temp;
                             }
-                            concurrentNavigableMap = getBtreeReadOptimized().subMap(low, true, high, toInclusive);
+                            allMatches.addAll(range(low, true, high, toInclusive));
                         }
                         else if (!highBoundless && !lowBoundless) {
                             // BETWEEN
                             Object low = getActualValue(predicate.getType(), range.getLow().getValue());
                             Object high = getActualValue(predicate.getType(), range.getHigh().getValue());
-                            if (getBtreeReadOptimized().comparator().compare(low, high) > 0) {
+                            if (compare(low, high) > 0) {
                                 Object temp = low;
                                 low = high;
                                 high = temp;
                             }
-                            concurrentNavigableMap = getBtreeReadOptimized().subMap(low, true, high, true);
+                            allMatches.addAll(range(low, true, high, true));
                         }
                         else {
                             // This case, combined gives a range of boundless for both high and low end
                             throw new UnsupportedOperationException("No use for bitmap index as all values are matched due to no bounds.");
                         }
-
-                        for (Map.Entry<Object, byte[]> e : concurrentNavigableMap.entrySet()) {
-                            if (e != null) {
-                                RoaringBitmap bitmap = byteArrayToBitmap(e.getKey(), e.getValue());
-                                allMatches.add(bitmap);
-                            }
-                        }
                     }
                 }
 
@@ -284,7 +254,8 @@ public class BitmapIndex
                     return allMatches.get(0).iterator();
                 }
 
-                return RoaringBitmap.or(allMatches.iterator()).iterator();
+                // the union is computed directly on the mapped bitmaps, only the result is materialized
+                return BufferFastAggregation.or(allMatches.iterator()).iterator();
             }
             catch (Exception e) {
                 throw new UnsupportedOperationException("Unsupported expression type.", e);
@@ -300,17 +271,8 @@ public class BitmapIndex
     {
         checkClosed();
 
-        // close db so all data is flushed to file
-        getDbWriteOptimized().commit();
-        getDbWriteOptimized().close();
-
-        try (FileInputStream in = new FileInputStream(getFile());
-                SnappyOutputStream sout = new SnappyOutputStream(out)) {
-            IOUtils.copy(in, sout);
-        }
-
-        // set db to null; next operation will open the db up again
-        db = null;
+        String keyType = bitmaps == null || bitmaps.isEmpty() ? "" : extractType(bitmaps.firstKey());
+        BitmapFile.write(out, keyType, bitmaps == null ? Collections.emptyIterator() : bitmaps.entrySet().iterator());
     }
 
     @Override
@@ -318,9 +280,17 @@ public class BitmapIndex
     {
         checkClosed();
 
-        try (FileOutputStream out = new FileOutputStream(getFile());
-                SnappyInputStream sin = new SnappyInputStream(in)) {
-            IOUtils.copy(sin, out);
+        BufferedInputStream bufferedIn = new BufferedInputStream(in);
+        bufferedIn.mark(Integer.BYTES);
+        boolean legacy = new DataInputStream(bufferedIn).readInt() != BitmapFile.MAGIC;
+        bufferedIn.reset();
+
+        try (FileOutputStream out = new FileOutputStream(getFile())) {
+            // indexes written by older versions are Snappy compressed MapDB files
+            IOUtils.copy(legacy ? new SnappyInputStream(bufferedIn) : bufferedIn, out);
+        }
+        if (!legacy) {
+            bitmapFile = BitmapFile.open(getFile());
         }
 
         // updating an existing bitmap is not allowed
@@ -344,7 +314,8 @@ public class BitmapIndex
     @Override
     public long getMemoryUsage()
     {
-        return memoryUsage;
+        // bitmaps are read from the mapped file, only the key directory is kept on heap
+        return bitmapFile == null ? 0 : bitmapFile.getRetainedSizeInBytes();
     }
 
     @Override
@@ -361,6 +332,9 @@ public class BitmapIndex
     @Override
     public void close() throws IOException
     {
+        if (bitmapFile != null) {
+            bitmapFile.close();
+        }
         if (db != null) {
             db.close();
         }
@@ -369,20 +343,6 @@ public class BitmapIndex
         closed.set(true);
     }
 
-    private DB getDbWriteOptimized() throws IOException
-    {
-        if (db == null) {
-            db = DBMaker
-                    .fileDB(getFile())
-                    .fileMmapEnableIfSupported()
-                    .fileMmapPreclearDisable()
-                    .make();
-            db.getStore().fileLoad();
-        }
-
-        return db;
-    }
-
     private DB getDbReadOptimized() throws IOException
     {
         if (db == null) {
@@ -397,27 +357,6 @@ public class BitmapIndex
         return db;
     }
 
-    private BTreeMap getBtreeWriteOptimized(Object key, Iterator<kotlin.Pair> entries)
-            throws IOException
-    {
-        if (btree == null) {
-            // store the btree's key serializer type in the db, this will be required during reading
-            // because when SerializerCompressionWrapper is used, the type must be explicitly known
-            String serializerName = extractType(key);
-            GroupSerializer keySerializer = getSerializer(serializerName);
-            getDbWriteOptimized().atomicString(BTREE_MAP_KEY_TYPE, serializerName).create();
-
-            btree = getDbWriteOptimized().treeMap(BTREE_MAP_ID)
-                    .valuesOutsideNodesEnable()
-                    .maxNodeSize(getMaxValuesPerNode())
-                    .keySerializer(new SerializerCompressionWrapper(keySerializer))
-                    .valueSerializer(Serializer.BYTE_ARRAY)
-                    .createFrom(entries);
-        }
-
-        return btree;
-    }
-
     private BTreeMap getBtreeReadOptimized() throws IOException
     {
         if (btree == null) {
@@ -441,6 +380,54 @@ public class BitmapIndex
         return btree;
     }
 
+    private ImmutableRoaringBitmap get(Object key)
+            throws IOException
+    {
+        if (bitmapFile != null) {
+            return bitmapFile.get(key);
+        }
+        byte[] bytes = (byte[]) getBtreeReadOptimized().get(key);
+        return bytes == null ? null : new ImmutableRoaringBitmap(ByteBuffer.wrap(bytes));
+    }
+
+    private List<ImmutableRoaringBitmap> range(Object from, boolean fromInclusive, Object to, boolean toInclusive)
+            throws IOException
+    {
+        if (bitmapFile != null) {
+            return bitmapFile.range(from, fromInclusive, to, toInclusive);
+        }
+        List<ImmutableRoaringBitmap> result = new ArrayList<>();
+        Map<Object, byte[]> subMap = getBtreeReadOptimized().subMap(from, fromInclusive, to, toInclusive);
+        for (byte[] bytes : subMap.values()) {
+            result.add(new ImmutableRoaringBitmap(ByteBuffer.wrap(bytes)));
+        }
+        return result;
+    }
+
+    private int size()
+            throws IOException
+    {
+        return bitmapFile != null ? bitmapFile.size() : getBtreeReadOptimized().size();
+    }
+
+    private Object firstKey()
+            throws IOException
+    {
+        return bitmapFile != null ? bitmapFile.firstKey() : getBtreeReadOptimized().firstKey();
+    }
+
+    private Object lastKey()
+            throws IOException
+    {
+        return bitmapFile != null ? bitmapFile.lastKey() : getBtreeReadOptimized().lastKey();
+    }
+
+    private int compare(Object key1, Object key2)
+            throws IOException
+    {
+        return bitmapFile != null ? bitmapFile.compare(key1, key2) : getBtreeReadOptimized().comparator().compare(key1, key2);
+    }
+
     private File getFile() throws IOException
     {
         if (file == null) {
@@ -0,0 +1,302 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hetu.core.plugin.heuristicindex.index.btree;
+
+import com.google.common.io.CountingOutputStream;
+import org.xerial.snappy.Snappy;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static io.hetu.core.plugin.heuristicindex.index.IndexFileUtils.read;
+import static io.hetu.core.plugin.heuristicindex.index.IndexFileUtils.readKey;
+import static io.hetu.core.plugin.heuristicindex.index.IndexFileUtils.readString;
+import static io.hetu.core.plugin.heuristicindex.index.IndexFileUtils.toArray;
+import static io.hetu.core.plugin.heuristicindex.index.IndexFileUtils.writeKey;
+import static io.hetu.core.plugin.heuristicindex.index.IndexFileUtils.writeString;
+
+/**
+ * Immutable on-disk B+tree used by {@link BTreeIndex}.
+ * <p>
+ * Entries are written in key order in a single pass and grouped into leaf blocks of
+ * {@link #ENTRIES_PER_BLOCK} entries, each compressed with Snappy on its own. The internal
+ * level, holding the first key and location of every leaf block, and the properties follow the leaves:
+ * <pre>
+ * [MAGIC][key type][leaf block]...[internal level][properties][internal level offset][MAGIC]
+ * </pre>
+ * Readers memory-map the file, keep only the internal level on heap and decompress
+ * just the leaf blocks a lookup touches.
+ */
+public class BTreeFile
+        implements Closeable
+{
+    public static final int MAGIC = 0x48425431; // "HBT1"
+
+    private static final int ENTRIES_PER_BLOCK = 1024;
+    private static final int FOOTER_SIZE = Long.BYTES + Integer.BYTES;
+
+    private final FileChannel channel;
+    private final ByteBuffer mapped;
+    private final String keyType;
+    private final Object[] blockFirstKeys;
+    private final long[] blockOffsets;
+    private final int[] blockLengths;
+    private final long size;
+    private final Map<String, String> properties;
+
+    private BTreeFile(FileChannel channel, ByteBuffer mapped, String keyType, Object[] blockFirstKeys, long[] blockOffsets, int[] blockLengths, long size, Map<String, String> properties)
+    {
+        this.channel = channel;
+        this.mapped = mapped;
+        this.keyType = keyType;
+        this.blockFirstKeys = blockFirstKeys;
+        this.blockOffsets = blockOffsets;
+        this.blockLengths = blockLengths;
+        this.size = size;
+        this.properties = properties;
+    }
+
+    /**
+     * Write the entries, which must be sorted by key, as a B+tree file
+     */
+    public static void write(OutputStream outputStream, String keyType, Iterator<Map.Entry<Object, String>> entries, Map<String, String> properties)
+            throws IOException
+    {
+        CountingOutputStream counting = new CountingOutputStream(new BufferedOutputStream(outputStream));
+        DataOutputStream out = new DataOutputStream(counting);
+        out.writeInt(MAGIC);
+        out.writeUTF(keyType);
+
+        List<Object> firstKeys = new ArrayList<>();
+        List<long[]> locations = new ArrayList<>();
+        ByteArrayOutputStream blockBuffer = new ByteArrayOutputStream();
+        DataOutputStream block = new DataOutputStream(blockBuffer);
+        int blockEntries = 0;
+        while (entries.hasNext()) {
+            Map.Entry<Object, String> entry = entries.next();
+            if (blockEntries == 0) {
+                firstKeys.add(entry.getKey());
+            }
+            writeKey(block, keyType, entry.getKey());
+            writeString(block, entry.getValue());
+            blockEntries++;
+            if (blockEntries == ENTRIES_PER_BLOCK || !entries.hasNext()) {
+                block.flush();
+                byte[] compressed = Snappy.compress(blockBuffer.toByteArray());
+                locations.add(new long[] {counting.getCount(), compressed.length, blockEntries});
+                out.write(compressed);
+                blockBuffer.reset();
+                blockEntries = 0;
+            }
+        }
+
+        long internalLevelOffset = counting.getCount();
+        out.writeInt(firstKeys.size());
+        for (int i = 0; i < firstKeys.size(); i++) {
+            writeKey(out, keyType, firstKeys.get(i));
+            out.writeLong(locations.get(i)[0]);
+            out.writeInt((int) locations.get(i)[1]);
+            out.writeInt((int) locations.get(i)[2]);
+        }
+        out.writeInt(properties.size());
+        for (Map.Entry<String, String> property : properties.entrySet()) {
+            writeString(out, property.getKey());
+            writeString(out, property.getValue());
+        }
+        out.writeLong(internalLevelOffset);
+        out.writeInt(MAGIC);
+        out.flush();
+    }
+
+    /**
+     * Open a file written by {@link #write}. Files that fit in a single mapping are memory-mapped,
+     * larger ones are read block by block from the file channel.
+     */
+    public static BTreeFile open(File file)
+            throws IOException
+    {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            ByteBuffer mapped = fileSize <= Integer.MAX_VALUE ? channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize) : null;
+
+            ByteBuffer footer = read(channel, mapped, fileSize - FOOTER_SIZE, FOOTER_SIZE);
+            long internalLevelOffset = footer.getLong();
+            if (footer.getInt() != MAGIC) {
+                throw new IOException("Not a BTree index file: " + file);
+            }
+
+            DataInputStream header = new DataInputStream(new ByteArrayInputStream(toArray(read(channel, mapped, 0, (int) Math.min(fileSize, Short.MAX_VALUE)))));
+            header.readInt();
+            String keyType = header.readUTF();
+
+            ByteBuffer tail = read(channel, mapped, internalLevelOffset, (int) (fileSize - FOOTER_SIZE - internalLevelOffset));
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(toArray(tail)));
+            int blockCount = in.readInt();
+            Object[] blockFirstKeys = new Object[blockCount];
+            long[] blockOffsets = new long[blockCount];
+            int[] blockLengths = new int[blockCount];
+            long size = 0;
+            for (int i = 0; i < blockCount; i++) {
+                blockFirstKeys[i] = readKey(in, keyType);
+                blockOffsets[i] = in.readLong();
+                blockLengths[i] = in.readInt();
+                size += in.readInt();
+            }
+            int propertyCount = in.readInt();
+            Map<String, String> properties = new HashMap<>(propertyCount);
+            for (int i = 0; i < propertyCount; i++) {
+                properties.put(readString(in), readString(in));
+            }
+            return new BTreeFile(channel, mapped, keyType, blockFirstKeys, blockOffsets, blockLengths, size, properties);
+        }
+        catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Map<String, String> getProperties()
+    {
+        return Collections.unmodifiableMap(properties);
+    }
+
+    public long size()
+    {
+        return size;
+    }
+
+    public Object firstKey()
+    {
+        if (blockFirstKeys.length == 0) {
+            throw new NoSuchElementException();
+        }
+        return blockFirstKeys[0];
+    }
+
+    public Object lastKey()
+            throws IOException
+    {
+        if (blockFirstKeys.length == 0) {
+            throw new NoSuchElementException();
+        }
+        LeafBlock block = readBlock(blockFirstKeys.length - 1);
+        return block.keys.get(block.keys.size() - 1);
+    }
+
+    public int compare(Object key1, Object key2)
+    {
+        return ((Comparable) key1).compareTo(key2);
+    }
+
+    public String get(Object key)
+            throws IOException
+    {
+        int blockIndex = floorBlock(key);
+        if (blockIndex < 0) {
+            return null;
+        }
+        LeafBlock block = readBlock(blockIndex);
+        int position = Collections.binarySearch(block.keys, key, this::compare);
+        return position >= 0 ? block.values.get(position) : null;
+    }
+
+    /**
+     * Values of all keys in the given range, in key order
+     */
+    public List<String> rangeValues(Object from, boolean fromInclusive, Object to, boolean toInclusive)
+            throws IOException
+    {
+        List<String> result = new ArrayList<>();
+        for (int blockIndex = Math.max(floorBlock(from), 0); blockIndex < blockFirstKeys.length; blockIndex++) {
+            int firstKeyComparison = compare(blockFirstKeys[blockIndex], to);
+            if (firstKeyComparison > 0 || (firstKeyComparison == 0 && !toInclusive)) {
+                break;
+            }
+            LeafBlock block = readBlock(blockIndex);
+            for (int i = 0; i < block.keys.size(); i++) {
+                int fromComparison = compare(block.keys.get(i), from);
+                int toComparison = compare(block.keys.get(i), to);
+                if ((fromComparison > 0 || (fromComparison == 0 && fromInclusive)) && (toComparison < 0 || (toComparison == 0 && toInclusive))) {
+                    result.add(block.values.get(i));
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        // the mapping is released by the garbage collector, lookups may still be reading it
+        channel.close();
+    }
+
+    /**
+     * Index of the last block whose first key is not greater than the given key, -1 if there is none
+     */
+    private int floorBlock(Object key)
+    {
+        int low = 0;
+        int high = blockFirstKeys.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (compare(blockFirstKeys[mid], key) <= 0) {
+                low = mid + 1;
+            }
+            else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    private LeafBlock readBlock(int blockIndex)
+            throws IOException
+    {
+        byte[] uncompressed = Snappy.uncompress(toArray(read(channel, mapped, blockOffsets[blockIndex], blockLengths[blockIndex])));
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(uncompressed));
+        LeafBlock block = new LeafBlock();
+        while (in.available() > 0) {
+            block.keys.add(readKey(in, keyType));
+            block.values.add(readString(in));
+        }
+        return block;
+    }
+
+    private static class LeafBlock
+    {
+        private final List<Object> keys = new ArrayList<>();
+        private final List<String> values = new ArrayList<>();
+    }
+}
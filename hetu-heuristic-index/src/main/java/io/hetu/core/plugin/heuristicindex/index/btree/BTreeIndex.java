@@ -36,10 +36,10 @@ import org.mapdb.DBException;
 import org.mapdb.DBMaker;
 import org.mapdb.Serializer;
 import org.xerial.snappy.SnappyInputStream;
-import org.xerial.snappy.SnappyOutputStream;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -49,6 +49,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -56,9 +57,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.TreeMap;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 import static io.hetu.core.heuristicindex.util.IndexServiceUtils.getSerializer;
 import static io.prestosql.spi.heuristicindex.TypeUtils.extractValueFromRowExpression;
@@ -77,15 +77,17 @@ public class BTreeIndex
     private static final double TERMINATE_LOOKUP_WEIGHT_THRESHOLD = 0.1;
 
     protected Map<String, String> symbolTable;
-    protected BTreeMap<Object, String> dataMap;
-    protected AtomicBoolean isDBCreated = new AtomicBoolean(false);
-    protected BTreeMap<String, String> properties;
-    protected DB db;
+    protected Map<String, String> properties = new HashMap<>();
     protected TempFolder dataDir;
     protected File dataFile;
-    protected Set<kotlin.Pair<? extends Comparable<?>, String>> source;
+    protected TreeMap<Object, String> source;
     protected String keyType;
     protected String valueType;
+    // immutable B+tree file read on workers
+    protected BTreeFile bTreeFile;
+    // indexes written before the B+tree file format are still read through MapDB
+    protected BTreeMap<Object, String> dataMap;
+    protected DB db;
 
     public BTreeIndex()
     {
@@ -101,66 +103,36 @@ public class BTreeIndex
         }
     }
 
-    private synchronized void setupDB()
+    private synchronized void setupLegacyDB()
             throws IOException
     {
-        if (!isDBCreated.get()) {
-            try {
-                db = DBMaker
-                        .fileDB(dataFile)
-                        .fileMmapEnableIfSupported()
-                        .cleanerHackEnable()
-                        .make();
-                properties = db.treeMap("propertiesMap")
-                        .keySerializer(Serializer.STRING)
-                        .valueSerializer(Serializer.STRING)
-                        .createOrOpen();
-                if (properties.containsKey(KEY_TYPE)) {
-                    createDBMap(properties.get(KEY_TYPE), properties.get(VALUE_TYPE));
-                }
-                isDBCreated.compareAndSet(false, true);
-            }
-            catch (DBException dbe) {
-                // rethrow IOException from DB
-                if (dbe.getCause() instanceof IOException) {
-                    throw (IOException) dbe.getCause();
-                }
-                else {
-                    throw new IOException("Error setting up local mapdb: ", dbe);
-                }
+        try {
+            db = DBMaker
+                    .fileDB(dataFile)
+                    .fileMmapEnableIfSupported()
+                    .cleanerHackEnable()
+                    .readOnly()
+                    .make();
+            BTreeMap<String, String> dbProperties = db.treeMap("propertiesMap")
+                    .keySerializer(Serializer.STRING)
+                    .valueSerializer(Serializer.STRING)
+                    .open();
+            properties = new HashMap<>(dbProperties);
+            if (properties.containsKey(KEY_TYPE)) {
+                dataMap = db.treeMap("dataMap")
+                        .keySerializer(getSerializer(properties.get(KEY_TYPE)))
+                        .valueSerializer(new SnappyCompressionSerializer(getSerializer(properties.get(VALUE_TYPE))))
+                        .open();
             }
-            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-                try {
-                    close();
-                }
-                catch (IOException e) {
-                    // Do nothing
-                }
-            }));
-        }
-    }
-
-    private synchronized void createBatchWriteDBMap(String keyType, String valueType)
-    {
-        if (dataMap == null) {
-            dataMap = db.treeMap("dataMap")
-                    .keySerializer(getSerializer(keyType))
-                    .valueSerializer(new SnappyCompressionSerializer(getSerializer(valueType)))
-                    .createFrom(source.iterator());
-            properties.put(KEY_TYPE, keyType);
-            properties.put(VALUE_TYPE, valueType);
         }
-    }
-
-    private synchronized void createDBMap(String keyType, String valueType)
-    {
-        if (dataMap == null) {
-            dataMap = db.treeMap("dataMap")
-                    .keySerializer(getSerializer(keyType))
-                    .valueSerializer(new SnappyCompressionSerializer(getSerializer(valueType)))
-                    .open();
-            properties.put(KEY_TYPE, keyType);
-            properties.put(VALUE_TYPE, valueType);
+        catch (DBException dbe) {
+            // rethrow IOException from DB
+            if (dbe.getCause() instanceof IOException) {
+                throw (IOException) dbe.getCause();
+            }
+            else {
+                throw new IOException("Error setting up local mapdb: ", dbe);
+            }
         }
     }
 
@@ -184,24 +156,22 @@ public class BTreeIndex
 
     @Override
     public void addKeyValues(List<Pair<String, List<Pair<Comparable<? extends Comparable<?>>, String>>>> input)
-            throws IOException
     {
-        if (!isDBCreated.get()) {
-            setupDB();
-        }
         if (source == null) {
             keyType = IndexServiceUtils.extractType(input.get(0).getSecond().get(0).getFirst());
             valueType = IndexServiceUtils.extractType(input.get(0).getSecond().get(0).getSecond());
-            source = new TreeSet<>((o1, o2) -> {
+            source = new TreeMap<>((o1, o2) -> {
                 if (input.get(0).getSecond().get(0).getFirst() instanceof Comparable) {
-                    return ((Comparable) o1.getFirst()).compareTo(o2.getFirst());
+                    return ((Comparable) o1).compareTo(o2);
                 }
                 throw new RuntimeException("Type is not supported");
             });
+            properties.put(KEY_TYPE, keyType);
+            properties.put(VALUE_TYPE, valueType);
         }
         if (input.size() == 1) {
             for (Pair<Comparable<? extends Comparable<?>>, String> pair : input.get(0).getSecond()) {
-                source.add(new kotlin.Pair<Comparable<? extends Comparable<?>>, String>(pair.getFirst(), pair.getSecond()));
+                source.putIfAbsent(pair.getFirst(), pair.getSecond());
             }
         }
         else {
@@ -261,21 +231,22 @@ public class BTreeIndex
                 OperatorType operator = operatorOptional.get();
                 switch (operator) {
                     case EQUAL:
-                        if (dataMap.containsKey(key)) {
-                            lookUpResults = Collections.singleton(dataMap.get(key));
+                        String value = get(key);
+                        if (value != null) {
+                            lookUpResults = Collections.singleton(value);
                         }
                         break;
                     case LESS_THAN:
-                        lookUpResults = rangeLookUp(dataMap.firstKey(), true, key, false);
+                        lookUpResults = rangeLookUp(firstKey(), true, key, false);
                         break;
                     case LESS_THAN_OR_EQUAL:
-                        lookUpResults = rangeLookUp(dataMap.firstKey(), true, key, true);
+                        lookUpResults = rangeLookUp(firstKey(), true, key, true);
                         break;
                     case GREATER_THAN:
-                        lookUpResults = rangeLookUp(key, false, dataMap.lastKey(), true);
+                        lookUpResults = rangeLookUp(key, false, lastKey(), true);
                         break;
                     case GREATER_THAN_OR_EQUAL:
-                        lookUpResults = rangeLookUp(key, true, dataMap.lastKey(), true);
+                        lookUpResults = rangeLookUp(key, true, lastKey(), true);
                         break;
                     default:
                         throw new UnsupportedOperationException("Expression not supported");
@@ -293,9 +264,9 @@ public class BTreeIndex
                 case IN:
                     lookUpResults = new ArrayList<>();
                     for (RowExpression exp : specialForm.getArguments().subList(1, specialForm.getArguments().size())) {
-                        Object key = extractValueFromRowExpression(exp);
-                        if (dataMap.containsKey(key)) {
-                            lookUpResults.add(dataMap.get(key));
+                        String value = get(extractValueFromRowExpression(exp));
+                        if (value != null) {
+                            lookUpResults.add(value);
                         }
                     }
                     break;
@@ -326,30 +297,33 @@ public class BTreeIndex
     public void serialize(OutputStream out)
             throws IOException
     {
-        createBatchWriteDBMap(keyType, valueType);
-
-        if (!db.isClosed()) {
-            db.commit();
-            dataMap.close();
-            db.close();
-        }
-
-        try (InputStream inputStream = new FileInputStream(dataFile); SnappyOutputStream sout = new SnappyOutputStream(out)) {
-            IOUtils.copy(inputStream, sout);
+        if (source == null) {
+            throw new IllegalStateException("No values to serialize");
         }
+        BTreeFile.write(out, keyType, source.entrySet().iterator(), properties);
     }
 
     @Override
     public Index deserialize(InputStream in)
             throws IOException
     {
+        BufferedInputStream bufferedIn = new BufferedInputStream(in);
+        bufferedIn.mark(Integer.BYTES);
+        boolean legacy = new DataInputStream(bufferedIn).readInt() != BTreeFile.MAGIC;
+        bufferedIn.reset();
+
         try (OutputStream out = new FileOutputStream(dataFile)) {
-            IOUtils.copy(new SnappyInputStream(in), out);
+            IOUtils.copy(legacy ? new SnappyInputStream(bufferedIn) : bufferedIn, out);
         }
-        setupDB();
-        Properties properties = getProperties();
-        if (properties.getProperty(PartitionIndexWriter.SYMBOL_TABLE_KEY_NAME) != null) {
-            this.symbolTable = SerializationUtils.deserializeMap(properties.getProperty(PartitionIndexWriter.SYMBOL_TABLE_KEY_NAME), s -> s, s -> s);
+        if (legacy) {
+            setupLegacyDB();
+        }
+        else {
+            bTreeFile = BTreeFile.open(dataFile);
+            properties = new HashMap<>(bTreeFile.getProperties());
+        }
+        if (properties.get(PartitionIndexWriter.SYMBOL_TABLE_KEY_NAME) != null) {
+            this.symbolTable = SerializationUtils.deserializeMap(properties.get(PartitionIndexWriter.SYMBOL_TABLE_KEY_NAME), s -> s, s -> s);
         }
         return this;
     }
@@ -364,6 +338,9 @@ public class BTreeIndex
     public void close()
             throws IOException
     {
+        if (bTreeFile != null) {
+            bTreeFile.close();
+        }
         if (db != null) {
             db.close();
         }
@@ -371,16 +348,64 @@ public class BTreeIndex
         dataDir.close();
     }
 
+    private String get(Object key)
+    {
+        if (bTreeFile == null) {
+            return dataMap.get(key);
+        }
+        try {
+            return bTreeFile.get(key);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Object firstKey()
+    {
+        return bTreeFile == null ? dataMap.firstKey() : bTreeFile.firstKey();
+    }
+
+    private Object lastKey()
+    {
+        if (bTreeFile == null) {
+            return dataMap.lastKey();
+        }
+        try {
+            return bTreeFile.lastKey();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private Collection<String> rangeLookUp(Object from, boolean fromInclusive, Object to, boolean toInclusive)
             throws IndexLookUpException
     {
-        if (dataMap.getComparator().compare(from, to) > 0) {
-            return Collections.emptyList();
+        Collection<String> values;
+        long size;
+        if (bTreeFile == null) {
+            if (dataMap.getComparator().compare(from, to) > 0) {
+                return Collections.emptyList();
+            }
+            values = dataMap.subMap(from, fromInclusive, to, toInclusive).values();
+            size = dataMap.size();
+        }
+        else {
+            if (bTreeFile.compare(from, to) > 0) {
+                return Collections.emptyList();
+            }
+            try {
+                values = bTreeFile.rangeValues(from, fromInclusive, to, toInclusive);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            size = bTreeFile.size();
         }
 
-        Collection<String> values = dataMap.subMap(from, fromInclusive, to, toInclusive).values();
         if (values.size() > TERMINATE_LOOKUP_SIZE_THRESHOLD &&
-                (double) values.size() / dataMap.size() >= TERMINATE_LOOKUP_WEIGHT_THRESHOLD) {
+                (double) values.size() / size >= TERMINATE_LOOKUP_WEIGHT_THRESHOLD) {
             throw new IndexLookUpException("Look-up returned too many matching values. Filtering will not be effective. Skipping.");
         }
 
@@ -40,12 +40,14 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static io.airlift.slice.Slices.utf8Slice;
 import static io.prestosql.spi.predicate.Range.equal;
 import static io.prestosql.spi.type.VarcharType.createUnboundedVarcharType;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestBitmapIndex
 {
@@ -116,6 +118,35 @@ public class TestBitmapIndex
         }
     }
 
+    @Test
+    public void testMultipleValues() throws IOException
+    {
+        try (TempFolder folder = new TempFolder();
+                BitmapIndex bitmapIndexWrite = new BitmapIndex();
+                BitmapIndex bitmapIndexRead = new BitmapIndex()) {
+            folder.create();
+            File file = folder.newFile();
+
+            String columnName = "column";
+            List<Object> columnValues = ImmutableList.of(3, 1024, 12345, 3, 2048, 999);
+
+            bitmapIndexWrite.setExpectedNumOfEntries(columnValues.size());
+            bitmapIndexWrite.addValues(Collections.singletonList(new Pair<>(columnName, columnValues)));
+
+            try (FileOutputStream os = new FileOutputStream(file); FileInputStream is = new FileInputStream(file)) {
+                bitmapIndexWrite.serialize(os);
+                bitmapIndexRead.deserialize(is);
+            }
+
+            assertEquals(iteratorToList(bitmapIndexRead.lookUp(
+                    Domain.create(ValueSet.ofRanges(equal(IntegerType.INTEGER, 3L), equal(IntegerType.INTEGER, 2048L), equal(IntegerType.INTEGER, 0L)), false))),
+                    ImmutableList.of(0, 3, 4));
+            assertEquals(iteratorToList(bitmapIndexRead.lookUp(
+                    Domain.create(ValueSet.ofRanges(Range.lessThan(IntegerType.INTEGER, 1024L), Range.greaterThan(IntegerType.INTEGER, 2048L)), false))),
+                    ImmutableList.of(0, 2, 3, 5));
+        }
+    }
+
     @Test
     public void testLargeEntries() throws IOException
     {
@@ -234,6 +265,59 @@ public class TestBitmapIndex
         }
     }
 
+    @Test
+    public void testMemoryUsage() throws IOException
+    {
+        try (TempFolder folder = new TempFolder()) {
+            folder.create();
+            File smallFile = folder.newFile();
+            File largeFile = folder.newFile();
+
+            long smallUsage;
+            long largeUsage;
+            try (BitmapIndex smallIndex = writeAndRead(smallFile, ImmutableList.of(1, 2));
+                    BitmapIndex largeIndex = writeAndRead(largeFile, IntStream.range(0, 100_000).mapToObj(i -> (Object) (i % 2 + 1)).collect(Collectors.toList()))) {
+                smallUsage = smallIndex.getMemoryUsage();
+                largeUsage = largeIndex.getMemoryUsage();
+            }
+
+            // bitmaps are mapped from the file, only the key directory is kept on heap
+            assertTrue(largeFile.length() > smallFile.length());
+            assertTrue(smallUsage > 0);
+            assertEquals(largeUsage, smallUsage);
+        }
+    }
+
+    @Test
+    public void testLookUpResultAfterClose() throws IOException
+    {
+        try (TempFolder folder = new TempFolder()) {
+            folder.create();
+            File file = folder.newFile();
+
+            Iterator<Integer> result;
+            try (BitmapIndex bitmapIndex = writeAndRead(file, ImmutableList.of(3, 1024, 3))) {
+                result = bitmapIndex.lookUp(Domain.create(ValueSet.ofRanges(equal(IntegerType.INTEGER, 3L)), false));
+            }
+            // the mapping stays valid as long as the result refers to it
+            assertEquals(iteratorToList(result), ImmutableList.of(0, 2));
+        }
+    }
+
+    private static BitmapIndex writeAndRead(File file, List<Object> columnValues) throws IOException
+    {
+        BitmapIndex bitmapIndexRead = new BitmapIndex();
+        try (BitmapIndex bitmapIndexWrite = new BitmapIndex()) {
+            bitmapIndexWrite.setExpectedNumOfEntries(columnValues.size());
+            bitmapIndexWrite.addValues(Collections.singletonList(new Pair<>("column", columnValues)));
+            try (FileOutputStream os = new FileOutputStream(file); FileInputStream is = new FileInputStream(file)) {
+                bitmapIndexWrite.serialize(os);
+                bitmapIndexRead.deserialize(is);
+            }
+        }
+        return bitmapIndexRead;
+    }
+
     private List<Integer> iteratorToList(Iterator<Integer> iterator)
     {
         List<Integer> list = new ArrayList<>();
@@ -337,6 +337,44 @@ public class TestBTreeIndex
         index.close();
     }
 
+    @Test
+    public void testMultipleBlocks()
+            throws IOException, IndexLookUpException
+    {
+        BTreeIndex index = new BTreeIndex();
+        List<Pair> pairs = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            pairs.add(new Pair(String.format("key%05d", i), "value" + i));
+        }
+        index.addKeyValues(Collections.singletonList(new Pair("dummyCol", pairs)));
+        File file = getFile();
+        index.serialize(new FileOutputStream(file));
+        BTreeIndex readIndex = new BTreeIndex();
+        readIndex.deserialize(new FileInputStream(file));
+
+        for (int i : new int[] {0, 1023, 1024, 2500, 4999}) {
+            Iterator<String> result = readIndex.lookUp(simplePredicate(OperatorType.EQUAL, "dummyCol", VARCHAR, String.format("key%05d", i)));
+            assertEquals(result.next(), "value" + i);
+            assertFalse(result.hasNext());
+        }
+        assertFalse(readIndex.matches(simplePredicate(OperatorType.EQUAL, "dummyCol", VARCHAR, "key10000")));
+
+        // range crossing a leaf block boundary
+        RowExpression betweenPredicate = new SpecialForm(SpecialForm.Form.BETWEEN, BOOLEAN,
+                new VariableReferenceExpression("dummyCol", VARCHAR),
+                new ConstantExpression("key01020", VARCHAR),
+                new ConstantExpression("key01030", VARCHAR));
+        Iterator<String> result = readIndex.lookUp(betweenPredicate);
+        int count = 0;
+        while (result.hasNext()) {
+            result.next();
+            count++;
+        }
+        assertEquals(count, 11);
+        index.close();
+        readIndex.close();
+    }
+
     private File getFile()
             throws IOException
     {
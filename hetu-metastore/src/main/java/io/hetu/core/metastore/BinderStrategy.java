@@ -31,7 +31,7 @@ public class BinderStrategy
         switch (type) {
             case GLOBAL:
                 binder.bind(StateStore.class).toInstance(stateStore);
-                binder.bind(HetuMetastore.class).to(HetuMetaStoreGlobalCache.class);
+                binder.bind(HetuMetastore.class).to(HetuMetaStoreGlobalCache.class).in(Scopes.SINGLETON);
                 newExporter(binder).export(HetuMetastore.class).as(generator -> generatedNameOf(HetuMetaStoreGlobalCache.class));
                 break;
             case LOCAL:
@@ -39,7 +39,7 @@ public class BinderStrategy
                 newExporter(binder).export(HetuMetastore.class).as(generator -> generatedNameOf(HetuMetastoreLocalCache.class));
                 break;
             default:
-                binder.bind(HetuMetastore.class).to(HetuMetastoreNone.class);
+                binder.bind(HetuMetastore.class).to(HetuMetastoreNone.class).in(Scopes.SINGLETON);
                 newExporter(binder).export(HetuMetastore.class).as(generator -> generatedNameOf(HetuMetastoreNone.class));
         }
     }
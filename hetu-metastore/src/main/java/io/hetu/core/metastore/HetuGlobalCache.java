@@ -14,40 +14,85 @@
  */
 package io.hetu.core.metastore;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.prestosql.spi.metastore.HetuCache;
 import io.prestosql.spi.statestore.StateMap;
 import io.prestosql.spi.statestore.StateStore;
+import io.prestosql.spi.statestore.listener.EntryEvent;
+import io.prestosql.spi.statestore.listener.EntryRemovedListener;
+import io.prestosql.spi.statestore.listener.EntryUpdatedListener;
+import org.weakref.jmx.Managed;
 
+import java.time.Duration;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static io.prestosql.spi.statestore.StateCollection.Type.MAP;
 
+/**
+ * Metastore cache shared by the cluster through a map of the state store. Values read from the map
+ * are kept in a bounded near-cache, so that repeated lookups do not go over the network. Entries
+ * of the near-cache are dropped when the entry of the map is updated or removed on any node, and
+ * expire after the near-cache ttl in case an event is missed. A value read from the map is dropped
+ * again right after it's put into the near-cache if an invalidation was handled during the read,
+ * since the value may be older than that invalidation.
+ */
 public class HetuGlobalCache<K, V>
         implements HetuCache<K, V>
 {
-    private StateMap<K, V> distributedCache;
+    private final StateMap<K, V> distributedCache;
+    private final Cache<K, V> nearCache;
+    private final NearCacheInvalidator invalidator = new NearCacheInvalidator();
+    // Incremented before every invalidation of the near-cache
+    private final AtomicLong invalidations = new AtomicLong();
+    private final boolean nearCacheEnabled;
 
-    public HetuGlobalCache(StateStore stateStore, String dcName)
+    public HetuGlobalCache(StateStore stateStore, String dcName, HetuMetastoreCacheConfig hetuMetastoreCacheConfig)
     {
         this.distributedCache = (StateMap) stateStore.getOrCreateStateCollection(dcName, MAP);
+        this.nearCacheEnabled = hetuMetastoreCacheConfig.isNearCacheEnabled();
+        this.nearCache = CacheBuilder.newBuilder()
+                .maximumSize(nearCacheEnabled ? hetuMetastoreCacheConfig.getNearCacheMaxSize() : 0)
+                .expireAfterWrite(Duration.ofMillis(hetuMetastoreCacheConfig.getNearCacheTtl().toMillis()))
+                .recordStats()
+                .build();
+        if (nearCacheEnabled) {
+            distributedCache.addEntryListener(invalidator);
+        }
     }
 
     @Override
     public void invalidate(K key)
     {
+        invalidateNearCache(key);
         distributedCache.remove(key);
     }
 
     @Override
     public void invalidateAll()
     {
-        distributedCache.clear();
+        invalidations.incrementAndGet();
+        nearCache.invalidateAll();
+        if (nearCacheEnabled) {
+            // clearing the map raises no entry events, so remove the keys one by one to reach the near-caches of other nodes
+            distributedCache.removeAll(distributedCache.keySet());
+        }
+        else {
+            distributedCache.clear();
+        }
     }
 
     @Override
     public V getIfAbsent(K key, Callable<? extends V> loader)
     {
-        return distributedCache.computeIfAbsent(key, k -> {
+        V value = nearCache.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        long invalidationsBeforeRead = invalidations.get();
+        value = distributedCache.computeIfAbsent(key, k -> {
             try {
                 return loader.call();
             }
@@ -55,11 +100,101 @@ public class HetuGlobalCache<K, V>
                 throw new RuntimeException("distributedCache get cache exception");
             }
         });
+        if (value != null) {
+            putNearCache(key, value, invalidationsBeforeRead);
+        }
+        return value;
     }
 
     @Override
     public V getIfPresent(K key)
     {
-        return distributedCache.get(key);
+        V value = nearCache.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        long invalidationsBeforeRead = invalidations.get();
+        value = distributedCache.get(key);
+        if (value != null) {
+            putNearCache(key, value, invalidationsBeforeRead);
+        }
+        return value;
+    }
+
+    @Override
+    public void putAll(Map<K, V> map)
+    {
+        // one bulk operation on the state store instead of a round trip per entry
+        distributedCache.putAll(map);
+        map.keySet().forEach(this::invalidateNearCache);
+    }
+
+    private void putNearCache(K key, V value, long invalidationsBeforeRead)
+    {
+        nearCache.put(key, value);
+        // The entry may have been updated or removed after it was read, and its event handled before the put above
+        if (invalidations.get() != invalidationsBeforeRead) {
+            nearCache.invalidate(key);
+        }
+    }
+
+    private void invalidateNearCache(K key)
+    {
+        invalidations.incrementAndGet();
+        nearCache.invalidate(key);
+    }
+
+    public void close()
+    {
+        if (nearCacheEnabled) {
+            distributedCache.removeEntryListener(invalidator);
+        }
+        nearCache.invalidateAll();
+    }
+
+    @Managed
+    public long getNearCacheHitCount()
+    {
+        return nearCache.stats().hitCount();
+    }
+
+    @Managed
+    public long getNearCacheMissCount()
+    {
+        return nearCache.stats().missCount();
+    }
+
+    @Managed
+    public double getNearCacheHitRate()
+    {
+        return nearCache.stats().hitRate();
+    }
+
+    @Managed
+    public long getNearCacheEvictionCount()
+    {
+        return nearCache.stats().evictionCount();
+    }
+
+    @Managed
+    public long getNearCacheSize()
+    {
+        return nearCache.size();
+    }
+
+    private class NearCacheInvalidator
+            implements EntryRemovedListener<K, V>, EntryUpdatedListener<K, V>
+    {
+        @Override
+        public void entryRemoved(EntryEvent<K, V> event)
+        {
+            invalidateNearCache(event.getKey());
+        }
+
+        @Override
+        public void entryUpdated(EntryEvent<K, V> event)
+        {
+            invalidateNearCache(event.getKey());
+        }
     }
 }
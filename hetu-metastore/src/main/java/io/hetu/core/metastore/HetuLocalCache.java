@@ -19,6 +19,7 @@ import com.google.common.cache.CacheBuilder;
 import io.prestosql.spi.metastore.HetuCache;
 
 import java.time.Duration;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 
@@ -63,4 +64,10 @@ public class HetuLocalCache<K, V>
     {
         return localCache.getIfPresent(key);
     }
+
+    @Override
+    public void putAll(Map<K, V> map)
+    {
+        localCache.putAll(map);
+    }
 }
@@ -16,20 +16,107 @@ package io.hetu.core.metastore;
 
 import com.google.inject.Inject;
 import io.prestosql.spi.metastore.HetuMetastore;
+import io.prestosql.spi.metastore.model.CatalogEntity;
+import io.prestosql.spi.metastore.model.DatabaseEntity;
+import io.prestosql.spi.metastore.model.TableEntity;
 import io.prestosql.spi.statestore.StateStore;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.PreDestroy;
+
+import java.util.List;
+import java.util.Optional;
 
 public class HetuMetaStoreGlobalCache
         extends HetuMetastoreCache
 {
+    private final HetuGlobalCache<String, Optional<CatalogEntity>> catalogCache;
+    private final HetuGlobalCache<String, List<CatalogEntity>> catalogsCache;
+    private final HetuGlobalCache<String, Optional<DatabaseEntity>> databaseCache;
+    private final HetuGlobalCache<String, List<DatabaseEntity>> databasesCache;
+    private final HetuGlobalCache<String, Optional<TableEntity>> tableCache;
+    private final HetuGlobalCache<String, List<TableEntity>> tablesCache;
+
     @Inject
-    public HetuMetaStoreGlobalCache(@ForHetuMetastoreCache HetuMetastore delegate, StateStore stateStore)
-    {
-        super(delegate,
-                new HetuGlobalCache<>(stateStore, MetaStoreConstants.HETU_META_STORE_CATALOGCACHE_NAME),
-                new HetuGlobalCache<>(stateStore, MetaStoreConstants.HETU_META_STORE_CATALOGSCACHE_NAME),
-                new HetuGlobalCache<>(stateStore, MetaStoreConstants.HETU_META_STORE_DATABASECACHE_NAME),
-                new HetuGlobalCache<>(stateStore, MetaStoreConstants.HETU_META_STORE_DATABASESCACHE_NAME),
-                new HetuGlobalCache<>(stateStore, MetaStoreConstants.HETU_META_STORE_TABLECACHE_NAME),
-                new HetuGlobalCache<>(stateStore, MetaStoreConstants.HETU_META_STORE_TABLESCACHE_NAME));
+    public HetuMetaStoreGlobalCache(@ForHetuMetastoreCache HetuMetastore delegate, StateStore stateStore, HetuMetastoreCacheConfig hetuMetastoreCacheConfig)
+    {
+        this(delegate,
+                new HetuGlobalCache<>(stateStore, MetaStoreConstants.HETU_META_STORE_CATALOGCACHE_NAME, hetuMetastoreCacheConfig),
+                new HetuGlobalCache<>(stateStore, MetaStoreConstants.HETU_META_STORE_CATALOGSCACHE_NAME, hetuMetastoreCacheConfig),
+                new HetuGlobalCache<>(stateStore, MetaStoreConstants.HETU_META_STORE_DATABASECACHE_NAME, hetuMetastoreCacheConfig),
+                new HetuGlobalCache<>(stateStore, MetaStoreConstants.HETU_META_STORE_DATABASESCACHE_NAME, hetuMetastoreCacheConfig),
+                new HetuGlobalCache<>(stateStore, MetaStoreConstants.HETU_META_STORE_TABLECACHE_NAME, hetuMetastoreCacheConfig),
+                new HetuGlobalCache<>(stateStore, MetaStoreConstants.HETU_META_STORE_TABLESCACHE_NAME, hetuMetastoreCacheConfig));
+    }
+
+    private HetuMetaStoreGlobalCache(HetuMetastore delegate,
+            HetuGlobalCache<String, Optional<CatalogEntity>> catalogCache,
+            HetuGlobalCache<String, List<CatalogEntity>> catalogsCache,
+            HetuGlobalCache<String, Optional<DatabaseEntity>> databaseCache,
+            HetuGlobalCache<String, List<DatabaseEntity>> databasesCache,
+            HetuGlobalCache<String, Optional<TableEntity>> tableCache,
+            HetuGlobalCache<String, List<TableEntity>> tablesCache)
+    {
+        super(delegate, catalogCache, catalogsCache, databaseCache, databasesCache, tableCache, tablesCache);
+        this.catalogCache = catalogCache;
+        this.catalogsCache = catalogsCache;
+        this.databaseCache = databaseCache;
+        this.databasesCache = databasesCache;
+        this.tableCache = tableCache;
+        this.tablesCache = tablesCache;
+    }
+
+    @PreDestroy
+    public void close()
+    {
+        catalogCache.close();
+        catalogsCache.close();
+        databaseCache.close();
+        databasesCache.close();
+        tableCache.close();
+        tablesCache.close();
+    }
+
+    @Managed
+    @Nested
+    public HetuGlobalCache<String, Optional<CatalogEntity>> getCatalogCache()
+    {
+        return catalogCache;
+    }
+
+    @Managed
+    @Nested
+    public HetuGlobalCache<String, List<CatalogEntity>> getCatalogsCache()
+    {
+        return catalogsCache;
+    }
+
+    @Managed
+    @Nested
+    public HetuGlobalCache<String, Optional<DatabaseEntity>> getDatabaseCache()
+    {
+        return databaseCache;
+    }
+
+    @Managed
+    @Nested
+    public HetuGlobalCache<String, List<DatabaseEntity>> getDatabasesCache()
+    {
+        return databasesCache;
+    }
+
+    @Managed
+    @Nested
+    public HetuGlobalCache<String, Optional<TableEntity>> getTableCache()
+    {
+        return tableCache;
+    }
+
+    @Managed
+    @Nested
+    public HetuGlobalCache<String, List<TableEntity>> getTablesCache()
+    {
+        return tablesCache;
     }
 }
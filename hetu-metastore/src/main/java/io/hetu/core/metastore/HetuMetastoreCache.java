@@ -21,7 +21,9 @@ import io.prestosql.spi.metastore.model.CatalogEntity;
 import io.prestosql.spi.metastore.model.DatabaseEntity;
 import io.prestosql.spi.metastore.model.TableEntity;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class HetuMetastoreCache
@@ -325,7 +327,7 @@ public class HetuMetastoreCache
     {
         try {
             String key = catalogName + "." + databaseName;
-            return tablesCache.getIfAbsent(key, () -> delegate.getAllTables(catalogName, databaseName));
+            return tablesCache.getIfAbsent(key, () -> warmTableCache(catalogName, databaseName, delegate.getAllTables(catalogName, databaseName)));
         }
         catch (Exception executionException) {
             log.debug(executionException.getCause(),
@@ -333,4 +335,24 @@ public class HetuMetastoreCache
             return delegate.getAllTables(catalogName, databaseName);
         }
     }
+
+    /**
+     * Fills the table cache with tables that were fetched in bulk, so that the lookups of single tables
+     * that usually follow a listing are served from the cache.
+     */
+    private List<TableEntity> warmTableCache(String catalogName, String databaseName, List<TableEntity> tables)
+    {
+        Map<String, Optional<TableEntity>> tableEntries = new HashMap<>();
+        for (TableEntity table : tables) {
+            tableEntries.put(catalogName + '.' + databaseName + '.' + table.getName(), Optional.of(table));
+        }
+        try {
+            tableCache.putAll(tableEntries);
+        }
+        catch (Exception executionException) {
+            log.debug(executionException.getCause(),
+                    String.format("Error while caching tables metadata in %s.%s", catalogName, databaseName));
+        }
+        return tables;
+    }
 }
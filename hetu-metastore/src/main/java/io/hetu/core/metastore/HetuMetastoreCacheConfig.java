@@ -19,12 +19,18 @@ import io.airlift.configuration.ConfigDescription;
 import io.airlift.units.Duration;
 import io.airlift.units.MinDuration;
 
+import javax.validation.constraints.Min;
+
 import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MINUTES;
 
 public class HetuMetastoreCacheConfig
 {
     private long metaStoreCacheMaxSize = 10000;
     private Duration metaStoreCacheTtl = new Duration(4, HOURS);
+    private boolean nearCacheEnabled = true;
+    private long nearCacheMaxSize = 1000;
+    private Duration nearCacheTtl = new Duration(10, MINUTES);
 
     @Config("hetu.metastore.cache.size")
     @ConfigDescription("Set the max metastore cache size, default value 50000.")
@@ -52,4 +58,45 @@ public class HetuMetastoreCacheConfig
     {
         return metaStoreCacheTtl;
     }
+
+    @Config("hetu.metastore.cache.near-cache.enabled")
+    @ConfigDescription("Keep entries of the global cache in a local near-cache of each node, default value true.")
+    public HetuMetastoreCacheConfig setNearCacheEnabled(boolean nearCacheEnabled)
+    {
+        this.nearCacheEnabled = nearCacheEnabled;
+        return this;
+    }
+
+    public boolean isNearCacheEnabled()
+    {
+        return nearCacheEnabled;
+    }
+
+    @Config("hetu.metastore.cache.near-cache.size")
+    @ConfigDescription("Set the max size of the near-cache of the global cache, default value 1000.")
+    public HetuMetastoreCacheConfig setNearCacheMaxSize(long nearCacheMaxSize)
+    {
+        this.nearCacheMaxSize = nearCacheMaxSize;
+        return this;
+    }
+
+    @Min(0)
+    public long getNearCacheMaxSize()
+    {
+        return nearCacheMaxSize;
+    }
+
+    @Config("hetu.metastore.cache.near-cache.ttl")
+    @ConfigDescription("Set ttl for the near-cache of the global cache, default value 10m.")
+    public HetuMetastoreCacheConfig setNearCacheTtl(Duration nearCacheTtl)
+    {
+        this.nearCacheTtl = nearCacheTtl;
+        return this;
+    }
+
+    @MinDuration("0ms")
+    public Duration getNearCacheTtl()
+    {
+        return nearCacheTtl;
+    }
 }
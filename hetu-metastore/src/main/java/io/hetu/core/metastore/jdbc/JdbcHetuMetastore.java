@@ -35,6 +35,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.collect.MoreCollectors.toOptional;
 import static io.hetu.core.metastore.jdbc.JdbcMetadataUtil.onDemand;
 import static io.hetu.core.metastore.jdbc.JdbcMetadataUtil.runTransaction;
@@ -351,7 +352,9 @@ public class JdbcHetuMetastore
         runTransaction(jdbi, handle -> {
             JdbcMetadataDao transactionDao = handle.attach(JdbcMetadataDao.class);
             List<Map.Entry<Long, TableEntity>> entries = transactionDao.getAllTables(catalogName, databaseName);
-            getTableColumns(entries, tables, transactionDao);
+            if (!entries.isEmpty()) {
+                setTableColumns(entries, transactionDao.getAllColumnsOfDatabase(catalogName, databaseName), tables);
+            }
         });
         return new ArrayList<>(tables.build());
     }
@@ -443,6 +446,18 @@ public class JdbcHetuMetastore
         });
     }
 
+    private void setTableColumns(List<Map.Entry<Long, TableEntity>> tableEntries,
+            List<Map.Entry<Long, List<ColumnEntity>>> columnEntries, ImmutableList.Builder<TableEntity> tables)
+    {
+        Map<Long, List<ColumnEntity>> columns = columnEntries.stream()
+                .collect(toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
+        tableEntries.forEach(entry -> {
+            TableEntity table = entry.getValue();
+            table.setColumns(new ArrayList<>(columns.getOrDefault(entry.getKey(), ImmutableList.of())));
+            tables.add(table);
+        });
+    }
+
     private Optional<List<PropertyEntity>> mapToList(Map<String, String> map)
     {
         if (map == null || map.isEmpty()) {
@@ -77,6 +77,15 @@ public interface JdbcMetadataDao
             + " WHERE (dbs.catalog_name = :catalogName)\n"
             + " AND (dbs.database_name = :databaseName)\n";
 
+    /**
+     * select all columns
+     */
+    String SELECT_ALL_COLUMNS = "SELECT cols.table_id c_tid, cols.id c_id, cols.type c_type,"
+            + "cols.column_name c_name, cols.comment c_comment,\n"
+            + "ps.column_id p_id, ps.param_key p_key,ps.param_value p_value\n"
+            + "FROM hetu_tab_cols cols\n"
+            + "LEFT JOIN hetu_column_params ps ON cols.id=ps.column_id \n";
+
     /**
      * insert catalog
      *
@@ -356,16 +365,32 @@ public interface JdbcMetadataDao
      * @param tableId table id
      * @return columns
      */
-    @SqlQuery("SELECT cols.table_id c_tid, cols.id c_id, cols.type c_type,"
-            + "cols.column_name c_name, cols.comment c_comment,\n"
-            + "ps.column_id p_id, ps.param_key p_key,ps.param_value p_value\n"
-            + "FROM hetu_tab_cols cols\n"
-            + "LEFT JOIN hetu_column_params ps ON cols.id=ps.column_id \n"
+    @SqlQuery(SELECT_ALL_COLUMNS
             + "WHERE (cols.table_id = :tableId)\n"
             + "ORDER BY cols.table_id,cols.id ASC")
     @UseRowReducer(ColumnEntityReducer.class)
     List<ColumnEntity> getAllColumns(@Bind("tableId") long tableId);
 
+    /**
+     * get all columns of the tables in database
+     *
+     * @param catalogName  catalog name
+     * @param databaseName database name
+     * @return columns of each table id
+     */
+    @SqlQuery(SELECT_ALL_COLUMNS
+            + "WHERE cols.table_id IN (\n"
+            + " SELECT tbls.id\n"
+            + " FROM hetu_tbls tbls\n"
+            + " JOIN hetu_dbs dbs ON dbs.id = tbls.database_id\n"
+            + " WHERE (dbs.catalog_name = :catalogName)\n"
+            + "  AND (dbs.database_name = :databaseName))\n"
+            + "ORDER BY cols.table_id,cols.id ASC")
+    @UseRowReducer(TableColumnEntityReducer.class)
+    List<Map.Entry<Long, List<ColumnEntity>>> getAllColumnsOfDatabase(
+            @Bind("catalogName") String catalogName,
+            @Bind("databaseName") String databaseName);
+
     /**
      * get table id
      *
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hetu.core.metastore.jdbc;
+
+import io.prestosql.spi.metastore.model.ColumnEntity;
+import org.jdbi.v3.core.result.RowReducer;
+import org.jdbi.v3.core.result.RowView;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * reduces the columns of several tables into the column list of each table id
+ */
+public class TableColumnEntityReducer
+        implements RowReducer<Map<Long, Map<Long, ColumnEntity>>, Map.Entry<Long, List<ColumnEntity>>>
+{
+    @Override
+    public Map<Long, Map<Long, ColumnEntity>> container()
+    {
+        return new LinkedHashMap<>();
+    }
+
+    @Override
+    public void accumulate(Map<Long, Map<Long, ColumnEntity>> map, RowView rowView)
+    {
+        ColumnEntity column = map.computeIfAbsent(rowView.getColumn("c_tid", Long.class), tableId -> new LinkedHashMap<>())
+                .computeIfAbsent(rowView.getColumn("c_id", Long.class), id -> rowView.getRow(ColumnEntity.class));
+
+        if (rowView.getColumn("p_id", Long.class) != null) {
+            PropertyEntity param = rowView.getRow(PropertyEntity.class);
+            column.getParameters().put(param.getKey(), param.getValue());
+        }
+    }
+
+    @Override
+    public Stream<Map.Entry<Long, List<ColumnEntity>>> stream(Map<Long, Map<Long, ColumnEntity>> container)
+    {
+        return container.entrySet().stream()
+                .map(entry -> new AbstractMap.SimpleImmutableEntry<Long, List<ColumnEntity>>(entry.getKey(), new ArrayList<>(entry.getValue().values())));
+    }
+}
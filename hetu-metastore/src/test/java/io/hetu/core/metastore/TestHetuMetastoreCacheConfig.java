@@ -24,6 +24,7 @@ import static io.airlift.configuration.testing.ConfigAssertions.assertFullMappin
 import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
 import static io.airlift.configuration.testing.ConfigAssertions.recordDefaults;
 import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MINUTES;
 
 public class TestHetuMetastoreCacheConfig
 {
@@ -32,7 +33,10 @@ public class TestHetuMetastoreCacheConfig
     {
         assertRecordedDefaults(recordDefaults(HetuMetastoreCacheConfig.class)
                 .setMetaStoreCacheMaxSize(10000)
-                .setMetaStoreCacheTtl(new Duration(4, HOURS)));
+                .setMetaStoreCacheTtl(new Duration(4, HOURS))
+                .setNearCacheEnabled(true)
+                .setNearCacheMaxSize(1000)
+                .setNearCacheTtl(new Duration(10, MINUTES)));
     }
 
     @Test
@@ -41,10 +45,16 @@ public class TestHetuMetastoreCacheConfig
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("hetu.metastore.cache.size", "100000")
                 .put("hetu.metastore.cache.ttl", "10h")
+                .put("hetu.metastore.cache.near-cache.enabled", "false")
+                .put("hetu.metastore.cache.near-cache.size", "500")
+                .put("hetu.metastore.cache.near-cache.ttl", "1h")
                 .build();
         HetuMetastoreCacheConfig config = new HetuMetastoreCacheConfig()
                 .setMetaStoreCacheMaxSize(100000)
-                .setMetaStoreCacheTtl(new Duration(10, HOURS));
+                .setMetaStoreCacheTtl(new Duration(10, HOURS))
+                .setNearCacheEnabled(false)
+                .setNearCacheMaxSize(500)
+                .setNearCacheTtl(new Duration(1, HOURS));
         assertFullMapping(properties, config);
     }
 }
@@ -585,6 +585,13 @@ public class TestHetuMetastoreCacheLocal
 
         assertEquals(actual, expected);
 
+        // the listing warms the cache of single tables
+        String tableKey = tablesKey + "." + tableName;
+        actual = mapper.writeValueAsString(tableCache.getIfPresent(tableKey).get());
+        expected = mapper.writeValueAsString(metastore.getTable(defaultDatabase.getCatalogName(), defaultDatabase.getName(), tableName).get());
+
+        assertEquals(actual, expected);
+
         metastore.dropTable(defaultDatabase.getCatalogName(), defaultDatabase.getName(), tableName);
     }
 
@@ -41,11 +41,17 @@ import io.prestosql.spi.metastore.model.TableEntityType;
 import io.prestosql.spi.seedstore.Seed;
 import io.prestosql.spi.seedstore.SeedStore;
 import io.prestosql.spi.seedstore.SeedStoreSubType;
+import io.prestosql.spi.statestore.StateMap;
 import io.prestosql.spi.statestore.StateStore;
 import io.prestosql.spi.statestore.StateStoreBootstrapper;
 import io.prestosql.spi.statestore.StateStoreFactory;
+import io.prestosql.spi.statestore.listener.EntryEvent;
+import io.prestosql.spi.statestore.listener.EntryEventType;
+import io.prestosql.spi.statestore.listener.EntryRemovedListener;
+import io.prestosql.spi.statestore.listener.MapListener;
 import io.prestosql.statestore.LocalStateStoreProvider;
 import io.prestosql.statestore.StateStoreProvider;
+import org.mockito.ArgumentCaptor;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeTest;
@@ -68,12 +74,16 @@ import static com.google.common.base.Throwables.throwIfUnchecked;
 import static io.hetu.core.metastore.MetaStoreConstants.GLOBAL;
 import static io.hetu.core.statestore.hazelcast.HazelcastConstants.DISCOVERY_PORT_CONFIG_NAME;
 import static io.prestosql.spi.metastore.HetuErrorCode.HETU_METASTORE_CODE;
+import static io.prestosql.spi.statestore.StateCollection.Type.MAP;
 import static io.prestosql.statestore.StateStoreConstants.STATE_STORE_CONFIGURATION_PATH;
 import static java.util.Collections.emptyMap;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 public class TestHetuMetastoreGlobalCache
@@ -310,6 +320,68 @@ public class TestHetuMetastoreGlobalCache
         metastore.dropCatalog(catalogEntity.getName());
     }
 
+    /**
+     * test near cache in front of the distributed catalog cache
+     */
+    @Test
+    public void testNearCache()
+            throws InterruptedException
+    {
+        CatalogEntity catalogEntity = CatalogEntity.builder()
+                .setCatalogName("catalog11")
+                .setOwner("root11")
+                .setParameters(emptyMap())
+                .setCreateTime(System.currentTimeMillis())
+                .build();
+        metastore.createCatalog(catalogEntity);
+
+        HetuGlobalCache<String, Optional<CatalogEntity>> nearCached = (HetuGlobalCache<String, Optional<CatalogEntity>>) catalogCache;
+        assertEquals(metastore.getCatalog("catalog11"), Optional.of(catalogEntity));
+        long hitCount = nearCached.getNearCacheHitCount();
+        assertEquals(metastore.getCatalog("catalog11"), Optional.of(catalogEntity));
+        assertEquals(nearCached.getNearCacheHitCount(), hitCount + 1);
+
+        // removing the entry through another cache on the same map drops it from the near cache
+        HetuGlobalCache<String, Optional<CatalogEntity>> otherNode = new HetuGlobalCache<>(
+                stateStoreProvider.getStateStore(),
+                MetaStoreConstants.HETU_META_STORE_CATALOGCACHE_NAME,
+                new HetuMetastoreCacheConfig());
+        otherNode.invalidate("catalog11");
+        long start = System.nanoTime();
+        while (nearCached.getIfPresent("catalog11") != null) {
+            assertTrue(System.nanoTime() - start < SECONDS.toNanos(10), "near cache entry was not invalidated");
+            Thread.sleep(50);
+        }
+        otherNode.close();
+
+        metastore.dropCatalog(catalogEntity.getName());
+    }
+
+    /**
+     * test a value read from the distributed cache is not kept if it was invalidated during the read
+     */
+    @Test
+    public void testNearCacheInvalidatedDuringRead()
+    {
+        StateStore stateStore = mock(StateStore.class);
+        StateMap<String, String> stateMap = mock(StateMap.class);
+        when(stateStore.getOrCreateStateCollection("near-cache-race", MAP)).thenReturn(stateMap);
+        HetuGlobalCache<String, String> cache = new HetuGlobalCache<>(stateStore, "near-cache-race", new HetuMetastoreCacheConfig());
+        ArgumentCaptor<MapListener> listener = ArgumentCaptor.forClass(MapListener.class);
+        verify(stateMap).addEntryListener(listener.capture());
+
+        // the entry is removed on another node after it was read, and its event is handled before the near cache is filled
+        when(stateMap.get("key")).thenAnswer(invocation -> {
+            ((EntryRemovedListener<String, String>) listener.getValue()).entryRemoved(
+                    new EntryEvent<>(null, EntryEventType.REMOVED.getTypeId(), "key", "stale", null));
+            return "stale";
+        }).thenReturn(null);
+        assertEquals(cache.getIfPresent("key"), "stale");
+        assertNull(cache.getIfPresent("key"));
+        assertEquals(cache.getNearCacheSize(), 0);
+        cache.close();
+    }
+
     /**
      * test get All catalogs with metastore cache
      */
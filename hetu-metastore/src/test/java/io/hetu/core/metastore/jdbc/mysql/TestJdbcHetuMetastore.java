@@ -39,7 +39,9 @@ import org.testng.annotations.Test;
 import org.weakref.jmx.guice.MBeanModule;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -857,6 +859,43 @@ public class TestJdbcHetuMetastore
                 table, table1));
     }
 
+    /**
+     * test get all tables with the columns of each table
+     */
+    @Test
+    public void testGetAllTablesWithColumns()
+    {
+        String dbName9 = "db90";
+        DatabaseEntity db90 = DatabaseEntity.builder()
+                .setCatalogName(defaultCatalog.getName())
+                .setDatabaseName(dbName9)
+                .build();
+        metastore.createDatabase(db90);
+
+        Map<String, String> properties = ImmutableMap.<String, String>builder()
+                .put("index", "0")
+                .build();
+        List<TableEntity> tables = new ArrayList<>();
+        for (String tableName : ImmutableList.of("table9", "table10", "table11")) {
+            TableEntity table = TableEntity.builder()
+                    .setCatalogName(db90.getCatalogName())
+                    .setDatabaseName(dbName9)
+                    .setTableName(tableName)
+                    .setOwner(dbName9)
+                    .setTableType(TableEntityType.TABLE.toString()).setColumns(
+                            ImmutableList.of(new ColumnEntity("id", parseTypeSignature(typeInt).toString(),
+                                            tableName + " id", emptyMap()),
+                                    new ColumnEntity("name", parseTypeSignature(typeVarchar).toString(),
+                                            tableName + " name", properties)))
+                    .setCreateTime(System.currentTimeMillis())
+                    .build();
+            metastore.createTable(table);
+            tables.add(table);
+        }
+
+        assertEquals(ImmutableSet.copyOf(metastore.getAllTables(db90.getCatalogName(), dbName9)), ImmutableSet.copyOf(tables));
+    }
+
     /**
      * testCreateView
      */
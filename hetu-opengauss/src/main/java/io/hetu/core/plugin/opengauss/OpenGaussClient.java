@@ -124,7 +124,7 @@ public class OpenGaussClient
     public Connection getConnection(JdbcIdentity identity, JdbcSplit split)
             throws SQLException
     {
-        Connection connection = connectionFactory.openConnection(identity);
+        Connection connection = openConnection(identity, split);
         return connection;
     }
 
@@ -0,0 +1,323 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hetu.core.transport.execution.buffer;
+
+import io.airlift.compress.Compressor;
+import io.airlift.compress.Decompressor;
+import io.airlift.compress.lz4.Lz4Compressor;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockEncodingSerde;
+import io.prestosql.spi.block.LongArrayBlock;
+import io.prestosql.spi.block.LongArrayBlockEncoding;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import java.util.Optional;
+import java.util.Properties;
+
+import static com.google.common.base.Preconditions.checkState;
+import static io.hetu.core.transport.block.BlockSerdeUtil.readBlock;
+import static io.hetu.core.transport.block.BlockSerdeUtil.writeBlock;
+import static java.util.Objects.requireNonNull;
+import static sun.misc.Unsafe.ARRAY_BYTE_BASE_OFFSET;
+
+/**
+ * Serialized form of pages marked {@link PageCodecMarker#COLUMNAR}.
+ * <p>
+ * Every block is written with the encoding that suits its content:
+ * <pre>
+ * [channel count][codec][block]...
+ * </pre>
+ * <ul>
+ * <li>{@link #RAW}: the block encoding of the block, as in non-columnar pages</li>
+ * <li>{@link #COMPRESSED}: the block encoding compressed with the compressor of the serde,
+ * used when compressing a sample of the block with LZ4 shows it is worth the CPU</li>
+ * <li>{@link #LONG_DELTA}: long arrays as the differences between consecutive values,
+ * bit-packed after subtracting the smallest difference</li>
+ * </ul>
+ * Dictionary and run length encoded blocks keep their own block encodings within {@link #RAW}.
+ */
+@NotThreadSafe
+class ColumnarPageCodec
+{
+    static final byte RAW = 0;
+    static final byte COMPRESSED = 1;
+    static final byte LONG_DELTA = 2;
+
+    private static final double MINIMUM_COMPRESSION_RATIO = 0.8;
+    private static final int MINIMUM_COMPRESSIBLE_SIZE = 512;
+    private static final int SAMPLE_SIZE = 4096;
+
+    private final BlockEncodingSerde blockEncodingSerde;
+    private final Optional<Compressor> compressor;
+    private final Optional<Decompressor> decompressor;
+    private final Compressor sampleCompressor = new Lz4Compressor();
+
+    private final DynamicSliceOutput blockBuffer = new DynamicSliceOutput(SAMPLE_SIZE);
+    private byte[] sampleBuffer = new byte[0];
+    private byte[] compressionBuffer = new byte[0];
+    private long[] longBuffer = new long[0];
+
+    ColumnarPageCodec(BlockEncodingSerde blockEncodingSerde, Optional<Compressor> compressor, Optional<Decompressor> decompressor)
+    {
+        this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
+        this.compressor = requireNonNull(compressor, "compressor is null");
+        this.decompressor = requireNonNull(decompressor, "decompressor is null");
+    }
+
+    void writePage(Page page, SliceOutput output)
+    {
+        output.writeInt(page.getChannelCount());
+        for (int channel = 0; channel < page.getChannelCount(); channel++) {
+            writeColumn(page.getBlock(channel), output);
+        }
+    }
+
+    Page readPage(int positionCount, Properties pageMetadata, SliceInput input)
+    {
+        int numberOfBlocks = input.readInt();
+        Block[] blocks = new Block[numberOfBlocks];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = readColumn(input);
+        }
+        return new Page(positionCount, pageMetadata, blocks);
+    }
+
+    private void writeColumn(Block block, SliceOutput output)
+    {
+        if (LongArrayBlockEncoding.NAME.equals(block.getEncodingName()) && writeLongDelta(block, output)) {
+            return;
+        }
+
+        blockBuffer.reset();
+        writeBlock(blockEncodingSerde, blockBuffer, block);
+        Slice raw = blockBuffer.slice();
+
+        if (compressor.isPresent() && raw.length() >= MINIMUM_COMPRESSIBLE_SIZE && isSampleCompressible(raw)) {
+            int maxCompressedLength = compressor.get().maxCompressedLength(raw.length());
+            if (compressionBuffer.length < maxCompressedLength) {
+                compressionBuffer = new byte[maxCompressedLength];
+            }
+            int compressedSize = compressor.get().compress(
+                    (byte[]) raw.getBase(),
+                    (int) (raw.getAddress() - ARRAY_BYTE_BASE_OFFSET),
+                    raw.length(),
+                    compressionBuffer,
+                    0,
+                    compressionBuffer.length);
+
+            if ((((double) compressedSize) / raw.length()) <= MINIMUM_COMPRESSION_RATIO) {
+                output.writeByte(COMPRESSED);
+                output.writeInt(raw.length());
+                output.writeInt(compressedSize);
+                output.writeBytes(compressionBuffer, 0, compressedSize);
+                return;
+            }
+        }
+
+        output.writeByte(RAW);
+        output.writeBytes(raw);
+    }
+
+    private Block readColumn(SliceInput input)
+    {
+        byte codec = input.readByte();
+        switch (codec) {
+            case RAW:
+                return readBlock(blockEncodingSerde, input);
+            case COMPRESSED:
+                checkState(decompressor.isPresent(), "Block is compressed, but decompressor is missing");
+                int uncompressedSize = input.readInt();
+                Slice compressed = input.readSlice(input.readInt());
+                byte[] decompressed = new byte[uncompressedSize];
+                checkState(decompressor.get().decompress(
+                        (byte[]) compressed.getBase(),
+                        (int) (compressed.getAddress() - ARRAY_BYTE_BASE_OFFSET),
+                        compressed.length(),
+                        decompressed,
+                        0,
+                        uncompressedSize) == uncompressedSize);
+                return readBlock(blockEncodingSerde, Slices.wrappedBuffer(decompressed));
+            case LONG_DELTA:
+                return readLongDelta(input);
+            default:
+                throw new IllegalStateException("Unknown block codec: " + codec);
+        }
+    }
+
+    /**
+     * Compresses the start of the block with LZ4, which is cheap enough to predict
+     * whether compressing the whole block is worth it
+     */
+    private boolean isSampleCompressible(Slice raw)
+    {
+        if (raw.length() <= SAMPLE_SIZE) {
+            return true;
+        }
+        int maxCompressedLength = sampleCompressor.maxCompressedLength(SAMPLE_SIZE);
+        if (sampleBuffer.length < maxCompressedLength) {
+            sampleBuffer = new byte[maxCompressedLength];
+        }
+        int compressedSize = sampleCompressor.compress(
+                (byte[]) raw.getBase(),
+                (int) (raw.getAddress() - ARRAY_BYTE_BASE_OFFSET),
+                SAMPLE_SIZE,
+                sampleBuffer,
+                0,
+                sampleBuffer.length);
+        return (((double) compressedSize) / SAMPLE_SIZE) <= MINIMUM_COMPRESSION_RATIO;
+    }
+
+    private boolean writeLongDelta(Block block, SliceOutput output)
+    {
+        int positionCount = block.getPositionCount();
+        if (longBuffer.length < positionCount) {
+            longBuffer = new long[positionCount];
+        }
+        long[] values = longBuffer;
+        int valueCount = 0;
+        for (int position = 0; position < positionCount; position++) {
+            if (!block.isNull(position)) {
+                values[valueCount++] = block.getLong(position, 0);
+            }
+        }
+        if (valueCount < 2) {
+            return false;
+        }
+
+        // differences wrap around on overflow, which the decoder reverses by wrapping around the same way
+        long minDelta = Long.MAX_VALUE;
+        for (int i = 1; i < valueCount; i++) {
+            minDelta = Math.min(minDelta, values[i] - values[i - 1]);
+        }
+        long packedBits = 0;
+        for (int i = 1; i < valueCount; i++) {
+            packedBits |= values[i] - values[i - 1] - minDelta;
+        }
+        int bitWidth = Long.SIZE - Long.numberOfLeadingZeros(packedBits);
+        long packedWords = ((long) (valueCount - 1) * bitWidth + Long.SIZE - 1) / Long.SIZE;
+        if (packedWords * Long.BYTES + 2 * Long.BYTES > MINIMUM_COMPRESSION_RATIO * valueCount * Long.BYTES) {
+            return false;
+        }
+
+        output.writeByte(LONG_DELTA);
+        output.writeInt(positionCount);
+        writeNulls(block, output);
+        output.writeLong(values[0]);
+        output.writeLong(minDelta);
+        output.writeByte(bitWidth);
+
+        long word = 0;
+        int bits = 0;
+        for (int i = 1; i < valueCount && bitWidth > 0; i++) {
+            long value = values[i] - values[i - 1] - minDelta;
+            word |= value << bits;
+            bits += bitWidth;
+            if (bits >= Long.SIZE) {
+                output.writeLong(word);
+                bits -= Long.SIZE;
+                word = bits == 0 ? 0 : value >>> (bitWidth - bits);
+            }
+        }
+        if (bits > 0) {
+            output.writeLong(word);
+        }
+        return true;
+    }
+
+    private static Block readLongDelta(SliceInput input)
+    {
+        int positionCount = input.readInt();
+        boolean[] valueIsNull = readNulls(input, positionCount);
+        long previous = input.readLong();
+        long minDelta = input.readLong();
+        int bitWidth = input.readByte();
+        long mask = bitWidth == Long.SIZE ? -1L : (1L << bitWidth) - 1;
+
+        long[] values = new long[positionCount];
+        boolean first = true;
+        long word = 0;
+        int available = 0;
+        for (int position = 0; position < positionCount; position++) {
+            if (valueIsNull != null && valueIsNull[position]) {
+                continue;
+            }
+            if (first) {
+                values[position] = previous;
+                first = false;
+                continue;
+            }
+
+            long value;
+            if (bitWidth == Long.SIZE) {
+                value = input.readLong();
+            }
+            else if (available >= bitWidth) {
+                value = word & mask;
+                word >>>= bitWidth;
+                available -= bitWidth;
+            }
+            else {
+                long next = input.readLong();
+                value = (word | (next << available)) & mask;
+                word = next >>> (bitWidth - available);
+                available = Long.SIZE - (bitWidth - available);
+            }
+            previous += minDelta + value;
+            values[position] = previous;
+        }
+        return new LongArrayBlock(positionCount, Optional.ofNullable(valueIsNull), values);
+    }
+
+    private static void writeNulls(Block block, SliceOutput output)
+    {
+        boolean mayHaveNull = block.mayHaveNull();
+        output.writeBoolean(mayHaveNull);
+        if (!mayHaveNull) {
+            return;
+        }
+        int positionCount = block.getPositionCount();
+        for (int position = 0; position < positionCount; position += Byte.SIZE) {
+            int value = 0;
+            for (int bit = 0; bit < Byte.SIZE && position + bit < positionCount; bit++) {
+                if (block.isNull(position + bit)) {
+                    value |= 0b1000_0000 >>> bit;
+                }
+            }
+            output.writeByte(value);
+        }
+    }
+
+    private static boolean[] readNulls(SliceInput input, int positionCount)
+    {
+        if (!input.readBoolean()) {
+            return null;
+        }
+        boolean[] valueIsNull = new boolean[positionCount];
+        for (int position = 0; position < positionCount; position += Byte.SIZE) {
+            int value = input.readByte();
+            for (int bit = 0; bit < Byte.SIZE && position + bit < positionCount; bit++) {
+                valueIsNull[position + bit] = (value & (0b1000_0000 >>> bit)) != 0;
+            }
+        }
+        return valueIsNull;
+    }
+}
@@ -27,7 +27,8 @@ public enum PageCodecMarker
 {
     COMPRESSED(1),
     ENCRYPTED(2),
-    MARKER_PAGE(3);
+    MARKER_PAGE(3),
+    COLUMNAR(4);
 
     private final int mask;
 
@@ -32,6 +32,7 @@ import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static io.hetu.core.transport.execution.buffer.PageCodecMarker.COLUMNAR;
 import static io.hetu.core.transport.execution.buffer.PageCodecMarker.COMPRESSED;
 import static io.hetu.core.transport.execution.buffer.PageCodecMarker.ENCRYPTED;
 import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.readRawPage;
@@ -50,14 +51,27 @@ public class PagesSerde
     private final Optional<Compressor> compressor;
     private final Optional<Decompressor> decompressor;
     private final Optional<SpillCipher> spillCipher;
+    private final ColumnarPageCodec columnarCodec;
+    private final boolean columnarEncodingEnabled;
 
     public PagesSerde(BlockEncodingSerde blockEncodingSerde, Optional<Compressor> compressor, Optional<Decompressor> decompressor, Optional<SpillCipher> spillCipher)
+    {
+        this(blockEncodingSerde, compressor, decompressor, spillCipher, false);
+    }
+
+    /**
+     * @param columnarEncodingEnabled whether pages are serialized with an encoding chosen per block,
+     * see {@link ColumnarPageCodec}. Pages serialized either way can always be deserialized.
+     */
+    public PagesSerde(BlockEncodingSerde blockEncodingSerde, Optional<Compressor> compressor, Optional<Decompressor> decompressor, Optional<SpillCipher> spillCipher, boolean columnarEncodingEnabled)
     {
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
         checkArgument(compressor.isPresent() == decompressor.isPresent(), "compressor and decompressor must both be present or both be absent");
         this.compressor = requireNonNull(compressor, "compressor is null");
         this.decompressor = requireNonNull(decompressor, "decompressor is null");
         this.spillCipher = requireNonNull(spillCipher, "spillCipher is null");
+        this.columnarCodec = new ColumnarPageCodec(blockEncodingSerde, compressor, decompressor);
+        this.columnarEncodingEnabled = columnarEncodingEnabled;
     }
 
     public SerializedPage serialize(Page page)
@@ -78,6 +92,10 @@ public class PagesSerde
 
     private SerializedPage serializeImpl(Page page)
     {
+        if (columnarEncodingEnabled) {
+            return serializeColumnar(page);
+        }
+
         SliceOutput serializationBuffer = new DynamicSliceOutput(toIntExact(page.getSizeInBytes() + Integer.BYTES)); // block length is an int
         writeRawPage(page, serializationBuffer, blockEncodingSerde);
         Slice slice = serializationBuffer.slice();
@@ -100,6 +118,20 @@ public class PagesSerde
             }
         }
 
+        return encryptIfNecessary(slice, markers, page, uncompressedSize);
+    }
+
+    private SerializedPage serializeColumnar(Page page)
+    {
+        SliceOutput serializationBuffer = new DynamicSliceOutput(toIntExact(page.getSizeInBytes() + Integer.BYTES));
+        columnarCodec.writePage(page, serializationBuffer);
+        Slice slice = serializationBuffer.slice();
+        // blocks are compressed individually, the page as a whole is never compressed
+        return encryptIfNecessary(slice, MarkerSet.of(COLUMNAR), page, slice.length());
+    }
+
+    private SerializedPage encryptIfNecessary(Slice slice, MarkerSet markers, Page page, int uncompressedSize)
+    {
         if (spillCipher.isPresent()) {
             byte[] encrypted = new byte[spillCipher.get().encryptedMaxLength(slice.length())];
             int encryptedSize = spillCipher.get().encrypt(
@@ -156,9 +188,22 @@ public class PagesSerde
             slice = Slices.wrappedBuffer(decompressed);
         }
 
+        if (serializedPage.isColumnar()) {
+            return columnarCodec.readPage(serializedPage.getPositionCount(), serializedPage.getPageMetadata(), slice.getInput());
+        }
         return readRawPage(serializedPage.getPositionCount(), serializedPage.getPageMetadata(), slice.getInput(), blockEncodingSerde);
     }
 
+    /**
+     * Whether pages deserialized from the serialized page may reference its slice. When they don't,
+     * the slice can be reused as soon as the serialized page is deserialized.
+     */
+    public static boolean isSliceReferencedByDeserializedPage(SerializedPage serializedPage)
+    {
+        // decryption and decompression always produce new arrays
+        return !serializedPage.isCompressed() && !serializedPage.isEncrypted();
+    }
+
     @Override
     public BlockEncodingSerde getBlockEncodingSerde()
     {
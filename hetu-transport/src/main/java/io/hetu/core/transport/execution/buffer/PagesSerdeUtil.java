@@ -26,6 +26,7 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.Iterator;
 import java.util.Properties;
+import java.util.function.IntFunction;
 
 import static io.hetu.core.transport.block.BlockSerdeUtil.readBlock;
 import static io.hetu.core.transport.block.BlockSerdeUtil.writeBlock;
@@ -92,13 +93,13 @@ public class PagesSerdeUtil
         }
     }
 
-    private static SerializedPage readSerializedPage(SliceInput sliceInput)
+    private static SerializedPage readSerializedPage(SliceInput sliceInput, IntFunction<Slice> sliceReader)
     {
         int positionCount = sliceInput.readInt();
         PageCodecMarker.MarkerSet markers = PageCodecMarker.MarkerSet.fromByteValue(sliceInput.readByte());
         int uncompressedSizeInBytes = sliceInput.readInt();
         int sizeInBytes = sliceInput.readInt();
-        Slice slice = sliceInput.readSlice(toIntExact((sizeInBytes)));
+        Slice slice = sliceReader.apply(toIntExact((sizeInBytes)));
 
         int propertiesLength = sliceInput.readInt();
         if (propertiesLength != 0) {
@@ -169,23 +170,39 @@ public class PagesSerdeUtil
                 return endOfData();
             }
 
-            return serde.deserialize(readSerializedPage(input));
+            return serde.deserialize(readSerializedPage(input, input::readSlice));
         }
     }
 
     public static Iterator<SerializedPage> readSerializedPages(SliceInput sliceInput)
     {
-        return new SerializedPageReader(sliceInput);
+        return new SerializedPageReader(sliceInput, sliceInput::readSlice);
+    }
+
+    /**
+     * Reads the content of every page into a slice created by the allocator,
+     * instead of a slice created by the input
+     */
+    public static Iterator<SerializedPage> readSerializedPages(SliceInput sliceInput, IntFunction<Slice> sliceAllocator)
+    {
+        requireNonNull(sliceAllocator, "sliceAllocator is null");
+        return new SerializedPageReader(sliceInput, size -> {
+            Slice slice = sliceAllocator.apply(size);
+            sliceInput.readBytes(slice);
+            return slice;
+        });
     }
 
     private static class SerializedPageReader
             extends AbstractIterator<SerializedPage>
     {
         private final SliceInput input;
+        private final IntFunction<Slice> sliceReader;
 
-        SerializedPageReader(SliceInput input)
+        SerializedPageReader(SliceInput input, IntFunction<Slice> sliceReader)
         {
             this.input = requireNonNull(input, "input is null");
+            this.sliceReader = requireNonNull(sliceReader, "sliceReader is null");
         }
 
         @Override
@@ -195,7 +212,7 @@ public class PagesSerdeUtil
                 return endOfData();
             }
 
-            return readSerializedPage(input);
+            return readSerializedPage(input, sliceReader);
         }
     }
 }
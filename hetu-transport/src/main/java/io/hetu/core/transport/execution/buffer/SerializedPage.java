@@ -28,6 +28,7 @@ import java.util.Properties;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static io.hetu.core.transport.execution.buffer.PageCodecMarker.COLUMNAR;
 import static io.hetu.core.transport.execution.buffer.PageCodecMarker.COMPRESSED;
 import static io.hetu.core.transport.execution.buffer.PageCodecMarker.ENCRYPTED;
 import static io.hetu.core.transport.execution.buffer.PageCodecMarker.MARKER_PAGE;
@@ -149,6 +150,11 @@ public class SerializedPage
         return ENCRYPTED.isSet(pageCodecMarkers);
     }
 
+    public boolean isColumnar()
+    {
+        return COLUMNAR.isSet(pageCodecMarkers);
+    }
+
     public boolean isMarkerPage()
     {
         return MARKER_PAGE.isSet(pageCodecMarkers);
@@ -49,6 +49,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -108,6 +109,8 @@ public class BaseJdbcClient
 {
     private static final Logger log = Logger.get(BaseJdbcClient.class);
 
+    private static final Set<Integer> SPLIT_FIELD_JDBC_TYPES = ImmutableSet.of(Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT);
+
     private static final Map<Type, WriteMapping> WRITE_MAPPINGS = ImmutableMap.<Type, WriteMapping>builder()
             .put(BOOLEAN, WriteMapping.booleanMapping("boolean", booleanWriteFunction()))
             .put(BIGINT, WriteMapping.longMapping("bigint", bigintWriteFunction()))
@@ -121,6 +124,8 @@ public class BaseJdbcClient
             .build();
 
     protected final ConnectionFactory connectionFactory;
+    // Opens the connections that read splits, which can be limited by jdbc.max-split-connections
+    private final ConnectionFactory splitConnectionFactory;
     protected final String identifierQuote;
     protected final boolean caseInsensitiveNameMatching;
     protected final Cache<JdbcIdentity, Map<String, String>> remoteSchemaNames;
@@ -131,13 +136,7 @@ public class BaseJdbcClient
 
     public BaseJdbcClient(BaseJdbcConfig config, String identifierQuote, ConnectionFactory connectionFactory)
     {
-        this(
-                identifierQuote,
-                connectionFactory,
-                requireNonNull(config, "config is null").isCaseInsensitiveNameMatching(),
-                config.getCaseInsensitiveNameMatchingCacheTtl(),
-                config.getFetchSize(), // Hetu: Read JDBC fetch size configuration
-                new JdbcExternalFunctionHub());
+        this(config, identifierQuote, connectionFactory, new JdbcExternalFunctionHub());
     }
 
     public BaseJdbcClient(BaseJdbcConfig config, String identifierQuote, ConnectionFactory connectionFactory, ExternalFunctionHub externalFunctionHub)
@@ -145,7 +144,8 @@ public class BaseJdbcClient
         this(
                 identifierQuote,
                 connectionFactory,
-                requireNonNull(config, "config is null").isCaseInsensitiveNameMatching(),
+                createSplitConnectionFactory(requireNonNull(config, "config is null"), connectionFactory),
+                config.isCaseInsensitiveNameMatching(),
                 config.getCaseInsensitiveNameMatchingCacheTtl(),
                 config.getFetchSize(), // Hetu: Read JDBC fetch size configuration
                 externalFunctionHub);
@@ -176,9 +176,22 @@ public class BaseJdbcClient
             Duration caseInsensitiveNameMatchingCacheTtl,
             int fetchSize,
             ExternalFunctionHub externalFunctionHub)
+    {
+        this(identifierQuote, connectionFactory, connectionFactory, caseInsensitiveNameMatching, caseInsensitiveNameMatchingCacheTtl, fetchSize, externalFunctionHub);
+    }
+
+    private BaseJdbcClient(
+            String identifierQuote,
+            ConnectionFactory connectionFactory,
+            ConnectionFactory splitConnectionFactory,
+            boolean caseInsensitiveNameMatching,
+            Duration caseInsensitiveNameMatchingCacheTtl,
+            int fetchSize,
+            ExternalFunctionHub externalFunctionHub)
     {
         this.identifierQuote = requireNonNull(identifierQuote, "identifierQuote is null");
         this.connectionFactory = requireNonNull(connectionFactory, "connectionFactory is null");
+        this.splitConnectionFactory = requireNonNull(splitConnectionFactory, "splitConnectionFactory is null");
         requireNonNull(caseInsensitiveNameMatchingCacheTtl, "caseInsensitiveNameMatchingCacheTtl is null");
 
         this.caseInsensitiveNameMatching = caseInsensitiveNameMatching;
@@ -190,11 +203,20 @@ public class BaseJdbcClient
         this.externalFunctionHub = requireNonNull(externalFunctionHub, "externalFunctionHub is null");
     }
 
+    private static ConnectionFactory createSplitConnectionFactory(BaseJdbcConfig config, ConnectionFactory connectionFactory)
+    {
+        if (config.getMaxSplitConnections() == 0) {
+            return connectionFactory;
+        }
+        return new ConcurrencyLimitingConnectionFactory(connectionFactory, config.getMaxSplitConnections(), config.getSplitConnectionWaitTimeout());
+    }
+
     @PreDestroy
     public void destroy()
             throws Exception
     {
-        connectionFactory.close();
+        // the split connection factory is the connection factory, or wraps it when split connections are limited
+        splitConnectionFactory.close();
     }
 
     @Override
@@ -337,7 +359,7 @@ public class BaseJdbcClient
     public Connection getConnection(JdbcIdentity identity, JdbcSplit split)
             throws SQLException
     {
-        Connection connection = connectionFactory.openConnection(identity);
+        Connection connection = openConnection(identity, split);
         try {
             connection.setReadOnly(true);
         }
@@ -623,6 +645,19 @@ public class BaseJdbcClient
                 join(",", nCopies(handle.getColumnNames().size(), "?")));
     }
 
+    /**
+     * Opens a connection to read the split. Connections without a split read metadata,
+     * they are not limited by jdbc.max-split-connections.
+     */
+    protected Connection openConnection(JdbcIdentity identity, JdbcSplit split)
+            throws SQLException
+    {
+        if (split == null) {
+            return connectionFactory.openConnection(identity);
+        }
+        return splitConnectionFactory.openConnection(identity);
+    }
+
     @Override
     public Connection getConnection(JdbcIdentity identity, JdbcOutputTableHandle handle)
             throws SQLException
@@ -962,4 +997,39 @@ public class BaseJdbcClient
         }
         return value;
     }
+
+    @Override
+    public Optional<String> getDefaultSplitField(Connection connection, JdbcTableHandle tableHandle)
+    {
+        try {
+            DatabaseMetaData metadata = connection.getMetaData();
+            String primaryKey = null;
+            try (ResultSet resultSet = metadata.getPrimaryKeys(tableHandle.getCatalogName(), tableHandle.getSchemaName(), tableHandle.getTableName())) {
+                while (resultSet.next()) {
+                    if (primaryKey != null) {
+                        // a range of one column of a composite primary key does not split the table evenly
+                        return Optional.empty();
+                    }
+                    primaryKey = resultSet.getString("COLUMN_NAME");
+                }
+            }
+            if (primaryKey == null) {
+                return Optional.empty();
+            }
+            try (ResultSet resultSet = getColumns(tableHandle, metadata)) {
+                while (resultSet.next()) {
+                    if (primaryKey.equals(resultSet.getString("COLUMN_NAME"))) {
+                        if (SPLIT_FIELD_JDBC_TYPES.contains(resultSet.getInt("DATA_TYPE"))) {
+                            return Optional.of(quoted(primaryKey));
+                        }
+                        return Optional.empty();
+                    }
+                }
+            }
+        }
+        catch (SQLException e) {
+            log.warn(e, "Failed to get the primary key of table %s", tableHandle.getSchemaTableName());
+        }
+        return Optional.empty();
+    }
 }
@@ -77,6 +77,13 @@ public class BaseJdbcConfig
 
     private Duration stepCalcRefreshInterval = new Duration(5, TimeUnit.MINUTES);
     private int stepCalcThreads = 4;
+    private int tableSplitDefaultCount;
+    private int tableSplitMaxCount = 32;
+    private int maxSplitConnections;
+    private Duration splitConnectionWaitTimeout = new Duration(1, MINUTES);
+    private int writeBatchSize = 1000;
+    private int writeConnections = 1;
+    private boolean bulkLoadEnabled;
 
     public Optional<CatalogSchemaName> getConnectorRegistryFunctionNamespace()
     {
@@ -521,4 +528,101 @@ public class BaseJdbcConfig
     {
         return stepCalcThreads;
     }
+
+    @Config("jdbc.table-split-default-count")
+    @ConfigDescription("Number of splits for tables not in jdbc.table-split-fields, split by their integer primary key, 0 disables")
+    public BaseJdbcConfig setTableSplitDefaultCount(int tableSplitDefaultCount)
+    {
+        this.tableSplitDefaultCount = tableSplitDefaultCount;
+        return this;
+    }
+
+    @Min(0)
+    public int getTableSplitDefaultCount()
+    {
+        return tableSplitDefaultCount;
+    }
+
+    @Config("jdbc.table-split-max-count")
+    @ConfigDescription("Maximum number of splits a table is split into, which bounds the connections a scan opens to the data source")
+    public BaseJdbcConfig setTableSplitMaxCount(int tableSplitMaxCount)
+    {
+        this.tableSplitMaxCount = tableSplitMaxCount;
+        return this;
+    }
+
+    @Min(1)
+    public int getTableSplitMaxCount()
+    {
+        return tableSplitMaxCount;
+    }
+
+    @Config("jdbc.max-split-connections")
+    @ConfigDescription("Maximum number of connections the splits of all queries of the catalog open to the data source on a node at the same time, 0 is unlimited")
+    public BaseJdbcConfig setMaxSplitConnections(int maxSplitConnections)
+    {
+        this.maxSplitConnections = maxSplitConnections;
+        return this;
+    }
+
+    @Min(0)
+    public int getMaxSplitConnections()
+    {
+        return maxSplitConnections;
+    }
+
+    @Config("jdbc.split-connection-wait-timeout")
+    @ConfigDescription("How long a split waits for a connection when jdbc.max-split-connections connections are open before it fails")
+    public BaseJdbcConfig setSplitConnectionWaitTimeout(Duration splitConnectionWaitTimeout)
+    {
+        this.splitConnectionWaitTimeout = splitConnectionWaitTimeout;
+        return this;
+    }
+
+    @MinDuration("0ms")
+    public Duration getSplitConnectionWaitTimeout()
+    {
+        return splitConnectionWaitTimeout;
+    }
+
+    @Config("jdbc.write-batch-size")
+    @ConfigDescription("Number of rows a page sink writes and commits in one batch")
+    public BaseJdbcConfig setWriteBatchSize(int writeBatchSize)
+    {
+        this.writeBatchSize = writeBatchSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getWriteBatchSize()
+    {
+        return writeBatchSize;
+    }
+
+    @Config("jdbc.write-connections")
+    @ConfigDescription("Number of connections a page sink writes batches on concurrently, 1 writes them synchronously")
+    public BaseJdbcConfig setWriteConnections(int writeConnections)
+    {
+        this.writeConnections = writeConnections;
+        return this;
+    }
+
+    @Min(1)
+    public int getWriteConnections()
+    {
+        return writeConnections;
+    }
+
+    @Config("jdbc.bulk-load-enabled")
+    @ConfigDescription("Write batches with the bulk load of the data source, such as COPY, when the connector supports it")
+    public BaseJdbcConfig setBulkLoadEnabled(boolean bulkLoadEnabled)
+    {
+        this.bulkLoadEnabled = bulkLoadEnabled;
+        return this;
+    }
+
+    public boolean isBulkLoadEnabled()
+    {
+        return bulkLoadEnabled;
+    }
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.jdbc;
+
+import io.airlift.units.Duration;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.reflect.Reflection.newProxy;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Limits the number of connections of the delegate that are open at the same time.
+ * A connection holds its permit until it's closed. Opening a connection when all permits are
+ * taken does not wait: it fails with a {@link ConnectionUnavailableException}, whose future
+ * completes when a connection is closed, or fails when none was closed within the wait timeout.
+ */
+public class ConcurrencyLimitingConnectionFactory
+        implements ConnectionFactory
+{
+    private final ConnectionFactory delegate;
+    private final int maxConnections;
+    private final Duration waitTimeout;
+    private final ScheduledExecutorService timeoutExecutor = newSingleThreadScheduledExecutor(daemonThreadsNamed("jdbc-split-connection-timeout-%s"));
+
+    @GuardedBy("this")
+    private int availableConnections;
+    @GuardedBy("this")
+    private final Queue<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+
+    public ConcurrencyLimitingConnectionFactory(ConnectionFactory delegate, int maxConnections, Duration waitTimeout)
+    {
+        checkArgument(maxConnections > 0, "maxConnections must be positive");
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.maxConnections = maxConnections;
+        this.waitTimeout = requireNonNull(waitTimeout, "waitTimeout is null");
+        this.availableConnections = maxConnections;
+    }
+
+    @Override
+    public Connection openConnection(JdbcIdentity identity)
+            throws SQLException
+    {
+        synchronized (this) {
+            if (availableConnections == 0) {
+                throw new ConnectionUnavailableException(format("All %s connections to the data source are open", maxConnections), addWaiter());
+            }
+            availableConnections--;
+        }
+
+        Connection connection;
+        try {
+            connection = delegate.openConnection(identity);
+        }
+        catch (SQLException | RuntimeException e) {
+            release();
+            throw e;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return newProxy(Connection.class, (proxy, method, args) -> {
+            if (method.getName().equals("close") && method.getParameterCount() == 0) {
+                try {
+                    connection.close();
+                }
+                finally {
+                    if (released.compareAndSet(false, true)) {
+                        release();
+                    }
+                }
+                return null;
+            }
+            try {
+                return method.invoke(connection, args);
+            }
+            catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    @GuardedBy("this")
+    private CompletableFuture<Void> addWaiter()
+    {
+        CompletableFuture<Void> waiter = new CompletableFuture<>();
+        waiters.add(waiter);
+        timeoutExecutor.schedule(
+                () -> waiter.completeExceptionally(new SQLException(format("Timed out after %s waiting for one of the %s connections to the data source", waitTimeout, maxConnections))),
+                waitTimeout.toMillis(),
+                MILLISECONDS);
+        return waiter;
+    }
+
+    private synchronized void release()
+    {
+        availableConnections++;
+        // wake up the first waiter that did not time out or give up
+        CompletableFuture<Void> waiter = waiters.poll();
+        while (waiter != null && !waiter.complete(null)) {
+            waiter = waiters.poll();
+        }
+    }
+
+    public synchronized int getAvailableConnections()
+    {
+        return availableConnections;
+    }
+
+    @Override
+    public void close()
+            throws SQLException
+    {
+        timeoutExecutor.shutdownNow();
+        delegate.close();
+    }
+}
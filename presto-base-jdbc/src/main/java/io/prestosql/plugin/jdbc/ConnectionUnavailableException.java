@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.jdbc;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Thrown instead of waiting when all connections of a {@link ConcurrencyLimitingConnectionFactory} are open.
+ * The future completes when a connection may be opened again, or fails when the wait timed out.
+ */
+public class ConnectionUnavailableException
+        extends SQLException
+{
+    private final transient CompletableFuture<?> connectionAvailable;
+
+    public ConnectionUnavailableException(String message, CompletableFuture<?> connectionAvailable)
+    {
+        super(message);
+        this.connectionAvailable = requireNonNull(connectionAvailable, "connectionAvailable is null");
+    }
+
+    public CompletableFuture<?> getConnectionAvailable()
+    {
+        return connectionAvailable;
+    }
+}
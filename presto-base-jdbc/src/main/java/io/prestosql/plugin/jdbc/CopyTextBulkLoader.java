@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.jdbc;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.type.CharType;
+import io.prestosql.spi.type.DecimalType;
+import io.prestosql.spi.type.Decimals;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.VarcharType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.BooleanType.BOOLEAN;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.RealType.REAL;
+import static io.prestosql.spi.type.SmallintType.SMALLINT;
+import static io.prestosql.spi.type.TinyintType.TINYINT;
+import static java.lang.Float.intBitsToFloat;
+import static java.lang.Math.toIntExact;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Bulk loads batches in the text format of the PostgreSQL COPY statement: one line per row,
+ * values separated by tabs, nulls written as {@code \N} and backslashes, tabs and line breaks
+ * within values escaped with a backslash.
+ */
+public class CopyTextBulkLoader
+        implements JdbcBulkLoader
+{
+    private static final byte[] NULL = "\\N".getBytes(US_ASCII);
+
+    private final List<Type> columnTypes;
+    private final String copySql;
+    private final CopyIn copyIn;
+
+    private CopyTextBulkLoader(List<Type> columnTypes, String copySql, CopyIn copyIn)
+    {
+        this.columnTypes = ImmutableList.copyOf(requireNonNull(columnTypes, "columnTypes is null"));
+        this.copySql = requireNonNull(copySql, "copySql is null");
+        this.copyIn = requireNonNull(copyIn, "copyIn is null");
+    }
+
+    /**
+     * Returns a loader for the column types, or empty if a type has no text form the loader can write
+     */
+    public static Optional<JdbcBulkLoader> create(List<Type> columnTypes, String copySql, CopyIn copyIn)
+    {
+        if (!columnTypes.stream().allMatch(CopyTextBulkLoader::isSupportedType)) {
+            return Optional.empty();
+        }
+        return Optional.of(new CopyTextBulkLoader(columnTypes, copySql, copyIn));
+    }
+
+    /**
+     * Returns a loader running {@code COPY table FROM STDIN} for the table, or empty if a type has no text form the loader can write
+     */
+    public static Optional<JdbcBulkLoader> forTable(List<Type> columnTypes, String quotedTableName, CopyIn copyIn)
+    {
+        return create(columnTypes, format("COPY %s FROM STDIN", quotedTableName), copyIn);
+    }
+
+    private static boolean isSupportedType(Type type)
+    {
+        return type.equals(BOOLEAN) || type.equals(BIGINT) || type.equals(INTEGER) || type.equals(SMALLINT) || type.equals(TINYINT) ||
+                type.equals(DOUBLE) || type.equals(REAL) || type.equals(DATE) ||
+                type instanceof DecimalType || type instanceof VarcharType || type instanceof CharType;
+    }
+
+    @Override
+    public void appendRow(Page page, int position, SliceOutput batch)
+    {
+        for (int channel = 0; channel < columnTypes.size(); channel++) {
+            if (channel > 0) {
+                batch.writeByte('\t');
+            }
+            Block block = page.getBlock(channel);
+            if (block.isNull(position)) {
+                batch.writeBytes(NULL);
+            }
+            else {
+                appendValue(columnTypes.get(channel), block, position, batch);
+            }
+        }
+        batch.writeByte('\n');
+    }
+
+    private static void appendValue(Type type, Block block, int position, SliceOutput batch)
+    {
+        if (type.equals(BOOLEAN)) {
+            batch.writeByte(type.getBoolean(block, position) ? 't' : 'f');
+        }
+        else if (type.equals(BIGINT) || type.equals(INTEGER) || type.equals(SMALLINT) || type.equals(TINYINT)) {
+            writeAscii(Long.toString(type.getLong(block, position)), batch);
+        }
+        else if (type.equals(DOUBLE)) {
+            writeAscii(Double.toString(type.getDouble(block, position)), batch);
+        }
+        else if (type.equals(REAL)) {
+            writeAscii(Float.toString(intBitsToFloat(toIntExact(type.getLong(block, position)))), batch);
+        }
+        else if (type.equals(DATE)) {
+            writeAscii(LocalDate.ofEpochDay(type.getLong(block, position)).toString(), batch);
+        }
+        else if (type instanceof DecimalType) {
+            DecimalType decimalType = (DecimalType) type;
+            if (decimalType.isShort()) {
+                writeAscii(Decimals.toString(type.getLong(block, position), decimalType.getScale()), batch);
+            }
+            else {
+                writeAscii(Decimals.toString(type.getSlice(block, position), decimalType.getScale()), batch);
+            }
+        }
+        else {
+            writeEscaped(type.getSlice(block, position), batch);
+        }
+    }
+
+    private static void writeAscii(String value, SliceOutput batch)
+    {
+        for (int i = 0; i < value.length(); i++) {
+            batch.writeByte(value.charAt(i));
+        }
+    }
+
+    private static void writeEscaped(Slice value, SliceOutput batch)
+    {
+        // multi byte UTF-8 sequences never contain these bytes, so the value can be escaped byte by byte
+        for (int i = 0; i < value.length(); i++) {
+            byte b = value.getByte(i);
+            switch (b) {
+                case '\\':
+                    batch.writeByte('\\');
+                    batch.writeByte('\\');
+                    break;
+                case '\t':
+                    batch.writeByte('\\');
+                    batch.writeByte('t');
+                    break;
+                case '\n':
+                    batch.writeByte('\\');
+                    batch.writeByte('n');
+                    break;
+                case '\r':
+                    batch.writeByte('\\');
+                    batch.writeByte('r');
+                    break;
+                default:
+                    batch.writeByte(b);
+            }
+        }
+    }
+
+    @Override
+    public void load(Connection connection, Slice batch)
+            throws SQLException
+    {
+        try {
+            copyIn.copyIn(connection, copySql, batch.getInput());
+        }
+        catch (IOException e) {
+            throw new SQLException("Failed to send the batch to the COPY statement", e);
+        }
+    }
+
+    /**
+     * Runs a COPY FROM STDIN statement with the data of the stream through the API of the driver
+     */
+    public interface CopyIn
+    {
+        void copyIn(Connection connection, String copySql, InputStream data)
+                throws SQLException, IOException;
+    }
+}
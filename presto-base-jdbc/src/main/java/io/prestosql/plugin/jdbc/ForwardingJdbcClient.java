@@ -183,6 +183,12 @@ public abstract class ForwardingJdbcClient
         return getDelegate().getPreparedStatement(connection, sql);
     }
 
+    @Override
+    public Optional<JdbcBulkLoader> getBulkLoader(ConnectorSession session, JdbcOutputTableHandle handle)
+    {
+        return getDelegate().getBulkLoader(session, handle);
+    }
+
     @Override
     public TableStatistics getTableStatistics(ConnectorSession session, JdbcTableHandle handle, TupleDomain<ColumnHandle> tupleDomain)
     {
@@ -383,6 +389,12 @@ public abstract class ForwardingJdbcClient
         return getDelegate().getSplitFieldMinAndMaxValue(conf, connection, tableHandle);
     }
 
+    @Override
+    public Optional<String> getDefaultSplitField(Connection connection, JdbcTableHandle tableHandle)
+    {
+        return getDelegate().getDefaultSplitField(connection, tableHandle);
+    }
+
     @Override
     public long getTableModificationTime(ConnectorSession session, JdbcTableHandle tableHandle)
     {
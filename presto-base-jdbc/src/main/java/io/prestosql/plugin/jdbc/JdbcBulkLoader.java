@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.jdbc;
+
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
+import io.prestosql.spi.Page;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Writes the batches of a {@link JdbcPageSink} with the bulk load of the data source instead of batched inserts
+ */
+public interface JdbcBulkLoader
+{
+    /**
+     * Appends the row at the position of the page to the serialized batch
+     */
+    void appendRow(Page page, int position, SliceOutput batch);
+
+    /**
+     * Loads a batch of rows appended by {@link #appendRow} into the table
+     */
+    void load(Connection connection, Slice batch)
+            throws SQLException;
+}
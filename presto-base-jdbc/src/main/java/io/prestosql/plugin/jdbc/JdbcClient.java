@@ -119,6 +119,15 @@ public interface JdbcClient
     PreparedStatement getPreparedStatement(Connection connection, String sql)
             throws SQLException;
 
+    /**
+     * Returns the bulk load page sinks write batches with instead of batched inserts,
+     * or empty if the data source has none or it does not support the column types of the table
+     */
+    default Optional<JdbcBulkLoader> getBulkLoader(ConnectorSession session, JdbcOutputTableHandle handle)
+    {
+        return Optional.empty();
+    }
+
     TableStatistics getTableStatistics(ConnectorSession session, JdbcTableHandle handle, TupleDomain<ColumnHandle> tupleDomain);
 
     /**
@@ -257,6 +266,15 @@ public interface JdbcClient
         return null;
     }
 
+    /**
+     * Returns the quoted name of the column to split the table by when it has no split field configured,
+     * which must be a single column primary key of an integer type
+     */
+    default Optional<String> getDefaultSplitField(Connection connection, JdbcTableHandle tableHandle)
+    {
+        return Optional.empty();
+    }
+
     default long getTableModificationTime(ConnectorSession session, JdbcTableHandle tableHandle)
     {
         throw new PrestoException(NOT_SUPPORTED, "this connector does not support table modification times");
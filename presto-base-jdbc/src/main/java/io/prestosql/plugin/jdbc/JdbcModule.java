@@ -19,6 +19,7 @@ import com.google.inject.Module;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import com.google.inject.Singleton;
+import io.prestosql.plugin.jdbc.jmx.JdbcPageSinkStats;
 import io.prestosql.plugin.jdbc.jmx.StatisticsAwareConnectionFactory;
 import io.prestosql.plugin.jdbc.jmx.StatisticsAwareJdbcClient;
 import io.prestosql.plugin.jdbc.optimization.JdbcPlanOptimizer;
@@ -52,6 +53,7 @@ public class JdbcModule
         binder.bind(JdbcPlanOptimizer.class).in(Scopes.SINGLETON);
         binder.bind(JdbcRecordSetProvider.class).in(Scopes.SINGLETON);
         binder.bind(JdbcPageSinkProvider.class).in(Scopes.SINGLETON);
+        binder.bind(JdbcPageSinkStats.class).in(Scopes.SINGLETON);
         binder.bind(JdbcConnector.class).in(Scopes.SINGLETON);
         binder.bind(JdbcPageSourceProvider.class).in(Scopes.SINGLETON);
         binder.bind(DataSourceTableSplitManager.class).in(Scopes.SINGLETON);
@@ -59,6 +61,8 @@ public class JdbcModule
 
         newExporter(binder).export(Key.get(JdbcClient.class, InternalBaseJdbc.class))
                 .as(generator -> generator.generatedNameOf(JdbcClient.class, catalogName));
+        newExporter(binder).export(JdbcPageSinkStats.class)
+                .as(generator -> generator.generatedNameOf(JdbcPageSinkStats.class, catalogName));
     }
 
     @Provides
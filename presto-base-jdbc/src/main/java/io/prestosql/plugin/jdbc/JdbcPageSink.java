@@ -15,7 +15,9 @@ package io.prestosql.plugin.jdbc;
 
 import com.google.common.base.VerifyException;
 import com.google.common.collect.ImmutableList;
+import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
+import io.prestosql.plugin.jdbc.jmx.JdbcPageSinkStats;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.block.Block;
@@ -23,49 +25,69 @@ import io.prestosql.spi.connector.ConnectorPageSink;
 import io.prestosql.spi.connector.ConnectorSession;
 import io.prestosql.spi.type.Type;
 
+import javax.annotation.concurrent.GuardedBy;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.SQLNonTransientException;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.prestosql.plugin.jdbc.JdbcErrorCode.JDBC_ERROR;
 import static io.prestosql.plugin.jdbc.JdbcErrorCode.JDBC_NON_TRANSIENT_ERROR;
 import static java.lang.String.format;
-import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.Objects.requireNonNull;
 
+/**
+ * Writes pages in batches, each committed on its own.
+ * <p>
+ * With more than one write connection, a batch is executed on the executor while the rows of the next
+ * batches are bound on the other connections, so that the round trips of up to that many batches overlap.
+ * When all connections are busy, {@link #appendPage} keeps the rows it could not bind yet and returns a future
+ * that completes when one of them is done. The rows are written first on the next call.
+ */
 public class JdbcPageSink
         implements ConnectorPageSink
 {
-    private final Connection connection;
-    private final PreparedStatement statement;
+    private static final int BULK_LOAD_BUFFER_SIZE = 64 * 1024;
 
     private final List<Type> columnTypes;
     private final List<WriteFunction> columnWriters;
     private final List<WriteNullFunction> nullWriters;
-    private int batchSize;
+    private final Optional<JdbcBulkLoader> bulkLoader;
+    private final int batchSize;
+    private final Optional<Executor> executor;
+    private final JdbcPageSinkStats stats;
 
-    public JdbcPageSink(ConnectorSession session, JdbcOutputTableHandle handle, JdbcClient jdbcClient)
-    {
-        try {
-            connection = jdbcClient.getConnection(JdbcIdentity.from(session), handle);
-        }
-        catch (SQLException e) {
-            throw new PrestoException(JDBC_ERROR, e);
-        }
+    private final List<BatchWriter> writers;
+    @GuardedBy("this")
+    private final Deque<BatchWriter> idleWriters = new ArrayDeque<>();
+    @GuardedBy("this")
+    private CompletableFuture<?> writerIdle;
+    private final Set<CompletableFuture<?>> pendingBatches = ConcurrentHashMap.newKeySet();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private BatchWriter currentWriter;
+    // pages whose rows are not bound to a batch yet, because all connections were busy
+    private final Queue<Page> pendingPages = new ArrayDeque<>();
+    private int pendingPosition;
 
-        try {
-            connection.setAutoCommit(false);
-            statement = connection.prepareStatement(jdbcClient.buildInsertSql(handle));
-        }
-        catch (SQLException e) {
-            closeWithSuppression(connection, e);
-            throw new PrestoException(JDBC_ERROR, "jdbc connection failed to set auto commit or prepare statement");
-        }
+    public JdbcPageSink(ConnectorSession session, JdbcOutputTableHandle handle, JdbcClient jdbcClient, BaseJdbcConfig config, Optional<Executor> executor, JdbcPageSinkStats stats)
+    {
+        this.batchSize = config.getWriteBatchSize();
+        this.executor = requireNonNull(executor, "executor is null");
+        this.stats = requireNonNull(stats, "stats is null");
 
         columnTypes = handle.getColumnTypes();
 
@@ -90,26 +112,70 @@ public class JdbcPageSink
         nullWriters = writeMappings.stream()
                 .map(WriteMapping::getWriteNullFunction)
                 .collect(toImmutableList());
+
+        bulkLoader = config.isBulkLoadEnabled() ? jdbcClient.getBulkLoader(session, handle) : Optional.empty();
+
+        int writeConnections = executor.isPresent() ? config.getWriteConnections() : 1;
+        ImmutableList.Builder<BatchWriter> writers = ImmutableList.builder();
+        try {
+            for (int i = 0; i < writeConnections; i++) {
+                writers.add(new BatchWriter(session, handle, jdbcClient));
+            }
+        }
+        catch (RuntimeException e) {
+            for (BatchWriter writer : writers.build()) {
+                writer.closeWithSuppression(e);
+            }
+            throw e;
+        }
+        this.writers = writers.build();
+        this.idleWriters.addAll(this.writers);
     }
 
     @Override
     public CompletableFuture<?> appendPage(Page page)
     {
-        try {
-            for (int position = 0; position < page.getPositionCount(); position++) {
-                for (int channel = 0; channel < page.getChannelCount(); channel++) {
-                    appendColumn(page, position, channel);
-                }
+        pendingPages.add(page);
+        CompletableFuture<?> blocked = writePendingPages();
+        if (!blocked.isDone() || currentWriter != null) {
+            return blocked;
+        }
+        // all connections are busy with batches, so wait for one of them before taking more pages
+        return whenWriterIdle();
+    }
 
-                statement.addBatch();
-                batchSize++;
+    /**
+     * Binds the rows of the pending pages to batches until they are all bound or no connection is idle
+     *
+     * @return a future that completes when a connection is idle if rows are left, NOT_BLOCKED otherwise
+     */
+    private CompletableFuture<?> writePendingPages()
+    {
+        try {
+            while (!pendingPages.isEmpty()) {
+                Page page = pendingPages.peek();
+                while (pendingPosition < page.getPositionCount()) {
+                    if (currentWriter == null) {
+                        checkFailure();
+                        currentWriter = pollIdleWriter();
+                        if (currentWriter == null) {
+                            CompletableFuture<?> writerIdle = whenWriterIdle();
+                            if (!writerIdle.isDone()) {
+                                return writerIdle;
+                            }
+                            continue;
+                        }
+                    }
+                    currentWriter.appendRow(page, pendingPosition);
+                    pendingPosition++;
 
-                if (batchSize >= 1000) {
-                    statement.executeBatch();
-                    connection.commit();
-                    connection.setAutoCommit(false);
-                    batchSize = 0;
+                    if (currentWriter.getRowCount() >= batchSize) {
+                        submit(currentWriter);
+                        currentWriter = null;
+                    }
                 }
+                pendingPages.remove();
+                pendingPosition = 0;
             }
         }
         catch (SQLException e) {
@@ -118,7 +184,89 @@ public class JdbcPageSink
         return NOT_BLOCKED;
     }
 
-    private void appendColumn(Page page, int position, int channel)
+    private synchronized BatchWriter pollIdleWriter()
+    {
+        return idleWriters.poll();
+    }
+
+    private synchronized CompletableFuture<?> whenWriterIdle()
+    {
+        if (!idleWriters.isEmpty()) {
+            return NOT_BLOCKED;
+        }
+        if (writerIdle == null) {
+            writerIdle = new CompletableFuture<>();
+        }
+        return writerIdle;
+    }
+
+    private void returnIdleWriter(BatchWriter writer)
+    {
+        CompletableFuture<?> blocked;
+        synchronized (this) {
+            idleWriters.add(writer);
+            blocked = writerIdle;
+            writerIdle = null;
+        }
+        if (blocked != null) {
+            blocked.complete(null);
+        }
+    }
+
+    private void submit(BatchWriter writer)
+    {
+        if (!executor.isPresent()) {
+            try {
+                writer.executeBatch();
+            }
+            catch (SQLException e) {
+                throw toPrestoException(e);
+            }
+            returnIdleWriter(writer);
+            return;
+        }
+
+        CompletableFuture<?> batch = CompletableFuture.runAsync(() -> {
+            try {
+                writer.executeBatch();
+            }
+            catch (SQLException | RuntimeException e) {
+                failure.compareAndSet(null, e);
+            }
+            finally {
+                // a failed batch returns its writer too, so that nothing waits for it forever
+                returnIdleWriter(writer);
+            }
+        }, executor.get());
+        pendingBatches.add(batch);
+        batch.whenComplete((result, throwable) -> pendingBatches.remove(batch));
+    }
+
+    private void waitForPendingBatches()
+    {
+        CompletableFuture.allOf(pendingBatches.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    private void checkFailure()
+    {
+        Throwable throwable = failure.get();
+        if (throwable != null) {
+            throw toPrestoException(throwable);
+        }
+    }
+
+    private static PrestoException toPrestoException(Throwable throwable)
+    {
+        if (throwable instanceof PrestoException) {
+            return (PrestoException) throwable;
+        }
+        if (throwable instanceof SQLNonTransientException) {
+            return new PrestoException(JDBC_NON_TRANSIENT_ERROR, throwable);
+        }
+        return new PrestoException(JDBC_ERROR, throwable);
+    }
+
+    private void appendColumn(PreparedStatement statement, Page page, int position, int channel)
             throws SQLException
     {
         Block block = page.getBlock(channel);
@@ -155,51 +303,205 @@ public class JdbcPageSink
     @Override
     public CompletableFuture<Collection<Slice>> finish()
     {
-        // commit and close
-        try (Connection connection = this.connection;
-                PreparedStatement statement = this.statement) {
-            if (batchSize > 0) {
-                statement.executeBatch();
-                connection.commit();
+        try {
+            CompletableFuture<?> blocked = writePendingPages();
+            if (!blocked.isDone()) {
+                return blocked.thenCompose(ignored -> finish());
+            }
+            if (currentWriter != null && currentWriter.getRowCount() > 0) {
+                checkFailure();
+                submit(currentWriter);
             }
+            currentWriter = null;
         }
-        catch (SQLNonTransientException e) {
-            throw new PrestoException(JDBC_NON_TRANSIENT_ERROR, e);
+        catch (RuntimeException e) {
+            closeWithSuppression(e);
+            throw e;
         }
-        catch (SQLException e) {
-            throw new PrestoException(JDBC_ERROR, e);
+        return CompletableFuture.allOf(pendingBatches.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> commitAndClose());
+    }
+
+    private Collection<Slice> commitAndClose()
+    {
+        try {
+            checkFailure();
+        }
+        catch (RuntimeException e) {
+            closeWithSuppression(e);
+            throw e;
+        }
+
+        // commit and close
+        PrestoException closeFailure = null;
+        for (BatchWriter writer : writers) {
+            try {
+                writer.close();
+            }
+            catch (SQLException e) {
+                if (closeFailure == null) {
+                    closeFailure = toPrestoException(e);
+                }
+            }
+        }
+        if (closeFailure != null) {
+            throw closeFailure;
         }
         // the committer does not need any additional info
-        return completedFuture(ImmutableList.of());
+        return ImmutableList.of();
+    }
+
+    private void closeWithSuppression(Throwable throwable)
+    {
+        for (BatchWriter writer : writers) {
+            writer.closeWithSuppression(throwable);
+        }
     }
 
-    @SuppressWarnings("unused")
     @Override
     public void abort()
     {
-        // rollback and close
-        try (Connection connection = this.connection;
-                PreparedStatement statement = this.statement) {
-            // skip rollback if implicitly closed due to an error
-            if (!connection.isClosed()) {
-                connection.rollback();
+        // batches still running would use the connections while they are rolled back
+        try {
+            waitForPendingBatches();
+        }
+        catch (RuntimeException ignored) {
+            // failed batches are rolled back with the rest
+        }
+
+        PrestoException abortFailure = null;
+        for (BatchWriter writer : writers) {
+            try {
+                writer.rollback();
+            }
+            catch (SQLException e) {
+                if (abortFailure == null) {
+                    abortFailure = new PrestoException(JDBC_ERROR, e);
+                }
             }
         }
-        catch (SQLException e) {
-            throw new PrestoException(JDBC_ERROR, e);
+        if (abortFailure != null) {
+            throw abortFailure;
         }
     }
 
-    @SuppressWarnings("ObjectEquality")
-    private static void closeWithSuppression(Connection connection, Throwable throwable)
+    /**
+     * A connection of the sink with the rows of the batch it writes next
+     */
+    private final class BatchWriter
     {
-        try {
-            connection.close();
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final DynamicSliceOutput bulkLoadBatch;
+        private int rowCount;
+
+        BatchWriter(ConnectorSession session, JdbcOutputTableHandle handle, JdbcClient jdbcClient)
+        {
+            try {
+                connection = jdbcClient.getConnection(JdbcIdentity.from(session), handle);
+            }
+            catch (SQLException e) {
+                throw new PrestoException(JDBC_ERROR, e);
+            }
+
+            try {
+                connection.setAutoCommit(false);
+                if (bulkLoader.isPresent()) {
+                    statement = null;
+                    bulkLoadBatch = new DynamicSliceOutput(BULK_LOAD_BUFFER_SIZE);
+                }
+                else {
+                    statement = connection.prepareStatement(jdbcClient.buildInsertSql(handle));
+                    bulkLoadBatch = null;
+                }
+            }
+            catch (SQLException e) {
+                closeWithSuppression(e);
+                throw new PrestoException(JDBC_ERROR, "jdbc connection failed to set auto commit or prepare statement");
+            }
         }
-        catch (Throwable t) {
-            // Self-suppression not permitted
-            if (throwable != t) {
-                throwable.addSuppressed(t);
+
+        int getRowCount()
+        {
+            return rowCount;
+        }
+
+        void appendRow(Page page, int position)
+                throws SQLException
+        {
+            if (bulkLoadBatch != null) {
+                bulkLoader.get().appendRow(page, position, bulkLoadBatch);
+            }
+            else {
+                for (int channel = 0; channel < page.getChannelCount(); channel++) {
+                    appendColumn(statement, page, position, channel);
+                }
+                statement.addBatch();
+            }
+            rowCount++;
+        }
+
+        void executeBatch()
+                throws SQLException
+        {
+            if (rowCount == 0) {
+                return;
+            }
+            if (bulkLoadBatch != null) {
+                stats.getBulkLoad().wrap(() -> {
+                    bulkLoader.get().load(connection, bulkLoadBatch.slice());
+                    connection.commit();
+                });
+                bulkLoadBatch.reset();
+            }
+            else {
+                stats.getExecuteBatch().wrap(() -> {
+                    statement.executeBatch();
+                    connection.commit();
+                });
+            }
+            stats.getWrittenRows().update(rowCount);
+            rowCount = 0;
+        }
+
+        @SuppressWarnings("unused")
+        void close()
+                throws SQLException
+        {
+            try (Connection connection = this.connection;
+                    PreparedStatement statement = this.statement) {
+                verify(rowCount == 0, "batch was not executed");
+            }
+        }
+
+        @SuppressWarnings("unused")
+        void rollback()
+                throws SQLException
+        {
+            // rollback and close
+            try (Connection connection = this.connection;
+                    PreparedStatement statement = this.statement) {
+                // skip rollback if implicitly closed due to an error
+                if (!connection.isClosed()) {
+                    connection.rollback();
+                }
+            }
+        }
+
+        @SuppressWarnings("ObjectEquality")
+        void closeWithSuppression(Throwable throwable)
+        {
+            try {
+                if (statement != null) {
+                    statement.close();
+                }
+                connection.close();
+            }
+            catch (Throwable t) {
+                // Self-suppression not permitted
+                if (throwable != t) {
+                    throwable.addSuppressed(t);
+                }
             }
         }
     }
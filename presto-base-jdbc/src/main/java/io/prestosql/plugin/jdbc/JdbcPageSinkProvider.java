@@ -13,6 +13,7 @@
  */
 package io.prestosql.plugin.jdbc;
 
+import io.prestosql.plugin.jdbc.jmx.JdbcPageSinkStats;
 import io.prestosql.spi.connector.ConnectorInsertTableHandle;
 import io.prestosql.spi.connector.ConnectorOutputTableHandle;
 import io.prestosql.spi.connector.ConnectorPageSink;
@@ -20,30 +21,50 @@ import io.prestosql.spi.connector.ConnectorPageSinkProvider;
 import io.prestosql.spi.connector.ConnectorSession;
 import io.prestosql.spi.connector.ConnectorTransactionHandle;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newCachedThreadPool;
 
 public class JdbcPageSinkProvider
         implements ConnectorPageSinkProvider
 {
     private final JdbcClient jdbcClient;
+    private final BaseJdbcConfig config;
+    private final JdbcPageSinkStats stats;
+    private final Optional<ExecutorService> executor;
 
     @Inject
-    public JdbcPageSinkProvider(@InternalBaseJdbc JdbcClient jdbcClient)
+    public JdbcPageSinkProvider(@InternalBaseJdbc JdbcClient jdbcClient, BaseJdbcConfig config, JdbcPageSinkStats stats)
     {
         this.jdbcClient = requireNonNull(jdbcClient, "jdbcClient is null");
+        this.config = requireNonNull(config, "config is null");
+        this.stats = requireNonNull(stats, "stats is null");
+        // sinks write their batches synchronously on a single connection unless they may use more
+        this.executor = config.getWriteConnections() > 1 ? Optional.of(newCachedThreadPool(daemonThreadsNamed("jdbc-page-sink-%s"))) : Optional.empty();
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        executor.ifPresent(ExecutorService::shutdownNow);
     }
 
     @Override
     public ConnectorPageSink createPageSink(ConnectorTransactionHandle transactionHandle, ConnectorSession session, ConnectorOutputTableHandle tableHandle)
     {
-        return new JdbcPageSink(session, (JdbcOutputTableHandle) tableHandle, jdbcClient);
+        return new JdbcPageSink(session, (JdbcOutputTableHandle) tableHandle, jdbcClient, config, executor.map(Executor.class::cast), stats);
     }
 
     @Override
     public ConnectorPageSink createPageSink(ConnectorTransactionHandle transactionHandle, ConnectorSession session, ConnectorInsertTableHandle tableHandle)
     {
-        return new JdbcPageSink(session, (JdbcOutputTableHandle) tableHandle, jdbcClient);
+        return new JdbcPageSink(session, (JdbcOutputTableHandle) tableHandle, jdbcClient, config, executor.map(Executor.class::cast), stats);
     }
 }
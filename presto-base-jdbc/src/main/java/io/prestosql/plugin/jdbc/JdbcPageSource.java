@@ -0,0 +1,406 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.jdbc;
+
+import com.google.common.base.VerifyException;
+import io.airlift.log.Logger;
+import io.airlift.slice.Slice;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.connector.ConnectorPageSource;
+import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.type.Type;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.prestosql.plugin.jdbc.JdbcErrorCode.JDBC_ERROR;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads the result set of a split straight into the block builders of a page.
+ * <p>
+ * Unlike {@link JdbcRecordCursor} wrapped in a {@link io.prestosql.spi.connector.RecordPageSource},
+ * the read function and the block builder of every column are resolved once per split, so a value is
+ * read and written without looking up its java type or going through the cursor accessors.
+ * <p>
+ * When the split connections of the catalog are limited and all are open, the page source is blocked
+ * until a connection is closed, rather than waiting for it on the driver thread.
+ */
+public class JdbcPageSource
+        implements ConnectorPageSource
+{
+    private static final Logger log = Logger.get(JdbcPageSource.class);
+
+    private static final int ROWS_PER_REQUEST = 4096;
+
+    private final JdbcClient jdbcClient;
+    private final ConnectorSession session;
+    private final JdbcSplit split;
+    private final JdbcTableHandle table;
+    private final List<JdbcColumnHandle> columnHandles;
+    private final ColumnReader[] columnReaders;
+    private final PageBuilder pageBuilder;
+    private CompletableFuture<?> connectionAvailable = NOT_BLOCKED;
+    private Connection connection;
+    private PreparedStatement statement;
+    private ResultSet resultSet;
+    private boolean finished;
+    private boolean closed;
+    private long readTimeNanos;
+    private long completedBytes;
+    private long completedPositions;
+
+    public JdbcPageSource(JdbcClient jdbcClient, ConnectorSession session, JdbcSplit split, JdbcTableHandle table, List<JdbcColumnHandle> columnHandles)
+    {
+        this.jdbcClient = requireNonNull(jdbcClient, "jdbcClient is null");
+        this.session = requireNonNull(session, "session is null");
+        this.split = requireNonNull(split, "split is null");
+        this.table = requireNonNull(table, "table is null");
+        this.columnHandles = requireNonNull(columnHandles, "columnHandles is null");
+        this.pageBuilder = new PageBuilder(columnHandles.stream()
+                .map(JdbcColumnHandle::getColumnType)
+                .collect(toImmutableList()));
+        this.columnReaders = new ColumnReader[columnHandles.size()];
+        open();
+    }
+
+    private void open()
+    {
+        long start = System.nanoTime();
+        Connection connection;
+        try {
+            connection = jdbcClient.getConnection(JdbcIdentity.from(session), split);
+        }
+        catch (ConnectionUnavailableException e) {
+            connectionAvailable = e.getConnectionAvailable();
+            return;
+        }
+        catch (SQLException | RuntimeException e) {
+            throw new PrestoException(JDBC_ERROR, e);
+        }
+
+        PreparedStatement statement = null;
+        try {
+            for (int i = 0; i < columnReaders.length; i++) {
+                ColumnMapping columnMapping = jdbcClient.toPrestoType(session, connection, columnHandles.get(i).getJdbcTypeHandle())
+                        .orElseThrow(() -> new VerifyException("Unsupported column type"));
+                columnReaders[i] = createColumnReader(columnHandles.get(i).getColumnType(), columnMapping, i + 1);
+            }
+
+            statement = jdbcClient.buildSql(session, connection, split, table, columnHandles);
+            log.debug("Executing: %s", statement.toString());
+            this.resultSet = statement.executeQuery();
+        }
+        catch (SQLException | RuntimeException e) {
+            closeQuietly(connection, statement, null, e);
+            throw new PrestoException(JDBC_ERROR, e);
+        }
+        this.connection = connection;
+        this.statement = statement;
+        readTimeNanos += System.nanoTime() - start;
+    }
+
+    @Override
+    public CompletableFuture<?> isBlocked()
+    {
+        return connectionAvailable;
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return completedBytes;
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return readTimeNanos;
+    }
+
+    @Override
+    public long getSystemMemoryUsage()
+    {
+        return pageBuilder.getSizeInBytes();
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return finished && pageBuilder.isEmpty();
+    }
+
+    @Override
+    public Page getNextPage()
+    {
+        if (resultSet == null && !finished) {
+            if (!connectionAvailable.isDone()) {
+                return null;
+            }
+            try {
+                connectionAvailable.get();
+            }
+            catch (ExecutionException e) {
+                throw handleSqlException(e.getCause());
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw handleSqlException(e);
+            }
+            connectionAvailable = NOT_BLOCKED;
+            open();
+            if (resultSet == null) {
+                return null;
+            }
+        }
+
+        if (!finished) {
+            long start = System.nanoTime();
+            try {
+                for (int i = 0; i < ROWS_PER_REQUEST && !pageBuilder.isFull(); i++) {
+                    if (!resultSet.next()) {
+                        finished = true;
+                        break;
+                    }
+                    pageBuilder.declarePosition();
+                    for (int column = 0; column < columnReaders.length; column++) {
+                        columnReaders[column].read(resultSet, pageBuilder.getBlockBuilder(column));
+                    }
+                }
+            }
+            catch (SQLException | RuntimeException e) {
+                throw handleSqlException(e);
+            }
+            readTimeNanos += System.nanoTime() - start;
+            if (finished) {
+                close();
+            }
+        }
+
+        // only return a page if the buffer is full or we are finishing
+        if (pageBuilder.isEmpty() || (!finished && !pageBuilder.isFull())) {
+            return null;
+        }
+
+        Page page = pageBuilder.build();
+        pageBuilder.reset();
+        completedBytes += page.getSizeInBytes();
+        completedPositions += page.getPositionCount();
+        return page;
+    }
+
+    @Override
+    public void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        finished = true;
+        // gives up the wait for a connection, so that a closed connection wakes up another split
+        connectionAvailable.cancel(true);
+        closeQuietly(connection, statement, resultSet, null);
+        log.debug("read %d rows in %dms", completedPositions + pageBuilder.getPositionCount(), readTimeNanos / 1_000_000);
+    }
+
+    private void closeQuietly(Connection connection, Statement statement, ResultSet resultSet, Exception failure)
+    {
+        // use try with resources to close everything properly
+        try (Connection ignoredConnection = connection;
+                Statement ignoredStatement = statement;
+                ResultSet ignoredResultSet = resultSet) {
+            if (connection != null) {
+                jdbcClient.abortReadConnection(connection);
+            }
+        }
+        catch (SQLException | RuntimeException e) {
+            if (failure != null && failure != e) {
+                failure.addSuppressed(e);
+            }
+        }
+    }
+
+    private RuntimeException handleSqlException(Throwable e)
+    {
+        try {
+            close();
+        }
+        catch (Exception closeException) {
+            // Self-suppression not permitted
+            if (e != closeException) {
+                e.addSuppressed(closeException);
+            }
+        }
+        return new PrestoException(JDBC_ERROR, e);
+    }
+
+    private static ColumnReader createColumnReader(Type type, ColumnMapping columnMapping, int columnIndex)
+    {
+        Class<?> javaType = columnMapping.getType().getJavaType();
+        ReadFunction readFunction = columnMapping.getReadFunction();
+        if (javaType == boolean.class) {
+            return new BooleanColumnReader(type, columnIndex, (BooleanReadFunction) readFunction);
+        }
+        if (javaType == double.class) {
+            return new DoubleColumnReader(type, columnIndex, (DoubleReadFunction) readFunction);
+        }
+        if (javaType == long.class) {
+            return new LongColumnReader(type, columnIndex, (LongReadFunction) readFunction);
+        }
+        if (javaType == Slice.class) {
+            return new SliceColumnReader(type, columnIndex, (SliceReadFunction) readFunction);
+        }
+        if (javaType == Block.class) {
+            return new BlockColumnReader(type, columnIndex, (BlockReadFunction) readFunction);
+        }
+        throw new IllegalStateException(format("Unsupported java type %s", javaType));
+    }
+
+    private abstract static class ColumnReader
+    {
+        protected final Type type;
+        protected final int columnIndex;
+
+        ColumnReader(Type type, int columnIndex)
+        {
+            this.type = type;
+            this.columnIndex = columnIndex;
+        }
+
+        void read(ResultSet resultSet, BlockBuilder output)
+                throws SQLException
+        {
+            // read functions do not expect null values, so the value is checked before it is read
+            resultSet.getObject(columnIndex);
+            if (resultSet.wasNull()) {
+                output.appendNull();
+            }
+            else {
+                readValue(resultSet, output);
+            }
+        }
+
+        abstract void readValue(ResultSet resultSet, BlockBuilder output)
+                throws SQLException;
+    }
+
+    private static final class BooleanColumnReader
+            extends ColumnReader
+    {
+        private final BooleanReadFunction readFunction;
+
+        BooleanColumnReader(Type type, int columnIndex, BooleanReadFunction readFunction)
+        {
+            super(type, columnIndex);
+            this.readFunction = readFunction;
+        }
+
+        @Override
+        void readValue(ResultSet resultSet, BlockBuilder output)
+                throws SQLException
+        {
+            type.writeBoolean(output, readFunction.readBoolean(resultSet, columnIndex));
+        }
+    }
+
+    private static final class DoubleColumnReader
+            extends ColumnReader
+    {
+        private final DoubleReadFunction readFunction;
+
+        DoubleColumnReader(Type type, int columnIndex, DoubleReadFunction readFunction)
+        {
+            super(type, columnIndex);
+            this.readFunction = readFunction;
+        }
+
+        @Override
+        void readValue(ResultSet resultSet, BlockBuilder output)
+                throws SQLException
+        {
+            type.writeDouble(output, readFunction.readDouble(resultSet, columnIndex));
+        }
+    }
+
+    private static final class LongColumnReader
+            extends ColumnReader
+    {
+        private final LongReadFunction readFunction;
+
+        LongColumnReader(Type type, int columnIndex, LongReadFunction readFunction)
+        {
+            super(type, columnIndex);
+            this.readFunction = readFunction;
+        }
+
+        @Override
+        void readValue(ResultSet resultSet, BlockBuilder output)
+                throws SQLException
+        {
+            type.writeLong(output, readFunction.readLong(resultSet, columnIndex));
+        }
+    }
+
+    private static final class SliceColumnReader
+            extends ColumnReader
+    {
+        private final SliceReadFunction readFunction;
+
+        SliceColumnReader(Type type, int columnIndex, SliceReadFunction readFunction)
+        {
+            super(type, columnIndex);
+            this.readFunction = readFunction;
+        }
+
+        @Override
+        void readValue(ResultSet resultSet, BlockBuilder output)
+                throws SQLException
+        {
+            Slice slice = readFunction.readSlice(resultSet, columnIndex);
+            type.writeSlice(output, slice, 0, slice.length());
+        }
+    }
+
+    private static final class BlockColumnReader
+            extends ColumnReader
+    {
+        private final BlockReadFunction readFunction;
+
+        BlockColumnReader(Type type, int columnIndex, BlockReadFunction readFunction)
+        {
+            super(type, columnIndex);
+            this.readFunction = readFunction;
+        }
+
+        @Override
+        void readValue(ResultSet resultSet, BlockBuilder output)
+                throws SQLException
+        {
+            type.writeObject(output, readFunction.readBlock(resultSet, columnIndex));
+        }
+    }
+}
@@ -14,6 +14,7 @@
  */
 package io.prestosql.plugin.jdbc;
 
+import com.google.common.collect.ImmutableList;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorPageSource;
 import io.prestosql.spi.connector.ConnectorPageSourceProvider;
@@ -21,7 +22,6 @@ import io.prestosql.spi.connector.ConnectorSession;
 import io.prestosql.spi.connector.ConnectorSplit;
 import io.prestosql.spi.connector.ConnectorTableHandle;
 import io.prestosql.spi.connector.ConnectorTransactionHandle;
-import io.prestosql.spi.connector.RecordPageSource;
 import io.prestosql.spi.connector.RecordSet;
 
 import javax.inject.Inject;
@@ -49,12 +49,15 @@ public class JdbcPageSourceProvider
     public ConnectorPageSource createPageSource(ConnectorTransactionHandle transaction, ConnectorSession session, ConnectorSplit split, ConnectorTableHandle table, List<ColumnHandle> columns)
     {
         JdbcTableHandle jdbcTableHandle = (JdbcTableHandle) table;
-        RecordSet recordSet = recordSetProvider.getRecordSet(transaction, session, split, table, columns);
         if (jdbcTableHandle.getDeleteOrUpdate()) {
+            RecordSet recordSet = recordSetProvider.getRecordSet(transaction, session, split, table, columns);
             return new JdbcUpdatablePageSource(recordSet, session, table, jdbcClient, config, (JdbcSplit) split);
         }
-        else {
-            return new RecordPageSource(recordSet);
+
+        ImmutableList.Builder<JdbcColumnHandle> handles = ImmutableList.builder();
+        for (ColumnHandle handle : columns) {
+            handles.add((JdbcColumnHandle) handle);
         }
+        return new JdbcPageSource(jdbcClient, session, (JdbcSplit) split, jdbcTableHandle, handles.build());
     }
 }
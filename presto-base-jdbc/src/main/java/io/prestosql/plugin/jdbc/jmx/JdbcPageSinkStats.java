@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.jdbc.jmx;
+
+import io.airlift.stats.CounterStat;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+@ThreadSafe
+public final class JdbcPageSinkStats
+{
+    private final JdbcApiStats executeBatch = new JdbcApiStats();
+    private final JdbcApiStats bulkLoad = new JdbcApiStats();
+    private final CounterStat writtenRows = new CounterStat();
+
+    /**
+     * Latency of writing and committing one batch of inserts
+     */
+    @Managed
+    @Nested
+    public JdbcApiStats getExecuteBatch()
+    {
+        return executeBatch;
+    }
+
+    /**
+     * Latency of bulk loading and committing one batch
+     */
+    @Managed
+    @Nested
+    public JdbcApiStats getBulkLoad()
+    {
+        return bulkLoad;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getWrittenRows()
+    {
+        return writtenRows;
+    }
+}
@@ -17,6 +17,8 @@ package io.prestosql.plugin.splitmanager;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import io.airlift.log.Logger;
 import io.prestosql.plugin.jdbc.BaseJdbcConfig;
@@ -43,6 +45,7 @@ import java.util.stream.Collectors;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static io.prestosql.plugin.splitmanager.TableSplitUtil.generateTableFullName;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 public class DataSourceTableSplitManager
 {
@@ -50,8 +53,15 @@ public class DataSourceTableSplitManager
 
     private boolean enableTableSplit;
 
+    private int defaultSplitCount;
+
+    private int maxSplitCount;
+
     private Map<String, TableSplitConfig> tableSplitsMap = new HashMap<>();
 
+    // Split field detected from the primary key of the tables without a configured split field
+    private final Cache<String, Optional<String>> defaultSplitFields;
+
     private StepCalcManager stepCalcManager;
 
     private JdbcClient jdbcClient;
@@ -61,8 +71,17 @@ public class DataSourceTableSplitManager
     {
         this.enableTableSplit = config.getTableSplitEnable();
         this.jdbcClient = jdbcClient;
+        this.maxSplitCount = config.getTableSplitMaxCount();
+        this.defaultSplitCount = Math.min(config.getTableSplitDefaultCount(), maxSplitCount);
+        this.defaultSplitFields = CacheBuilder.newBuilder()
+                .expireAfterWrite(config.getTableSplitStepCalcRefreshInterval().toMillis(), MILLISECONDS)
+                .build();
         if (enableTableSplit && nodeManager.getCurrentNode().isCoordinator()) {
             List<TableSplitConfig> splitConfigs = loadTableSplitFiledConfig(config.getTableSplitFields());
+            // cap the configured split counts before the step calc manager records them, so that its logs match the splits
+            splitConfigs.stream()
+                    .filter(splitConfig -> splitConfig.getSplitCount() != null && splitConfig.getSplitCount() > maxSplitCount)
+                    .forEach(splitConfig -> splitConfig.setSplitCount(maxSplitCount));
             tableSplitsMap = splitConfigs.stream().collect(Collectors.toMap(
                     p -> generateTableFullName(p.getCatalogName(), p.getSchemaName(), p.getTableName()),
                     Function.identity()));
@@ -119,6 +138,9 @@ public class DataSourceTableSplitManager
     {
         List<JdbcSplit> jdbcSplitsList = new ArrayList<>();
         TableSplitConfig splitConfig = tableSplitsMap.get(generateTableFullName(jdbcTableHandle.getCatalogName(), jdbcTableHandle.getSchemaName(), jdbcTableHandle.getTableName()));
+        if (splitConfig == null) {
+            splitConfig = getDefaultTableSplitConfig(identity, jdbcTableHandle);
+        }
         if (splitConfig == null) {
             return getFixedSplitSource(jdbcTableHandle);
         }
@@ -190,6 +212,44 @@ public class DataSourceTableSplitManager
         return new DataSourceSplitSource(jdbcSplitsList);
     }
 
+    /**
+     * Splits tables without a configured split field by their integer primary key,
+     * as if the primary key was configured for them with the default split count
+     */
+    private TableSplitConfig getDefaultTableSplitConfig(JdbcIdentity identity, JdbcTableHandle jdbcTableHandle)
+    {
+        if (defaultSplitCount <= 1) {
+            return null;
+        }
+        String tableFullName = generateTableFullName(jdbcTableHandle.getCatalogName(), jdbcTableHandle.getSchemaName(), jdbcTableHandle.getTableName());
+        Optional<String> splitField = defaultSplitFields.getIfPresent(tableFullName);
+        if (splitField == null) {
+            try (Connection connection = jdbcClient.getConnection(identity, (JdbcSplit) null)) {
+                splitField = jdbcClient.getDefaultSplitField(connection, jdbcTableHandle);
+            }
+            catch (SQLException e) {
+                log.warn("Get default split field of table(%s) failed, error info: %s", tableFullName, e.getMessage());
+                return null;
+            }
+            defaultSplitFields.put(tableFullName, splitField);
+        }
+        if (!splitField.isPresent()) {
+            return null;
+        }
+
+        TableSplitConfig splitConfig = new TableSplitConfig();
+        splitConfig.setCatalogName(jdbcTableHandle.getCatalogName());
+        splitConfig.setSchemaName(jdbcTableHandle.getSchemaName());
+        splitConfig.setTableName(jdbcTableHandle.getTableName());
+        splitConfig.setSplitField(splitField.get());
+        splitConfig.setTableSplitFieldValid(true);
+        splitConfig.setSplitCount(defaultSplitCount);
+        // the table may change between probing its minimum and maximum and reading it
+        splitConfig.setDataReadOnly(false);
+        splitConfig.setCalcStepEnable(false);
+        return splitConfig;
+    }
+
     private FixedSplitSource getFixedSplitSource(JdbcTableHandle tableHandle)
     {
         return new FixedSplitSource(ImmutableList.of(new JdbcSplit(tableHandle.getCatalogName(),
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.jdbc;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.connector.ConnectorPageSource;
+import io.prestosql.spi.connector.RecordPageSource;
+import io.prestosql.spi.connector.SchemaTableName;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static io.prestosql.testing.TestingConnectorSession.SESSION;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Compares reading a table of an embedded H2 database through {@link JdbcPageSource}
+ * and through {@link JdbcRecordCursor} adapted to pages by {@link RecordPageSource}.
+ */
+@State(Scope.Thread)
+@Fork(2)
+@Warmup(iterations = 5, time = 1000, timeUnit = MILLISECONDS)
+@Measurement(iterations = 10, time = 1000, timeUnit = MILLISECONDS)
+@OutputTimeUnit(MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkJdbcPageSource
+{
+    @Benchmark
+    public long pageSource(BenchmarkData data)
+            throws IOException
+    {
+        return readPositions(new JdbcPageSource(data.jdbcClient, SESSION, data.split, data.table, data.columns));
+    }
+
+    @Benchmark
+    public long recordPageSource(BenchmarkData data)
+            throws IOException
+    {
+        return readPositions(new RecordPageSource(new JdbcRecordSet(data.jdbcClient, SESSION, data.split, data.table, data.columns)));
+    }
+
+    private static long readPositions(ConnectorPageSource pageSource)
+            throws IOException
+    {
+        long positions = 0;
+        try (ConnectorPageSource closeable = pageSource) {
+            while (!closeable.isFinished()) {
+                Page page = closeable.getNextPage();
+                if (page != null) {
+                    positions += page.getPositionCount();
+                }
+            }
+        }
+        return positions;
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"100000"})
+        private int rows;
+
+        private TestingDatabase database;
+        private JdbcClient jdbcClient;
+        private JdbcTableHandle table;
+        private JdbcSplit split;
+        private List<JdbcColumnHandle> columns;
+
+        @Setup
+        public void setup()
+                throws SQLException
+        {
+            database = new TestingDatabase();
+            try (Statement statement = database.getConnection().createStatement()) {
+                statement.execute("CREATE TABLE example.benchmark(id bigint, name varchar, amount double, flag boolean)");
+                statement.execute("INSERT INTO example.benchmark " +
+                        "SELECT x, 'name_' || x, x * 0.5, MOD(x, 2) = 0 FROM SYSTEM_RANGE(1, " + rows + ")");
+            }
+            jdbcClient = database.getJdbcClient();
+            table = database.getTableHandle(SESSION, new SchemaTableName("example", "benchmark"));
+            split = database.getSplit(SESSION, table);
+            Map<String, JdbcColumnHandle> columnHandles = database.getColumnHandles(SESSION, table);
+            columns = ImmutableList.of(columnHandles.get("id"), columnHandles.get("name"), columnHandles.get("amount"), columnHandles.get("flag"));
+        }
+
+        @TearDown
+        public void tearDown()
+                throws SQLException
+        {
+            database.close();
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkJdbcPageSource.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
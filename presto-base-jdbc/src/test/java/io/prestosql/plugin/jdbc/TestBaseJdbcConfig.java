@@ -65,7 +65,14 @@ public class TestBaseJdbcConfig
                 .setTableSplitEnable(false)
                 .setTableSplitFields(null)
                 .setTableSplitStepCalcRefreshInterval(new Duration(5, MINUTES))
-                .setTableSplitStepCalcCalcThreads(4));
+                .setTableSplitStepCalcCalcThreads(4)
+                .setTableSplitDefaultCount(0)
+                .setTableSplitMaxCount(32)
+                .setMaxSplitConnections(0)
+                .setSplitConnectionWaitTimeout(new Duration(1, MINUTES))
+                .setWriteBatchSize(1000)
+                .setWriteConnections(1)
+                .setBulkLoadEnabled(false));
     }
 
     @Test
@@ -105,6 +112,13 @@ public class TestBaseJdbcConfig
                 .put("jdbc.table-split-fields", "test_field")
                 .put("jdbc.table-split-stepCalc-refresh-interval", "20s")
                 .put("jdbc.table-split-stepCalc-threads", "2")
+                .put("jdbc.table-split-default-count", "8")
+                .put("jdbc.table-split-max-count", "16")
+                .put("jdbc.max-split-connections", "64")
+                .put("jdbc.split-connection-wait-timeout", "30s")
+                .put("jdbc.write-batch-size", "5000")
+                .put("jdbc.write-connections", "4")
+                .put("jdbc.bulk-load-enabled", "true")
                 .build();
 
         BaseJdbcConfig expected = new BaseJdbcConfig()
@@ -140,7 +154,14 @@ public class TestBaseJdbcConfig
                 .setTableSplitEnable(true)
                 .setTableSplitFields("test_field")
                 .setTableSplitStepCalcRefreshInterval(new Duration(20, SECONDS))
-                .setTableSplitStepCalcCalcThreads(2);
+                .setTableSplitStepCalcCalcThreads(2)
+                .setTableSplitDefaultCount(8)
+                .setTableSplitMaxCount(16)
+                .setMaxSplitConnections(64)
+                .setSplitConnectionWaitTimeout(new Duration(30, SECONDS))
+                .setWriteBatchSize(5000)
+                .setWriteConnections(4)
+                .setBulkLoadEnabled(true);
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
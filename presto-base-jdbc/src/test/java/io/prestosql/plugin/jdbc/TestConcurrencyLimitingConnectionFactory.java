@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.jdbc;
+
+import io.airlift.units.Duration;
+import org.h2.Driver;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static io.prestosql.testing.TestingConnectorSession.SESSION;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestConcurrencyLimitingConnectionFactory
+{
+    private static final JdbcIdentity IDENTITY = JdbcIdentity.from(SESSION);
+
+    @Test
+    public void testLimit()
+            throws SQLException
+    {
+        ConcurrencyLimitingConnectionFactory connectionFactory = new ConcurrencyLimitingConnectionFactory(
+                new DriverConnectionFactory(new Driver(), "jdbc:h2:mem:test" + System.nanoTime(), Optional.empty(), Optional.empty(), new Properties()),
+                2,
+                new Duration(1, MINUTES));
+
+        Connection first = connectionFactory.openConnection(IDENTITY);
+        Connection second = connectionFactory.openConnection(IDENTITY);
+        assertEquals(connectionFactory.getAvailableConnections(), 0);
+        CompletableFuture<?> connectionAvailable = null;
+        try {
+            connectionFactory.openConnection(IDENTITY);
+            fail("expected the connection to be unavailable");
+        }
+        catch (ConnectionUnavailableException e) {
+            assertEquals(e.getMessage(), "All 2 connections to the data source are open");
+            connectionAvailable = e.getConnectionAvailable();
+        }
+        assertFalse(connectionAvailable.isDone());
+
+        // closing a connection twice releases its permit once, and wakes up the waiter
+        first.close();
+        assertTrue(connectionAvailable.isDone());
+        assertFalse(connectionAvailable.isCompletedExceptionally());
+        first.close();
+        assertTrue(first.isClosed());
+        assertEquals(connectionFactory.getAvailableConnections(), 1);
+
+        try (Connection third = connectionFactory.openConnection(IDENTITY)) {
+            assertFalse(third.isClosed());
+            assertEquals(connectionFactory.getAvailableConnections(), 0);
+        }
+        second.close();
+        assertEquals(connectionFactory.getAvailableConnections(), 2);
+        connectionFactory.close();
+    }
+
+    @Test
+    public void testWaitTimeout()
+            throws Exception
+    {
+        ConcurrencyLimitingConnectionFactory connectionFactory = new ConcurrencyLimitingConnectionFactory(
+                new DriverConnectionFactory(new Driver(), "jdbc:h2:mem:test" + System.nanoTime(), Optional.empty(), Optional.empty(), new Properties()),
+                1,
+                new Duration(10, MILLISECONDS));
+
+        try (Connection ignored = connectionFactory.openConnection(IDENTITY)) {
+            CompletableFuture<?> connectionAvailable = null;
+            try {
+                connectionFactory.openConnection(IDENTITY);
+                fail("expected the connection to be unavailable");
+            }
+            catch (ConnectionUnavailableException e) {
+                connectionAvailable = e.getConnectionAvailable();
+            }
+            try {
+                connectionAvailable.get();
+                fail("expected the wait to time out");
+            }
+            catch (ExecutionException e) {
+                assertTrue(e.getCause().getMessage().startsWith("Timed out after 10.00ms waiting for one of the 1 connections"), e.getCause().getMessage());
+            }
+        }
+        assertEquals(connectionFactory.getAvailableConnections(), 1);
+        connectionFactory.close();
+    }
+
+    @Test
+    public void testFailedConnectionReleasesPermit()
+    {
+        ConcurrencyLimitingConnectionFactory connectionFactory = new ConcurrencyLimitingConnectionFactory(
+                identity -> {
+                    throw new SQLException("connection refused");
+                },
+                1,
+                new Duration(10, MILLISECONDS));
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                connectionFactory.openConnection(IDENTITY);
+                fail("expected the connection to fail");
+            }
+            catch (SQLException e) {
+                assertEquals(e.getMessage(), "connection refused");
+            }
+        }
+        assertEquals(connectionFactory.getAvailableConnections(), 1);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.jdbc;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.DynamicSliceOutput;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.type.DecimalType;
+import io.prestosql.spi.type.Type;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.BooleanType.BOOLEAN;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.DecimalType.createDecimalType;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.VarbinaryType.VARBINARY;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+public class TestCopyTextBulkLoader
+{
+    private static final DecimalType DECIMAL = createDecimalType(10, 2);
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, BOOLEAN, DOUBLE, DECIMAL, DATE, VARCHAR);
+
+    @Test
+    public void testAppendRow()
+            throws Exception
+    {
+        ByteArrayOutputStream loaded = new ByteArrayOutputStream();
+        JdbcBulkLoader loader = CopyTextBulkLoader.forTable(TYPES, "test", (connection, sql, data) -> {
+            assertEquals(sql, "COPY test FROM STDIN");
+            int b;
+            while ((b = data.read()) != -1) {
+                loaded.write(b);
+            }
+        }).get();
+
+        PageBuilder pageBuilder = new PageBuilder(TYPES);
+        pageBuilder.declarePosition();
+        BIGINT.writeLong(pageBuilder.getBlockBuilder(0), -42);
+        BOOLEAN.writeBoolean(pageBuilder.getBlockBuilder(1), true);
+        DOUBLE.writeDouble(pageBuilder.getBlockBuilder(2), 1.5);
+        DECIMAL.writeLong(pageBuilder.getBlockBuilder(3), 12345);
+        DATE.writeLong(pageBuilder.getBlockBuilder(4), 18262);
+        VARCHAR.writeSlice(pageBuilder.getBlockBuilder(5), utf8Slice("tab\tnew\nline \\ ü"));
+        pageBuilder.declarePosition();
+        for (int channel = 0; channel < TYPES.size(); channel++) {
+            pageBuilder.getBlockBuilder(channel).appendNull();
+        }
+        Page page = pageBuilder.build();
+
+        DynamicSliceOutput batch = new DynamicSliceOutput(64);
+        loader.appendRow(page, 0, batch);
+        loader.appendRow(page, 1, batch);
+        loader.load(null, batch.slice());
+
+        assertEquals(new String(loaded.toByteArray(), UTF_8),
+                "-42\tt\t1.5\t123.45\t2020-01-01\ttab\\tnew\\nline \\\\ ü\n" +
+                        "\\N\t\\N\t\\N\t\\N\t\\N\t\\N\n");
+    }
+
+    @Test
+    public void testUnsupportedType()
+    {
+        assertFalse(CopyTextBulkLoader.create(ImmutableList.of(BIGINT, VARBINARY), "COPY test FROM STDIN", (connection, sql, data) -> {}).isPresent());
+    }
+}
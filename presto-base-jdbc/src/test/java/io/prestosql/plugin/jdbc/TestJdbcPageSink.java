@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.jdbc;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.prestosql.plugin.jdbc.jmx.JdbcPageSinkStats;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.BlockBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static io.prestosql.testing.TestingConnectorSession.SESSION;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+@Test(singleThreaded = true)
+public class TestJdbcPageSink
+{
+    private TestingDatabase database;
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        database = new TestingDatabase();
+        executor = newCachedThreadPool(daemonThreadsNamed("test-jdbc-page-sink-%s"));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws Exception
+    {
+        executor.shutdownNow();
+        database.close();
+    }
+
+    @Test
+    public void testSynchronousWrites()
+            throws Exception
+    {
+        JdbcPageSinkStats stats = new JdbcPageSinkStats();
+        JdbcPageSink sink = new JdbcPageSink(
+                SESSION,
+                createTable("SYNCHRONOUS_TARGET"),
+                database.getJdbcClient(),
+                new BaseJdbcConfig().setWriteBatchSize(3).setWriteConnections(4),
+                Optional.empty(),
+                stats);
+
+        assertEquals(sink.appendPage(createPage(0, 5)), JdbcPageSink.NOT_BLOCKED);
+        assertEquals(sink.appendPage(createPage(5, 5)), JdbcPageSink.NOT_BLOCKED);
+        sink.finish().get();
+
+        assertEquals(readIds("SYNCHRONOUS_TARGET"), ids(10));
+        assertEquals(stats.getWrittenRows().getTotalCount(), 10);
+        assertEquals(stats.getExecuteBatch().getTime().getAllTime().getCount(), 4.0);
+    }
+
+    @Test
+    public void testPipelinedWrites()
+            throws Exception
+    {
+        JdbcPageSinkStats stats = new JdbcPageSinkStats();
+        JdbcPageSink sink = new JdbcPageSink(
+                SESSION,
+                createTable("PIPELINED_TARGET"),
+                database.getJdbcClient(),
+                new BaseJdbcConfig().setWriteBatchSize(7).setWriteConnections(3),
+                Optional.of(executor),
+                stats);
+
+        // pages hold more rows than all connections can bind at once, so appending a page blocks on a future
+        for (int start = 0; start < 1000; start += 100) {
+            sink.appendPage(createPage(start, 100)).get();
+        }
+        sink.finish().get();
+
+        assertEquals(readIds("PIPELINED_TARGET"), ids(1000));
+        assertEquals(stats.getWrittenRows().getTotalCount(), 1000);
+        // 142 full batches and the rest written by finish
+        assertEquals(stats.getExecuteBatch().getTime().getAllTime().getCount(), 143.0);
+    }
+
+    @Test
+    public void testFailedBatchFailsAppend()
+            throws Exception
+    {
+        JdbcPageSink sink = new JdbcPageSink(
+                SESSION,
+                createTable("FAILED_APPEND_TARGET", true),
+                database.getJdbcClient(),
+                new BaseJdbcConfig().setWriteBatchSize(4).setWriteConnections(1),
+                Optional.of(executor),
+                new JdbcPageSinkStats());
+
+        // the batch with the duplicate key fails in the background and the sink waits for its connection
+        sink.appendPage(createPageWithIds(1, 1, 2, 3)).get();
+        try {
+            sink.appendPage(createPageWithIds(4, 5));
+            fail("expected the failure of the batch");
+        }
+        catch (PrestoException expected) {
+        }
+
+        sink.abort();
+        assertEquals(readIds("FAILED_APPEND_TARGET"), ImmutableSet.of());
+    }
+
+    @Test
+    public void testFailedBatchFailsFinish()
+            throws Exception
+    {
+        JdbcPageSink sink = new JdbcPageSink(
+                SESSION,
+                createTable("FAILED_FINISH_TARGET", true),
+                database.getJdbcClient(),
+                new BaseJdbcConfig().setWriteBatchSize(4).setWriteConnections(2),
+                Optional.of(executor),
+                new JdbcPageSinkStats());
+
+        assertEquals(sink.appendPage(createPageWithIds(1, 1, 2)), JdbcPageSink.NOT_BLOCKED);
+        try {
+            sink.finish().get();
+            fail("expected the failure of the batch");
+        }
+        catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof PrestoException, "unexpected failure: " + e.getCause());
+        }
+
+        sink.abort();
+        assertEquals(readIds("FAILED_FINISH_TARGET"), ImmutableSet.of());
+    }
+
+    private JdbcOutputTableHandle createTable(String tableName)
+            throws SQLException
+    {
+        return createTable(tableName, false);
+    }
+
+    private JdbcOutputTableHandle createTable(String tableName, boolean primaryKey)
+            throws SQLException
+    {
+        try (Statement statement = database.getConnection().createStatement()) {
+            statement.execute("CREATE TABLE EXAMPLE." + tableName + "(ID bigint" + (primaryKey ? " PRIMARY KEY" : "") + ", TEXT varchar)");
+        }
+        return new JdbcOutputTableHandle(
+                null,
+                "EXAMPLE",
+                tableName,
+                ImmutableList.of("ID", "TEXT"),
+                ImmutableList.of(BIGINT, VARCHAR),
+                tableName);
+    }
+
+    private Set<Long> readIds(String tableName)
+            throws SQLException
+    {
+        ImmutableSet.Builder<Long> ids = ImmutableSet.builder();
+        try (Statement statement = database.getConnection().createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT ID, TEXT FROM EXAMPLE." + tableName)) {
+            while (resultSet.next()) {
+                assertEquals(resultSet.getString(2), "text_" + resultSet.getLong(1));
+                ids.add(resultSet.getLong(1));
+            }
+        }
+        return ids.build();
+    }
+
+    private static Set<Long> ids(int count)
+    {
+        ImmutableSet.Builder<Long> ids = ImmutableSet.builder();
+        for (long id = 0; id < count; id++) {
+            ids.add(id);
+        }
+        return ids.build();
+    }
+
+    private static Page createPageWithIds(long... ids)
+    {
+        PageBuilder pageBuilder = new PageBuilder(ImmutableList.of(BIGINT, VARCHAR));
+        for (long id : ids) {
+            pageBuilder.declarePosition();
+            BIGINT.writeLong(pageBuilder.getBlockBuilder(0), id);
+            VARCHAR.writeSlice(pageBuilder.getBlockBuilder(1), utf8Slice("text_" + id));
+        }
+        return pageBuilder.build();
+    }
+
+    private static Page createPage(int start, int count)
+    {
+        PageBuilder pageBuilder = new PageBuilder(ImmutableList.of(BIGINT, VARCHAR));
+        BlockBuilder ids = pageBuilder.getBlockBuilder(0);
+        BlockBuilder texts = pageBuilder.getBlockBuilder(1);
+        for (int id = start; id < start + count; id++) {
+            pageBuilder.declarePosition();
+            BIGINT.writeLong(ids, id);
+            VARCHAR.writeSlice(texts, utf8Slice("text_" + id));
+        }
+        return pageBuilder.build();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.jdbc;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.connector.SchemaTableName;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static io.prestosql.testing.TestingConnectorSession.SESSION;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test
+public class TestJdbcPageSource
+{
+    private TestingDatabase database;
+    private JdbcClient jdbcClient;
+    private JdbcTableHandle table;
+    private JdbcSplit split;
+    private Map<String, JdbcColumnHandle> columnHandles;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        database = new TestingDatabase();
+        jdbcClient = database.getJdbcClient();
+        table = database.getTableHandle(SESSION, new SchemaTableName("example", "numbers"));
+        split = database.getSplit(SESSION, table);
+        columnHandles = database.getColumnHandles(SESSION, table);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws Exception
+    {
+        database.close();
+    }
+
+    @Test
+    public void testReadPages()
+    {
+        JdbcPageSource pageSource = new JdbcPageSource(jdbcClient, SESSION, split, table, ImmutableList.of(
+                columnHandles.get("text"),
+                columnHandles.get("text_short"),
+                columnHandles.get("value")));
+
+        Map<String, Long> data = new LinkedHashMap<>();
+        while (!pageSource.isFinished()) {
+            Page page = pageSource.getNextPage();
+            if (page == null) {
+                continue;
+            }
+            assertEquals(page.getChannelCount(), 3);
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                String text = VARCHAR.getSlice(page.getBlock(0), position).toStringUtf8();
+                assertEquals(VARCHAR.getSlice(page.getBlock(1), position).toStringUtf8(), text);
+                data.put(text, BIGINT.getLong(page.getBlock(2), position));
+            }
+        }
+
+        assertEquals(data, ImmutableMap.<String, Long>builder()
+                .put("one", 1L)
+                .put("two", 2L)
+                .put("three", 3L)
+                .put("ten", 10L)
+                .put("eleven", 11L)
+                .put("twelve", 12L)
+                .build());
+        assertTrue(pageSource.getCompletedBytes() > 0);
+        pageSource.close();
+    }
+
+    @Test
+    public void testReadNulls()
+            throws Exception
+    {
+        database.getConnection().createStatement().execute("CREATE TABLE example.nullable_numbers(id bigint, text varchar, value double)");
+        database.getConnection().createStatement().execute("INSERT INTO example.nullable_numbers VALUES (1, 'one', 1.5), (2, NULL, NULL), (NULL, 'three', 3.5)");
+        JdbcTableHandle nullableTable = database.getTableHandle(SESSION, new SchemaTableName("example", "nullable_numbers"));
+        Map<String, JdbcColumnHandle> nullableColumns = database.getColumnHandles(SESSION, nullableTable);
+
+        JdbcPageSource pageSource = new JdbcPageSource(jdbcClient, SESSION, database.getSplit(SESSION, nullableTable), nullableTable, ImmutableList.of(
+                nullableColumns.get("id"),
+                nullableColumns.get("text"),
+                nullableColumns.get("value")));
+
+        Page page = pageSource.getNextPage();
+        assertTrue(pageSource.isFinished());
+        assertEquals(page.getPositionCount(), 3);
+
+        Block ids = page.getBlock(0);
+        Block texts = page.getBlock(1);
+        Block values = page.getBlock(2);
+        assertEquals(BIGINT.getLong(ids, 0), 1L);
+        assertEquals(VARCHAR.getSlice(texts, 0).toStringUtf8(), "one");
+        assertEquals(DOUBLE.getDouble(values, 0), 1.5);
+        assertEquals(BIGINT.getLong(ids, 1), 2L);
+        assertTrue(texts.isNull(1));
+        assertTrue(values.isNull(1));
+        assertTrue(ids.isNull(2));
+        assertFalse(texts.isNull(2));
+        assertEquals(DOUBLE.getDouble(values, 2), 3.5);
+    }
+
+    @Test
+    public void testIdempotentClose()
+    {
+        JdbcPageSource pageSource = new JdbcPageSource(jdbcClient, SESSION, split, table, ImmutableList.of(
+                columnHandles.get("value"),
+                columnHandles.get("text")));
+
+        pageSource.close();
+        pageSource.close();
+        assertTrue(pageSource.isFinished());
+    }
+}
@@ -17,6 +17,7 @@ package io.prestosql.plugin.splitmanager;
 import io.prestosql.plugin.jdbc.BaseJdbcClient;
 import io.prestosql.plugin.jdbc.BaseJdbcConfig;
 import io.prestosql.plugin.jdbc.DriverConnectionFactory;
+import io.prestosql.plugin.jdbc.ForwardingJdbcClient;
 import io.prestosql.plugin.jdbc.JdbcClient;
 import io.prestosql.plugin.jdbc.JdbcIdentity;
 import io.prestosql.plugin.jdbc.JdbcSplit;
@@ -37,6 +38,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.prestosql.spi.connector.NotPartitionedPartitionHandle.NOT_PARTITIONED;
@@ -352,6 +354,85 @@ public class TestDataSourceTableSplitManager
         }
     }
 
+    // table without split field config is split by its integer primary key, up to the max split count
+    @Test
+    public void testGetTableSplits15()
+    {
+        long[][] rangeArray = new long[][]
+                {
+                        {0, 6},
+                        {6, 12},
+                        {12, Long.MAX_VALUE},
+                        {Long.MIN_VALUE, 0}
+                };
+        BaseJdbcConfig config = new BaseJdbcConfig();
+        config.setPushDownEnable(true)
+                .setTableSplitEnable(true)
+                .setTableSplitDefaultCount(4)
+                .setTableSplitMaxCount(2);
+        tableHandle = getTableHandle(new SchemaTableName("example", "keyed_numbers"));
+        splitManager = new DataSourceTableSplitManager(config, jdbcClient, nodeManager);
+        ConnectorSplitSource splitSource = splitManager.getTableSplits(JdbcIdentity.from(SESSION), tableHandle);
+        List<ConnectorSplit> splits = getFutureValue(splitSource.getNextBatch(NOT_PARTITIONED, 1000)).getSplits();
+        assertEquals(splits.size(), rangeArray.length);
+        int index = 0;
+        for (ConnectorSplit split : splits) {
+            JdbcSplit jdbcSplit = (JdbcSplit) split;
+            assertEquals(jdbcSplit.getSplitField(), "\"ID\"");
+            assertEquals(Long.parseLong(jdbcSplit.getRangeStart()), rangeArray[index][0]);
+            assertEquals(Long.parseLong(jdbcSplit.getRangEnd()), rangeArray[index][1]);
+            index++;
+        }
+    }
+
+    // table without split field config and without integer primary key is not split
+    @Test
+    public void testGetTableSplits16()
+    {
+        BaseJdbcConfig config = new BaseJdbcConfig();
+        config.setPushDownEnable(true)
+                .setTableSplitEnable(true)
+                .setTableSplitDefaultCount(4);
+        tableHandle = getTableHandle(new SchemaTableName("example", "numbers"));
+        splitManager = new DataSourceTableSplitManager(config, jdbcClient, nodeManager);
+        ConnectorSplitSource splitSource = splitManager.getTableSplits(JdbcIdentity.from(SESSION), tableHandle);
+        assertEquals(splitSource.getClass(), FixedSplitSource.class);
+    }
+
+    // the primary key of a table is only looked up once
+    @Test
+    public void testGetTableSplits17()
+    {
+        AtomicInteger lookups = new AtomicInteger();
+        JdbcClient countingClient = new ForwardingJdbcClient()
+        {
+            @Override
+            protected JdbcClient getDelegate()
+            {
+                return jdbcClient;
+            }
+
+            @Override
+            public Optional<String> getDefaultSplitField(Connection connection, JdbcTableHandle tableHandle)
+            {
+                lookups.incrementAndGet();
+                return super.getDefaultSplitField(connection, tableHandle);
+            }
+        };
+        BaseJdbcConfig config = new BaseJdbcConfig();
+        config.setPushDownEnable(true)
+                .setTableSplitEnable(true)
+                .setTableSplitDefaultCount(2);
+        tableHandle = getTableHandle(new SchemaTableName("example", "keyed_numbers"));
+        splitManager = new DataSourceTableSplitManager(config, countingClient, nodeManager);
+        for (int i = 0; i < 3; i++) {
+            ConnectorSplitSource splitSource = splitManager.getTableSplits(JdbcIdentity.from(SESSION), tableHandle);
+            List<ConnectorSplit> splits = getFutureValue(splitSource.getNextBatch(NOT_PARTITIONED, 1000)).getSplits();
+            assertEquals(((JdbcSplit) splits.get(0)).getSplitField(), "\"ID\"");
+        }
+        assertEquals(lookups.get(), 1);
+    }
+
     private void initSplitDatabase()
             throws SQLException
     {
@@ -422,6 +503,16 @@ public class TestDataSourceTableSplitManager
 
         connection.createStatement().execute("CREATE TABLE example.none_numbers(text varchar primary key, text_short varchar(32), value bigint)");
 
+        connection.createStatement().execute("CREATE TABLE example.keyed_numbers(id bigint primary key, text varchar)");
+        connection.createStatement().execute("INSERT INTO example.keyed_numbers(id, text) VALUES " +
+                "(1, 'one')," +
+                "(2, 'two')," +
+                "(3, 'three')," +
+                "(10, 'ten')," +
+                "(11, 'eleven')," +
+                "(12, 'twelve')" +
+                "");
+
         connection.createStatement().execute("CREATE TABLE example.five_numbers(text varchar primary key, text_short varchar(32), value bigint)");
         connection.createStatement().execute("INSERT INTO example.five_numbers(text, text_short, value) VALUES " +
                 "('one1', 'one1', 1)," +
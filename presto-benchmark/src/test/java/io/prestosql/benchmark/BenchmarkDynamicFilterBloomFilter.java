@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.benchmark;
+
+import io.prestosql.spi.util.BloomFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.Random;
+
+import static io.prestosql.spi.dynamicfilter.BloomFilterDynamicFilter.DEFAULT_DYNAMIC_FILTER_SIZE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static org.openjdk.jmh.annotations.Scope.Thread;
+
+/**
+ * Compares probing the standard and the cache line blocked BloomFilter
+ * layouts the way dynamic filters probe them on the scan side.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Thread)
+@OutputTimeUnit(NANOSECONDS)
+@BenchmarkMode(AverageTime)
+@Fork(3)
+@Warmup(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+public class BenchmarkDynamicFilterBloomFilter
+{
+    private static final int PROBE_COUNT = 10_000;
+
+    @State(Thread)
+    public static class Context
+    {
+        @Param({"false", "true"})
+        private boolean blocked;
+
+        // number of build side values inserted into the filter
+        @Param({"10000", "1000000"})
+        private int buildSize;
+
+        private BloomFilter bloomFilter;
+        private final long[] probes = new long[PROBE_COUNT];
+        private final boolean[] result = new boolean[PROBE_COUNT];
+
+        @Setup
+        public void setUp()
+        {
+            Random random = new Random(42);
+            bloomFilter = new BloomFilter(DEFAULT_DYNAMIC_FILTER_SIZE, 0.1, blocked);
+            for (int i = 0; i < buildSize; i++) {
+                bloomFilter.add(random.nextLong());
+            }
+            for (int i = 0; i < PROBE_COUNT; i++) {
+                probes[i] = random.nextLong();
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBE_COUNT)
+    public int testSingle(Context context)
+    {
+        BloomFilter bloomFilter = context.bloomFilter;
+        long[] probes = context.probes;
+        int matches = 0;
+        for (long probe : probes) {
+            if (bloomFilter.test(probe)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBE_COUNT)
+    public boolean[] testBatch(Context context)
+    {
+        context.bloomFilter.test(context.probes, context.result);
+        return context.result;
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkDynamicFilterBloomFilter.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+}
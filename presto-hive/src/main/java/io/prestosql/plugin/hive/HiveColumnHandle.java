@@ -28,6 +28,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static io.prestosql.plugin.hive.HiveColumnHandle.ColumnType.PARTITION_KEY;
@@ -73,6 +74,8 @@ public class HiveColumnHandle
     private final Optional<String> comment;
     //If the column is a partitionColumn or bucketing column, then this is required
     private final boolean required;
+    // paths of the fields of a STRUCT column which are read, the other fields are returned as nulls
+    private final Optional<Set<String>> requiredSubfields;
 
     public HiveColumnHandle(
             String name,
@@ -85,6 +88,18 @@ public class HiveColumnHandle
         this(name, hiveType, typeSignature, hiveColumnIndex, columnType, comment, false);
     }
 
+    public HiveColumnHandle(
+            String name,
+            HiveType hiveType,
+            TypeSignature typeSignature,
+            int hiveColumnIndex,
+            ColumnType columnType,
+            Optional<String> comment,
+            boolean required)
+    {
+        this(name, hiveType, typeSignature, hiveColumnIndex, columnType, comment, required, Optional.empty());
+    }
+
     @JsonCreator
     public HiveColumnHandle(
             @JsonProperty("name") String name,
@@ -93,7 +108,8 @@ public class HiveColumnHandle
             @JsonProperty("hiveColumnIndex") int hiveColumnIndex,
             @JsonProperty("columnType") ColumnType columnType,
             @JsonProperty("comment") Optional<String> comment,
-            @JsonProperty("required") boolean required)
+            @JsonProperty("required") boolean required,
+            @JsonProperty("requiredSubfields") Optional<Set<String>> requiredSubfields)
     {
         this.name = requireNonNull(name, "name is null");
         checkArgument(hiveColumnIndex >= 0 || columnType == PARTITION_KEY || columnType == SYNTHESIZED, "hiveColumnIndex is negative");
@@ -103,6 +119,7 @@ public class HiveColumnHandle
         this.columnType = requireNonNull(columnType, "columnType is null");
         this.comment = requireNonNull(comment, "comment is null");
         this.required = required;
+        this.requiredSubfields = requireNonNull(requiredSubfields, "requiredSubfields is null");
     }
 
     @JsonProperty
@@ -173,6 +190,18 @@ public class HiveColumnHandle
         return required;
     }
 
+    @JsonProperty
+    public Optional<Set<String>> getRequiredSubfields()
+    {
+        return requiredSubfields;
+    }
+
+    public HiveColumnHandle withRequiredSubfields(Optional<Set<String>> requiredSubfields)
+    {
+        return new HiveColumnHandle(name, hiveType, typeName, hiveColumnIndex, columnType, comment, required, requiredSubfields);
+    }
+
+    // the required subfields are left out, so that a pruned column still matches the column in predicates
     @Override
     public int hashCode()
     {
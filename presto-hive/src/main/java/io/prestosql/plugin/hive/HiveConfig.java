@@ -31,6 +31,7 @@ import io.prestosql.spi.queryeditorui.PropertyType;
 import org.joda.time.DateTimeZone;
 
 import javax.annotation.Nullable;
+import javax.validation.constraints.AssertTrue;
 import javax.validation.constraints.DecimalMax;
 import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Max;
@@ -142,19 +143,26 @@ public class HiveConfig
 
     private boolean orcFileTailCacheEnabled;
     private Duration orcFileTailCacheTtl = new Duration(4, HOURS);
-    private long orcFileTailCacheLimit = 50_000;
     private boolean orcStripeFooterCacheEnabled;
     private Duration orcStripeFooterCacheTtl = new Duration(4, HOURS);
-    private long orcStripeFooterCacheLimit = 250_000;
     private boolean orcRowIndexCacheEnabled;
     private Duration orcRowIndexCacheTtl = new Duration(4, HOURS);
-    private long orcRowIndexCacheLimit = 250_000;
     private boolean orcBloomFiltersCacheEnabled;
     private Duration orcBloomFiltersCacheTtl = new Duration(4, HOURS);
-    private long orcBloomFiltersCacheLimit = 250_000;
     private boolean orcRowDataCacheEnabled;
     private Duration orcRowDataCacheTtl = new Duration(4, HOURS);
     private DataSize orcRowDataCacheMaximumWeight = new DataSize(20, GIGABYTE);
+    private DataSize orcMetadataCacheMaxMemory = new DataSize(2, GIGABYTE);
+    // Entry count limits of the Orc metadata caches, ignored since they share hive.orc.metadata.cache.max-memory
+    private long orcFileTailCacheLimit = 50_000;
+    private long orcStripeFooterCacheLimit = 250_000;
+    private long orcRowIndexCacheLimit = 250_000;
+    private long orcBloomFiltersCacheLimit = 250_000;
+    private boolean orcDiskCacheEnabled;
+    private String orcDiskCacheDirectory;
+    private DataSize orcDiskCacheMaxSize = new DataSize(100, GIGABYTE);
+    private DataSize orcDiskCacheBlockSize = new DataSize(1, MEGABYTE);
+    private int orcDiskCacheWriterThreads = 4;
 
     private String rcfileTimeZone = TimeZone.getDefault().getID();
     private boolean rcfileWriterValidate;
@@ -1491,20 +1499,6 @@ public class HiveConfig
         return this;
     }
 
-    @NotNull
-    public long getOrcFileTailCacheLimit()
-    {
-        return orcFileTailCacheLimit;
-    }
-
-    @Config("hive.orc.file-tail.cache.limit")
-    @ConfigDescription("Orc file tail cache limit.")
-    public HiveConfig setOrcFileTailCacheLimit(long orcFileTailCacheLimit)
-    {
-        this.orcFileTailCacheLimit = orcFileTailCacheLimit;
-        return this;
-    }
-
     public boolean isOrcStripeFooterCacheEnabled()
     {
         return orcStripeFooterCacheEnabled;
@@ -1532,20 +1526,6 @@ public class HiveConfig
         return this;
     }
 
-    @Min(0)
-    public long getOrcStripeFooterCacheLimit()
-    {
-        return orcStripeFooterCacheLimit;
-    }
-
-    @Config("hive.orc.stripe-footer.cache.limit")
-    @ConfigDescription("Orc stripe footer cache limit.")
-    public HiveConfig setOrcStripeFooterCacheLimit(long orcStripeFooterCacheLimit)
-    {
-        this.orcStripeFooterCacheLimit = orcStripeFooterCacheLimit;
-        return this;
-    }
-
     public boolean isOrcRowIndexCacheEnabled()
     {
         return orcRowIndexCacheEnabled;
@@ -1572,19 +1552,6 @@ public class HiveConfig
         return this;
     }
 
-    @Min(0)
-    public long getOrcRowIndexCacheLimit()
-    {
-        return orcRowIndexCacheLimit;
-    }
-
-    @Config("hive.orc.row-index.cache.limit")
-    public HiveConfig setOrcRowIndexCacheLimit(long orcRowIndexCacheLimit)
-    {
-        this.orcRowIndexCacheLimit = orcRowIndexCacheLimit;
-        return this;
-    }
-
     public boolean isOrcBloomFiltersCacheEnabled()
     {
         return orcBloomFiltersCacheEnabled;
@@ -1611,19 +1578,6 @@ public class HiveConfig
         return this;
     }
 
-    @Min(0)
-    public long getOrcBloomFiltersCacheLimit()
-    {
-        return orcBloomFiltersCacheLimit;
-    }
-
-    @Config("hive.orc.bloom-filters.cache.limit")
-    public HiveConfig setOrcBloomFiltersCacheLimit(long orcBloomFiltersCacheLimit)
-    {
-        this.orcBloomFiltersCacheLimit = orcBloomFiltersCacheLimit;
-        return this;
-    }
-
     public boolean isOrcRowDataCacheEnabled()
     {
         return orcRowDataCacheEnabled;
@@ -1664,6 +1618,153 @@ public class HiveConfig
         return this;
     }
 
+    public DataSize getOrcMetadataCacheMaxMemory()
+    {
+        return orcMetadataCacheMaxMemory;
+    }
+
+    @Config("hive.orc.metadata.cache.max-memory")
+    @ConfigDescription("Memory shared by the Orc file tail, stripe footer, row index and bloom filters caches.")
+    public HiveConfig setOrcMetadataCacheMaxMemory(DataSize orcMetadataCacheMaxMemory)
+    {
+        this.orcMetadataCacheMaxMemory = orcMetadataCacheMaxMemory;
+        return this;
+    }
+
+    @Deprecated
+    public long getOrcFileTailCacheLimit()
+    {
+        return orcFileTailCacheLimit;
+    }
+
+    @Deprecated
+    @Config("hive.orc.file-tail.cache.limit")
+    @ConfigDescription("Deprecated and ignored, the cache is bounded by hive.orc.metadata.cache.max-memory")
+    public HiveConfig setOrcFileTailCacheLimit(long orcFileTailCacheLimit)
+    {
+        this.orcFileTailCacheLimit = orcFileTailCacheLimit;
+        return this;
+    }
+
+    @Deprecated
+    public long getOrcStripeFooterCacheLimit()
+    {
+        return orcStripeFooterCacheLimit;
+    }
+
+    @Deprecated
+    @Config("hive.orc.stripe-footer.cache.limit")
+    @ConfigDescription("Deprecated and ignored, the cache is bounded by hive.orc.metadata.cache.max-memory")
+    public HiveConfig setOrcStripeFooterCacheLimit(long orcStripeFooterCacheLimit)
+    {
+        this.orcStripeFooterCacheLimit = orcStripeFooterCacheLimit;
+        return this;
+    }
+
+    @Deprecated
+    public long getOrcRowIndexCacheLimit()
+    {
+        return orcRowIndexCacheLimit;
+    }
+
+    @Deprecated
+    @Config("hive.orc.row-index.cache.limit")
+    @ConfigDescription("Deprecated and ignored, the cache is bounded by hive.orc.metadata.cache.max-memory")
+    public HiveConfig setOrcRowIndexCacheLimit(long orcRowIndexCacheLimit)
+    {
+        this.orcRowIndexCacheLimit = orcRowIndexCacheLimit;
+        return this;
+    }
+
+    @Deprecated
+    public long getOrcBloomFiltersCacheLimit()
+    {
+        return orcBloomFiltersCacheLimit;
+    }
+
+    @Deprecated
+    @Config("hive.orc.bloom-filters.cache.limit")
+    @ConfigDescription("Deprecated and ignored, the cache is bounded by hive.orc.metadata.cache.max-memory")
+    public HiveConfig setOrcBloomFiltersCacheLimit(long orcBloomFiltersCacheLimit)
+    {
+        this.orcBloomFiltersCacheLimit = orcBloomFiltersCacheLimit;
+        return this;
+    }
+
+    public boolean isOrcDiskCacheEnabled()
+    {
+        return orcDiskCacheEnabled;
+    }
+
+    @Config("hive.orc.disk-cache.enabled")
+    @ConfigDescription("Flag to enable caching Orc file contents on local disk")
+    public HiveConfig setOrcDiskCacheEnabled(boolean orcDiskCacheEnabled)
+    {
+        this.orcDiskCacheEnabled = orcDiskCacheEnabled;
+        return this;
+    }
+
+    public String getOrcDiskCacheDirectory()
+    {
+        return orcDiskCacheDirectory;
+    }
+
+    @Config("hive.orc.disk-cache.directory")
+    @ConfigDescription("Local directory of the Orc disk cache, must not be shared by catalogs.")
+    public HiveConfig setOrcDiskCacheDirectory(String orcDiskCacheDirectory)
+    {
+        this.orcDiskCacheDirectory = orcDiskCacheDirectory;
+        return this;
+    }
+
+    public DataSize getOrcDiskCacheMaxSize()
+    {
+        return orcDiskCacheMaxSize;
+    }
+
+    @Config("hive.orc.disk-cache.max-size")
+    @ConfigDescription("Orc disk cache max size.")
+    public HiveConfig setOrcDiskCacheMaxSize(DataSize orcDiskCacheMaxSize)
+    {
+        this.orcDiskCacheMaxSize = orcDiskCacheMaxSize;
+        return this;
+    }
+
+    @MinDataSize("4kB")
+    @MaxDataSize("256MB")
+    public DataSize getOrcDiskCacheBlockSize()
+    {
+        return orcDiskCacheBlockSize;
+    }
+
+    @Config("hive.orc.disk-cache.block-size")
+    @ConfigDescription("Size of the blocks Orc files are cached on disk in.")
+    public HiveConfig setOrcDiskCacheBlockSize(DataSize orcDiskCacheBlockSize)
+    {
+        this.orcDiskCacheBlockSize = orcDiskCacheBlockSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getOrcDiskCacheWriterThreads()
+    {
+        return orcDiskCacheWriterThreads;
+    }
+
+    @Config("hive.orc.disk-cache.writer-threads")
+    @ConfigDescription("Number of threads writing Orc blocks to the disk cache.")
+    public HiveConfig setOrcDiskCacheWriterThreads(int orcDiskCacheWriterThreads)
+    {
+        this.orcDiskCacheWriterThreads = orcDiskCacheWriterThreads;
+        return this;
+    }
+
+    @AssertTrue(message = "hive.orc.disk-cache.directory must be set when the Orc disk cache is enabled")
+    public boolean isOrcDiskCacheDirectoryValid()
+    {
+        return !orcDiskCacheEnabled || orcDiskCacheDirectory != null;
+    }
+
     @Config("hive.transaction-heartbeat-interval")
     @ConfigDescription("Interval after which heartbeat is sent for open Hive transaction")
     public HiveConfig setHiveTransactionHeartbeatInterval(Duration interval)
@@ -73,6 +73,7 @@ import io.prestosql.spi.connector.Constraint;
 import io.prestosql.spi.connector.ConstraintApplicationResult;
 import io.prestosql.spi.connector.DiscretePredicates;
 import io.prestosql.spi.connector.InMemoryRecordSet;
+import io.prestosql.spi.connector.ProjectionApplicationResult;
 import io.prestosql.spi.connector.RecordCursor;
 import io.prestosql.spi.connector.SchemaTableName;
 import io.prestosql.spi.connector.SchemaTablePrefix;
@@ -80,6 +81,9 @@ import io.prestosql.spi.connector.SystemTable;
 import io.prestosql.spi.connector.TableAlreadyExistsException;
 import io.prestosql.spi.connector.TableNotFoundException;
 import io.prestosql.spi.connector.ViewNotFoundException;
+import io.prestosql.spi.expression.ConnectorExpression;
+import io.prestosql.spi.expression.FieldDereference;
+import io.prestosql.spi.expression.Variable;
 import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.predicate.NullableValue;
 import io.prestosql.spi.predicate.TupleDomain;
@@ -93,6 +97,7 @@ import io.prestosql.spi.statistics.ComputedStatistics;
 import io.prestosql.spi.statistics.TableStatisticType;
 import io.prestosql.spi.statistics.TableStatistics;
 import io.prestosql.spi.statistics.TableStatisticsMetadata;
+import io.prestosql.spi.type.RowType;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeManager;
 import io.prestosql.spi.type.VarcharType;
@@ -104,6 +109,10 @@ import org.apache.hadoop.hive.ql.exec.FileSinkOperator;
 import org.apache.hadoop.hive.ql.io.AcidUtils;
 import org.apache.hadoop.hive.serde.serdeConstants;
 import org.apache.hadoop.hive.serde2.OpenCSVSerde;
+import org.apache.hadoop.hive.serde2.typeinfo.ListTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.MapTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.StructTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
 import org.apache.hadoop.mapred.JobConf;
 
 import java.io.File;
@@ -2236,13 +2245,25 @@ public class HiveMetadata
             isSuitableToPush = checkIfSuitableToPush(allColumnHandles, tableHandle, session);
         }
 
+        if (isSuitableToPush && !hasOnlyNullTestsOnNestedColumns(newEffectivePredicate)) {
+            isSuitableToPush = false;
+        }
+
         if (isSuitableToPush && HiveSessionProperties.isOrcDisjunctPredicatePushdownEnabled(session)) {
             newEffectivePredicates = builder.build();
-
-            newEffectivePredicates.stream().forEach(nfp ->
-                    nfp.getDomains().get().keySet().stream()
-                            .map(HiveColumnHandle::getColumnName)
-                            .forEach(predicateColumnNames::add));
+            // disjuncts are evaluated with readOr, which selective readers of nested columns do not support
+            if (newEffectivePredicates.stream()
+                    .flatMap(predicate -> predicate.getDomains().get().keySet().stream())
+                    .allMatch(column -> column.getHiveType().getCategory() == PRIMITIVE)) {
+                newEffectivePredicates.stream().forEach(nfp ->
+                        nfp.getDomains().get().keySet().stream()
+                                .map(HiveColumnHandle::getColumnName)
+                                .forEach(predicateColumnNames::add));
+            }
+            else {
+                isSuitableToPush = false;
+                newEffectivePredicates = null;
+            }
         }
 
         if (isSuitableToPush
@@ -2295,7 +2316,7 @@ public class HiveMetadata
      * Then further check if pushdown can be supported by connector. It support iff below all condition satisfies.
      * 1. Storage Format should be only ORC.
      * 2. Table to be scanned is not transactional table (so effectively DELETE/UPDATE also not supported).
-     * 3. Also columns part of the scan are of any primitive data-type except byte.
+     * 3. Also columns part of the scan are of any data-type except byte and union, nested columns are only filtered on being null.
      * NOTE: This should be adjusted as we continue to support additional functionality.
      * @param allColumnHandles set of all column handles being part of scan.
      * @param tableHandle table handle
@@ -2312,11 +2333,12 @@ public class HiveMetadata
 
         for (ColumnHandle handle : allColumnHandles) {
             HiveColumnHandle hiveColumnHandle = (HiveColumnHandle) handle;
-            // Non-primitive data type(e.g. STRUCT, MAP, LIST) and BYTE are not supported to pushdown.
+            // BYTE and UNION, also nested in STRUCT, MAP or LIST, are not supported to pushdown.
             // UPDATE/DELETE which has explicit column $rowId of STRUCT Type, will be not allowed to pushdown.
-            // NOTE: Incase STRUCT type supported, support of UPDATE/DELETE should be checked or should be handled here.
-            if (hiveColumnHandle.getHiveType().getCategory().equals(PRIMITIVE) == false
-                    || hiveColumnHandle.getHiveType().equals(HiveType.HIVE_BYTE)) {
+            if (hiveColumnHandle.getHiveType().getCategory().equals(PRIMITIVE) == false && !hiveColumnHandle.isRegular()) {
+                return false;
+            }
+            if (!isSelectiveReadSupported(hiveColumnHandle.getHiveType().getTypeInfo())) {
                 return false;
             }
         }
@@ -2324,6 +2346,108 @@ public class HiveMetadata
         return true;
     }
 
+    private static boolean isSelectiveReadSupported(TypeInfo typeInfo)
+    {
+        switch (typeInfo.getCategory()) {
+            case PRIMITIVE:
+                return !typeInfo.equals(HiveType.HIVE_BYTE.getTypeInfo());
+            case MAP:
+                MapTypeInfo mapTypeInfo = (MapTypeInfo) typeInfo;
+                return isSelectiveReadSupported(mapTypeInfo.getMapKeyTypeInfo()) && isSelectiveReadSupported(mapTypeInfo.getMapValueTypeInfo());
+            case LIST:
+                return isSelectiveReadSupported(((ListTypeInfo) typeInfo).getListElementTypeInfo());
+            case STRUCT:
+                return ((StructTypeInfo) typeInfo).getAllStructFieldTypeInfos().stream()
+                        .allMatch(HiveMetadata::isSelectiveReadSupported);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Selective readers of STRUCT, MAP and LIST columns can only filter on the column being null or not null
+     */
+    /**
+     * Prunes the fields of STRUCT columns which the projections only reach through dereferences, when the scan is
+     * read by the selective ORC reader. The fields which are not referenced are returned as nulls.
+     */
+    @Override
+    public Optional<ProjectionApplicationResult<ConnectorTableHandle>> applyProjection(ConnectorSession session, ConnectorTableHandle handle, List<ConnectorExpression> projections, Map<String, ColumnHandle> assignments)
+    {
+        if (!((HiveTableHandle) handle).isSuitableToPush()) {
+            return Optional.empty();
+        }
+
+        Map<String, Set<String>> referencedSubfields = getReferencedSubfields(projections);
+        boolean pruned = false;
+        ImmutableList.Builder<ProjectionApplicationResult.Assignment> newAssignments = ImmutableList.builder();
+        for (Map.Entry<String, ColumnHandle> assignment : assignments.entrySet()) {
+            HiveColumnHandle column = (HiveColumnHandle) assignment.getValue();
+            Optional<Set<String>> requiredSubfields = column.isRegular() ? Optional.ofNullable(referencedSubfields.get(assignment.getKey())) : Optional.empty();
+            if (!requiredSubfields.equals(column.getRequiredSubfields())) {
+                column = column.withRequiredSubfields(requiredSubfields);
+                pruned = true;
+            }
+            newAssignments.add(new ProjectionApplicationResult.Assignment(assignment.getKey(), column, typeManager.getType(column.getTypeSignature())));
+        }
+
+        // the optimizer calls this again with the new assignments, which must have no effect then
+        if (!pruned) {
+            return Optional.empty();
+        }
+        return Optional.of(new ProjectionApplicationResult<>(handle, projections, newAssignments.build()));
+    }
+
+    /**
+     * Paths of the referenced fields, by the variables which are only dereferenced in the projections.
+     */
+    @VisibleForTesting
+    static Map<String, Set<String>> getReferencedSubfields(List<ConnectorExpression> projections)
+    {
+        Map<String, Set<String>> referencedSubfields = new HashMap<>();
+        Set<String> referencedVariables = new HashSet<>();
+        for (ConnectorExpression projection : projections) {
+            List<String> path = new ArrayList<>();
+            ConnectorExpression expression = projection;
+            while (expression instanceof FieldDereference) {
+                FieldDereference dereference = (FieldDereference) expression;
+                Optional<String> fieldName = ((RowType) dereference.getTarget().getType()).getFields().get(dereference.getField()).getName();
+                if (fieldName.isPresent()) {
+                    path.add(0, fieldName.get().toLowerCase(ENGLISH));
+                }
+                else {
+                    // a field without a name can't be selected, so all the fields of the column are read
+                    path.clear();
+                }
+                expression = dereference.getTarget();
+            }
+            if (expression instanceof Variable) {
+                String variable = ((Variable) expression).getName();
+                if (path.isEmpty()) {
+                    referencedVariables.add(variable);
+                }
+                else {
+                    referencedSubfields.computeIfAbsent(variable, name -> new HashSet<>()).add(String.join(".", path));
+                }
+            }
+        }
+        return referencedSubfields.entrySet().stream()
+                .filter(entry -> !referencedVariables.contains(entry.getKey()))
+                .collect(toImmutableMap(Map.Entry::getKey, entry -> ImmutableSet.copyOf(entry.getValue())));
+    }
+
+    private static boolean hasOnlyNullTestsOnNestedColumns(TupleDomain<HiveColumnHandle> predicate)
+    {
+        if (!predicate.getDomains().isPresent()) {
+            return true;
+        }
+        return predicate.getDomains().get().entrySet().stream()
+                .filter(entry -> entry.getKey().getHiveType().getCategory() != PRIMITIVE)
+                .map(Map.Entry::getValue)
+                .allMatch(domain -> (domain.getValues().isNone() && domain.isNullAllowed())
+                        || (domain.getValues().isAll() && !domain.isNullAllowed()));
+    }
+
     @Override
     public Optional<ConnectorPartitioningHandle> getCommonPartitioningHandle(ConnectorSession session, ConnectorPartitioningHandle left, ConnectorPartitioningHandle right)
     {
@@ -23,8 +23,11 @@ import com.google.inject.multibindings.Multibinder;
 import io.airlift.concurrent.BoundedExecutor;
 import io.airlift.event.client.EventClient;
 import io.prestosql.orc.BloomFilterCacheStatsLister;
+import io.prestosql.orc.DiskCacheStatsLister;
 import io.prestosql.orc.FileTailCacheStatsLister;
+import io.prestosql.orc.MetadataCacheStatsLister;
 import io.prestosql.orc.OrcCacheStore;
+import io.prestosql.orc.OrcDiskCache;
 import io.prestosql.orc.RowDataCacheStatsLister;
 import io.prestosql.orc.RowIndexCacheStatsLister;
 import io.prestosql.orc.StripeFooterCacheStatsLister;
@@ -43,7 +46,11 @@ import io.prestosql.spi.connector.ConnectorSplitManager;
 
 import javax.inject.Singleton;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.Optional;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
@@ -55,6 +62,7 @@ import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.configuration.ConfigBinder.configBinder;
 import static io.airlift.json.JsonCodecBinder.jsonCodecBinder;
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.weakref.jmx.guice.ExportBinder.newExporter;
 
@@ -138,8 +146,12 @@ public class HiveModule
         newExporter(binder).export(RowIndexCacheStatsLister.class).withGeneratedName();
         binder.bind(BloomFilterCacheStatsLister.class).in(Scopes.SINGLETON);
         newExporter(binder).export(BloomFilterCacheStatsLister.class).withGeneratedName();
+        binder.bind(MetadataCacheStatsLister.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(MetadataCacheStatsLister.class).withGeneratedName();
         binder.bind(RowDataCacheStatsLister.class).in(Scopes.SINGLETON);
         newExporter(binder).export(RowDataCacheStatsLister.class).withGeneratedName();
+        binder.bind(DiskCacheStatsLister.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(DiskCacheStatsLister.class).withGeneratedName();
     }
 
     @ForHive
@@ -212,13 +224,30 @@ public class HiveModule
     public static OrcCacheStore getCacheStore(HiveConfig config)
     {
         return OrcCacheStore.builder().newCacheStore(
-                config.getOrcFileTailCacheLimit(), Duration.ofMillis(config.getOrcFileTailCacheTtl().toMillis()),
-                config.getOrcStripeFooterCacheLimit(),
+                config.getOrcMetadataCacheMaxMemory(),
+                Duration.ofMillis(config.getOrcFileTailCacheTtl().toMillis()),
                 Duration.ofMillis(config.getOrcStripeFooterCacheTtl().toMillis()),
-                config.getOrcRowIndexCacheLimit(), Duration.ofMillis(config.getOrcRowIndexCacheTtl().toMillis()),
-                config.getOrcBloomFiltersCacheLimit(),
+                Duration.ofMillis(config.getOrcRowIndexCacheTtl().toMillis()),
                 Duration.ofMillis(config.getOrcBloomFiltersCacheTtl().toMillis()),
                 config.getOrcRowDataCacheMaximumWeight(), Duration.ofMillis(config.getOrcRowDataCacheTtl().toMillis()),
-                config.isOrcCacheStatsMetricCollectionEnabled());
+                config.isOrcCacheStatsMetricCollectionEnabled(),
+                createDiskCache(config));
+    }
+
+    private static Optional<OrcDiskCache> createDiskCache(HiveConfig config)
+    {
+        if (!config.isOrcDiskCacheEnabled()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new OrcDiskCache(
+                    Paths.get(config.getOrcDiskCacheDirectory()),
+                    config.getOrcDiskCacheMaxSize(),
+                    config.getOrcDiskCacheBlockSize(),
+                    newFixedThreadPool(config.getOrcDiskCacheWriterThreads(), daemonThreadsNamed("hive-orc-disk-cache-%s"))));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to create Orc disk cache in " + config.getOrcDiskCacheDirectory(), e);
+        }
     }
 }
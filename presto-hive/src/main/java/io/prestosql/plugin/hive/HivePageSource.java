@@ -36,7 +36,6 @@ import io.prestosql.spi.dynamicfilter.DynamicFilter;
 import io.prestosql.spi.dynamicfilter.DynamicFilterSupplier;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeManager;
-import io.prestosql.spi.type.TypeUtils;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
 
@@ -341,8 +340,11 @@ public class HivePageSource
                     block.filter(((BloomFilterDynamicFilter) dynamicFilters.get(j).get(columnHandle)).getBloomFilterDeserialized(), filterResult);
                 }
                 else {
-                    for (int i = 0; i < block.getPositionCount(); i++) {
-                        filterResult[i] = filterResult[i] && dynamicFilter.contains(TypeUtils.readNativeValue(types[columnIndex], block, i));
+                    int[] positions = toPositions(filterResult);
+                    int matched = dynamicFilter.contains(block, types[columnIndex], positions, positions.length);
+                    Arrays.fill(filterResult, Boolean.FALSE);
+                    for (int i = 0; i < matched; i++) {
+                        filterResult[positions[i]] = true;
                     }
                 }
             }
@@ -16,6 +16,7 @@ package io.prestosql.plugin.hive.orc;
 import io.airlift.units.DataSize;
 import io.prestosql.orc.AbstractOrcDataSource;
 import io.prestosql.orc.OrcDataSourceId;
+import io.prestosql.orc.OrcDiskCache;
 import io.prestosql.plugin.hive.FileFormatDataSourceStats;
 import io.prestosql.plugin.hive.HiveErrorCode;
 import io.prestosql.spi.PrestoException;
@@ -23,6 +24,7 @@ import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.hdfs.BlockMissingException;
 
 import java.io.IOException;
+import java.util.Optional;
 
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -32,6 +34,7 @@ public class HdfsOrcDataSource
 {
     private final FSDataInputStream inputStream;
     private final FileFormatDataSourceStats stats;
+    private final Optional<OrcDiskCache> diskCache;
 
     public HdfsOrcDataSource(
             OrcDataSourceId id,
@@ -43,10 +46,26 @@ public class HdfsOrcDataSource
             FSDataInputStream inputStream,
             FileFormatDataSourceStats stats,
             long lastModifiedTime)
+    {
+        this(id, size, maxMergeDistance, maxReadSize, streamBufferSize, lazyReadSmallRanges, inputStream, stats, lastModifiedTime, Optional.empty());
+    }
+
+    public HdfsOrcDataSource(
+            OrcDataSourceId id,
+            long size,
+            DataSize maxMergeDistance,
+            DataSize maxReadSize,
+            DataSize streamBufferSize,
+            boolean lazyReadSmallRanges,
+            FSDataInputStream inputStream,
+            FileFormatDataSourceStats stats,
+            long lastModifiedTime,
+            Optional<OrcDiskCache> diskCache)
     {
         super(id, size, maxMergeDistance, maxReadSize, streamBufferSize, lazyReadSmallRanges, lastModifiedTime);
         this.inputStream = requireNonNull(inputStream, "inputStream is null");
         this.stats = requireNonNull(stats, "stats is null");
+        this.diskCache = requireNonNull(diskCache, "diskCache is null");
     }
 
     @Override
@@ -58,6 +77,17 @@ public class HdfsOrcDataSource
 
     @Override
     protected void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
+            throws IOException
+    {
+        if (diskCache.isPresent()) {
+            diskCache.get().read(getId(), getLastModifiedTime(), getSize(), position, buffer, bufferOffset, bufferLength, this::readRemote);
+        }
+        else {
+            readRemote(position, buffer, bufferOffset, bufferLength);
+        }
+    }
+
+    private void readRemote(long position, byte[] buffer, int bufferOffset, int bufferLength)
     {
         try {
             long readStart = System.nanoTime();
@@ -273,7 +273,8 @@ public class OrcPageSourceFactory
                     lazyReadSmallRanges,
                     inputStream,
                     stats,
-                    dataSourceLastModifiedTime);
+                    dataSourceLastModifiedTime,
+                    orcCacheStore.getDiskCache());
         }
         catch (Exception e) {
             if (nullToEmpty(e.getMessage()).trim().equals("Filesystem closed") ||
@@ -357,7 +357,8 @@ public class OrcSelectivePageSourceFactory
                     lazyReadSmallRanges,
                     inputStream,
                     stats,
-                    dataSourceLastModifiedTime);
+                    dataSourceLastModifiedTime,
+                    orcCacheStore.getDiskCache());
         }
         catch (Exception e) {
             if (nullToEmpty(e.getMessage()).trim().equals("Filesystem closed") ||
@@ -497,6 +498,11 @@ public class OrcSelectivePageSourceFactory
                     .forEach(ap -> toTupleDomainFilters(ap, ImmutableBiMap.copyOf(columnNames).inverse()).entrySet().stream()
                             .forEach(td -> orFilters.computeIfAbsent(td.getKey(), list -> new ArrayList<>()).add(td.getValue())));
 
+            // fields of STRUCT columns which are not referenced by the query are not read
+            Map<Integer, Set<String>> requiredSubfields = columns.stream()
+                    .filter(column -> column.getRequiredSubfields().isPresent())
+                    .collect(toImmutableMap(HiveColumnHandle::getHiveColumnIndex, column -> column.getRequiredSubfields().get()));
+
             // domains still required by index (refer AbstractOrcRecordReader).
             Map<String, Domain> domainMap = effectivePredicateDomains.entrySet().stream().collect(toMap(e -> e.getKey().getName(), Map.Entry::getValue));
             OrcSelectiveRecordReader recordReader = reader.createSelectiveRecordReader(
@@ -524,7 +530,9 @@ public class OrcSelectivePageSourceFactory
                     HiveSessionProperties.isOrcPushdownDataCacheEnabled(session),
                     Maps.transformValues(coercers, Function.class::cast),
                     orDomains,
-                    missingColumns);
+                    missingColumns,
+                    ImmutableMap.of(),
+                    requiredSubfields);
 
             OrcDeletedRows deletedRows = new OrcDeletedRows(
                     path.getName(),
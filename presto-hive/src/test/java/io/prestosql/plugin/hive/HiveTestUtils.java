@@ -99,11 +99,9 @@ public final class HiveTestUtils
         return ImmutableSet.<HivePageSourceFactory>builder()
                 .add(new RcFilePageSourceFactory(TYPE_MANAGER, testHdfsEnvironment, stats, hiveConfig))
                 .add(new OrcPageSourceFactory(TYPE_MANAGER, hiveConfig, testHdfsEnvironment, stats, OrcCacheStore.builder().newCacheStore(
-                        new HiveConfig().getOrcFileTailCacheLimit(), Duration.ofMillis(new HiveConfig().getOrcFileTailCacheTtl().toMillis()),
-                        new HiveConfig().getOrcStripeFooterCacheLimit(),
+                        new HiveConfig().getOrcMetadataCacheMaxMemory(), Duration.ofMillis(new HiveConfig().getOrcFileTailCacheTtl().toMillis()),
                         Duration.ofMillis(new HiveConfig().getOrcStripeFooterCacheTtl().toMillis()),
-                        new HiveConfig().getOrcRowIndexCacheLimit(), Duration.ofMillis(new HiveConfig().getOrcRowIndexCacheTtl().toMillis()),
-                        new HiveConfig().getOrcBloomFiltersCacheLimit(),
+                        Duration.ofMillis(new HiveConfig().getOrcRowIndexCacheTtl().toMillis()),
                         Duration.ofMillis(new HiveConfig().getOrcBloomFiltersCacheTtl().toMillis()),
                         new HiveConfig().getOrcRowDataCacheMaximumWeight(), Duration.ofMillis(new HiveConfig().getOrcRowDataCacheTtl().toMillis()),
                         new HiveConfig().isOrcCacheStatsMetricCollectionEnabled())))
@@ -122,11 +120,9 @@ public final class HiveTestUtils
         HdfsEnvironment testHdfsEnvironment = createTestHdfsEnvironment(hiveConfig);
         return ImmutableSet.<HiveSelectivePageSourceFactory>builder()
                 .add(new OrcSelectivePageSourceFactory(TYPE_MANAGER, hiveConfig, testHdfsEnvironment, stats, OrcCacheStore.builder().newCacheStore(
-                        new HiveConfig().getOrcFileTailCacheLimit(), Duration.ofMillis(new HiveConfig().getOrcFileTailCacheTtl().toMillis()),
-                        new HiveConfig().getOrcStripeFooterCacheLimit(),
+                        new HiveConfig().getOrcMetadataCacheMaxMemory(), Duration.ofMillis(new HiveConfig().getOrcFileTailCacheTtl().toMillis()),
                         Duration.ofMillis(new HiveConfig().getOrcStripeFooterCacheTtl().toMillis()),
-                        new HiveConfig().getOrcRowIndexCacheLimit(), Duration.ofMillis(new HiveConfig().getOrcRowIndexCacheTtl().toMillis()),
-                        new HiveConfig().getOrcBloomFiltersCacheLimit(),
+                        Duration.ofMillis(new HiveConfig().getOrcRowIndexCacheTtl().toMillis()),
                         Duration.ofMillis(new HiveConfig().getOrcBloomFiltersCacheTtl().toMillis()),
                         new HiveConfig().getOrcRowDataCacheMaximumWeight(), Duration.ofMillis(new HiveConfig().getOrcRowDataCacheTtl().toMillis()),
                         new HiveConfig().isOrcCacheStatsMetricCollectionEnabled())))
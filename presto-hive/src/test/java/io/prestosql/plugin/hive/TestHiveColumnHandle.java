@@ -13,6 +13,7 @@
  */
 package io.prestosql.plugin.hive;
 
+import com.google.common.collect.ImmutableSet;
 import io.airlift.json.JsonCodec;
 import io.prestosql.spi.type.StandardTypes;
 import org.testng.annotations.Test;
@@ -58,6 +59,17 @@ public class TestHiveColumnHandle
         testRoundTrip(expectedPartitionColumn);
     }
 
+    @Test
+    public void testRequiredSubfields()
+    {
+        HiveType structType = HiveType.valueOf("struct<a:bigint,b:struct<c:string,d:double>>");
+        HiveColumnHandle column = new HiveColumnHandle("name", structType, structType.getTypeSignature(), 88, REGULAR, Optional.empty());
+        HiveColumnHandle prunedColumn = column.withRequiredSubfields(Optional.of(ImmutableSet.of("a", "b.d")));
+        testRoundTrip(prunedColumn);
+        // a pruned column still matches the column in predicates
+        assertEquals(prunedColumn, column);
+    }
+
     private void testRoundTrip(HiveColumnHandle expected)
     {
         String json = codec.toJson(expected);
@@ -68,5 +80,6 @@ public class TestHiveColumnHandle
         assertEquals(actual.getHiveColumnIndex(), expected.getHiveColumnIndex());
         assertEquals(actual.isPartitionKey(), expected.isPartitionKey());
         assertEquals(actual.isRequired(), expected.isRequired());
+        assertEquals(actual.getRequiredSubfields(), expected.getRequiredSubfields());
     }
 }
@@ -97,11 +97,21 @@ public class TestHiveConfig
                 .setOrcStreamBufferSize(new DataSize(8, Unit.MEGABYTE))
                 .setOrcTinyStripeThreshold(new DataSize(1, Unit.BYTE))
                 .setOrcMaxReadBlockSize(new DataSize(16, Unit.MEGABYTE))
-                .setOrcFileTailCacheEnabled(false).setOrcFileTailCacheTtl(new Duration(4, TimeUnit.HOURS)).setOrcFileTailCacheLimit(50_000)
-                .setOrcStripeFooterCacheEnabled(false).setOrcStripeFooterCacheTtl(new Duration(4, TimeUnit.HOURS)).setOrcStripeFooterCacheLimit(250_000)
-                .setOrcRowIndexCacheEnabled(false).setOrcRowIndexCacheTtl(new Duration(4, TimeUnit.HOURS)).setOrcRowIndexCacheLimit(250_000)
-                .setOrcBloomFiltersCacheEnabled(false).setOrcBloomFiltersCacheTtl(new Duration(4, TimeUnit.HOURS)).setOrcBloomFiltersCacheLimit(250_000)
+                .setOrcFileTailCacheEnabled(false).setOrcFileTailCacheTtl(new Duration(4, TimeUnit.HOURS))
+                .setOrcStripeFooterCacheEnabled(false).setOrcStripeFooterCacheTtl(new Duration(4, TimeUnit.HOURS))
+                .setOrcRowIndexCacheEnabled(false).setOrcRowIndexCacheTtl(new Duration(4, TimeUnit.HOURS))
+                .setOrcBloomFiltersCacheEnabled(false).setOrcBloomFiltersCacheTtl(new Duration(4, TimeUnit.HOURS))
                 .setOrcRowDataCacheEnabled(false).setOrcRowDataCacheTtl(new Duration(4, TimeUnit.HOURS)).setOrcRowDataCacheMaximumWeight(new DataSize(20, GIGABYTE))
+                .setOrcMetadataCacheMaxMemory(new DataSize(2, GIGABYTE))
+                .setOrcFileTailCacheLimit(50_000)
+                .setOrcStripeFooterCacheLimit(250_000)
+                .setOrcRowIndexCacheLimit(250_000)
+                .setOrcBloomFiltersCacheLimit(250_000)
+                .setOrcDiskCacheEnabled(false)
+                .setOrcDiskCacheDirectory(null)
+                .setOrcDiskCacheMaxSize(new DataSize(100, GIGABYTE))
+                .setOrcDiskCacheBlockSize(new DataSize(1, MEGABYTE))
+                .setOrcDiskCacheWriterThreads(4)
                 .setOrcLazyReadSmallRanges(true)
                 .setRcfileTimeZone(TimeZone.getDefault().getID())
                 .setRcfileWriterValidate(false)
@@ -219,19 +229,25 @@ public class TestHiveConfig
                 .put("hive.orc.max-read-block-size", "66kB")
                 .put("hive.orc.file-tail.cache.enabled", "true")
                 .put("hive.orc.file-tail.cache.ttl", "1h")
-                .put("hive.orc.file-tail.cache.limit", "100")
                 .put("hive.orc.stripe-footer.cache.enabled", "true")
                 .put("hive.orc.stripe-footer.cache.ttl", "1h")
-                .put("hive.orc.stripe-footer.cache.limit", "100")
                 .put("hive.orc.row-index.cache.enabled", "true")
                 .put("hive.orc.row-index.cache.ttl", "1h")
-                .put("hive.orc.row-index.cache.limit", "100")
                 .put("hive.orc.bloom-filters.cache.enabled", "true")
                 .put("hive.orc.bloom-filters.cache.ttl", "1h")
-                .put("hive.orc.bloom-filters.cache.limit", "100")
                 .put("hive.orc.row-data.block.cache.enabled", "true")
                 .put("hive.orc.row-data.block.cache.ttl", "1h")
                 .put("hive.orc.row-data.block.cache.max.weight", "1MB")
+                .put("hive.orc.metadata.cache.max-memory", "64MB")
+                .put("hive.orc.file-tail.cache.limit", "100")
+                .put("hive.orc.stripe-footer.cache.limit", "100")
+                .put("hive.orc.row-index.cache.limit", "100")
+                .put("hive.orc.bloom-filters.cache.limit", "100")
+                .put("hive.orc.disk-cache.enabled", "true")
+                .put("hive.orc.disk-cache.directory", "/tmp/orc-cache")
+                .put("hive.orc.disk-cache.max-size", "10GB")
+                .put("hive.orc.disk-cache.block-size", "4MB")
+                .put("hive.orc.disk-cache.writer-threads", "2")
                 .put("hive.orc.lazy-read-small-ranges", "false")
                 .put("hive.rcfile.time-zone", nonDefaultTimeZone().getID())
                 .put("hive.rcfile.writer.validate", "true")
@@ -342,11 +358,21 @@ public class TestHiveConfig
                 .setOrcStreamBufferSize(new DataSize(55, Unit.KILOBYTE))
                 .setOrcTinyStripeThreshold(new DataSize(61, Unit.KILOBYTE))
                 .setOrcMaxReadBlockSize(new DataSize(66, Unit.KILOBYTE))
-                .setOrcFileTailCacheEnabled(true).setOrcFileTailCacheTtl(new Duration(1, TimeUnit.HOURS)).setOrcFileTailCacheLimit(100)
-                .setOrcStripeFooterCacheEnabled(true).setOrcStripeFooterCacheTtl(new Duration(1, TimeUnit.HOURS)).setOrcStripeFooterCacheLimit(100)
-                .setOrcRowIndexCacheEnabled(true).setOrcRowIndexCacheTtl(new Duration(1, TimeUnit.HOURS)).setOrcRowIndexCacheLimit(100)
-                .setOrcBloomFiltersCacheEnabled(true).setOrcBloomFiltersCacheTtl(new Duration(1, TimeUnit.HOURS)).setOrcBloomFiltersCacheLimit(100)
+                .setOrcFileTailCacheEnabled(true).setOrcFileTailCacheTtl(new Duration(1, TimeUnit.HOURS))
+                .setOrcStripeFooterCacheEnabled(true).setOrcStripeFooterCacheTtl(new Duration(1, TimeUnit.HOURS))
+                .setOrcRowIndexCacheEnabled(true).setOrcRowIndexCacheTtl(new Duration(1, TimeUnit.HOURS))
+                .setOrcBloomFiltersCacheEnabled(true).setOrcBloomFiltersCacheTtl(new Duration(1, TimeUnit.HOURS))
                 .setOrcRowDataCacheEnabled(true).setOrcRowDataCacheTtl(new Duration(1, TimeUnit.HOURS)).setOrcRowDataCacheMaximumWeight(new DataSize(1, MEGABYTE))
+                .setOrcMetadataCacheMaxMemory(new DataSize(64, MEGABYTE))
+                .setOrcFileTailCacheLimit(100)
+                .setOrcStripeFooterCacheLimit(100)
+                .setOrcRowIndexCacheLimit(100)
+                .setOrcBloomFiltersCacheLimit(100)
+                .setOrcDiskCacheEnabled(true)
+                .setOrcDiskCacheDirectory("/tmp/orc-cache")
+                .setOrcDiskCacheMaxSize(new DataSize(10, GIGABYTE))
+                .setOrcDiskCacheBlockSize(new DataSize(4, MEGABYTE))
+                .setOrcDiskCacheWriterThreads(2)
                 .setOrcLazyReadSmallRanges(false)
                 .setRcfileTimeZone(nonDefaultTimeZone().getID())
                 .setRcfileWriterValidate(true)
@@ -291,11 +291,9 @@ public class TestHiveFileFormats
                 .withColumns(testColumns)
                 .withRowsCount(rowCount)
                 .isReadableByPageSource(new OrcPageSourceFactory(TYPE_MANAGER, new HiveConfig().setUseOrcColumnNames(false), HDFS_ENVIRONMENT, STATS, OrcCacheStore.builder().newCacheStore(
-                        new HiveConfig().getOrcFileTailCacheLimit(), Duration.ofMillis(new HiveConfig().getOrcFileTailCacheTtl().toMillis()),
-                        new HiveConfig().getOrcStripeFooterCacheLimit(),
+                        new HiveConfig().getOrcMetadataCacheMaxMemory(), Duration.ofMillis(new HiveConfig().getOrcFileTailCacheTtl().toMillis()),
                         Duration.ofMillis(new HiveConfig().getOrcStripeFooterCacheTtl().toMillis()),
-                        new HiveConfig().getOrcRowIndexCacheLimit(), Duration.ofMillis(new HiveConfig().getOrcRowIndexCacheTtl().toMillis()),
-                        new HiveConfig().getOrcBloomFiltersCacheLimit(),
+                        Duration.ofMillis(new HiveConfig().getOrcRowIndexCacheTtl().toMillis()),
                         Duration.ofMillis(new HiveConfig().getOrcBloomFiltersCacheTtl().toMillis()),
                         new HiveConfig().getOrcRowDataCacheMaximumWeight(), Duration.ofMillis(new HiveConfig().getOrcRowDataCacheTtl().toMillis()),
                         new HiveConfig().isOrcCacheStatsMetricCollectionEnabled())));
@@ -324,11 +322,9 @@ public class TestHiveFileFormats
                 .withFileWriterFactory(new OrcFileWriterFactory(HDFS_ENVIRONMENT, TYPE_MANAGER, new NodeVersion("test"), false, STATS, new OrcWriterOptions()))
                 .isReadableByRecordCursor(new GenericHiveRecordCursorProvider(HDFS_ENVIRONMENT))
                 .isReadableByPageSource(new OrcPageSourceFactory(TYPE_MANAGER, new HiveConfig().setUseOrcColumnNames(false), HDFS_ENVIRONMENT, STATS, OrcCacheStore.builder().newCacheStore(
-                        new HiveConfig().getOrcFileTailCacheLimit(), Duration.ofMillis(new HiveConfig().getOrcFileTailCacheTtl().toMillis()),
-                        new HiveConfig().getOrcStripeFooterCacheLimit(),
+                        new HiveConfig().getOrcMetadataCacheMaxMemory(), Duration.ofMillis(new HiveConfig().getOrcFileTailCacheTtl().toMillis()),
                         Duration.ofMillis(new HiveConfig().getOrcStripeFooterCacheTtl().toMillis()),
-                        new HiveConfig().getOrcRowIndexCacheLimit(), Duration.ofMillis(new HiveConfig().getOrcRowIndexCacheTtl().toMillis()),
-                        new HiveConfig().getOrcBloomFiltersCacheLimit(),
+                        Duration.ofMillis(new HiveConfig().getOrcRowIndexCacheTtl().toMillis()),
                         Duration.ofMillis(new HiveConfig().getOrcBloomFiltersCacheTtl().toMillis()),
                         new HiveConfig().getOrcRowDataCacheMaximumWeight(), Duration.ofMillis(new HiveConfig().getOrcRowDataCacheTtl().toMillis()),
                         new HiveConfig().isOrcCacheStatsMetricCollectionEnabled())));
@@ -351,11 +347,9 @@ public class TestHiveFileFormats
                 .withReadColumns(Lists.reverse(testColumns))
                 .withSession(session)
                 .isReadableByPageSource(new OrcPageSourceFactory(TYPE_MANAGER, new HiveConfig().setUseOrcColumnNames(true), HDFS_ENVIRONMENT, STATS, OrcCacheStore.builder().newCacheStore(
-                        new HiveConfig().getOrcFileTailCacheLimit(), Duration.ofMillis(new HiveConfig().getOrcFileTailCacheTtl().toMillis()),
-                        new HiveConfig().getOrcStripeFooterCacheLimit(),
+                        new HiveConfig().getOrcMetadataCacheMaxMemory(), Duration.ofMillis(new HiveConfig().getOrcFileTailCacheTtl().toMillis()),
                         Duration.ofMillis(new HiveConfig().getOrcStripeFooterCacheTtl().toMillis()),
-                        new HiveConfig().getOrcRowIndexCacheLimit(), Duration.ofMillis(new HiveConfig().getOrcRowIndexCacheTtl().toMillis()),
-                        new HiveConfig().getOrcBloomFiltersCacheLimit(),
+                        Duration.ofMillis(new HiveConfig().getOrcRowIndexCacheTtl().toMillis()),
                         Duration.ofMillis(new HiveConfig().getOrcBloomFiltersCacheTtl().toMillis()),
                         new HiveConfig().getOrcRowDataCacheMaximumWeight(), Duration.ofMillis(new HiveConfig().getOrcRowDataCacheTtl().toMillis()),
                         new HiveConfig().isOrcCacheStatsMetricCollectionEnabled())));
@@ -481,11 +475,9 @@ public class TestHiveFileFormats
                 .withWriteColumns(ImmutableList.of(writeColumn))
                 .withReadColumns(ImmutableList.of(readColumn))
                 .isReadableByPageSource(new OrcPageSourceFactory(TYPE_MANAGER, new HiveConfig().setUseOrcColumnNames(false), HDFS_ENVIRONMENT, STATS, OrcCacheStore.builder().newCacheStore(
-                        new HiveConfig().getOrcFileTailCacheLimit(), Duration.ofMillis(new HiveConfig().getOrcFileTailCacheTtl().toMillis()),
-                        new HiveConfig().getOrcStripeFooterCacheLimit(),
+                        new HiveConfig().getOrcMetadataCacheMaxMemory(), Duration.ofMillis(new HiveConfig().getOrcFileTailCacheTtl().toMillis()),
                         Duration.ofMillis(new HiveConfig().getOrcStripeFooterCacheTtl().toMillis()),
-                        new HiveConfig().getOrcRowIndexCacheLimit(), Duration.ofMillis(new HiveConfig().getOrcRowIndexCacheTtl().toMillis()),
-                        new HiveConfig().getOrcBloomFiltersCacheLimit(),
+                        Duration.ofMillis(new HiveConfig().getOrcRowIndexCacheTtl().toMillis()),
                         Duration.ofMillis(new HiveConfig().getOrcBloomFiltersCacheTtl().toMillis()),
                         new HiveConfig().getOrcRowDataCacheMaximumWeight(), Duration.ofMillis(new HiveConfig().getOrcRowDataCacheTtl().toMillis()),
                         new HiveConfig().isOrcCacheStatsMetricCollectionEnabled())));
@@ -537,11 +529,9 @@ public class TestHiveFileFormats
         assertThatFileFormat(ORC)
                 .withColumns(columns)
                 .isFailingForPageSource(new OrcPageSourceFactory(TYPE_MANAGER, new HiveConfig().setUseOrcColumnNames(false), HDFS_ENVIRONMENT, STATS, OrcCacheStore.builder().newCacheStore(
-                        new HiveConfig().getOrcFileTailCacheLimit(), Duration.ofMillis(new HiveConfig().getOrcFileTailCacheTtl().toMillis()),
-                        new HiveConfig().getOrcStripeFooterCacheLimit(),
+                        new HiveConfig().getOrcMetadataCacheMaxMemory(), Duration.ofMillis(new HiveConfig().getOrcFileTailCacheTtl().toMillis()),
                         Duration.ofMillis(new HiveConfig().getOrcStripeFooterCacheTtl().toMillis()),
-                        new HiveConfig().getOrcRowIndexCacheLimit(), Duration.ofMillis(new HiveConfig().getOrcRowIndexCacheTtl().toMillis()),
-                        new HiveConfig().getOrcBloomFiltersCacheLimit(),
+                        Duration.ofMillis(new HiveConfig().getOrcRowIndexCacheTtl().toMillis()),
                         Duration.ofMillis(new HiveConfig().getOrcBloomFiltersCacheTtl().toMillis()),
                         new HiveConfig().getOrcRowDataCacheMaximumWeight(), Duration.ofMillis(new HiveConfig().getOrcRowDataCacheTtl().toMillis()),
                         new HiveConfig().isOrcCacheStatsMetricCollectionEnabled())), expectedErrorCode, expectedMessage);
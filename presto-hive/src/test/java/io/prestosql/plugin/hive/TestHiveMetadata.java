@@ -15,16 +15,26 @@ package io.prestosql.plugin.hive;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import io.airlift.slice.Slices;
 import io.prestosql.spi.connector.SchemaTableName;
+import io.prestosql.spi.expression.ConnectorExpression;
+import io.prestosql.spi.expression.FieldDereference;
+import io.prestosql.spi.expression.Variable;
 import io.prestosql.spi.predicate.NullableValue;
+import io.prestosql.spi.type.RowType;
 import io.prestosql.spi.type.TypeSignature;
 import io.prestosql.spi.type.VarcharType;
 import org.testng.annotations.Test;
 
+import java.util.List;
 import java.util.Optional;
 
 import static io.prestosql.plugin.hive.HiveMetadata.createPredicate;
+import static io.prestosql.plugin.hive.HiveMetadata.getReferencedSubfields;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static org.testng.Assert.assertEquals;
 
 public class TestHiveMetadata
 {
@@ -85,4 +95,26 @@ public class TestHiveMetadata
 
         createPredicate(ImmutableList.of(TEST_COLUMN_HANDLE), partitions.build());
     }
+
+    @Test
+    public void testGetReferencedSubfields()
+    {
+        RowType nestedType = RowType.from(ImmutableList.of(RowType.field("c", VarcharType.VARCHAR), RowType.field("d", DOUBLE)));
+        RowType structType = RowType.from(ImmutableList.of(RowType.field("a", BIGINT), RowType.field("B", nestedType)));
+        Variable s1 = new Variable("s1", structType);
+        Variable s2 = new Variable("s2", structType);
+        Variable s3 = new Variable("s3", structType);
+
+        List<ConnectorExpression> projections = ImmutableList.of(
+                new FieldDereference(BIGINT, s1, 0),
+                new FieldDereference(DOUBLE, new FieldDereference(nestedType, s1, 1), 1),
+                new FieldDereference(nestedType, s2, 1),
+                // a column which is also referenced as a whole is read with all its fields
+                new FieldDereference(BIGINT, s3, 0),
+                s3);
+
+        assertEquals(getReferencedSubfields(projections), ImmutableMap.of(
+                "s1", ImmutableSet.of("a", "b.d"),
+                "s2", ImmutableSet.of("b")));
+    }
 }
@@ -484,11 +484,9 @@ public class TestOrcPageSourceMemoryTracking
         public ConnectorPageSource newPageSource(FileFormatDataSourceStats stats, ConnectorSession session, Optional<DynamicFilterSupplier> dynamicFilterSupplier)
         {
             OrcPageSourceFactory orcPageSourceFactory = new OrcPageSourceFactory(TYPE_MANAGER, new HiveConfig().setUseOrcColumnNames(false), HDFS_ENVIRONMENT, stats, OrcCacheStore.builder().newCacheStore(
-                    new HiveConfig().getOrcFileTailCacheLimit(), Duration.ofMillis(new HiveConfig().getOrcFileTailCacheTtl().toMillis()),
-                    new HiveConfig().getOrcStripeFooterCacheLimit(),
+                    new HiveConfig().getOrcMetadataCacheMaxMemory(), Duration.ofMillis(new HiveConfig().getOrcFileTailCacheTtl().toMillis()),
                     Duration.ofMillis(new HiveConfig().getOrcStripeFooterCacheTtl().toMillis()),
-                    new HiveConfig().getOrcRowIndexCacheLimit(), Duration.ofMillis(new HiveConfig().getOrcRowIndexCacheTtl().toMillis()),
-                    new HiveConfig().getOrcBloomFiltersCacheLimit(),
+                    Duration.ofMillis(new HiveConfig().getOrcRowIndexCacheTtl().toMillis()),
                     Duration.ofMillis(new HiveConfig().getOrcBloomFiltersCacheTtl().toMillis()),
                     new HiveConfig().getOrcRowDataCacheMaximumWeight(), Duration.ofMillis(new HiveConfig().getOrcRowDataCacheTtl().toMillis()),
                     new HiveConfig().isOrcCacheStatsMetricCollectionEnabled()));
@@ -134,11 +134,9 @@ public enum FileFormat
         public ConnectorPageSource createFileFormatReader(ConnectorSession session, HdfsEnvironment hdfsEnvironment, File targetFile, List<String> columnNames, List<Type> columnTypes)
         {
             HivePageSourceFactory pageSourceFactory = new OrcPageSourceFactory(HiveTestUtils.TYPE_MANAGER, new HiveConfig().setUseOrcColumnNames(false), hdfsEnvironment, new FileFormatDataSourceStats(), OrcCacheStore.builder().newCacheStore(
-                    new HiveConfig().getOrcFileTailCacheLimit(), Duration.ofMillis(new HiveConfig().getOrcFileTailCacheTtl().toMillis()),
-                    new HiveConfig().getOrcStripeFooterCacheLimit(),
+                    new HiveConfig().getOrcMetadataCacheMaxMemory(), Duration.ofMillis(new HiveConfig().getOrcFileTailCacheTtl().toMillis()),
                     Duration.ofMillis(new HiveConfig().getOrcStripeFooterCacheTtl().toMillis()),
-                    new HiveConfig().getOrcRowIndexCacheLimit(), Duration.ofMillis(new HiveConfig().getOrcRowIndexCacheTtl().toMillis()),
-                    new HiveConfig().getOrcBloomFiltersCacheLimit(),
+                    Duration.ofMillis(new HiveConfig().getOrcRowIndexCacheTtl().toMillis()),
                     Duration.ofMillis(new HiveConfig().getOrcBloomFiltersCacheTtl().toMillis()),
                     new HiveConfig().getOrcRowDataCacheMaximumWeight(), Duration.ofMillis(new HiveConfig().getOrcRowDataCacheTtl().toMillis()),
                     new HiveConfig().isOrcCacheStatsMetricCollectionEnabled()));
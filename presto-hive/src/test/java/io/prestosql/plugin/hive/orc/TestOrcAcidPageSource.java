@@ -78,11 +78,9 @@ public class TestOrcAcidPageSource
             new HiveConfig().setUseOrcColumnNames(false),
             HiveTestUtils.createTestHdfsEnvironment(new HiveConfig()),
             new FileFormatDataSourceStats(), OrcCacheStore.builder().newCacheStore(
-            new HiveConfig().getOrcFileTailCacheLimit(), Duration.ofMillis(new HiveConfig().getOrcFileTailCacheTtl().toMillis()),
-            new HiveConfig().getOrcStripeFooterCacheLimit(),
+            new HiveConfig().getOrcMetadataCacheMaxMemory(), Duration.ofMillis(new HiveConfig().getOrcFileTailCacheTtl().toMillis()),
             Duration.ofMillis(new HiveConfig().getOrcStripeFooterCacheTtl().toMillis()),
-            new HiveConfig().getOrcRowIndexCacheLimit(), Duration.ofMillis(new HiveConfig().getOrcRowIndexCacheTtl().toMillis()),
-            new HiveConfig().getOrcBloomFiltersCacheLimit(),
+            Duration.ofMillis(new HiveConfig().getOrcRowIndexCacheTtl().toMillis()),
             Duration.ofMillis(new HiveConfig().getOrcBloomFiltersCacheTtl().toMillis()),
             new HiveConfig().getOrcRowDataCacheMaximumWeight(), Duration.ofMillis(new HiveConfig().getOrcRowDataCacheTtl().toMillis()),
             new HiveConfig().isOrcCacheStatsMetricCollectionEnabled()));
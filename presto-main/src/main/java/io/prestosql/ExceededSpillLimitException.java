@@ -32,6 +32,11 @@ public class ExceededSpillLimitException
         return new ExceededSpillLimitException(format("Query exceeded per-query local spill limit of %s", maxSpill));
     }
 
+    public static ExceededSpillLimitException exceededSpillPathLimit(DataSize maxSpill, String spillPath)
+    {
+        return new ExceededSpillLimitException(format("Spill path %s exceeded its node limit of %s", spillPath, maxSpill));
+    }
+
     private ExceededSpillLimitException(String message)
     {
         super(EXCEEDED_SPILL_LIMIT, message);
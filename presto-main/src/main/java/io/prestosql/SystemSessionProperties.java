@@ -105,6 +105,7 @@ public final class SystemSessionProperties
     public static final String ITERATIVE_OPTIMIZER_TIMEOUT = "iterative_optimizer_timeout";
     public static final String ENABLE_FORCED_EXCHANGE_BELOW_GROUP_ID = "enable_forced_exchange_below_group_id";
     public static final String EXCHANGE_COMPRESSION = "exchange_compression";
+    public static final String EXCHANGE_COLUMNAR_ENCODING = "exchange_columnar_encoding";
     public static final String ENABLE_INTERMEDIATE_AGGREGATIONS = "enable_intermediate_aggregations";
     public static final String PUSH_AGGREGATION_THROUGH_JOIN = "push_aggregation_through_join";
     public static final String PUSH_PARTIAL_AGGREGATION_THROUGH_JOIN = "push_partial_aggregation_through_join";
@@ -141,6 +142,7 @@ public final class SystemSessionProperties
     public static final String DYNAMIC_FILTERING_DATA_TYPE = "dynamic_filtering_data_type";
     public static final String DYNAMIC_FILTERING_MAX_PER_DRIVER_SIZE = "dynamic_filtering_max_per_driver_size";
     public static final String DYNAMIC_FILTERING_BLOOM_FILTER_FPP = "dynamic_filtering_bloom_filter_fpp";
+    public static final String DYNAMIC_FILTERING_BLOOM_FILTER_BLOCKED = "dynamic_filtering_bloom_filter_blocked";
     public static final String ENABLE_EXECUTION_PLAN_CACHE = "enable_execution_plan_cache";
     public static final String ENABLE_CROSS_REGION_DYNAMIC_FILTER = "cross_region_dynamic_filter_enabled";
     public static final String ENABLE_HEURISTICINDEX_FILTER = "heuristicindex_filter_enabled";
@@ -520,6 +522,11 @@ public final class SystemSessionProperties
                         "Enable compression in exchanges",
                         featuresConfig.isExchangeCompressionEnabled(),
                         false),
+                booleanProperty(
+                        EXCHANGE_COLUMNAR_ENCODING,
+                        "Encode each block of exchanged pages separately",
+                        featuresConfig.isExchangeColumnarEncodingEnabled(),
+                        false),
                 booleanProperty(
                         ENABLE_INTERMEDIATE_AGGREGATIONS,
                         "Enable the use of intermediate aggregations",
@@ -670,6 +677,11 @@ public final class SystemSessionProperties
                         "Expected FPP for BloomFilter which is used in dynamic filtering",
                         featuresConfig.getDynamicFilteringBloomFilterFpp(),
                         false),
+                booleanProperty(
+                        DYNAMIC_FILTERING_BLOOM_FILTER_BLOCKED,
+                        "Use the cache line blocked BloomFilter layout for dynamic filters",
+                        featuresConfig.isDynamicFilteringBloomFilterBlocked(),
+                        false),
                 booleanProperty(
                         OPTIMIZE_DYNAMIC_FILTER_GENERATION,
                         "Generate dynamic filters based on the selectivity",
@@ -1087,6 +1099,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(EXCHANGE_COMPRESSION, Boolean.class);
     }
 
+    public static boolean isExchangeColumnarEncodingEnabled(Session session)
+    {
+        return session.getSystemProperty(EXCHANGE_COLUMNAR_ENCODING, Boolean.class);
+    }
+
     public static boolean isEnableIntermediateAggregations(Session session)
     {
         return session.getSystemProperty(ENABLE_INTERMEDIATE_AGGREGATIONS, Boolean.class);
@@ -1264,6 +1281,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(DYNAMIC_FILTERING_BLOOM_FILTER_FPP, Double.class);
     }
 
+    public static boolean isDynamicFilteringBloomFilterBlocked(Session session)
+    {
+        return session.getSystemProperty(DYNAMIC_FILTERING_BLOOM_FILTER_BLOCKED, Boolean.class);
+    }
+
     public static boolean isOptimizeDynamicFilterGeneration(Session session)
     {
         return session.getSystemProperty(OPTIMIZE_DYNAMIC_FILTER_GENERATION, Boolean.class);
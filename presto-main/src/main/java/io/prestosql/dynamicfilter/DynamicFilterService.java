@@ -16,8 +16,10 @@ package io.prestosql.dynamicfilter;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import com.google.inject.Inject;
 import io.airlift.log.Logger;
+import io.airlift.stats.TimeDistribution;
 import io.prestosql.Session;
 import io.prestosql.execution.StageStateMachine;
 import io.prestosql.execution.TaskId;
@@ -40,11 +42,16 @@ import io.prestosql.spi.statestore.StateCollection;
 import io.prestosql.spi.statestore.StateMap;
 import io.prestosql.spi.statestore.StateSet;
 import io.prestosql.spi.statestore.StateStore;
+import io.prestosql.spi.statestore.listener.EntryAddedListener;
+import io.prestosql.spi.statestore.listener.EntryEvent;
+import io.prestosql.spi.statestore.listener.EntryUpdatedListener;
 import io.prestosql.spi.util.BloomFilter;
 import io.prestosql.sql.DynamicFilters;
 import io.prestosql.sql.planner.plan.SemiJoinNode;
 import io.prestosql.statestore.StateStoreProvider;
 import io.prestosql.utils.DynamicFilterUtils;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -55,7 +62,6 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -64,16 +70,19 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.concurrent.Threads.threadsNamed;
 import static io.prestosql.SystemSessionProperties.getDynamicFilteringDataType;
 import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
@@ -93,14 +102,23 @@ public class DynamicFilterService
 {
     private static final Logger log = Logger.get(DynamicFilterService.class);
     private final ScheduledExecutorService filterMergeExecutor;
+    private final ExecutorService mergeExecutor;
     private static final int THREAD_POOL_SIZE = 1;
+    private static final int MERGE_THREAD_POOL_SIZE = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+    // Filters are merged as soon as their last task is reported finished, the periodic scan
+    // picks up filters whose notification was missed and cleans up finished queries
     private static final int MERGE_DYNAMIC_FILTER_INTERVAL = 1;
     private ScheduledFuture<?> backgroundTask;
 
     private final Map<String, Map<String, DynamicFilterRegistryInfo>> dynamicFilters = new ConcurrentHashMap<>();
     private final Map<String, CopyOnWriteArraySet<TaskId>> dynamicFiltersToTask = new ConcurrentHashMap<>();
-    private static final Map<String, Map<String, DynamicFilter>> cachedDynamicFilters = new HashMap<>();
+    private static final Map<String, Map<String, DynamicFilter>> cachedDynamicFilters = new ConcurrentHashMap<>();
     private final List<String> finishedQuery = Collections.synchronizedList(new ArrayList<>());
+    // key of the finished tasks collection of a filter -> (query id, filter id)
+    private final Map<String, Entry<String, String>> tasksKeyToFilter = new ConcurrentHashMap<>();
+    private final FinishedTasksListener finishedTasksListener = new FinishedTasksListener();
+    private final AtomicBoolean finishedTasksListenerAdded = new AtomicBoolean();
+    private final TimeDistribution publicationLatency = new TimeDistribution(TimeUnit.MILLISECONDS);
 
     private final StateStoreProvider stateStoreProvider;
 
@@ -114,6 +132,7 @@ public class DynamicFilterService
     {
         this.stateStoreProvider = requireNonNull(stateStoreProvider, "StateStoreProvider is null");
         this.filterMergeExecutor = Executors.newScheduledThreadPool(THREAD_POOL_SIZE, threadsNamed("dynamic-filter-service-%s"));
+        this.mergeExecutor = Executors.newFixedThreadPool(MERGE_THREAD_POOL_SIZE, daemonThreadsNamed("dynamic-filter-merge-%s"));
     }
 
     /**
@@ -143,6 +162,25 @@ public class DynamicFilterService
     public void stop()
     {
         filterMergeExecutor.shutdownNow();
+        mergeExecutor.shutdownNow();
+        StateStore stateStore = stateStoreProvider.getStateStore();
+        if (finishedTasksListenerAdded.get() && stateStore != null) {
+            StateCollection finishedTasks = stateStore.getStateCollection(DynamicFilterUtils.FINISHED_DYNAMIC_FILTER_TASKS);
+            if (finishedTasks != null) {
+                ((StateMap) finishedTasks).removeEntryListener(finishedTasksListener);
+            }
+        }
+    }
+
+    /**
+     * Time from the last task of a dynamic filter finishing its partial filter
+     * until the merged filter is available to the probe side
+     */
+    @Managed
+    @Nested
+    public TimeDistribution getPublicationLatency()
+    {
+        return publicationLatency;
     }
 
     /**
@@ -150,74 +188,104 @@ public class DynamicFilterService
      */
     private void mergeDynamicFilters()
     {
-        final StateStore stateStore = stateStoreProvider.getStateStore();
         for (Map.Entry<String, Map<String, DynamicFilterRegistryInfo>> queryToDynamicFiltersEntry : dynamicFilters.entrySet()) {
             final String queryId = queryToDynamicFiltersEntry.getKey();
-            if (!cachedDynamicFilters.containsKey(queryId)) {
-                cachedDynamicFilters.put(queryId, new ConcurrentHashMap<>());
-            }
-            Map<String, DynamicFilter> cachedDynamicFiltersForQuery = cachedDynamicFilters.get(queryId);
-            StateMap mergedDynamicFilters = (StateMap) stateStore.getOrCreateStateCollection(DynamicFilterUtils.MERGED_DYNAMIC_FILTERS, MAP);
-
             for (Map.Entry<String, DynamicFilterRegistryInfo> columnToDynamicFilterEntry : queryToDynamicFiltersEntry.getValue().entrySet()) {
-                if (columnToDynamicFilterEntry.getValue().isMerged()) {
-                    continue;
+                if (!columnToDynamicFilterEntry.getValue().isMerged()) {
+                    mergeDynamicFilter(queryId, columnToDynamicFilterEntry.getKey(), columnToDynamicFilterEntry.getValue());
                 }
+            }
+        }
+    }
 
-                final String filterId = columnToDynamicFilterEntry.getKey();
-                final Type filterType = columnToDynamicFilterEntry.getValue().getType();
-                final DataType filterDataType = columnToDynamicFilterEntry.getValue().getDataType();
-                final Optional<Predicate<List>> dfFilter = columnToDynamicFilterEntry.getValue().getFilter();
-                final Symbol column = columnToDynamicFilterEntry.getValue().getSymbol();
-                final String filterKey = createKey(DynamicFilterUtils.FILTERPREFIX, filterId, queryId);
-
-                if (!hasMergeCondition(filterId, queryId)) {
-                    continue;
-                }
+    /**
+     * Merges a dynamic filter after a task reported its partial filter finished
+     *
+     * @param tasksKey key of the finished tasks collection of the filter
+     */
+    private void mergeDynamicFilter(String tasksKey)
+    {
+        try {
+            Entry<String, String> filter = tasksKeyToFilter.get(tasksKey);
+            if (filter == null || stateStoreProvider.getStateStore() == null) {
+                return;
+            }
+            Map<String, DynamicFilterRegistryInfo> filters = dynamicFilters.get(filter.getKey());
+            DynamicFilterRegistryInfo registryInfo = filters == null ? null : filters.get(filter.getValue());
+            if (registryInfo != null && !registryInfo.isMerged()) {
+                mergeDynamicFilter(filter.getKey(), filter.getValue(), registryInfo);
+            }
+        }
+        catch (Exception e) {
+            log.error("Error merging Dynamic Filter: " + e.getMessage());
+        }
+    }
 
-                Collection<Object> results = ((StateSet) stateStore.getStateCollection(createKey(DynamicFilterUtils.PARTIALPREFIX, filterId, queryId))).getAll();
-                try {
-                    DynamicFilter mergedFilter;
-                    if (filterDataType == BLOOM_FILTER) {
-                        BloomFilter mergedBloomFilter = mergeBloomFilters(results);
-                        if (mergedBloomFilter.expectedFpp() > DynamicFilterUtils.BLOOM_FILTER_EXPECTED_FPP) {
-                            throw new PrestoException(GENERIC_INTERNAL_ERROR, "FPP too high: " + mergedBloomFilter.approximateElementCount());
-                        }
-                        mergedFilter = new BloomFilterDynamicFilter(filterKey, null, mergedBloomFilter, filterType);
+    private void mergeDynamicFilter(String queryId, String filterId, DynamicFilterRegistryInfo registryInfo)
+    {
+        // for each dynamic filter we only try to merge it once
+        if (!hasMergeCondition(filterId, queryId) || !registryInfo.setMerged()) {
+            return;
+        }
 
-                        if (filterType == GLOBAL) {
-                            try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-                                mergedBloomFilter.writeTo(out);
-                                byte[] filter = out.toByteArray();
-                                mergedDynamicFilters.put(filterKey, filter);
-                            }
-                        }
-                    }
-                    else if (filterDataType == HASHSET) {
-                        Set mergedSet = mergeHashSets(results);
-                        mergedFilter = DynamicFilterFactory.create(filterKey, null, mergedSet, filterType, dfFilter, Optional.empty());
+        final StateStore stateStore = stateStoreProvider.getStateStore();
+        final Type filterType = registryInfo.getType();
+        final DataType filterDataType = registryInfo.getDataType();
+        final Optional<Predicate<List>> dfFilter = registryInfo.getFilter();
+        final Symbol column = registryInfo.getSymbol();
+        final String filterKey = createKey(DynamicFilterUtils.FILTERPREFIX, filterId, queryId);
+        Map<String, DynamicFilter> cachedDynamicFiltersForQuery = cachedDynamicFilters.computeIfAbsent(queryId, key -> new ConcurrentHashMap<>());
+        StateMap mergedDynamicFilters = (StateMap) stateStore.getOrCreateStateCollection(DynamicFilterUtils.MERGED_DYNAMIC_FILTERS, MAP);
+
+        Collection<Object> results = ((StateSet) stateStore.getStateCollection(createKey(DynamicFilterUtils.PARTIALPREFIX, filterId, queryId))).getAll();
+        try {
+            DynamicFilter mergedFilter;
+            if (filterDataType == BLOOM_FILTER) {
+                BloomFilter mergedBloomFilter = mergeBloomFilters(results);
+                if (mergedBloomFilter.expectedFpp() > DynamicFilterUtils.BLOOM_FILTER_EXPECTED_FPP) {
+                    throw new PrestoException(GENERIC_INTERNAL_ERROR, "FPP too high: " + mergedBloomFilter.approximateElementCount());
+                }
+                mergedFilter = new BloomFilterDynamicFilter(filterKey, null, mergedBloomFilter, filterType);
 
-                        if (filterType == GLOBAL) {
-                            mergedDynamicFilters.put(filterKey, mergedSet);
-                        }
+                if (filterType == GLOBAL) {
+                    try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+                        mergedBloomFilter.writeTo(out);
+                        byte[] filter = out.toByteArray();
+                        mergedDynamicFilters.put(filterKey, filter);
                     }
-                    else {
-                        throw new PrestoException(GENERIC_INTERNAL_ERROR, "Unsupported filter data type: " + filterDataType);
-                    }
-
-                    log.debug("Merged successfully dynamic filter id: "
-                            + filterId + "-" + queryId + " type: " + filterDataType
-                            + ", column: " + column + ", item count: " + mergedFilter.getSize());
-                    cachedDynamicFiltersForQuery.put(filterId, mergedFilter);
-                }
-                catch (IOException | PrestoException e) {
-                    log.warn("Could not merge dynamic filter: " + e.getLocalizedMessage());
                 }
-                finally {
-                    // for each dynamic filter we only try to merge it once
-                    columnToDynamicFilterEntry.getValue().setMerged();
+            }
+            else if (filterDataType == HASHSET) {
+                Set mergedSet = mergeHashSets(results);
+                mergedFilter = DynamicFilterFactory.create(filterKey, null, mergedSet, filterType, dfFilter, Optional.empty());
+
+                if (filterType == GLOBAL) {
+                    mergedDynamicFilters.put(filterKey, mergedSet);
                 }
             }
+            else {
+                throw new PrestoException(GENERIC_INTERNAL_ERROR, "Unsupported filter data type: " + filterDataType);
+            }
+
+            log.debug("Merged successfully dynamic filter id: "
+                    + filterId + "-" + queryId + " type: " + filterDataType
+                    + ", column: " + column + ", item count: " + mergedFilter.getSize());
+            cachedDynamicFiltersForQuery.put(filterId, mergedFilter);
+            recordPublicationLatency(stateStore, createKey(DynamicFilterUtils.TASKSPREFIX, filterId, queryId));
+        }
+        catch (IOException | PrestoException e) {
+            log.warn("Could not merge dynamic filter: " + e.getLocalizedMessage());
+        }
+    }
+
+    private void recordPublicationLatency(StateStore stateStore, String tasksKey)
+    {
+        StateCollection finishedTasks = stateStore.getStateCollection(DynamicFilterUtils.FINISHED_DYNAMIC_FILTER_TASKS);
+        if (finishedTasks instanceof StateMap) {
+            Object finishTime = ((StateMap) finishedTasks).get(tasksKey);
+            if (finishTime instanceof Long) {
+                publicationLatency.add(TimeUnit.MILLISECONDS.toNanos(Math.max(0, System.currentTimeMillis() - (Long) finishTime)));
+            }
         }
     }
 
@@ -226,6 +294,7 @@ public class DynamicFilterService
         List<String> handledQuery = new ArrayList<>();
         StateStore stateStore = stateStoreProvider.getStateStore();
         StateMap mergedStateCollection = (StateMap) stateStore.getOrCreateStateCollection(DynamicFilterUtils.MERGED_DYNAMIC_FILTERS, MAP);
+        StateCollection finishedTasks = stateStore.getStateCollection(DynamicFilterUtils.FINISHED_DYNAMIC_FILTER_TASKS);
         // Clear registered dynamic filter tasks
         synchronized (finishedQuery) {
             for (String queryId : finishedQuery) {
@@ -238,6 +307,11 @@ public class DynamicFilterService
                             String filterKey = createKey(DynamicFilterUtils.FILTERPREFIX, filterId, queryId);
                             mergedStateCollection.remove(filterKey);
                         }
+                        String tasksKey = createKey(DynamicFilterUtils.TASKSPREFIX, filterId, queryId);
+                        tasksKeyToFilter.remove(tasksKey);
+                        if (finishedTasks instanceof StateMap) {
+                            ((StateMap) finishedTasks).remove(tasksKey);
+                        }
                     }
                 }
                 List<String> collectionKeys = stateStore.getStateCollections().keySet().stream().filter(key -> key.contains(queryId)).collect(Collectors.toList());
@@ -292,7 +366,8 @@ public class DynamicFilterService
             finishedDynamicFilterNumber = temp.size();
         }
 
-        return finishedDynamicFilterNumber > 0 && finishedDynamicFilterNumber == dynamicFiltersToTask.get(filterKey + "-" + queryId).size();
+        Set<TaskId> registeredTasks = dynamicFiltersToTask.get(filterKey + "-" + queryId);
+        return finishedDynamicFilterNumber > 0 && registeredTasks != null && finishedDynamicFilterNumber == registeredTasks.size();
     }
 
     /**
@@ -327,6 +402,7 @@ public class DynamicFilterService
     {
         final StateStore stateStore = stateStoreProvider.getStateStore();
         String queryId = stateMachine.getSession().getQueryId().toString();
+        addFinishedTasksListener(stateStore);
         for (Map.Entry<String, Symbol> entry : dynamicFiltersMap.entrySet()) {
             Symbol buildSymbolToCheck = buildSymbol != null ? buildSymbol : node.getOutputSymbols().contains(entry.getValue()) ? entry.getValue() : null;
             if (buildSymbolToCheck != null && entry.getValue().getName().equals(buildSymbol.getName())) {
@@ -344,6 +420,10 @@ public class DynamicFilterService
                 dynamicFiltersToTask.putIfAbsent(filterId + "-" + queryId, new CopyOnWriteArraySet<>());
                 CopyOnWriteArraySet<TaskId> taskSet = dynamicFiltersToTask.get(filterId + "-" + queryId);
                 taskSet.addAll(taskIds);
+                String tasksKey = createKey(DynamicFilterUtils.TASKSPREFIX, filterId, queryId);
+                tasksKeyToFilter.put(tasksKey, Maps.immutableEntry(queryId, filterId));
+                // tasks may have finished before the filter was registered, their events were ignored
+                submitMerge(tasksKey);
                 log.debug("registerTasks source " + filterId + " filters:" + filters + ", workers: "
                         + workers.stream().map(x -> x.getNodeIdentifier()).collect(Collectors.joining(",")) +
                         ", taskIds: " + taskIds.stream().map(TaskId::toString).collect(Collectors.joining(",")));
@@ -351,6 +431,29 @@ public class DynamicFilterService
         }
     }
 
+    private void submitMerge(String tasksKey)
+    {
+        if (tasksKeyToFilter.containsKey(tasksKey) && !mergeExecutor.isShutdown()) {
+            mergeExecutor.execute(() -> mergeDynamicFilter(tasksKey));
+        }
+    }
+
+    private void addFinishedTasksListener(StateStore stateStore)
+    {
+        if (finishedTasksListenerAdded.get()) {
+            return;
+        }
+        synchronized (finishedTasksListenerAdded) {
+            if (!finishedTasksListenerAdded.get()) {
+                StateCollection finishedTasks = stateStore.getOrCreateStateCollection(DynamicFilterUtils.FINISHED_DYNAMIC_FILTER_TASKS, MAP);
+                if (finishedTasks != null) {
+                    ((StateMap) finishedTasks).addEntryListener(finishedTasksListener);
+                    finishedTasksListenerAdded.set(true);
+                }
+            }
+        }
+    }
+
     /**
      * Clear dynamic filter tasks and data created for a query
      *
@@ -507,12 +610,31 @@ public class DynamicFilterService
         }
     }
 
+    /**
+     * Merges a dynamic filter as soon as a worker reports that one of its tasks has finished the partial filter
+     */
+    private class FinishedTasksListener
+            implements EntryAddedListener<String, Object>, EntryUpdatedListener<String, Object>
+    {
+        @Override
+        public void entryAdded(EntryEvent<String, Object> event)
+        {
+            submitMerge(event.getKey());
+        }
+
+        @Override
+        public void entryUpdated(EntryEvent<String, Object> event)
+        {
+            submitMerge(event.getKey());
+        }
+    }
+
     private static class DynamicFilterRegistryInfo
     {
         private final Symbol symbol;
         private final Type type;
         private final DataType dataType;
-        private boolean isMerged;
+        private final AtomicBoolean isMerged = new AtomicBoolean();
         private Optional<Predicate<List>> filter;
 
         public DynamicFilterRegistryInfo(Symbol symbol, Type type, Session session, Optional<Predicate<List>> filter)
@@ -520,7 +642,6 @@ public class DynamicFilterService
             this.symbol = symbol;
             this.type = type;
             this.dataType = getDynamicFilterDataType(type, getDynamicFilteringDataType(session));
-            this.isMerged = false;
             this.filter = filter;
         }
 
@@ -541,12 +662,15 @@ public class DynamicFilterService
 
         public boolean isMerged()
         {
-            return isMerged;
+            return isMerged.get();
         }
 
-        public void setMerged()
+        /**
+         * @return true if the filter was not marked as merged before
+         */
+        public boolean setMerged()
         {
-            this.isMerged = true;
+            return isMerged.compareAndSet(false, true);
         }
 
         public Optional<Predicate<List>> getFilter()
@@ -73,6 +73,20 @@ public class TaskManagerConfig
     private int taskYieldThreads = 3;
 
     private BigDecimal levelTimeMultiplier = new BigDecimal(2.0);
+    private int splitQueueShards = Math.max(1, Runtime.getRuntime().availableProcessors() / 16);
+    private SplitWakeupMode splitWakeupMode = SplitWakeupMode.EXECUTOR;
+
+    public enum SplitWakeupMode
+    {
+        /**
+         * Unblocked splits are returned to the queue by a task processor thread
+         */
+        EXECUTOR,
+        /**
+         * Unblocked splits are returned to the queue by the thread that unblocked them
+         */
+        DIRECT,
+    }
 
     @MinDuration("1ms")
     @MaxDuration("10s")
@@ -208,6 +222,34 @@ public class TaskManagerConfig
         return this;
     }
 
+    @Min(1)
+    public int getSplitQueueShards()
+    {
+        return splitQueueShards;
+    }
+
+    @Config("task.split-queue-shards")
+    @ConfigDescription("Number of independently locked shards of the queue of waiting splits")
+    public TaskManagerConfig setSplitQueueShards(int splitQueueShards)
+    {
+        this.splitQueueShards = splitQueueShards;
+        return this;
+    }
+
+    @NotNull
+    public SplitWakeupMode getSplitWakeupMode()
+    {
+        return splitWakeupMode;
+    }
+
+    @Config("task.split-wakeup-mode")
+    @ConfigDescription("How blocked splits are returned to the queue of waiting splits once unblocked")
+    public TaskManagerConfig setSplitWakeupMode(SplitWakeupMode splitWakeupMode)
+    {
+        this.splitWakeupMode = splitWakeupMode;
+        return this;
+    }
+
     @Min(1)
     public int getMaxWorkerThreads()
     {
@@ -27,6 +27,7 @@ import io.airlift.units.Duration;
 import io.prestosql.execution.SplitRunner;
 import io.prestosql.execution.TaskId;
 import io.prestosql.execution.TaskManagerConfig;
+import io.prestosql.execution.TaskManagerConfig.SplitWakeupMode;
 import io.prestosql.server.ServerConfig;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.version.EmbedVersion;
@@ -64,6 +65,7 @@ import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Sets.newConcurrentHashSet;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.concurrent.Threads.threadsNamed;
 import static io.prestosql.execution.executor.MultilevelSplitQueue.computeLevel;
@@ -129,6 +131,11 @@ public class TaskExecutor
      */
     private final Map<PrioritizedSplitRunner, Future<?>> blockedSplits = new ConcurrentHashMap<>();
 
+    /**
+     * How blocked splits get back to the waiting splits once unblocked.
+     */
+    private final SplitWakeupMode splitWakeupMode;
+
     private final AtomicLongArray completedTasksPerLevel = new AtomicLongArray(5);
     private final AtomicLongArray completedSplitsPerLevel = new AtomicLongArray(5);
 
@@ -154,6 +161,10 @@ public class TaskExecutor
     private final TimeStat blockedQuantaWallTime = new TimeStat(MICROSECONDS);
     private final TimeStat unblockedQuantaWallTime = new TimeStat(MICROSECONDS);
 
+    // time from a blocked split being unblocked until it is waiting for a runner thread again
+    private final TimeStat executorSplitWakeupTime = new TimeStat(MICROSECONDS);
+    private final TimeStat directSplitWakeupTime = new TimeStat(MICROSECONDS);
+
     private volatile boolean closed;
 
     @Inject
@@ -165,19 +176,26 @@ public class TaskExecutor
                 config.getMaxDriversPerTask(),
                 embedVersion,
                 splitQueue,
+                config.getSplitWakeupMode(),
                 Ticker.systemTicker());
     }
 
     @VisibleForTesting
     public TaskExecutor(int runnerThreads, int minDrivers, int guaranteedNumberOfDriversPerTask, int maximumNumberOfDriversPerTask, Ticker ticker)
     {
-        this(runnerThreads, minDrivers, guaranteedNumberOfDriversPerTask, maximumNumberOfDriversPerTask, new EmbedVersion(new ServerConfig()), new MultilevelSplitQueue(2), ticker);
+        this(runnerThreads, minDrivers, guaranteedNumberOfDriversPerTask, maximumNumberOfDriversPerTask, new MultilevelSplitQueue(2), ticker);
     }
 
     @VisibleForTesting
     public TaskExecutor(int runnerThreads, int minDrivers, int guaranteedNumberOfDriversPerTask, int maximumNumberOfDriversPerTask, MultilevelSplitQueue splitQueue, Ticker ticker)
     {
-        this(runnerThreads, minDrivers, guaranteedNumberOfDriversPerTask, maximumNumberOfDriversPerTask, new EmbedVersion(new ServerConfig()), splitQueue, ticker);
+        this(runnerThreads, minDrivers, guaranteedNumberOfDriversPerTask, maximumNumberOfDriversPerTask, splitQueue, SplitWakeupMode.EXECUTOR, ticker);
+    }
+
+    @VisibleForTesting
+    public TaskExecutor(int runnerThreads, int minDrivers, int guaranteedNumberOfDriversPerTask, int maximumNumberOfDriversPerTask, MultilevelSplitQueue splitQueue, SplitWakeupMode splitWakeupMode, Ticker ticker)
+    {
+        this(runnerThreads, minDrivers, guaranteedNumberOfDriversPerTask, maximumNumberOfDriversPerTask, new EmbedVersion(new ServerConfig()), splitQueue, splitWakeupMode, ticker);
     }
 
     @VisibleForTesting
@@ -188,6 +206,7 @@ public class TaskExecutor
             int maximumNumberOfDriversPerTask,
             EmbedVersion embedVersion,
             MultilevelSplitQueue splitQueue,
+            SplitWakeupMode splitWakeupMode,
             Ticker ticker)
     {
         checkArgument(runnerThreads > 0, "runnerThreads must be at least 1");
@@ -207,6 +226,7 @@ public class TaskExecutor
         this.guaranteedNumberOfDriversPerTask = guaranteedNumberOfDriversPerTask;
         this.maximumNumberOfDriversPerTask = maximumNumberOfDriversPerTask;
         this.waitingSplits = requireNonNull(splitQueue, "splitQueue is null");
+        this.splitWakeupMode = requireNonNull(splitWakeupMode, "splitWakeupMode is null");
         this.tasks = new LinkedList<>();
     }
 
@@ -498,12 +518,7 @@ public class TaskExecutor
                             }
                             else {
                                 blockedSplits.put(split, blocked);
-                                blocked.addListener(() -> {
-                                    blockedSplits.remove(split);
-                                    // reset the level priority to prevent previously-blocked splits from starving existing splits
-                                    split.resetLevelPriority();
-                                    waitingSplits.offer(split);
-                                }, executor);
+                                blocked.addListener(() -> splitUnblocked(split), directExecutor());
                             }
                         }
                     }
@@ -531,6 +546,31 @@ public class TaskExecutor
         }
     }
 
+    private void splitUnblocked(PrioritizedSplitRunner split)
+    {
+        long unblockedNanos = ticker.read();
+        if (splitWakeupMode == SplitWakeupMode.DIRECT) {
+            // requeueing is cheap, so do it on the unblocking thread instead of handing it off to another thread
+            requeueUnblockedSplit(split, unblockedNanos, directSplitWakeupTime);
+            return;
+        }
+        try {
+            executor.execute(() -> requeueUnblockedSplit(split, unblockedNanos, executorSplitWakeupTime));
+        }
+        catch (RejectedExecutionException ignored) {
+            // the task executor is stopped
+        }
+    }
+
+    private void requeueUnblockedSplit(PrioritizedSplitRunner split, long unblockedNanos, TimeStat wakeupTime)
+    {
+        blockedSplits.remove(split);
+        // reset the level priority to prevent previously-blocked splits from starving existing splits
+        split.resetLevelPriority();
+        wakeupTime.add(ticker.read() - unblockedNanos, NANOSECONDS);
+        waitingSplits.offer(split);
+    }
+
     //
     // STATS
     //
@@ -701,6 +741,26 @@ public class TaskExecutor
         return unblockedQuantaWallTime;
     }
 
+    @Managed
+    public String getSplitWakeupMode()
+    {
+        return splitWakeupMode.name();
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getExecutorSplitWakeupTime()
+    {
+        return executorSplitWakeupTime;
+    }
+
+    @Managed
+    @Nested
+    public TimeStat getDirectSplitWakeupTime()
+    {
+        return directSplitWakeupTime;
+    }
+
     @Managed
     @Nested
     public TimeDistribution getLeafSplitScheduledTime()
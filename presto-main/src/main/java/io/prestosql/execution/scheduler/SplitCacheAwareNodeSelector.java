@@ -19,6 +19,7 @@ import com.google.common.base.Suppliers;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
+import com.google.common.hash.Hashing;
 import io.airlift.log.Logger;
 import io.prestosql.execution.NodeTaskMap;
 import io.prestosql.execution.RemoteTask;
@@ -31,6 +32,7 @@ import io.prestosql.metadata.Split;
 import io.prestosql.spi.connector.CatalogName;
 import io.prestosql.spi.plan.PlanNodeId;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -44,6 +46,7 @@ import java.util.stream.Collectors;
 import static io.prestosql.execution.scheduler.NodeScheduler.randomizedNodes;
 import static io.prestosql.execution.scheduler.NodeScheduler.selectDistributionNodes;
 import static io.prestosql.execution.scheduler.NodeScheduler.selectNodes;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 
 public class SplitCacheAwareNodeSelector
@@ -128,6 +131,8 @@ public class SplitCacheAwareNodeSelector
 
         Set<Split> uncacheableSplits = new HashSet<>();
         Set<Split> newCacheableSplits = new HashSet<>();
+        int cachedSplitCount = 0;
+        int hashedSplitCount = 0;
         SplitCacheMap splitCacheMap = SplitCacheMap.getInstance();
         for (Split split : splits) {
             Optional<String> assignedNodeId = Optional.empty();
@@ -153,14 +158,27 @@ public class SplitCacheAwareNodeSelector
                 // assign the split to the same node as before
                 assignment.put(assignedNode, split);
                 assignmentStats.addAssignedSplit(assignedNode);
+                cachedSplitCount++;
             }
             else {
                 //splits that have not be previously cached or the assigned node is now inactive
-                newCacheableSplits.add(split);
+                //are placed on the node their key hashes to, so that a split lands on the same node, and
+                //finds the data the node cached on local disk, even when the cached node id was lost
+                InternalNode preferredNode = selectPreferredNode(splitKey, activeNodes.values(), nodeMap, assignmentStats);
+                if (preferredNode != null) {
+                    assignment.put(preferredNode, split);
+                    assignmentStats.addAssignedSplit(preferredNode);
+                    splitCacheMap.addCachedNode(splitKey, preferredNode.getNodeIdentifier());
+                    hashedSplitCount++;
+                }
+                else {
+                    newCacheableSplits.add(split);
+                }
             }
         }
 
-        log.info("%d out of %d splits already cached. %d new splits to be cached. %d splits cannot be cached.", assignment.size(), splits.size(), newCacheableSplits.size(), uncacheableSplits.size());
+        log.info("%d out of %d splits already cached. %d new splits placed on their hashed node. %d new splits to be cached. %d splits cannot be cached.",
+                cachedSplitCount, splits.size(), hashedSplitCount, newCacheableSplits.size(), uncacheableSplits.size());
 
         Set<Split> unassignedSplits = new HashSet<>();
         unassignedSplits.addAll(newCacheableSplits);
@@ -203,6 +221,37 @@ public class SplitCacheAwareNodeSelector
         feederScheduledNodes.put(stage.getFragment().getFeederCTEParentId().get(), data);
     }
 
+    /**
+     * Rendezvous hashing of the split over the active nodes: the node with the highest hash of split and node,
+     * if it has room for the split. Only the splits of a removed node move when the set of nodes changes.
+     */
+    private InternalNode selectPreferredNode(SplitKey splitKey, Collection<InternalNode> activeNodes, NodeMap nodeMap, NodeAssignmentStats assignmentStats)
+    {
+        InternalNode preferredNode = null;
+        long preferredHash = Long.MIN_VALUE;
+        for (InternalNode node : activeNodes) {
+            if (!includeCoordinator && nodeMap.getCoordinatorNodeIds().contains(node.getNodeIdentifier())) {
+                continue;
+            }
+            long hash = Hashing.murmur3_128().newHasher()
+                    .putString(splitKey.getPath(), UTF_8)
+                    .putLong(splitKey.getStartIndex())
+                    .putString(node.getNodeIdentifier(), UTF_8)
+                    .hash()
+                    .asLong();
+            if (preferredNode == null || hash > preferredHash) {
+                preferredNode = node;
+                preferredHash = hash;
+            }
+        }
+        if (preferredNode == null
+                || (assignmentStats.getTotalSplitCount(preferredNode) >= maxSplitsPerNode
+                && assignmentStats.getQueuedSplitCountForStage(preferredNode) >= maxPendingSplitsPerTask)) {
+            return null;
+        }
+        return preferredNode;
+    }
+
     private SplitKey createSplitKey(Split split)
     {
         SplitKey splitKey = null;
@@ -33,6 +33,8 @@ import io.prestosql.spi.metastore.HetuMetastore;
 import io.prestosql.spi.service.PropertyService;
 import io.prestosql.testing.NoOpIndexClient;
 import io.prestosql.testing.NoOpIndexWriter;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
 
 import java.io.IOException;
 import java.nio.file.Path;
@@ -81,6 +83,13 @@ public class HeuristicIndexerManager
         return indexClient;
     }
 
+    @Managed
+    @Nested
+    public IndexCacheStats getIndexCacheStats()
+    {
+        return SplitFiltering.getIndexCacheStats();
+    }
+
     private IndexCache getIndexCache()
     {
         return SplitFiltering.getCache(indexClient);
@@ -168,7 +177,16 @@ public class HeuristicIndexerManager
                         "Please check documentation for how to set it up.");
             }
             if (factory != null) {
-                indexClient = factory.getIndexClient(fs, metastore, root);
+                HetuFileSystemClient indexClientFs = fs;
+                if (PropertyService.getBooleanProperty(HetuConstant.FILTER_CACHE_DISK_ENABLED)) {
+                    // index files read by the client are kept on local disk, see IndexFileCache
+                    indexClientFs = new IndexFileCache(
+                            fs,
+                            Paths.get(PropertyService.getStringProperty(HetuConstant.FILTER_CACHE_DISK_DIRECTORY)),
+                            PropertyService.getLongProperty(HetuConstant.FILTER_CACHE_DISK_MAX_SIZE),
+                            SplitFiltering.getIndexCacheStats());
+                }
+                indexClient = factory.getIndexClient(indexClientFs, metastore, root);
             }
         }
     }
@@ -24,6 +24,7 @@ import io.airlift.log.Logger;
 import io.prestosql.metadata.Split;
 import io.prestosql.spi.HetuConstant;
 import io.prestosql.spi.connector.CreateIndexMetadata;
+import io.prestosql.spi.heuristicindex.Index;
 import io.prestosql.spi.heuristicindex.IndexCacheKey;
 import io.prestosql.spi.heuristicindex.IndexClient;
 import io.prestosql.spi.heuristicindex.IndexMetadata;
@@ -63,9 +64,16 @@ public class IndexCache
     private Long loadDelay; // in millisecond
     private LoadingCache<IndexCacheKey, List<IndexMetadata>> cache;
     private List<IndexRecord> indexRecords;
+    private final IndexCacheStats stats;
 
     public IndexCache(CacheLoader loader, IndexClient indexClient)
     {
+        this(loader, indexClient, new IndexCacheStats());
+    }
+
+    public IndexCache(CacheLoader loader, IndexClient indexClient, IndexCacheStats stats)
+    {
+        this.stats = stats;
         // If the static variables have not been initialized
         if (PropertyService.getBooleanProperty(HetuConstant.FILTER_ENABLED)) {
             loadDelay = PropertyService.getDurationProperty(HetuConstant.FILTER_CACHE_LOADING_DELAY).toMillis();
@@ -92,8 +100,9 @@ public class IndexCache
                         int memorySize = 0;
                         for (IndexMetadata indexMetadata : indices) {
                             // HetuConstant.FILTER_CACHE_MAX_MEMORY is set in KBs
-                            // convert index size to KB
-                            memorySize += (indexMetadata.getIndex().getMemoryUsage() / KILOBYTE);
+                            // convert index size to KB, memory-mapped index files are resident memory as well
+                            Index index = indexMetadata.getIndex();
+                            memorySize += ((index.getMemoryUsage() + index.getDiskUsage()) / KILOBYTE);
                         }
                         return memorySize;
                     });
@@ -114,7 +123,21 @@ public class IndexCache
                     LOG.debug(e, "Error using index records to refresh cache");
                 }
             }, loadDelay, refreshRate, TimeUnit.MILLISECONDS);
-            cache = cacheBuilder.build(loader);
+            cache = cacheBuilder.build(new CacheLoader<IndexCacheKey, List<IndexMetadata>>()
+            {
+                @Override
+                public List<IndexMetadata> load(IndexCacheKey key)
+                        throws Exception
+                {
+                    long start = System.nanoTime();
+                    try {
+                        return (List<IndexMetadata>) loader.load(key);
+                    }
+                    finally {
+                        stats.recordMemoryLoad(System.nanoTime() - start);
+                    }
+                }
+            });
         }
     }
 
@@ -287,6 +310,7 @@ public class IndexCache
             indexOfThisType = cache.getIfPresent(filterKey);
 
             if (indexOfThisType == null) {
+                stats.recordMemoryMiss();
                 executor.schedule(() -> {
                     try {
                         cache.get(filterKey);
@@ -303,6 +327,7 @@ public class IndexCache
                 }, loadDelay, TimeUnit.MILLISECONDS);
             }
             else {
+                stats.recordMemoryHit();
                 // if key was present in cache, we still need to check if the index is validate based on the lastModifiedTime
                 // the index is only valid if the lastModifiedTime of the split matches the index's lastModifiedTime
                 for (IndexMetadata index : indexOfThisType) {
@@ -365,6 +390,7 @@ public class IndexCache
         partitionIndexList = cache.getIfPresent(cacheKey);
 
         if (partitionIndexList == null) {
+            stats.recordMemoryMiss();
             executor.schedule(() -> {
                 try {
                     cache.get(cacheKey);
@@ -380,6 +406,9 @@ public class IndexCache
                 }
             }, loadDelay, TimeUnit.MILLISECONDS);
         }
+        else {
+            stats.recordMemoryHit();
+        }
         return partitionIndexList;
     }
 
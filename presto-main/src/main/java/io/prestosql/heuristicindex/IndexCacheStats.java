@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.heuristicindex;
+
+import io.airlift.stats.TimeDistribution;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hit, miss and load time statistics of the two index cache levels:
+ * the in-memory {@link IndexCache} and the local disk {@link IndexFileCache}
+ */
+public class IndexCacheStats
+{
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong memoryMisses = new AtomicLong();
+    private final TimeDistribution memoryLoadTime = new TimeDistribution(TimeUnit.MILLISECONDS);
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong diskMisses = new AtomicLong();
+    private final AtomicLong diskEvictions = new AtomicLong();
+    private final TimeDistribution diskLoadTime = new TimeDistribution(TimeUnit.MILLISECONDS);
+
+    public void recordMemoryHit()
+    {
+        memoryHits.incrementAndGet();
+    }
+
+    public void recordMemoryMiss()
+    {
+        memoryMisses.incrementAndGet();
+    }
+
+    public void recordMemoryLoad(long nanos)
+    {
+        memoryLoadTime.add(nanos);
+    }
+
+    public void recordDiskHit()
+    {
+        diskHits.incrementAndGet();
+    }
+
+    public void recordDiskMiss()
+    {
+        diskMisses.incrementAndGet();
+    }
+
+    public void recordDiskEviction()
+    {
+        diskEvictions.incrementAndGet();
+    }
+
+    public void recordDiskLoad(long nanos)
+    {
+        diskLoadTime.add(nanos);
+    }
+
+    @Managed
+    public long getMemoryHits()
+    {
+        return memoryHits.get();
+    }
+
+    @Managed
+    public long getMemoryMisses()
+    {
+        return memoryMisses.get();
+    }
+
+    @Managed
+    @Nested
+    public TimeDistribution getMemoryLoadTime()
+    {
+        return memoryLoadTime;
+    }
+
+    @Managed
+    public long getDiskHits()
+    {
+        return diskHits.get();
+    }
+
+    @Managed
+    public long getDiskMisses()
+    {
+        return diskMisses.get();
+    }
+
+    @Managed
+    public long getDiskEvictions()
+    {
+        return diskEvictions.get();
+    }
+
+    @Managed
+    @Nested
+    public TimeDistribution getDiskLoadTime()
+    {
+        return diskLoadTime;
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.heuristicindex;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.airlift.log.Logger;
+import io.prestosql.spi.filesystem.HetuFileSystemClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.stream.Stream;
+
+import static io.prestosql.spi.HetuConstant.KILOBYTE;
+import static io.prestosql.spi.filesystem.SupportedFileAttributes.LAST_MODIFIED_TIME;
+import static io.prestosql.spi.filesystem.SupportedFileAttributes.SIZE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Second level of the index cache.
+ * <p>
+ * Wraps the index store filesystem client and keeps a copy of every index file read through it
+ * in a local directory, bounded by the total size of the copies. When an index is evicted from
+ * the in-memory {@link IndexCache} it is reloaded from the local copy instead of the index store.
+ * A local copy is only used while the last modified time and size of the remote file are unchanged.
+ */
+public class IndexFileCache
+        implements HetuFileSystemClient
+{
+    private static final Logger LOG = Logger.get(IndexFileCache.class);
+    private static final String FILE_PREFIX = "index";
+    private static final String FILE_SUFFIX = ".cache";
+
+    private final HetuFileSystemClient delegate;
+    private final Path directory;
+    private final IndexCacheStats stats;
+    private final Cache<Path, CachedFile> files;
+
+    /**
+     * @param delegate filesystem client of the index store
+     * @param directory local directory to keep the index files in
+     * @param maxSize maximum total size of the cached index files in KB
+     * @param stats statistics to record the disk level hits and misses in
+     */
+    public IndexFileCache(HetuFileSystemClient delegate, Path directory, long maxSize, IndexCacheStats stats)
+            throws IOException
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.directory = requireNonNull(directory, "directory is null");
+        this.stats = requireNonNull(stats, "stats is null");
+        this.files = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize)
+                .<Path, CachedFile>weigher((path, file) -> (int) Math.min(file.size / KILOBYTE, Integer.MAX_VALUE))
+                .removalListener(notification -> {
+                    if (notification.wasEvicted()) {
+                        stats.recordDiskEviction();
+                    }
+                    deleteLocalFile(notification.getValue().localFile);
+                })
+                .build();
+
+        Files.createDirectories(directory);
+        // remove files left by a previous run, they are not tracked by the cache
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : stale) {
+                deleteLocalFile(file);
+            }
+        }
+    }
+
+    @Override
+    public InputStream newInputStream(Path path)
+            throws IOException
+    {
+        long lastModifiedTime = (Long) delegate.getAttribute(path, LAST_MODIFIED_TIME);
+        long size = (Long) delegate.getAttribute(path, SIZE);
+
+        CachedFile cached = files.getIfPresent(path);
+        if (cached != null && cached.lastModifiedTime == lastModifiedTime && cached.size == size) {
+            try {
+                InputStream inputStream = Files.newInputStream(cached.localFile);
+                stats.recordDiskHit();
+                return inputStream;
+            }
+            catch (NoSuchFileException e) {
+                LOG.debug("Cached index file %s of %s has been removed", cached.localFile, path);
+            }
+        }
+        stats.recordDiskMiss();
+
+        long start = System.nanoTime();
+        Path localFile = Files.createTempFile(directory, FILE_PREFIX, FILE_SUFFIX);
+        try (InputStream inputStream = delegate.newInputStream(path)) {
+            Files.copy(inputStream, localFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (IOException | RuntimeException e) {
+            deleteLocalFile(localFile);
+            throw e;
+        }
+        stats.recordDiskLoad(System.nanoTime() - start);
+
+        // open before publishing the file, once in the cache it can be evicted and deleted at any time
+        InputStream inputStream = Files.newInputStream(localFile);
+        files.put(path, new CachedFile(localFile, lastModifiedTime, size));
+        return inputStream;
+    }
+
+    @Override
+    public Path createDirectories(Path dir)
+            throws IOException
+    {
+        return delegate.createDirectories(dir);
+    }
+
+    @Override
+    public Path createDirectory(Path dir)
+            throws IOException
+    {
+        return delegate.createDirectory(dir);
+    }
+
+    @Override
+    public void delete(Path path)
+            throws IOException
+    {
+        delegate.delete(path);
+        invalidate(path);
+    }
+
+    @Override
+    public boolean deleteIfExists(Path path)
+            throws IOException
+    {
+        boolean deleted = delegate.deleteIfExists(path);
+        invalidate(path);
+        return deleted;
+    }
+
+    @Override
+    public boolean deleteRecursively(Path path)
+            throws IOException
+    {
+        boolean deleted = delegate.deleteRecursively(path);
+        invalidate(path);
+        return deleted;
+    }
+
+    @Override
+    public boolean exists(Path path)
+    {
+        return delegate.exists(path);
+    }
+
+    @Override
+    public void move(Path source, Path target)
+            throws IOException
+    {
+        delegate.move(source, target);
+        invalidate(source);
+        invalidate(target);
+    }
+
+    @Override
+    public OutputStream newOutputStream(Path path, OpenOption... options)
+            throws IOException
+    {
+        invalidate(path);
+        return delegate.newOutputStream(path, options);
+    }
+
+    @Override
+    public Object getAttribute(Path path, String attribute)
+            throws IOException
+    {
+        return delegate.getAttribute(path, attribute);
+    }
+
+    @Override
+    public boolean isDirectory(Path path)
+    {
+        return delegate.isDirectory(path);
+    }
+
+    @Override
+    public Stream<Path> list(Path dir)
+            throws IOException
+    {
+        return delegate.list(dir);
+    }
+
+    @Override
+    public Stream<Path> walk(Path dir)
+            throws IOException
+    {
+        return delegate.walk(dir);
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        files.invalidateAll();
+        delegate.close();
+    }
+
+    @VisibleForTesting
+    long getCachedFileCount()
+    {
+        return files.size();
+    }
+
+    private void invalidate(Path path)
+    {
+        files.asMap().keySet().removeIf(cachedPath -> cachedPath.startsWith(path));
+    }
+
+    private static void deleteLocalFile(Path file)
+    {
+        try {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException e) {
+            LOG.debug(e, "Failed to delete cached index file %s", file);
+        }
+    }
+
+    private static class CachedFile
+    {
+        private final Path localFile;
+        private final long lastModifiedTime;
+        private final long size;
+
+        private CachedFile(Path localFile, long lastModifiedTime, long size)
+        {
+            this.localFile = localFile;
+            this.lastModifiedTime = lastModifiedTime;
+            this.size = size;
+        }
+    }
+}
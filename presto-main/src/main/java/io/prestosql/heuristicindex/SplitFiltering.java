@@ -82,6 +82,8 @@ public class SplitFiltering
     private static final String TABLE_LEVEL_KEY = "__index__is__table__level__";
     private static final String PRELOAD_ALL_KEY = "ALL";
 
+    private static final IndexCacheStats indexCacheStats = new IndexCacheStats();
+
     private static IndexCache indexCache;
 
     private SplitFiltering()
@@ -91,7 +93,12 @@ public class SplitFiltering
     private static synchronized void initCache(IndexClient indexClient)
     {
         CacheLoader<IndexCacheKey, List<IndexMetadata>> cacheLoader = new IndexCacheLoader(indexClient);
-        indexCache = new IndexCache(cacheLoader, indexClient);
+        indexCache = new IndexCache(cacheLoader, indexClient, indexCacheStats);
+    }
+
+    public static IndexCacheStats getIndexCacheStats()
+    {
+        return indexCacheStats;
     }
 
     public static IndexCache getCache(IndexClient indexClient)
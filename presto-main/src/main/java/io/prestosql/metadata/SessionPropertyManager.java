@@ -363,6 +363,10 @@ public final class SessionPropertyManager
             PropertyService.setProperty(HetuConstant.FILTER_CACHE_LOADING_DELAY, hetuConfig.getIndexCacheLoadingDelay());
             PropertyService.setProperty(HetuConstant.FILTER_CACHE_LOADING_THREADS, hetuConfig.getIndexCacheLoadingThreads());
             PropertyService.setProperty(HetuConstant.FILTER_CACHE_SOFT_REFERENCE, hetuConfig.isIndexCacheSoftReferenceEnabled());
+            PropertyService.setProperty(HetuConstant.FILTER_CACHE_DISK_ENABLED, hetuConfig.isIndexCacheDiskEnabled());
+            PropertyService.setProperty(HetuConstant.FILTER_CACHE_DISK_DIRECTORY, hetuConfig.getIndexCacheDiskDirectory());
+            // set the max disk size in KB
+            PropertyService.setProperty(HetuConstant.FILTER_CACHE_DISK_MAX_SIZE, (long) (hetuConfig.getIndexCacheDiskMaxSize().getValue(KILOBYTE)));
             PropertyService.setProperty(HetuConstant.INDEXSTORE_URI, hetuConfig.getIndexStoreUri());
             PropertyService.setProperty(HetuConstant.INDEXSTORE_FILESYSTEM_PROFILE, hetuConfig.getIndexStoreFileSystemProfile());
             PropertyService.setProperty(HetuConstant.FILTER_CACHE_AUTOLOAD_DEFAULT, hetuConfig.getIndexAutoload());
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Reusable byte arrays for the serialized pages received by an {@link ExchangeClient}.
+ * <p>
+ * Response bodies are read straight into arrays taken from the pool. Once a page is deserialized
+ * into blocks that do not reference its array, the array is released back to the pool for a later
+ * response. Array sizes are rounded up to a quarter of the next power of two, so that arrays can be
+ * shared between pages of similar size while wasting at most a quarter of an array.
+ */
+@ThreadSafe
+public class ExchangeBufferPool
+{
+    private static final int MIN_POOLED_SIZE = 4096;
+
+    private final long maxPooledBytes;
+    private final ConcurrentMap<Integer, Queue<byte[]>> buffers = new ConcurrentHashMap<>();
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final AtomicLong reusedBytes = new AtomicLong();
+
+    /**
+     * @param maxPooledBytes maximum total size of the arrays kept for reuse, 0 disables pooling
+     */
+    public ExchangeBufferPool(long maxPooledBytes)
+    {
+        checkArgument(maxPooledBytes >= 0, "maxPooledBytes is negative");
+        this.maxPooledBytes = maxPooledBytes;
+    }
+
+    public Slice allocate(int size)
+    {
+        if (maxPooledBytes == 0 || size < MIN_POOLED_SIZE || size > maxPooledBytes) {
+            allocatedBytes.addAndGet(size);
+            return Slices.allocate(size);
+        }
+
+        int bufferSize = roundUp(size);
+        Queue<byte[]> queue = buffers.get(bufferSize);
+        byte[] buffer = queue == null ? null : queue.poll();
+        if (buffer != null) {
+            pooledBytes.addAndGet(-buffer.length);
+            reusedBytes.addAndGet(size);
+        }
+        else {
+            buffer = new byte[bufferSize];
+            allocatedBytes.addAndGet(bufferSize);
+        }
+        return Slices.wrappedBuffer(buffer, 0, size);
+    }
+
+    /**
+     * Keeps the array of the slice for reuse. The caller must make sure
+     * nothing references the slice, or any slice of the same array, anymore.
+     */
+    public void release(Slice slice)
+    {
+        if (maxPooledBytes == 0 || !(slice.getBase() instanceof byte[])) {
+            return;
+        }
+        byte[] buffer = (byte[]) slice.getBase();
+        // only arrays of the sizes handed out by allocate are pooled
+        if (buffer.length < MIN_POOLED_SIZE || buffer.length != roundUp(buffer.length)) {
+            return;
+        }
+        if (pooledBytes.addAndGet(buffer.length) > maxPooledBytes) {
+            pooledBytes.addAndGet(-buffer.length);
+            return;
+        }
+        buffers.computeIfAbsent(buffer.length, length -> new ConcurrentLinkedQueue<>()).offer(buffer);
+    }
+
+    public void clear()
+    {
+        buffers.clear();
+        pooledBytes.set(0);
+    }
+
+    /**
+     * Total size of the arrays kept for reuse
+     */
+    public long getPooledBytes()
+    {
+        return pooledBytes.get();
+    }
+
+    /**
+     * Total size of the arrays allocated because none could be reused
+     */
+    public long getAllocatedBytes()
+    {
+        return allocatedBytes.get();
+    }
+
+    /**
+     * Total size of the pages read into reused arrays
+     */
+    public long getReusedBytes()
+    {
+        return reusedBytes.get();
+    }
+
+    private static int roundUp(int size)
+    {
+        int step = Math.max(Integer.highestOneBit(size - 1) >> 2, 1);
+        return (size + step - 1) & -step;
+    }
+}
@@ -58,6 +58,7 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.collect.Sets.newConcurrentHashSet;
 import static io.airlift.slice.Slices.EMPTY_SLICE;
+import static io.hetu.core.transport.execution.buffer.PagesSerde.isSliceReferencedByDeserializedPage;
 import static java.util.Objects.requireNonNull;
 
 @ThreadSafe
@@ -121,6 +122,7 @@ public class ExchangeClient
 
     private final LocalMemoryContext systemMemoryContext;
     private final Executor pageBufferClientCallbackExecutor;
+    private final ExchangeBufferPool bufferPool;
 
     // ExchangeClientStatus.mergeWith assumes all clients have the same bufferCapacity.
     // Please change that method accordingly when this assumption becomes not true.
@@ -134,6 +136,21 @@ public class ExchangeClient
             ScheduledExecutorService scheduler,
             LocalMemoryContext systemMemoryContext,
             Executor pageBufferClientCallbackExecutor)
+    {
+        this(bufferCapacity, maxResponseSize, concurrentRequestMultiplier, maxErrorDuration, acknowledgePages, httpClient, scheduler, systemMemoryContext, pageBufferClientCallbackExecutor, new ExchangeBufferPool(0));
+    }
+
+    public ExchangeClient(
+            DataSize bufferCapacity,
+            DataSize maxResponseSize,
+            int concurrentRequestMultiplier,
+            Duration maxErrorDuration,
+            boolean acknowledgePages,
+            HttpClient httpClient,
+            ScheduledExecutorService scheduler,
+            LocalMemoryContext systemMemoryContext,
+            Executor pageBufferClientCallbackExecutor,
+            ExchangeBufferPool bufferPool)
     {
         this.bufferCapacity = bufferCapacity.toBytes();
         this.maxResponseSize = maxResponseSize;
@@ -145,6 +162,7 @@ public class ExchangeClient
         this.systemMemoryContext = systemMemoryContext;
         this.maxBufferRetainedSizeInBytes = Long.MIN_VALUE;
         this.pageBufferClientCallbackExecutor = requireNonNull(pageBufferClientCallbackExecutor, "pageBufferClientCallbackExecutor is null");
+        this.bufferPool = requireNonNull(bufferPool, "bufferPool is null");
     }
 
     Set<String> getAllClients()
@@ -180,7 +198,16 @@ public class ExchangeClient
             if (bufferedPages > 0 && pageBuffer.peekLast() == NO_MORE_PAGES) {
                 bufferedPages--;
             }
-            return new ExchangeClientStatus(bufferRetainedSizeInBytes, maxBufferRetainedSizeInBytes, averageBytesPerRequest, successfulRequests, bufferedPages, noMoreLocations, pageBufferClientStatus);
+            return new ExchangeClientStatus(
+                    bufferRetainedSizeInBytes,
+                    maxBufferRetainedSizeInBytes,
+                    averageBytesPerRequest,
+                    successfulRequests,
+                    bufferedPages,
+                    bufferPool.getAllocatedBytes(),
+                    bufferPool.getReusedBytes(),
+                    noMoreLocations,
+                    pageBufferClientStatus);
         }
     }
 
@@ -248,7 +275,8 @@ public class ExchangeClient
                 scheduler,
                 pageBufferClientCallbackExecutor,
                 snapshotEnabled,
-                querySnapshotManager);
+                querySnapshotManager,
+                bufferPool);
         allClients.put(uri, client);
         queuedClients.add(client);
 
@@ -397,7 +425,7 @@ public class ExchangeClient
         synchronized (this) {
             if (!closed.get()) {
                 bufferRetainedSizeInBytes -= page.getRetainedSizeInBytes();
-                systemMemoryContext.setBytes(bufferRetainedSizeInBytes);
+                updateMemoryUsage();
                 if (pageBuffer.peek() == NO_MORE_PAGES) {
                     close();
                 }
@@ -453,10 +481,36 @@ public class ExchangeClient
         originBuffer.clear();
         pendingMarkers.clear();
         pendingOrigins.clear();
+        bufferPool.clear();
         systemMemoryContext.setBytes(0);
         bufferRetainedSizeInBytes = 0;
     }
 
+    /**
+     * Returns the memory of a polled page to the buffer pool once the page is deserialized,
+     * unless the deserialized page still references it
+     */
+    public void releasePage(SerializedPage page)
+    {
+        if (isSliceReferencedByDeserializedPage(page)) {
+            return;
+        }
+        synchronized (this) {
+            if (closed.get()) {
+                return;
+            }
+            bufferPool.release(page.getSlice());
+            updateMemoryUsage();
+        }
+    }
+
+    @GuardedBy("this")
+    private void updateMemoryUsage()
+    {
+        // arrays kept for reuse are memory held by this client as well
+        systemMemoryContext.setBytes(bufferRetainedSizeInBytes + bufferPool.getPooledBytes());
+    }
+
     @VisibleForTesting
     synchronized void scheduleRequestIfNecessary()
     {
@@ -566,7 +620,7 @@ public class ExchangeClient
 
         bufferRetainedSizeInBytes += pagesRetainedSizeInBytes + sizeAdjustment;
         maxBufferRetainedSizeInBytes = Math.max(maxBufferRetainedSizeInBytes, bufferRetainedSizeInBytes);
-        systemMemoryContext.setBytes(bufferRetainedSizeInBytes);
+        updateMemoryUsage();
         successfulRequests++;
 
         long responseSize = pages.stream()
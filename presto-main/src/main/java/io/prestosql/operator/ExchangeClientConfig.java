@@ -36,6 +36,7 @@ public class ExchangeClientConfig
     private int clientThreads = 25;
     private int pageBufferClientMaxCallbackThreads = 25;
     private boolean acknowledgePages = true;
+    private DataSize bufferPoolMaxSize = new DataSize(4, Unit.MEGABYTE);
 
     @NotNull
     public DataSize getMaxBufferSize()
@@ -141,4 +142,17 @@ public class ExchangeClientConfig
         this.acknowledgePages = acknowledgePages;
         return this;
     }
+
+    @NotNull
+    public DataSize getBufferPoolMaxSize()
+    {
+        return bufferPoolMaxSize;
+    }
+
+    @Config("exchange.buffer-pool-max-size")
+    public ExchangeClientConfig setBufferPoolMaxSize(DataSize bufferPoolMaxSize)
+    {
+        this.bufferPoolMaxSize = bufferPoolMaxSize;
+        return this;
+    }
 }
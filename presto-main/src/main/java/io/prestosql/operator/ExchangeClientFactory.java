@@ -46,6 +46,7 @@ public class ExchangeClientFactory
     private final ScheduledExecutorService scheduler;
     private final ThreadPoolExecutorMBean executorMBean;
     private final ExecutorService pageBufferClientCallbackExecutor;
+    private final DataSize bufferPoolMaxSize;
 
     @Inject
     public ExchangeClientFactory(
@@ -60,6 +61,7 @@ public class ExchangeClientFactory
                 config.getMaxErrorDuration(),
                 config.isAcknowledgePages(),
                 config.getPageBufferClientMaxCallbackThreads(),
+                config.getBufferPoolMaxSize(),
                 httpClient,
                 scheduler);
     }
@@ -73,6 +75,20 @@ public class ExchangeClientFactory
             int pageBufferClientMaxCallbackThreads,
             HttpClient httpClient,
             ScheduledExecutorService scheduler)
+    {
+        this(maxBufferedBytes, maxResponseSize, concurrentRequestMultiplier, maxErrorDuration, acknowledgePages, pageBufferClientMaxCallbackThreads, new DataSize(0, BYTE), httpClient, scheduler);
+    }
+
+    public ExchangeClientFactory(
+            DataSize maxBufferedBytes,
+            DataSize maxResponseSize,
+            int concurrentRequestMultiplier,
+            Duration maxErrorDuration,
+            boolean acknowledgePages,
+            int pageBufferClientMaxCallbackThreads,
+            DataSize bufferPoolMaxSize,
+            HttpClient httpClient,
+            ScheduledExecutorService scheduler)
     {
         this.maxBufferedBytes = requireNonNull(maxBufferedBytes, "maxBufferedBytes is null");
         this.concurrentRequestMultiplier = concurrentRequestMultiplier;
@@ -87,6 +103,7 @@ public class ExchangeClientFactory
         this.maxResponseSize = new DataSize(maxResponseSizeBytes, BYTE);
 
         this.scheduler = requireNonNull(scheduler, "scheduler is null");
+        this.bufferPoolMaxSize = requireNonNull(bufferPoolMaxSize, "bufferPoolMaxSize is null");
 
         this.pageBufferClientCallbackExecutor = newFixedThreadPool(pageBufferClientMaxCallbackThreads, daemonThreadsNamed("page-buffer-client-callback-%s"));
         this.executorMBean = new ThreadPoolExecutorMBean((ThreadPoolExecutor) pageBufferClientCallbackExecutor);
@@ -112,6 +129,14 @@ public class ExchangeClientFactory
     @Override
     public ExchangeClient get(LocalMemoryContext systemMemoryContext)
     {
+        return get(systemMemoryContext, false);
+    }
+
+    @Override
+    public ExchangeClient get(LocalMemoryContext systemMemoryContext, boolean reuseReceiveBuffers)
+    {
+        // the memory of uncompressed pages is referenced by their deserialized blocks and is never released,
+        // pooling it would only round up the size of every received page
         return new ExchangeClient(
                 maxBufferedBytes,
                 maxResponseSize,
@@ -121,6 +146,7 @@ public class ExchangeClientFactory
                 httpClient,
                 scheduler,
                 systemMemoryContext,
-                pageBufferClientCallbackExecutor);
+                pageBufferClientCallbackExecutor,
+                new ExchangeBufferPool(reuseReceiveBuffers ? bufferPoolMaxSize.toBytes() : 0));
     }
 }
@@ -31,6 +31,8 @@ public class ExchangeClientStatus
     private final long averageBytesPerRequest;
     private final long successfulRequestsCount;
     private final int bufferedPages;
+    private final long allocatedBytes;
+    private final long reusedBytes;
     private final boolean noMoreLocations;
     private final List<PageBufferClientStatus> pageBufferClientStatuses;
 
@@ -41,6 +43,8 @@ public class ExchangeClientStatus
             @JsonProperty("averageBytesPerRequest") long averageBytesPerRequest,
             @JsonProperty("successfulRequestsCount") long successFullRequestsCount,
             @JsonProperty("bufferedPages") int bufferedPages,
+            @JsonProperty("allocatedBytes") long allocatedBytes,
+            @JsonProperty("reusedBytes") long reusedBytes,
             @JsonProperty("noMoreLocations") boolean noMoreLocations,
             @JsonProperty("pageBufferClientStatuses") List<PageBufferClientStatus> pageBufferClientStatuses)
     {
@@ -49,6 +53,8 @@ public class ExchangeClientStatus
         this.averageBytesPerRequest = averageBytesPerRequest;
         this.successfulRequestsCount = successFullRequestsCount;
         this.bufferedPages = bufferedPages;
+        this.allocatedBytes = allocatedBytes;
+        this.reusedBytes = reusedBytes;
         this.noMoreLocations = noMoreLocations;
         this.pageBufferClientStatuses = ImmutableList.copyOf(requireNonNull(pageBufferClientStatuses, "pageBufferClientStatuses is null"));
     }
@@ -83,6 +89,24 @@ public class ExchangeClientStatus
         return bufferedPages;
     }
 
+    /**
+     * Bytes allocated to receive pages
+     */
+    @JsonProperty
+    public long getAllocatedBytes()
+    {
+        return allocatedBytes;
+    }
+
+    /**
+     * Bytes of pages received into reused buffers instead of newly allocated ones
+     */
+    @JsonProperty
+    public long getReusedBytes()
+    {
+        return reusedBytes;
+    }
+
     @JsonProperty
     public boolean isNoMoreLocations()
     {
@@ -110,6 +134,8 @@ public class ExchangeClientStatus
                 .add("averageBytesPerRequest", averageBytesPerRequest)
                 .add("successfulRequestsCount", successfulRequestsCount)
                 .add("bufferedPages", bufferedPages)
+                .add("allocatedBytes", allocatedBytes)
+                .add("reusedBytes", reusedBytes)
                 .add("noMoreLocations", noMoreLocations)
                 .add("pageBufferClientStatuses", pageBufferClientStatuses)
                 .toString();
@@ -124,6 +150,8 @@ public class ExchangeClientStatus
                 mergeAvgs(averageBytesPerRequest, successfulRequestsCount, other.averageBytesPerRequest, other.successfulRequestsCount),
                 successfulRequestsCount + other.successfulRequestsCount,
                 bufferedPages + other.bufferedPages,
+                allocatedBytes + other.allocatedBytes,
+                reusedBytes + other.reusedBytes,
                 noMoreLocations && other.noMoreLocations, // if at least one has some locations, mergee has some too
                 ImmutableList.of()); // pageBufferClientStatuses may be long, so we don't want to combine the lists
     }
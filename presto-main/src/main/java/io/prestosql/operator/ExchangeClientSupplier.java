@@ -18,4 +18,13 @@ import io.prestosql.memory.context.LocalMemoryContext;
 public interface ExchangeClientSupplier
 {
     ExchangeClient get(LocalMemoryContext systemMemoryContext);
+
+    /**
+     * @param reuseReceiveBuffers whether the received pages are compressed, so that their memory
+     * can be reused once they are deserialized
+     */
+    default ExchangeClient get(LocalMemoryContext systemMemoryContext, boolean reuseReceiveBuffers)
+    {
+        return get(systemMemoryContext);
+    }
 }
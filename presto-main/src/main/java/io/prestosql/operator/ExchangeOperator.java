@@ -36,6 +36,7 @@ import java.util.function.Supplier;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static io.prestosql.SystemSessionProperties.isExchangeCompressionEnabled;
 import static java.util.Objects.requireNonNull;
 
 @RestorableConfig(uncapturedFields = {"sourceId", "exchangeClient", "snapshotState", "blockedOnSplits", "inputChannels"})
@@ -75,7 +76,7 @@ public class ExchangeOperator
             checkState(!closed, "Factory is already closed");
             OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, sourceId, ExchangeOperator.class.getSimpleName());
             if (exchangeClient == null) {
-                exchangeClient = exchangeClientSupplier.get(driverContext.getPipelineContext().localSystemMemoryContext());
+                exchangeClient = exchangeClientSupplier.get(driverContext.getPipelineContext().localSystemMemoryContext(), isExchangeCompressionEnabled(driverContext.getSession()));
                 if (operatorContext.isSnapshotEnabled()) {
                     exchangeClient.setSnapshotEnabled(driverContext.getPipelineContext().getTaskContext().getSnapshotManager().getQuerySnapshotManager());
                 }
@@ -222,6 +223,10 @@ public class ExchangeOperator
 
         Page deserializedPage = operatorContext.getDriverContext().getSerde().deserialize(page);
         operatorContext.recordProcessedInput(deserializedPage.getSizeInBytes(), page.getPositionCount());
+        if (snapshotState == null) {
+            // snapshot state may still hold on to serialized pages
+            exchangeClient.releasePage(page);
+        }
 
         return deserializedPage;
     }
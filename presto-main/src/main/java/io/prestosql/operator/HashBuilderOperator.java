@@ -737,15 +737,56 @@ public class HashBuilderOperator
         return myState;
     }
 
+    /**
+     * Pages are only appended to the index while input is consumed, so only pages added since the previous
+     * snapshot are captured. Spilled input is always captured in full.
+     */
+    @Override
+    public Object captureDelta(BlockEncodingSerdeProvider serdeProvider)
+    {
+        if (spiller.isPresent()) {
+            return null;
+        }
+        Object indexDelta = index.captureDelta(serdeProvider);
+        if (indexDelta == null) {
+            return null;
+        }
+
+        HashBuilderOperatorState myState = new HashBuilderOperatorState();
+        myState.operatorContext = operatorContext.capture(serdeProvider);
+        myState.localUserMemoryContext = localUserMemoryContext.getBytes();
+        myState.localRevocableMemoryContext = localRevocableMemoryContext.getBytes();
+        myState.index = indexDelta;
+        myState.hashCollisionsCounter = hashCollisionsCounter.capture(serdeProvider);
+        myState.state = state.toString();
+        myState.alreadyFinished = alreadyFinished;
+        return myState;
+    }
+
     @Override
     public void restore(Object state, BlockEncodingSerdeProvider serdeProvider)
     {
-        HashBuilderOperatorState myState = (HashBuilderOperatorState) state;
+        restore((HashBuilderOperatorState) state, false, serdeProvider);
+    }
+
+    @Override
+    public void restoreDelta(Object delta, BlockEncodingSerdeProvider serdeProvider)
+    {
+        restore((HashBuilderOperatorState) delta, true, serdeProvider);
+    }
+
+    private void restore(HashBuilderOperatorState myState, boolean delta, BlockEncodingSerdeProvider serdeProvider)
+    {
         this.operatorContext.restore(myState.operatorContext, serdeProvider);
         this.localUserMemoryContext.setBytes(myState.localUserMemoryContext);
         this.localRevocableMemoryContext.setBytes(myState.localRevocableMemoryContext);
 
-        this.index.restore(myState.index, serdeProvider);
+        if (delta) {
+            this.index.restoreDelta(myState.index, serdeProvider);
+        }
+        else {
+            this.index.restore(myState.index, serdeProvider);
+        }
 
         this.hashCollisionsCounter.restore(myState.hashCollisionsCounter, serdeProvider);
         State oldState = this.state;
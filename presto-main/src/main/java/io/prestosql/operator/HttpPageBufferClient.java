@@ -146,6 +146,7 @@ public final class HttpPageBufferClient
 
     private final boolean isSnapshotEnabled;
     private final QuerySnapshotManager querySnapshotManager;
+    private final ExchangeBufferPool bufferPool;
 
     public HttpPageBufferClient(
             HttpClient httpClient,
@@ -159,7 +160,23 @@ public final class HttpPageBufferClient
             boolean isSnapshotEnabled,
             QuerySnapshotManager querySnapshotManager)
     {
-        this(httpClient, maxResponseSize, maxErrorDuration, acknowledgePages, location, clientCallback, scheduler, Ticker.systemTicker(), pageBufferClientCallbackExecutor, isSnapshotEnabled, querySnapshotManager);
+        this(httpClient, maxResponseSize, maxErrorDuration, acknowledgePages, location, clientCallback, scheduler, pageBufferClientCallbackExecutor, isSnapshotEnabled, querySnapshotManager, new ExchangeBufferPool(0));
+    }
+
+    public HttpPageBufferClient(
+            HttpClient httpClient,
+            DataSize maxResponseSize,
+            Duration maxErrorDuration,
+            boolean acknowledgePages,
+            TaskLocation location,
+            ClientCallback clientCallback,
+            ScheduledExecutorService scheduler,
+            Executor pageBufferClientCallbackExecutor,
+            boolean isSnapshotEnabled,
+            QuerySnapshotManager querySnapshotManager,
+            ExchangeBufferPool bufferPool)
+    {
+        this(httpClient, maxResponseSize, maxErrorDuration, acknowledgePages, location, clientCallback, scheduler, Ticker.systemTicker(), pageBufferClientCallbackExecutor, isSnapshotEnabled, querySnapshotManager, bufferPool);
     }
 
     @VisibleForTesting
@@ -175,6 +192,24 @@ public final class HttpPageBufferClient
             Executor pageBufferClientCallbackExecutor,
             boolean isSnapshotEnabled,
             QuerySnapshotManager querySnapshotManager)
+    {
+        this(httpClient, maxResponseSize, maxErrorDuration, acknowledgePages, location, clientCallback, scheduler, ticker, pageBufferClientCallbackExecutor, isSnapshotEnabled, querySnapshotManager, new ExchangeBufferPool(0));
+    }
+
+    @VisibleForTesting
+    HttpPageBufferClient(
+            HttpClient httpClient,
+            DataSize maxResponseSize,
+            Duration maxErrorDuration,
+            boolean acknowledgePages,
+            TaskLocation location,
+            ClientCallback clientCallback,
+            ScheduledExecutorService scheduler,
+            Ticker ticker,
+            Executor pageBufferClientCallbackExecutor,
+            boolean isSnapshotEnabled,
+            QuerySnapshotManager querySnapshotManager,
+            ExchangeBufferPool bufferPool)
     {
         this.httpClient = requireNonNull(httpClient, "httpClient is null");
         this.maxResponseSize = requireNonNull(maxResponseSize, "maxResponseSize is null");
@@ -190,6 +225,7 @@ public final class HttpPageBufferClient
         this.backoff = new Backoff(maxErrorDuration, ticker);
         this.isSnapshotEnabled = isSnapshotEnabled;
         this.querySnapshotManager = querySnapshotManager;
+        this.bufferPool = requireNonNull(bufferPool, "bufferPool is null");
     }
 
     public synchronized PageBufferClientStatus getStatus()
@@ -323,7 +359,7 @@ public final class HttpPageBufferClient
                 addInstanceIdHeader(prepareGet())
                         .setHeader(PRESTO_MAX_SIZE, maxResponseSize.toString())
                         .setUri(uri).build(),
-                new PageResponseHandler(querySnapshotManager));
+                new PageResponseHandler(querySnapshotManager, bufferPool));
 
         future = resultFuture;
         Futures.addCallback(resultFuture, new FutureCallback<PagesResponse>()
@@ -566,10 +602,12 @@ public final class HttpPageBufferClient
             implements ResponseHandler<PagesResponse, RuntimeException>
     {
         private final QuerySnapshotManager querySnapshotManager;
+        private final ExchangeBufferPool bufferPool;
 
-        private PageResponseHandler(QuerySnapshotManager querySnapshotManager)
+        private PageResponseHandler(QuerySnapshotManager querySnapshotManager, ExchangeBufferPool bufferPool)
         {
             this.querySnapshotManager = querySnapshotManager;
+            this.bufferPool = bufferPool;
         }
 
         @Override
@@ -623,7 +661,7 @@ public final class HttpPageBufferClient
                 boolean complete = getComplete(response);
 
                 try (SliceInput input = new InputStreamSliceInput(response.getInputStream())) {
-                    List<SerializedPage> pages = ImmutableList.copyOf(readSerializedPages(input));
+                    List<SerializedPage> pages = ImmutableList.copyOf(readSerializedPages(input, bufferPool::allocate));
                     return createPagesResponse(token, nextToken, pages, complete);
                 }
                 catch (IOException e) {
@@ -60,6 +60,7 @@ import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.airlift.slice.SizeOf.sizeOf;
 import static io.airlift.units.DataSize.Unit.BYTE;
@@ -78,7 +79,7 @@ import static java.util.Objects.requireNonNull;
  * <li>Positional output via the {@link #appendTo} method</li>
  * </ul>
  */
-@RestorableConfig(uncapturedFields = {"orderingCompiler", "joinCompiler", "metadata", "types"})
+@RestorableConfig(uncapturedFields = {"orderingCompiler", "joinCompiler", "metadata", "types", "capturedBlockCount", "capturedPositionCount"})
 public class PagesIndex
         implements Swapper, Restorable
 {
@@ -99,6 +100,11 @@ public class PagesIndex
     private long pagesMemorySize;
     private long estimatedSize;
 
+    // Number of blocks and value addresses when the index was last captured or restored, used by captureDelta.
+    // Blocks and addresses are only appended until the index is cleared or sorted, which resets capturedBlockCount to -1.
+    private int capturedBlockCount = -1;
+    private int capturedPositionCount;
+
     private PagesIndex(
             OrderingCompiler orderingCompiler,
             JoinCompiler joinCompiler,
@@ -203,6 +209,7 @@ public class PagesIndex
         positionCount = 0;
         nextBlockToCompact = 0;
         pagesMemorySize = 0;
+        capturedBlockCount = -1;
 
         estimatedSize = calculateEstimatedSize();
     }
@@ -383,6 +390,7 @@ public class PagesIndex
 
     public void sort(List<Integer> sortChannels, List<SortOrder> sortOrders, int startPosition, int endPosition)
     {
+        capturedBlockCount = -1;
         createPagesIndexComparator(sortChannels, sortOrders).sort(this, startPosition, endPosition);
     }
 
@@ -612,6 +620,39 @@ public class PagesIndex
         myState.positionCount = positionCount;
         myState.pagesMemorySize = pagesMemorySize;
         myState.estimatedSize = estimatedSize;
+        markCaptured();
+        return myState;
+    }
+
+    @Override
+    public Object captureDelta(BlockEncodingSerdeProvider serdeProvider)
+    {
+        if (capturedBlockCount < 0) {
+            return null;
+        }
+
+        BlockEncodingSerde blockSerde = serdeProvider.getBlockEncodingSerde();
+        PagesIndexDeltaState myState = new PagesIndexDeltaState();
+        myState.capturedBlockCount = capturedBlockCount;
+        myState.capturedPositionCount = capturedPositionCount;
+        myState.valueAddresses = new long[valueAddresses.size() - capturedPositionCount];
+        valueAddresses.getElements(capturedPositionCount, myState.valueAddresses, 0, myState.valueAddresses.length);
+        myState.channels = new byte[channels.length][][];
+        for (int i = 0; i < channels.length; i++) {
+            // Blocks before capturedBlockCount may have been compacted since, but their content hasn't changed
+            int arraySize = channels[i].size() - capturedBlockCount;
+            myState.channels[i] = new byte[arraySize][];
+            for (int j = 0; j < arraySize; j++) {
+                SliceOutput sliceOutput = new DynamicSliceOutput(0);
+                blockSerde.writeBlock(sliceOutput, channels[i].get(capturedBlockCount + j));
+                myState.channels[i][j] = sliceOutput.getUnderlyingSlice().getBytes();
+            }
+        }
+        myState.nextBlockToCompact = nextBlockToCompact;
+        myState.positionCount = positionCount;
+        myState.pagesMemorySize = pagesMemorySize;
+        myState.estimatedSize = estimatedSize;
+        markCaptured();
         return myState;
     }
 
@@ -635,6 +676,34 @@ public class PagesIndex
         this.positionCount = myState.positionCount;
         this.pagesMemorySize = myState.pagesMemorySize;
         this.estimatedSize = myState.estimatedSize;
+        markCaptured();
+    }
+
+    @Override
+    public void restoreDelta(Object delta, BlockEncodingSerdeProvider serdeProvider)
+    {
+        BlockEncodingSerde blockSerde = serdeProvider.getBlockEncodingSerde();
+        PagesIndexDeltaState myState = (PagesIndexDeltaState) delta;
+        checkState(valueAddresses.size() == myState.capturedPositionCount, "Delta doesn't apply to the restored index");
+        this.valueAddresses.addElements(valueAddresses.size(), myState.valueAddresses);
+        for (int i = 0; i < myState.channels.length; i++) {
+            checkState(channels[i].size() == myState.capturedBlockCount, "Delta doesn't apply to the restored index");
+            for (byte[] blockState : myState.channels[i]) {
+                Slice input = Slices.wrappedBuffer(blockState);
+                this.channels[i].add(blockSerde.readBlock(input.getInput()));
+            }
+        }
+        this.nextBlockToCompact = myState.nextBlockToCompact;
+        this.positionCount = myState.positionCount;
+        this.pagesMemorySize = myState.pagesMemorySize;
+        this.estimatedSize = myState.estimatedSize;
+        markCaptured();
+    }
+
+    private void markCaptured()
+    {
+        capturedBlockCount = channels.length > 0 ? channels[0].size() : 0;
+        capturedPositionCount = valueAddresses.size();
     }
 
     private static class PagesIndexState
@@ -647,4 +716,17 @@ public class PagesIndex
         private long pagesMemorySize;
         private long estimatedSize;
     }
+
+    private static class PagesIndexDeltaState
+            implements Serializable
+    {
+        private int capturedBlockCount;
+        private int capturedPositionCount;
+        private long[] valueAddresses;
+        private byte[][][] channels;
+        private int nextBlockToCompact;
+        private int positionCount;
+        private long pagesMemorySize;
+        private long estimatedSize;
+    }
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.snapshot;
+
+import java.io.Serializable;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * DeltaState is stored in place of a full state when a component only captured the changes
+ * since its previous snapshot. Restoring it requires the state stored for the base snapshot first.
+ */
+public class DeltaState
+        implements Serializable
+{
+    private final long baseSnapshotId;
+    private final Object delta;
+
+    public DeltaState(long baseSnapshotId, Object delta)
+    {
+        this.baseSnapshotId = baseSnapshotId;
+        this.delta = delta;
+    }
+
+    public long getBaseSnapshotId()
+    {
+        return baseSnapshotId;
+    }
+
+    public Object getDelta()
+    {
+        return delta;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("baseSnapshotId", baseSnapshotId)
+                .toString();
+    }
+}
@@ -14,6 +14,9 @@
  */
 package io.prestosql.snapshot;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.log.Logger;
 import io.hetu.core.transport.execution.buffer.PagesSerde;
 import io.prestosql.operator.Operator;
@@ -23,12 +26,15 @@ import io.prestosql.spi.snapshot.MarkerPage;
 import io.prestosql.spi.snapshot.Restorable;
 
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.function.Function;
 
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -52,6 +58,12 @@ public class SingleInputSnapshotState
     private final Function<Long, SnapshotStateId> spillStateIdGenerator;
     // Markers to be returned to the restorable object. The "nextMarker" method polls this list.
     private final Queue<MarkerPage> markers = new LinkedList<>();
+    // Snapshot that the next delta capture is based on, -1 if the next capture must be a full one
+    private long lastCapturedSnapshotId = -1;
+    // Number of delta captures since the last full capture
+    private int deltaCaptureCount;
+    // Set when the upload of a captured state fails, so deltas are no longer based on a state that may not exist
+    private volatile boolean captureBaseLost;
 
     public static SingleInputSnapshotState forOperator(Operator operator, OperatorContext operatorContext)
     {
@@ -93,13 +105,16 @@ public class SingleInputSnapshotState
         long snapshotId = marker.getSnapshotId();
         SnapshotStateId componentId = snapshotStateIdGenerator.apply(snapshotId);
         if (marker.isResuming()) {
+            // Until restore succeeds, the next capture can't be based on any previous snapshot
+            lastCapturedSnapshotId = -1;
             try {
-                Optional<Object> state;
-                if (restorable.supportsConsolidatedWrites()) {
-                    state = snapshotManager.loadConsolidatedState(componentId);
-                }
-                else {
-                    state = snapshotManager.loadState(componentId);
+                Optional<Object> state = loadState(componentId);
+                // A delta state only holds changes since its base snapshot. Follow the chain back to a full state.
+                Deque<Object> deltas = new ArrayDeque<>();
+                while (state.isPresent() && state.get() instanceof DeltaState) {
+                    DeltaState deltaState = (DeltaState) state.get();
+                    deltas.push(deltaState.getDelta());
+                    state = loadState(componentId.withSnapshotId(deltaState.getBaseSnapshotId()));
                 }
                 if (!state.isPresent()) {
                     snapshotManager.failedToRestore(componentId, true);
@@ -111,6 +126,9 @@ public class SingleInputSnapshotState
                 }
                 else {
                     restorable.restore(state.get(), pagesSerde);
+                    for (Object delta : deltas) {
+                        restorable.restoreDelta(delta, pagesSerde);
+                    }
                     boolean successful = true;
                     if (restorable instanceof Spillable && ((Spillable) restorable).isSpilled()) {
                         Boolean result = loadSpilledFiles(snapshotId, (Spillable) restorable);
@@ -126,6 +144,10 @@ public class SingleInputSnapshotState
                         }
                     }
                     if (successful) {
+                        // The restored chain was readable, so later captures can be based on it
+                        captureBaseLost = false;
+                        lastCapturedSnapshotId = snapshotId;
+                        deltaCaptureCount = deltas.size();
                         LOG.debug("Successfully restored state to snapshot %d for %s", snapshotId, restorableId);
                         snapshotManager.succeededToRestore(componentId);
                     }
@@ -155,11 +177,27 @@ public class SingleInputSnapshotState
     {
         SnapshotStateId componentId = snapshotStateIdGenerator.apply(snapshotId);
         try {
+            Object state = captureRestorable(snapshotId);
             if (restorable.supportsConsolidatedWrites()) {
-                snapshotManager.storeConsolidatedState(componentId, restorable.capture(pagesSerde));
+                snapshotManager.storeConsolidatedState(componentId, state);
             }
             else {
-                snapshotManager.storeState(componentId, restorable.capture(pagesSerde));
+                ListenableFuture<?> store = snapshotManager.storeState(componentId, state);
+                if (store != null) {
+                    Futures.addCallback(store, new FutureCallback<Object>()
+                    {
+                        @Override
+                        public void onSuccess(Object result)
+                        {
+                        }
+
+                        @Override
+                        public void onFailure(Throwable t)
+                        {
+                            captureBaseLost = true;
+                        }
+                    }, directExecutor());
+                }
             }
             if (restorable instanceof Spillable && ((Spillable) restorable).isSpilled()) {
                 storeSpilledFiles(snapshotId, (Spillable) restorable);
@@ -174,10 +212,48 @@ public class SingleInputSnapshotState
         }
         catch (Exception e) {
             LOG.warn(e, "Failed to capture and store snapshot state");
+            lastCapturedSnapshotId = -1;
             snapshotManager.failedToCapture(componentId);
         }
     }
 
+    /**
+     * Capture only the changes since the previous snapshot if the restorable supports it,
+     * unless it's time for a full capture to keep the chain of deltas to restore short.
+     */
+    private Object captureRestorable(long snapshotId)
+    {
+        if (captureBaseLost) {
+            // A state in the chain of deltas was never written, so start a new chain with a full capture
+            captureBaseLost = false;
+            lastCapturedSnapshotId = -1;
+        }
+        boolean spilled = restorable instanceof Spillable && ((Spillable) restorable).isSpilled();
+        if (lastCapturedSnapshotId >= 0 && lastCapturedSnapshotId < snapshotId && !spilled
+                && deltaCaptureCount + 1 < snapshotManager.getFullCaptureInterval()) {
+            Object delta = restorable.captureDelta(pagesSerde);
+            if (delta != null) {
+                DeltaState state = new DeltaState(lastCapturedSnapshotId, delta);
+                lastCapturedSnapshotId = snapshotId;
+                deltaCaptureCount++;
+                return state;
+            }
+        }
+        Object state = restorable.capture(pagesSerde);
+        lastCapturedSnapshotId = snapshotId;
+        deltaCaptureCount = 0;
+        return state;
+    }
+
+    private Optional<Object> loadState(SnapshotStateId componentId)
+            throws Exception
+    {
+        if (restorable.supportsConsolidatedWrites()) {
+            return snapshotManager.loadConsolidatedState(componentId);
+        }
+        return snapshotManager.loadState(componentId);
+    }
+
     public boolean hasMarker()
     {
         return !markers.isEmpty();
@@ -16,13 +16,18 @@ package io.prestosql.snapshot;
 
 import io.airlift.configuration.Config;
 import io.airlift.configuration.ConfigDescription;
+import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
+import io.airlift.units.MaxDataSize;
+import io.airlift.units.MinDataSize;
 
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 import java.util.concurrent.TimeUnit;
 
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+
 /**
  * This class contains all configs of snapshot
  */
@@ -38,6 +43,10 @@ public class SnapshotConfig
     public static final String SNAPSHOT_SPLIT_COUNT_INTERVAL = "hetu.internal.snapshot.splitCountInterval";
     public static final String SNAPSHOT_MAX_RETRIES = "hetu.snapshot.maxRetries";
     public static final String SNAPSHOT_RETRY_TIMEOUT = "hetu.snapshot.retryTimeout";
+    public static final String SNAPSHOT_UPLOAD_THREADS = "hetu.snapshot.upload-threads";
+    public static final String SNAPSHOT_UPLOAD_PART_SIZE = "hetu.snapshot.upload-part-size";
+    public static final String SNAPSHOT_DELTA_CAPTURE_ENABLED = "hetu.snapshot.delta-capture-enabled";
+    public static final String SNAPSHOT_FULL_CAPTURE_INTERVAL = "hetu.snapshot.full-capture-interval";
 
     private String snapshotProfile;
 
@@ -46,6 +55,10 @@ public class SnapshotConfig
     private long snapshotSplitCountInterval = 1_000;
     private long snapshotMaxRetries = 10;
     private Duration snapshotRetryTimeout = new Duration(10, TimeUnit.MINUTES);
+    private int snapshotUploadThreads = 4;
+    private DataSize snapshotUploadPartSize = new DataSize(8, MEGABYTE);
+    private boolean snapshotDeltaCaptureEnabled;
+    private int snapshotFullCaptureInterval = 10;
 
     public enum IntervalType
     {
@@ -144,4 +157,61 @@ public class SnapshotConfig
         this.snapshotRetryTimeout = snapshotRetryTimeout;
         return this;
     }
+
+    @Min(1)
+    public int getSnapshotUploadThreads()
+    {
+        return snapshotUploadThreads;
+    }
+
+    @Config(SNAPSHOT_UPLOAD_THREADS)
+    @ConfigDescription("number of threads compressing and writing snapshot states in the background")
+    public SnapshotConfig setSnapshotUploadThreads(int snapshotUploadThreads)
+    {
+        this.snapshotUploadThreads = snapshotUploadThreads;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("1kB")
+    @MaxDataSize("1GB")
+    public DataSize getSnapshotUploadPartSize()
+    {
+        return snapshotUploadPartSize;
+    }
+
+    @Config(SNAPSHOT_UPLOAD_PART_SIZE)
+    @ConfigDescription("snapshot states larger than this are split into parts written in parallel")
+    public SnapshotConfig setSnapshotUploadPartSize(DataSize snapshotUploadPartSize)
+    {
+        this.snapshotUploadPartSize = snapshotUploadPartSize;
+        return this;
+    }
+
+    public boolean isSnapshotDeltaCaptureEnabled()
+    {
+        return snapshotDeltaCaptureEnabled;
+    }
+
+    @Config(SNAPSHOT_DELTA_CAPTURE_ENABLED)
+    @ConfigDescription("operators that support it only capture state changed since their previous snapshot")
+    public SnapshotConfig setSnapshotDeltaCaptureEnabled(boolean snapshotDeltaCaptureEnabled)
+    {
+        this.snapshotDeltaCaptureEnabled = snapshotDeltaCaptureEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getSnapshotFullCaptureInterval()
+    {
+        return snapshotFullCaptureInterval;
+    }
+
+    @Config(SNAPSHOT_FULL_CAPTURE_INTERVAL)
+    @ConfigDescription("with delta capture, capture the full state of an operator every this many snapshots")
+    public SnapshotConfig setSnapshotFullCaptureInterval(int snapshotFullCaptureInterval)
+    {
+        this.snapshotFullCaptureInterval = snapshotFullCaptureInterval;
+        return this;
+    }
 }
@@ -15,14 +15,26 @@
 package io.prestosql.snapshot;
 
 import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import io.airlift.compress.lz4.Lz4Compressor;
+import io.airlift.compress.lz4.Lz4Decompressor;
 import io.airlift.log.Logger;
+import io.prestosql.spi.block.BlockEncodingSerde;
 import io.prestosql.spi.filesystem.HetuFileSystemClient;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -31,36 +43,66 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static java.util.Objects.requireNonNull;
 
 /**
  * SnapshotStoreFileBased is an implementation of SnapshotStoreClient.
  * It uses HetuFileSystemClient to connect to File System.
+ * <p>
+ * States are stored in parts of at most partSize bytes, each compressed with LZ4 and written to its own file.
+ * The state file itself is written last and lists the parts, so a state is only visible once all parts exist:
+ * <pre>
+ * state file: [MAGIC][part count][uncompressed length, stored length]...
+ * part files: state file name + ".part" + part index
+ * </pre>
  */
 public class SnapshotFileBasedClient
         implements SnapshotStoreClient
 {
     private static final Logger LOG = Logger.get(SnapshotFileBasedClient.class);
+    private static final int MULTIPART_MAGIC = 0x534e5031; // "SNP1"
+    private static final int DEFAULT_PART_SIZE = 8 * 1024 * 1024;
 
     private final HetuFileSystemClient fsClient;
     private final Path rootPath;
+    private final ListeningExecutorService uploadExecutor;
+    private final int partSize;
+    private final Optional<BlockEncodingSerde> blockEncodingSerde;
 
     public SnapshotFileBasedClient(HetuFileSystemClient fsClient, Path rootPath)
     {
+        this(fsClient, rootPath, newDirectExecutorService(), DEFAULT_PART_SIZE, Optional.empty());
+    }
+
+    public SnapshotFileBasedClient(HetuFileSystemClient fsClient, Path rootPath, ExecutorService uploadExecutor, int partSize, Optional<BlockEncodingSerde> blockEncodingSerde)
+    {
+        this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
         this.fsClient = fsClient;
         this.rootPath = rootPath;
+        this.uploadExecutor = listeningDecorator(requireNonNull(uploadExecutor, "uploadExecutor is null"));
+        this.partSize = partSize;
     }
 
     @Override
     public void storeState(SnapshotStateId snapshotStateId, Object state)
             throws IOException
     {
-        Path file = SnapshotUtils.createStatePath(rootPath, snapshotStateId.getHierarchy());
-
-        fsClient.createDirectories(file.getParent());
+        // parts are written one after the other by the calling thread
+        Futures.getChecked(storeParts(snapshotStateId, serialize(state), newDirectExecutorService()), IOException.class);
+    }
 
-        try (OutputStream outputStream = fsClient.newOutputStream(file)) {
-            SnapshotUtils.serializeState(state, outputStream);
-        }
+    @Override
+    public ListenableFuture<?> storeStateAsync(SnapshotStateId snapshotStateId, Object state)
+            throws IOException
+    {
+        // Serialize on the calling thread: the state object may change once the caller continues.
+        // Compressing and writing the parts is done by the upload executor.
+        return storeParts(snapshotStateId, serialize(state), uploadExecutor);
     }
 
     @Override
@@ -72,11 +114,113 @@ public class SnapshotFileBasedClient
             return Optional.empty();
         }
 
-        try (InputStream inputStream = fsClient.newInputStream(file)) {
-            return Optional.of(SnapshotUtils.deserializeState(inputStream));
+        try (InputStream inputStream = new BufferedInputStream(fsClient.newInputStream(file))) {
+            inputStream.mark(Integer.BYTES);
+            DataInputStream header = new DataInputStream(inputStream);
+            if (header.readInt() != MULTIPART_MAGIC) {
+                // state written as a single java serialized stream
+                inputStream.reset();
+                return Optional.of(SnapshotUtils.deserializeState(inputStream, blockEncodingSerde));
+            }
+            return Optional.of(SnapshotUtils.deserializeState(new ByteArrayInputStream(loadParts(file, header)), blockEncodingSerde));
+        }
+    }
+
+    private byte[] serialize(Object state)
+            throws IOException
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        SnapshotUtils.serializeState(state, output, blockEncodingSerde);
+        return output.toByteArray();
+    }
+
+    private ListenableFuture<?> storeParts(SnapshotStateId snapshotStateId, byte[] serialized, ListeningExecutorService executor)
+            throws IOException
+    {
+        Path file = SnapshotUtils.createStatePath(rootPath, snapshotStateId.getHierarchy());
+        fsClient.createDirectories(file.getParent());
+
+        int partCount = Math.max(1, (serialized.length + partSize - 1) / partSize);
+        List<ListenableFuture<int[]>> parts = new ArrayList<>(partCount);
+        for (int i = 0; i < partCount; i++) {
+            int part = i;
+            parts.add(executor.submit(() -> storePart(file, part, serialized, part * partSize, Math.min(partSize, serialized.length - part * partSize))));
+        }
+
+        // the state file is only written once all parts are complete
+        return Futures.transform(Futures.allAsList(parts), lengths -> {
+            try (DataOutputStream outputStream = new DataOutputStream(fsClient.newOutputStream(file))) {
+                outputStream.writeInt(MULTIPART_MAGIC);
+                outputStream.writeInt(lengths.size());
+                for (int[] length : lengths) {
+                    outputStream.writeInt(length[0]);
+                    outputStream.writeInt(length[1]);
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }, directExecutor());
+    }
+
+    /**
+     * @return uncompressed and stored length of the part
+     */
+    private int[] storePart(Path file, int part, byte[] serialized, int offset, int length)
+            throws IOException
+    {
+        Lz4Compressor compressor = new Lz4Compressor();
+        byte[] compressed = new byte[compressor.maxCompressedLength(length)];
+        int compressedLength = compressor.compress(serialized, offset, length, compressed, 0, compressed.length);
+
+        try (OutputStream outputStream = fsClient.newOutputStream(partPath(file, part))) {
+            if (compressedLength < length) {
+                outputStream.write(compressed, 0, compressedLength);
+                return new int[] {length, compressedLength};
+            }
+            // not compressible, store as is
+            outputStream.write(serialized, offset, length);
+            return new int[] {length, length};
         }
     }
 
+    private byte[] loadParts(Path file, DataInputStream header)
+            throws IOException
+    {
+        int partCount = header.readInt();
+        int[] uncompressedLengths = new int[partCount];
+        int[] storedLengths = new int[partCount];
+        int totalLength = 0;
+        for (int i = 0; i < partCount; i++) {
+            uncompressedLengths[i] = header.readInt();
+            storedLengths[i] = header.readInt();
+            totalLength += uncompressedLengths[i];
+        }
+
+        byte[] result = new byte[totalLength];
+        int offset = 0;
+        for (int i = 0; i < partCount; i++) {
+            byte[] stored = new byte[storedLengths[i]];
+            try (InputStream inputStream = fsClient.newInputStream(partPath(file, i))) {
+                ByteStreams.readFully(inputStream, stored);
+            }
+            if (storedLengths[i] < uncompressedLengths[i]) {
+                new Lz4Decompressor().decompress(stored, 0, stored.length, result, offset, uncompressedLengths[i]);
+            }
+            else {
+                System.arraycopy(stored, 0, result, offset, stored.length);
+            }
+            offset += uncompressedLengths[i];
+        }
+        return result;
+    }
+
+    private static Path partPath(Path file, int part)
+    {
+        return file.resolveSibling(file.getFileName() + ".part" + part);
+    }
+
     @Override
     public void storeFile(SnapshotStateId snapshotStateId, Path sourceFile)
             throws IOException
@@ -0,0 +1,820 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.snapshot;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.slice.InputStreamSliceInput;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockEncodingSerde;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Binary encoding of captured snapshot states, used instead of Java object serialization.
+ * <p>
+ * Captured states are trees of small state classes holding primitives, arrays, strings and collections.
+ * Every value is written with a one byte tag, primitive arrays are copied in bulk, blocks and pages are
+ * written with the BlockEncodingSerde, and state classes are written field by field. The first time a
+ * state class is used in a stream, its name is written together with its number of fields and a hash of
+ * their names and types, so a state is not restored into a class with a different layout.
+ * Objects that can't be written this way, e.g. classes with custom serialization, are written with
+ * Java serialization.
+ * <p>
+ * Only classes of the packages in {@link #ALLOWED_PACKAGES} are loaded when reading a state, including
+ * the classes of Java serialized objects.
+ */
+public final class SnapshotStateSerializer
+{
+    public static final int MAGIC = 0x534e5331; // "SNS1"
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte BYTE = 3;
+    private static final byte SHORT = 4;
+    private static final byte CHAR = 5;
+    private static final byte INT = 6;
+    private static final byte LONG = 7;
+    private static final byte FLOAT = 8;
+    private static final byte DOUBLE = 9;
+    private static final byte STRING = 10;
+    private static final byte BOOLEAN_ARRAY = 11;
+    private static final byte BYTE_ARRAY = 12;
+    private static final byte INT_ARRAY = 13;
+    private static final byte LONG_ARRAY = 14;
+    private static final byte DOUBLE_ARRAY = 15;
+    private static final byte OBJECT_ARRAY = 16;
+    private static final byte ARRAY_LIST = 17;
+    private static final byte HASH_MAP = 18;
+    private static final byte LINKED_HASH_MAP = 19;
+    private static final byte HASH_SET = 20;
+    private static final byte LINKED_HASH_SET = 21;
+    private static final byte ENUM = 22;
+    private static final byte OBJECT = 23;
+    private static final byte REFERENCE = 24;
+    private static final byte JAVA_SERIALIZED = 25;
+    private static final byte BLOCK = 26;
+    private static final byte PAGE = 27;
+
+    private static final List<String> ALLOWED_PACKAGES = ImmutableList.of(
+            "java.lang.",
+            "java.math.",
+            "java.time.",
+            "java.util.",
+            "com.google.common.",
+            "io.airlift.",
+            "io.hetu.",
+            "io.prestosql.",
+            "it.unimi.dsi.fastutil.",
+            "org.joda.time.");
+
+    // Empty if instances of the class can't be written field by field
+    private static final Map<Class<?>, Optional<StateClass>> STATE_CLASSES = new ConcurrentHashMap<>();
+
+    private SnapshotStateSerializer()
+    {
+    }
+
+    /**
+     * @param blockEncodingSerde encodes the blocks and pages of the state, which can't contain any if absent
+     */
+    public static void serialize(Object state, OutputStream outputStream, Optional<BlockEncodingSerde> blockEncodingSerde)
+            throws IOException
+    {
+        SliceOutput output = new OutputStreamSliceOutput(outputStream);
+        // big endian, as it's read to tell the state apart from a Java serialized one
+        output.writeInt(Integer.reverseBytes(MAGIC));
+        new Writer(output, blockEncodingSerde).writeValue(state);
+        output.flush();
+    }
+
+    /**
+     * Reads a state written by {@link #serialize}, the stream must be positioned after the magic number
+     */
+    public static Object deserialize(InputStream inputStream, Optional<BlockEncodingSerde> blockEncodingSerde)
+            throws IOException, ClassNotFoundException
+    {
+        return new Reader(new InputStreamSliceInput(inputStream), blockEncodingSerde).readValue();
+    }
+
+    /**
+     * Java deserialization that only loads the classes allowed in snapshot states
+     */
+    static ObjectInputStream newObjectInputStream(InputStream inputStream)
+            throws IOException
+    {
+        return new AllowedClassesObjectInputStream(inputStream);
+    }
+
+    private static boolean isAllowedClass(String className)
+    {
+        // array classes are named like "[I" or "[[Ljava.lang.String;"
+        String name = className;
+        int dimensions = 0;
+        while (dimensions < name.length() && name.charAt(dimensions) == '[') {
+            dimensions++;
+        }
+        if (dimensions > 0) {
+            name = name.substring(dimensions);
+            if (name.length() == 1) {
+                return true;
+            }
+            if (!name.startsWith("L") || !name.endsWith(";")) {
+                return false;
+            }
+            name = name.substring(1, name.length() - 1);
+        }
+        for (String allowedPackage : ALLOWED_PACKAGES) {
+            if (name.startsWith(allowedPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void checkAllowedClass(String className)
+            throws InvalidClassException
+    {
+        if (!isAllowedClass(className)) {
+            throw new InvalidClassException(className, "Class is not allowed in snapshot states");
+        }
+    }
+
+    private static BlockEncodingSerde getBlockEncodingSerde(Optional<BlockEncodingSerde> blockEncodingSerde)
+            throws IOException
+    {
+        return blockEncodingSerde.orElseThrow(() -> new IOException("Snapshot state contains blocks, but no BlockEncodingSerde is available"));
+    }
+
+    private static Optional<StateClass> getStateClass(Class<?> clazz)
+    {
+        return STATE_CLASSES.computeIfAbsent(clazz, StateClass::create);
+    }
+
+    private static class Writer
+    {
+        private final SliceOutput output;
+        private final Optional<BlockEncodingSerde> blockEncodingSerde;
+        private final Map<Class<?>, Integer> classIds = new HashMap<>();
+        private final Map<Class<?>, Integer> stateClassIds = new HashMap<>();
+        private final Map<Object, Integer> references = new IdentityHashMap<>();
+
+        private Writer(SliceOutput output, Optional<BlockEncodingSerde> blockEncodingSerde)
+        {
+            this.output = output;
+            this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
+        }
+
+        private void writeValue(Object value)
+                throws IOException
+        {
+            if (value == null) {
+                output.writeByte(NULL);
+            }
+            else if (value instanceof Boolean) {
+                output.writeByte((Boolean) value ? TRUE : FALSE);
+            }
+            else if (value instanceof Integer) {
+                output.writeByte(INT);
+                output.writeInt((Integer) value);
+            }
+            else if (value instanceof Long) {
+                output.writeByte(LONG);
+                output.writeLong((Long) value);
+            }
+            else if (value instanceof String) {
+                output.writeByte(STRING);
+                writeString((String) value);
+            }
+            else if (value instanceof byte[]) {
+                byte[] array = (byte[]) value;
+                output.writeByte(BYTE_ARRAY);
+                output.writeInt(array.length);
+                output.writeBytes(array);
+            }
+            else if (value instanceof long[]) {
+                long[] array = (long[]) value;
+                output.writeByte(LONG_ARRAY);
+                output.writeInt(array.length);
+                output.writeBytes(Slices.wrappedLongArray(array));
+            }
+            else if (value instanceof int[]) {
+                int[] array = (int[]) value;
+                output.writeByte(INT_ARRAY);
+                output.writeInt(array.length);
+                output.writeBytes(Slices.wrappedIntArray(array));
+            }
+            else if (value instanceof double[]) {
+                double[] array = (double[]) value;
+                output.writeByte(DOUBLE_ARRAY);
+                output.writeInt(array.length);
+                output.writeBytes(Slices.wrappedDoubleArray(array));
+            }
+            else if (value instanceof boolean[]) {
+                boolean[] array = (boolean[]) value;
+                output.writeByte(BOOLEAN_ARRAY);
+                output.writeInt(array.length);
+                for (boolean element : array) {
+                    output.writeBoolean(element);
+                }
+            }
+            else if (value instanceof Double) {
+                output.writeByte(DOUBLE);
+                output.writeDouble((Double) value);
+            }
+            else if (value instanceof Float) {
+                output.writeByte(FLOAT);
+                output.writeFloat((Float) value);
+            }
+            else if (value instanceof Short) {
+                output.writeByte(SHORT);
+                output.writeShort((Short) value);
+            }
+            else if (value instanceof Byte) {
+                output.writeByte(BYTE);
+                output.writeByte((Byte) value);
+            }
+            else if (value instanceof Character) {
+                output.writeByte(CHAR);
+                output.writeShort((Character) value);
+            }
+            else if (value instanceof Enum) {
+                output.writeByte(ENUM);
+                writeClass(((Enum<?>) value).getDeclaringClass());
+                writeString(((Enum<?>) value).name());
+            }
+            else if (value instanceof Block) {
+                BlockEncodingSerde serde = getBlockEncodingSerde(blockEncodingSerde);
+                output.writeByte(BLOCK);
+                serde.writeBlock(output, (Block<?>) value);
+            }
+            else if (value.getClass() == Page.class) {
+                BlockEncodingSerde serde = getBlockEncodingSerde(blockEncodingSerde);
+                Page page = (Page) value;
+                output.writeByte(PAGE);
+                output.writeInt(page.getPositionCount());
+                output.writeInt(page.getChannelCount());
+                for (int channel = 0; channel < page.getChannelCount(); channel++) {
+                    serde.writeBlock(output, page.getBlock(channel));
+                }
+            }
+            else {
+                writeReferenceValue(value);
+            }
+        }
+
+        /**
+         * Values that can be referenced more than once in a state, or contain references to themselves
+         */
+        private void writeReferenceValue(Object value)
+                throws IOException
+        {
+            Integer reference = references.get(value);
+            if (reference != null) {
+                output.writeByte(REFERENCE);
+                output.writeInt(reference);
+                return;
+            }
+
+            Class<?> clazz = value.getClass();
+            if (clazz.isArray() && !clazz.getComponentType().isPrimitive()) {
+                references.put(value, references.size());
+                Object[] array = (Object[]) value;
+                output.writeByte(OBJECT_ARRAY);
+                writeClass(clazz.getComponentType());
+                output.writeInt(array.length);
+                for (Object element : array) {
+                    writeValue(element);
+                }
+            }
+            else if (clazz == ArrayList.class) {
+                writeCollection(ARRAY_LIST, (Collection<?>) value);
+            }
+            else if (clazz == HashSet.class) {
+                writeCollection(HASH_SET, (Collection<?>) value);
+            }
+            else if (clazz == LinkedHashSet.class) {
+                writeCollection(LINKED_HASH_SET, (Collection<?>) value);
+            }
+            else if (clazz == HashMap.class) {
+                writeMap(HASH_MAP, (Map<?, ?>) value);
+            }
+            else if (clazz == LinkedHashMap.class) {
+                writeMap(LINKED_HASH_MAP, (Map<?, ?>) value);
+            }
+            else {
+                Optional<StateClass> stateClass = getStateClass(clazz);
+                if (stateClass.isPresent()) {
+                    references.put(value, references.size());
+                    output.writeByte(OBJECT);
+                    writeStateClass(clazz, stateClass.get());
+                    stateClass.get().writeFields(this, value);
+                }
+                else {
+                    // fail when capturing rather than when restoring
+                    checkAllowedClass(clazz.getName());
+                    output.writeByte(JAVA_SERIALIZED);
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    try (ObjectOutputStream objectOutput = new ObjectOutputStream(bytes)) {
+                        objectOutput.writeObject(value);
+                    }
+                    output.writeInt(bytes.size());
+                    output.writeBytes(bytes.toByteArray());
+                }
+            }
+        }
+
+        private void writeCollection(byte tag, Collection<?> collection)
+                throws IOException
+        {
+            references.put(collection, references.size());
+            output.writeByte(tag);
+            output.writeInt(collection.size());
+            for (Object element : collection) {
+                writeValue(element);
+            }
+        }
+
+        private void writeMap(byte tag, Map<?, ?> map)
+                throws IOException
+        {
+            references.put(map, references.size());
+            output.writeByte(tag);
+            output.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(entry.getKey());
+                writeValue(entry.getValue());
+            }
+        }
+
+        private void writeClass(Class<?> clazz)
+                throws IOException
+        {
+            Integer id = classIds.get(clazz);
+            if (id != null) {
+                output.writeInt(id);
+                return;
+            }
+            checkAllowedClass(clazz.getName());
+            classIds.put(clazz, classIds.size());
+            output.writeInt(-1);
+            writeString(clazz.getName());
+        }
+
+        private void writeStateClass(Class<?> clazz, StateClass stateClass)
+                throws IOException
+        {
+            Integer id = stateClassIds.get(clazz);
+            if (id != null) {
+                output.writeInt(id);
+                return;
+            }
+            checkAllowedClass(clazz.getName());
+            stateClassIds.put(clazz, stateClassIds.size());
+            output.writeInt(-1);
+            writeString(clazz.getName());
+            output.writeInt(stateClass.fields.length);
+            output.writeInt(stateClass.layoutHash);
+        }
+
+        private void writeString(String value)
+        {
+            byte[] bytes = value.getBytes(UTF_8);
+            output.writeInt(bytes.length);
+            output.writeBytes(bytes);
+        }
+    }
+
+    private static class Reader
+    {
+        private final SliceInput input;
+        private final Optional<BlockEncodingSerde> blockEncodingSerde;
+        private final List<Class<?>> classes = new ArrayList<>();
+        private final List<StateClass> stateClasses = new ArrayList<>();
+        private final List<Object> references = new ArrayList<>();
+
+        private Reader(SliceInput input, Optional<BlockEncodingSerde> blockEncodingSerde)
+        {
+            this.input = input;
+            this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
+        }
+
+        private Object readValue()
+                throws IOException, ClassNotFoundException
+        {
+            byte tag = input.readByte();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case TRUE:
+                    return true;
+                case FALSE:
+                    return false;
+                case BYTE:
+                    return input.readByte();
+                case SHORT:
+                    return input.readShort();
+                case CHAR:
+                    return (char) input.readShort();
+                case INT:
+                    return input.readInt();
+                case LONG:
+                    return input.readLong();
+                case FLOAT:
+                    return input.readFloat();
+                case DOUBLE:
+                    return input.readDouble();
+                case STRING:
+                    return readString();
+                case BOOLEAN_ARRAY: {
+                    boolean[] array = new boolean[input.readInt()];
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = input.readBoolean();
+                    }
+                    return array;
+                }
+                case BYTE_ARRAY: {
+                    byte[] array = new byte[input.readInt()];
+                    input.readBytes(array);
+                    return array;
+                }
+                case INT_ARRAY: {
+                    int[] array = new int[input.readInt()];
+                    input.readBytes(Slices.wrappedIntArray(array));
+                    return array;
+                }
+                case LONG_ARRAY: {
+                    long[] array = new long[input.readInt()];
+                    input.readBytes(Slices.wrappedLongArray(array));
+                    return array;
+                }
+                case DOUBLE_ARRAY: {
+                    double[] array = new double[input.readInt()];
+                    input.readBytes(Slices.wrappedDoubleArray(array));
+                    return array;
+                }
+                case OBJECT_ARRAY: {
+                    Class<?> componentType = readClass();
+                    Object[] array = (Object[]) Array.newInstance(componentType, input.readInt());
+                    references.add(array);
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = readValue();
+                    }
+                    return array;
+                }
+                case ARRAY_LIST: {
+                    int size = input.readInt();
+                    return readCollection(new ArrayList<>(size), size);
+                }
+                case HASH_SET: {
+                    int size = input.readInt();
+                    return readCollection(new HashSet<>(), size);
+                }
+                case LINKED_HASH_SET: {
+                    int size = input.readInt();
+                    return readCollection(new LinkedHashSet<>(), size);
+                }
+                case HASH_MAP:
+                    return readMap(new HashMap<>());
+                case LINKED_HASH_MAP:
+                    return readMap(new LinkedHashMap<>());
+                case ENUM:
+                    return readEnum(readClass(), readString());
+                case OBJECT:
+                    return readStateClass().readFields(this);
+                case REFERENCE:
+                    return references.get(input.readInt());
+                case JAVA_SERIALIZED: {
+                    byte[] bytes = new byte[input.readInt()];
+                    input.readBytes(bytes);
+                    try (ObjectInputStream objectInput = new AllowedClassesObjectInputStream(new ByteArrayInputStream(bytes))) {
+                        return objectInput.readObject();
+                    }
+                }
+                case BLOCK:
+                    return getBlockEncodingSerde(blockEncodingSerde).readBlock(input);
+                case PAGE: {
+                    BlockEncodingSerde serde = getBlockEncodingSerde(blockEncodingSerde);
+                    int positionCount = input.readInt();
+                    Block<?>[] blocks = new Block<?>[input.readInt()];
+                    for (int channel = 0; channel < blocks.length; channel++) {
+                        blocks[channel] = serde.readBlock(input);
+                    }
+                    return new Page(positionCount, blocks);
+                }
+                default:
+                    throw new IOException("Invalid snapshot state tag " + tag);
+            }
+        }
+
+        private Collection<Object> readCollection(Collection<Object> collection, int size)
+                throws IOException, ClassNotFoundException
+        {
+            references.add(collection);
+            for (int i = 0; i < size; i++) {
+                collection.add(readValue());
+            }
+            return collection;
+        }
+
+        private Map<Object, Object> readMap(Map<Object, Object> map)
+                throws IOException, ClassNotFoundException
+        {
+            references.add(map);
+            int size = input.readInt();
+            for (int i = 0; i < size; i++) {
+                Object key = readValue();
+                map.put(key, readValue());
+            }
+            return map;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static Object readEnum(Class<?> clazz, String name)
+        {
+            return Enum.valueOf((Class) clazz, name);
+        }
+
+        private Class<?> readClass()
+                throws IOException, ClassNotFoundException
+        {
+            int id = input.readInt();
+            if (id >= 0) {
+                return classes.get(id);
+            }
+            Class<?> clazz = loadClass(readString());
+            classes.add(clazz);
+            return clazz;
+        }
+
+        private StateClass readStateClass()
+                throws IOException, ClassNotFoundException
+        {
+            int id = input.readInt();
+            if (id >= 0) {
+                return stateClasses.get(id);
+            }
+            String className = readString();
+            StateClass stateClass = getStateClass(loadClass(className))
+                    .orElseThrow(() -> new InvalidClassException(className, "Class can't be read as snapshot state"));
+            int fieldCount = input.readInt();
+            int layoutHash = input.readInt();
+            if (fieldCount != stateClass.fields.length) {
+                throw new InvalidClassException(className, format("Snapshot state has %d fields, but the class has %d fields", fieldCount, stateClass.fields.length));
+            }
+            if (layoutHash != stateClass.layoutHash) {
+                throw new InvalidClassException(className, "Snapshot state was written for different fields of the class");
+            }
+            stateClasses.add(stateClass);
+            return stateClass;
+        }
+
+        private static Class<?> loadClass(String className)
+                throws IOException, ClassNotFoundException
+        {
+            checkAllowedClass(className);
+            return Class.forName(className, false, SnapshotStateSerializer.class.getClassLoader());
+        }
+
+        private String readString()
+        {
+            byte[] bytes = new byte[input.readInt()];
+            input.readBytes(bytes);
+            return new String(bytes, UTF_8);
+        }
+    }
+
+    /**
+     * Java deserialization of the objects that can't be written as state classes, which only loads allowed classes
+     */
+    private static class AllowedClassesObjectInputStream
+            extends ObjectInputStream
+    {
+        private AllowedClassesObjectInputStream(InputStream input)
+                throws IOException
+        {
+            super(input);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc)
+                throws IOException, ClassNotFoundException
+        {
+            checkAllowedClass(desc.getName());
+            return super.resolveClass(desc);
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces)
+                throws IOException
+        {
+            throw new InvalidClassException("Proxy classes are not allowed in snapshot states");
+        }
+    }
+
+    /**
+     * Serializable class without custom serialization, written as the values of its fields
+     */
+    private static class StateClass
+    {
+        private static final Set<String> CUSTOM_SERIALIZATION_METHODS = ImmutableSet.of("writeObject", "readObject", "readObjectNoData", "writeReplace", "readResolve");
+
+        private final Constructor<?> constructor;
+        private final Field[] fields;
+        // Hash of the names and types of the fields, written with the class to detect a different class layout
+        private final int layoutHash;
+
+        private StateClass(Constructor<?> constructor, Field[] fields)
+        {
+            this.constructor = constructor;
+            this.fields = fields;
+            int hash = 1;
+            for (Field field : fields) {
+                hash = 31 * hash + (field.getDeclaringClass().getName() + "." + field.getName() + ":" + field.getType().getName()).hashCode();
+            }
+            this.layoutHash = hash;
+        }
+
+        private static Optional<StateClass> create(Class<?> clazz)
+        {
+            if (!Serializable.class.isAssignableFrom(clazz)
+                    || Externalizable.class.isAssignableFrom(clazz)
+                    || clazz.getName().startsWith("java.")
+                    || clazz.isSynthetic()) {
+                return Optional.empty();
+            }
+
+            Constructor<?> constructor;
+            try {
+                constructor = clazz.getDeclaredConstructor();
+                constructor.setAccessible(true);
+            }
+            catch (NoSuchMethodException e) {
+                return Optional.empty();
+            }
+
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> current = clazz; current != Object.class; current = current.getSuperclass()) {
+                if (!Serializable.class.isAssignableFrom(current) || hasCustomSerialization(current)) {
+                    return Optional.empty();
+                }
+                List<Field> declared = new ArrayList<>();
+                for (Field field : current.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+                        field.setAccessible(true);
+                        declared.add(field);
+                    }
+                }
+                // Same order on every node, regardless of how the JVM orders declared fields
+                declared.sort(Comparator.comparing(Field::getName));
+                fields.addAll(0, declared);
+            }
+            return Optional.of(new StateClass(constructor, fields.toArray(new Field[0])));
+        }
+
+        private static boolean hasCustomSerialization(Class<?> clazz)
+        {
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (CUSTOM_SERIALIZATION_METHODS.contains(method.getName())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void writeFields(Writer writer, Object value)
+                throws IOException
+        {
+            SliceOutput output = writer.output;
+            try {
+                for (Field field : fields) {
+                    Class<?> type = field.getType();
+                    if (type == long.class) {
+                        output.writeLong(field.getLong(value));
+                    }
+                    else if (type == int.class) {
+                        output.writeInt(field.getInt(value));
+                    }
+                    else if (type == boolean.class) {
+                        output.writeBoolean(field.getBoolean(value));
+                    }
+                    else if (type == double.class) {
+                        output.writeDouble(field.getDouble(value));
+                    }
+                    else if (type == float.class) {
+                        output.writeFloat(field.getFloat(value));
+                    }
+                    else if (type == short.class) {
+                        output.writeShort(field.getShort(value));
+                    }
+                    else if (type == byte.class) {
+                        output.writeByte(field.getByte(value));
+                    }
+                    else if (type == char.class) {
+                        output.writeShort(field.getChar(value));
+                    }
+                    else {
+                        writer.writeValue(field.get(value));
+                    }
+                }
+            }
+            catch (IllegalAccessException e) {
+                throw new IOException(e);
+            }
+        }
+
+        private Object readFields(Reader reader)
+                throws IOException, ClassNotFoundException
+        {
+            SliceInput input = reader.input;
+            try {
+                Object value = constructor.newInstance();
+                reader.references.add(value);
+                for (Field field : fields) {
+                    Class<?> type = field.getType();
+                    if (type == long.class) {
+                        field.setLong(value, input.readLong());
+                    }
+                    else if (type == int.class) {
+                        field.setInt(value, input.readInt());
+                    }
+                    else if (type == boolean.class) {
+                        field.setBoolean(value, input.readBoolean());
+                    }
+                    else if (type == double.class) {
+                        field.setDouble(value, input.readDouble());
+                    }
+                    else if (type == float.class) {
+                        field.setFloat(value, input.readFloat());
+                    }
+                    else if (type == short.class) {
+                        field.setShort(value, input.readShort());
+                    }
+                    else if (type == byte.class) {
+                        field.setByte(value, input.readByte());
+                    }
+                    else if (type == char.class) {
+                        field.setChar(value, (char) input.readShort());
+                    }
+                    else {
+                        field.set(value, reader.readValue());
+                    }
+                }
+                return value;
+            }
+            catch (ReflectiveOperationException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+}
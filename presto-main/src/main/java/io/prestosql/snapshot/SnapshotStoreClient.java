@@ -14,6 +14,8 @@
  */
 package io.prestosql.snapshot;
 
+import com.google.common.util.concurrent.ListenableFuture;
+
 import java.nio.file.Path;
 import java.util.Map;
 import java.util.Optional;
@@ -30,6 +32,12 @@ public interface SnapshotStoreClient
     void storeState(SnapshotStateId snapshotStateId, Object state)
             throws Exception;
 
+    /**
+     * Store state in snapshot store in the background. The returned future completes once the state is stored.
+     */
+    ListenableFuture<?> storeStateAsync(SnapshotStateId snapshotStateId, Object state)
+            throws Exception;
+
     /**
      * Load state from snapshot store. Optional.empty() is returned if state doesn't exist.
      */
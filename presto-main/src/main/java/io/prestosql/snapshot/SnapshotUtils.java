@@ -16,6 +16,7 @@ package io.prestosql.snapshot;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.log.Logger;
 import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
@@ -26,15 +27,18 @@ import io.prestosql.filesystem.FileSystemClientManager;
 import io.prestosql.metadata.InternalNodeManager;
 import io.prestosql.spi.QueryId;
 import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockEncodingSerde;
 import io.prestosql.spi.filesystem.HetuFileSystemClient;
 import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -42,10 +46,13 @@ import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -71,13 +78,38 @@ public class SnapshotUtils
     // Key is query id; value is number of attempts
     private final Map<String, Long> snapshotsToDelete = new ConcurrentHashMap<>();
     private final ScheduledThreadPoolExecutor deleteSnapshotExecutor = new ScheduledThreadPoolExecutor(1);
+    // Compresses and writes snapshot state parts. The queue is bounded, when it's full the capturing thread
+    // writes the part itself, which slows down capturing instead of piling up serialized states in memory.
+    private final ThreadPoolExecutor uploadExecutor;
+    // Encodes the blocks and pages of captured states
+    private final Optional<BlockEncodingSerde> blockEncodingSerde;
 
     @Inject
+    public SnapshotUtils(FileSystemClientManager fileSystemClientManager, SnapshotConfig snapshotConfig, InternalNodeManager nodeManager, BlockEncodingSerde blockEncodingSerde)
+    {
+        this(fileSystemClientManager, snapshotConfig, nodeManager, Optional.of(blockEncodingSerde));
+    }
+
     public SnapshotUtils(FileSystemClientManager fileSystemClientManager, SnapshotConfig snapshotConfig, InternalNodeManager nodeManager)
     {
+        this(fileSystemClientManager, snapshotConfig, nodeManager, Optional.empty());
+    }
+
+    private SnapshotUtils(FileSystemClientManager fileSystemClientManager, SnapshotConfig snapshotConfig, InternalNodeManager nodeManager, Optional<BlockEncodingSerde> blockEncodingSerde)
+    {
+        this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
         this.isCoordinator = nodeManager.getCurrentNode().isCoordinator();
         this.fileSystemClientManager = requireNonNull(fileSystemClientManager);
         this.snapshotConfig = requireNonNull(snapshotConfig);
+        int uploadThreads = snapshotConfig.getSnapshotUploadThreads();
+        this.uploadExecutor = new ThreadPoolExecutor(
+                uploadThreads,
+                uploadThreads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(uploadThreads * 4),
+                daemonThreadsNamed("snapshot-upload-%s"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
 
         // When a query finishes abnormally (including being cancelled by the user), we may not be able to delete
         // the snapshot folder, because tasks may be updating snapshot files at the same time.
@@ -117,7 +149,7 @@ public class SnapshotUtils
             try {
                 HetuFileSystemClient fs = profile == null ?
                         fileSystemClientManager.getFileSystemClient(root) : fileSystemClientManager.getFileSystemClient(profile, root);
-                return new SnapshotFileBasedClient(fs, root);
+                return new SnapshotFileBasedClient(fs, root, uploadExecutor, (int) snapshotConfig.getSnapshotUploadPartSize().toBytes(), blockEncodingSerde);
             }
             catch (Exception e) {
                 LOG.warn(e, "Failed to create SnapshotFileBasedClient");
@@ -143,6 +175,18 @@ public class SnapshotUtils
         snapshotStoreClient.storeState(snapshotStateId, state);
     }
 
+    /**
+     * Store the state of snapshotStateId in snapshot store in the background
+     */
+    public ListenableFuture<?> storeStateAsync(SnapshotStateId snapshotStateId, Object state)
+            throws Exception
+    {
+        requireNonNull(snapshotStoreClient);
+        requireNonNull(state);
+
+        return snapshotStoreClient.storeStateAsync(snapshotStateId, state);
+    }
+
     /**
      * Load the state of snapshotStateId from snapshot store. Returns:
      * - Empty: state file doesn't exist
@@ -204,20 +248,41 @@ public class SnapshotUtils
     public static void serializeState(Object state, OutputStream outputStream)
             throws IOException
     {
-        // java serialization
-        ObjectOutputStream oos = new ObjectOutputStream(outputStream);
-        oos.writeObject(state);
-        oos.flush();
+        serializeState(state, outputStream, Optional.empty());
+    }
+
+    /**
+     * Serialize state to outputStream, encoding its blocks and pages with the BlockEncodingSerde
+     */
+    public static void serializeState(Object state, OutputStream outputStream, Optional<BlockEncodingSerde> blockEncodingSerde)
+            throws IOException
+    {
+        SnapshotStateSerializer.serialize(state, outputStream, blockEncodingSerde);
     }
 
     /**
-     * Deserialize state from inputStream
+     * Deserialize state from inputStream. States written with java serialization can still be read.
      */
     public static Object deserializeState(InputStream inputStream)
             throws IOException, ClassNotFoundException
     {
-        // java deserialization
-        ObjectInputStream ois = new ObjectInputStream(inputStream);
+        return deserializeState(inputStream, Optional.empty());
+    }
+
+    /**
+     * Deserialize state from inputStream, decoding its blocks and pages with the BlockEncodingSerde
+     */
+    public static Object deserializeState(InputStream inputStream, Optional<BlockEncodingSerde> blockEncodingSerde)
+            throws IOException, ClassNotFoundException
+    {
+        InputStream input = inputStream.markSupported() ? inputStream : new BufferedInputStream(inputStream);
+        input.mark(Integer.BYTES);
+        if (new DataInputStream(input).readInt() == SnapshotStateSerializer.MAGIC) {
+            return SnapshotStateSerializer.deserialize(input, blockEncodingSerde);
+        }
+        input.reset();
+        // java deserialization, restricted to the same classes as states written by SnapshotStateSerializer
+        ObjectInputStream ois = SnapshotStateSerializer.newObjectInputStream(input);
         return ois.readObject();
     }
 
@@ -276,6 +341,22 @@ public class SnapshotUtils
         }
     }
 
+    /**
+     * Number of snapshots a component captures between two full captures, including the full capture.
+     * Components capture their full state every time if delta capture is disabled.
+     */
+    public int getFullCaptureInterval()
+    {
+        return snapshotConfig.isSnapshotDeltaCaptureEnabled() ? snapshotConfig.getSnapshotFullCaptureInterval() : 1;
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        uploadExecutor.shutdownNow();
+        deleteSnapshotExecutor.shutdownNow();
+    }
+
     public QuerySnapshotManager getQuerySnapshotManager(QueryId queryId)
     {
         return snapshotManagers.get(queryId);
@@ -14,7 +14,11 @@
  */
 package io.prestosql.snapshot;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.log.Logger;
 import io.prestosql.execution.TaskId;
 import io.prestosql.operator.Operator;
@@ -31,8 +35,11 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -61,6 +68,12 @@ public class TaskSnapshotManager
     private final Map<Long, Map<String, Object>> storeCache = Collections.synchronizedMap(new HashMap<>());
     private final Map<Long, Map<String, Object>> loadCache = Collections.synchronizedMap(new HashMap<>());
 
+    // States that are still being uploaded, keyed by the component that captured them.
+    // A component's capture is only counted as successful once its upload finishes.
+    private final Map<SnapshotStateId, ListenableFuture<?>> pendingStores = new ConcurrentHashMap<>();
+    // Completed when the capture result of a component with a pending upload has been updated
+    private final Set<ListenableFuture<?>> pendingCaptures = ConcurrentHashMap.newKeySet();
+
     private Set<String> createdConsolidatedFiles;
 
     public TaskSnapshotManager(TaskId taskId, long resumeCount, SnapshotUtils snapshotUtils)
@@ -75,6 +88,11 @@ public class TaskSnapshotManager
         return resumeCount;
     }
 
+    public int getFullCaptureInterval()
+    {
+        return snapshotUtils.getFullCaptureInterval();
+    }
+
     public QuerySnapshotManager getQuerySnapshotManager()
     {
         return snapshotUtils.getQuerySnapshotManager(taskId.getQueryId());
@@ -92,21 +110,28 @@ public class TaskSnapshotManager
     }
 
     /**
-     * Store the state of snapshotStateId in snapshot store
+     * Store the state of snapshotStateId in snapshot store. The state is serialized before returning,
+     * and uploaded in the background. Capture of the component completes when the upload does.
+     *
+     * @return future that completes when the upload has finished
      */
-    public void storeState(SnapshotStateId snapshotStateId, Object state)
+    public ListenableFuture<?> storeState(SnapshotStateId snapshotStateId, Object state)
             throws Exception
     {
-        snapshotUtils.storeState(snapshotStateId, state);
+        ListenableFuture<?> store = snapshotUtils.storeStateAsync(snapshotStateId, state);
+        pendingStores.put(snapshotStateId, store);
         // store dummy value
         Map<String, Object> map = storeCache.computeIfAbsent(snapshotStateId.getSnapshotId(), (x) -> Collections.synchronizedMap(new HashMap<>()));
         map.put(snapshotStateId.toString(), snapshotStateId.toString());
+        return store;
     }
 
     private void loadMapIfNecessary(long snapshotId, TaskId taskId)
             throws Exception
     {
         if (!loadCache.containsKey(snapshotId)) {
+            // The consolidated state is only written after all uploads of the snapshot have finished
+            waitForPendingCaptures();
             synchronized (loadCache) {
                 // double-check to make sure only 1 thread attempts load
                 if (!loadCache.containsKey(snapshotId)) {
@@ -249,11 +274,55 @@ public class TaskSnapshotManager
 
     public void succeededToCapture(SnapshotStateId componentId)
     {
-        updateCapture(componentId, SnapshotComponentCounter.ComponentState.SUCCESSFUL);
+        ListenableFuture<?> pendingStore = pendingStores.remove(componentId);
+        if (pendingStore == null || pendingStore.isDone()) {
+            updateCapture(componentId, getStoreResult(componentId, pendingStore));
+            return;
+        }
+
+        SettableFuture<Void> captured = SettableFuture.create();
+        pendingCaptures.add(captured);
+        pendingStore.addListener(() -> {
+            try {
+                updateCapture(componentId, getStoreResult(componentId, pendingStore));
+            }
+            finally {
+                pendingCaptures.remove(captured);
+                captured.set(null);
+            }
+        }, directExecutor());
+    }
+
+    private static SnapshotComponentCounter.ComponentState getStoreResult(SnapshotStateId componentId, ListenableFuture<?> store)
+    {
+        if (store != null) {
+            try {
+                Futures.getDone(store);
+            }
+            catch (ExecutionException | RuntimeException e) {
+                LOG.error(e, "Failed to store state for " + componentId);
+                return SnapshotComponentCounter.ComponentState.FAILED;
+            }
+        }
+        return SnapshotComponentCounter.ComponentState.SUCCESSFUL;
+    }
+
+    private void waitForPendingCaptures()
+            throws InterruptedException
+    {
+        for (ListenableFuture<?> captured : ImmutableList.copyOf(pendingCaptures)) {
+            try {
+                captured.get();
+            }
+            catch (ExecutionException e) {
+                // Failures are reported through the capture result
+            }
+        }
     }
 
     public void failedToCapture(SnapshotStateId componentId)
     {
+        pendingStores.remove(componentId);
         LOG.debug("Failed to capture snapshot %d for component %s", componentId.getSnapshotId(), componentId);
         updateCapture(componentId, SnapshotComponentCounter.ComponentState.FAILED);
     }
@@ -75,7 +75,8 @@ public final class ConnectorExpressionTranslator
             if (expression instanceof FieldDereference) {
                 FieldDereference dereference = (FieldDereference) expression;
 
-                RowType type = (RowType) expression.getType();
+                // the type of the dereference is the type of the field, the field is looked up in the type of the target
+                RowType type = (RowType) dereference.getTarget().getType();
                 String name = type.getFields().get(dereference.getField()).getName().get();
                 List<RowType.Field> fields = type.getFields();
                 int index = -1;
@@ -36,23 +36,25 @@ final class AesSpillCipher
     private static final int KEY_BITS = 256;
 
     private SecretKey key;
-    //  Instance used only for determining encrypted output lengths
-    private Cipher encryptSizer;
     private final int ivBytes;
+    private final int blockBytes;
 
     AesSpillCipher()
     {
         this.key = generateNewSecretKey();
-        this.encryptSizer = createEncryptCipher(key);
-        this.ivBytes = encryptSizer.getIV().length;
+        Cipher cipher = createEncryptCipher(key);
+        this.ivBytes = cipher.getIV().length;
+        this.blockBytes = cipher.getBlockSize();
     }
 
     @Override
     public int encryptedMaxLength(int inputLength)
     {
         checkArgument(inputLength >= 0, "inputLength must be >= 0, inputLength=%s", inputLength);
-        Cipher sizer = throwCipherClosedIfNull(encryptSizer);
-        return ivBytes + sizer.getOutputSize(inputLength);
+        throwCipherClosedIfNull(key);
+        // computed instead of asking a shared Cipher, which is not thread safe, since the cipher is shared
+        // by the serdes of pages serialized concurrently; PKCS5 padding adds between 1 and a block of bytes
+        return ivBytes + (inputLength / blockBytes + 1) * blockBytes;
     }
 
     @Override
@@ -101,7 +103,6 @@ final class AesSpillCipher
          * intended lifespan of the {@link AesSpillCipher}.
          */
         this.key = null;
-        this.encryptSizer = null;
     }
 
     @Override
@@ -37,44 +37,68 @@ import io.prestosql.spi.spiller.SpillCipher;
 import javax.annotation.concurrent.NotThreadSafe;
 
 import java.io.Closeable;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
 
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.writeSerializedPage;
 import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_PREFIX;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUFFIX;
 import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.WRITE;
 import static java.util.Objects.requireNonNull;
 
 @NotThreadSafe
 
-@RestorableConfig(uncapturedFields = {"closer", "serde",
-        "spillerStats", "localSpillContext", "memoryContext", "executor", "spillInProgress"})
+@RestorableConfig(uncapturedFields = {"closer", "serde", "serdeSupplier", "idleSerdes",
+        "spillerStats", "spillPathStats", "localSpillContext", "memoryContext", "executor", "serdeExecutor", "spillInProgress"})
 public class FileSingleStreamSpiller
         implements SingleStreamSpiller
 {
     @VisibleForTesting
     static final int BUFFER_SIZE = 4 * 1024;
 
+    // When serializing on the serde executor, pages are serialized in batches of about this size,
+    // and a few batches are serialized concurrently while the oldest one is written to the file
+    private static final int PIPELINE_BATCH_SIZE = 256 * 1024;
+    private static final int PIPELINE_MAX_BATCHES_IN_FLIGHT = 4;
+    private static final int PIPELINE_BUFFER_SIZE = 64 * 1024;
+    @VisibleForTesting
+    static final long PIPELINE_MEMORY_SIZE = PIPELINE_BUFFER_SIZE + (long) PIPELINE_BATCH_SIZE * PIPELINE_MAX_BATCHES_IN_FLIGHT;
+
     private FileHolder targetFile;
     private final Closer closer = Closer.create();
     private final PagesSerde serde;
+    private final Supplier<PagesSerde> serdeSupplier;
+    // PagesSerde is not thread safe, so every batch serialized concurrently borrows a serde of its own
+    private final Queue<PagesSerde> idleSerdes = new ConcurrentLinkedQueue<>();
     private final SpillerStats spillerStats;
+    private final SpillPathStats spillPathStats;
     private final SpillContext localSpillContext;
     private final LocalMemoryContext memoryContext;
 
     private final ListeningExecutorService executor;
+    private final Optional<ListeningExecutorService> serdeExecutor;
 
     private boolean writable = true;
     private long spilledPagesInMemorySize;
@@ -92,9 +116,30 @@ public class FileSingleStreamSpiller
             LocalMemoryContext memoryContext,
             Optional<SpillCipher> spillCipher)
     {
-        this.serde = requireNonNull(serde, "serde is null");
+        this(() -> serde, executor, Optional.empty(), spillPath, spillerStats, spillContext, memoryContext, spillCipher);
+    }
+
+    /**
+     * @param serdeSupplier creates serdes sharing the spill cipher, one for every batch of pages serialized concurrently
+     * @param serdeExecutor executor to serialize, compress and encrypt pages on, and to prefetch spilled pages with,
+     * or empty to do so on the thread spilling or reading the pages
+     */
+    public FileSingleStreamSpiller(
+            Supplier<PagesSerde> serdeSupplier,
+            ListeningExecutorService executor,
+            Optional<ListeningExecutorService> serdeExecutor,
+            Path spillPath,
+            SpillerStats spillerStats,
+            SpillContext spillContext,
+            LocalMemoryContext memoryContext,
+            Optional<SpillCipher> spillCipher)
+    {
+        this.serdeSupplier = requireNonNull(serdeSupplier, "serdeSupplier is null");
+        this.serde = requireNonNull(serdeSupplier.get(), "serde is null");
         this.executor = requireNonNull(executor, "executor is null");
+        this.serdeExecutor = requireNonNull(serdeExecutor, "serdeExecutor is null");
         this.spillerStats = requireNonNull(spillerStats, "spillerStats is null");
+        this.spillPathStats = spillerStats.getSpillPathStats(spillPath);
         this.localSpillContext = spillContext.newLocalSpillContext();
         this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
         if (requireNonNull(spillCipher, "spillCipher is null").isPresent()) {
@@ -110,7 +155,7 @@ public class FileSingleStreamSpiller
         // This means we start accounting for the memory before the spiller thread allocates it, and we release the memory reservation
         // before/after the spiller thread allocates that memory -- -- whether before or after depends on whether writePages() is in the
         // middle of execution when close() is called (note that this applies to both readPages() and writePages() methods).
-        this.memoryContext.setBytes(BUFFER_SIZE);
+        this.memoryContext.setBytes(serdeExecutor.isPresent() ? PIPELINE_MEMORY_SIZE : BUFFER_SIZE);
         try {
             this.targetFile = closer.register(new FileHolder(Files.createTempFile(spillPath, SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX)));
         }
@@ -150,31 +195,128 @@ public class FileSingleStreamSpiller
     private void writePages(Iterator<Page> pageIterator)
     {
         checkState(writable, "Spilling no longer allowed. The spiller has been made non-writable on first read for subsequent reads to be consistent");
-        try (SliceOutput output = new OutputStreamSliceOutput(targetFile.newOutputStream(APPEND), BUFFER_SIZE)) {
+        spillPathStats.writeStarted();
+        try {
+            if (serdeExecutor.isPresent()) {
+                writePagesPipelined(pageIterator, serdeExecutor.get());
+            }
+            else {
+                writePagesSequentially(pageIterator);
+            }
+        }
+        finally {
+            spillPathStats.writeFinished();
+        }
+    }
+
+    private void writePagesSequentially(Iterator<Page> pageIterator)
+    {
+        try (SyncedOutputStream stream = newOutputStream();
+                SliceOutput output = new OutputStreamSliceOutput(stream, BUFFER_SIZE)) {
             while (pageIterator.hasNext()) {
                 Page page = pageIterator.next();
                 spilledPagesInMemorySize += page.getSizeInBytes();
-                SerializedPage serializedPage = serde.serialize(page);
-                long pageSize = serializedPage.getSizeInBytes();
-                localSpillContext.updateBytes(pageSize);
-                spillerStats.addToTotalSpilledBytes(pageSize);
-                pageSizeList.add(pageSize);
-                writeSerializedPage(output, serializedPage);
+                writeSpilledPage(output, serde.serialize(page));
             }
+            output.flush();
+            stream.sync();
         }
         catch (UncheckedIOException | IOException e) {
             throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to spill pages", e);
         }
     }
 
+    private void writePagesPipelined(Iterator<Page> pageIterator, ListeningExecutorService serdeExecutor)
+    {
+        Deque<ListenableFuture<List<SerializedPage>>> batches = new ArrayDeque<>();
+        try (SyncedOutputStream stream = newOutputStream();
+                SliceOutput output = new OutputStreamSliceOutput(stream, PIPELINE_BUFFER_SIZE)) {
+            List<Page> batch = new ArrayList<>();
+            long batchSize = 0;
+            while (pageIterator.hasNext()) {
+                Page page = pageIterator.next();
+                spilledPagesInMemorySize += page.getSizeInBytes();
+                batch.add(page);
+                batchSize += page.getSizeInBytes();
+                if (batchSize >= PIPELINE_BATCH_SIZE) {
+                    batches.add(serializeBatch(batch, serdeExecutor));
+                    batch = new ArrayList<>();
+                    batchSize = 0;
+                    // write the oldest batches while the newer ones are being serialized
+                    while (batches.size() >= PIPELINE_MAX_BATCHES_IN_FLIGHT) {
+                        writeSpilledPages(output, getFutureValue(batches.poll()));
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                batches.add(serializeBatch(batch, serdeExecutor));
+            }
+            while (!batches.isEmpty()) {
+                writeSpilledPages(output, getFutureValue(batches.poll()));
+            }
+            output.flush();
+            stream.sync();
+        }
+        catch (UncheckedIOException | IOException e) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to spill pages", e);
+        }
+        finally {
+            batches.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private ListenableFuture<List<SerializedPage>> serializeBatch(List<Page> pages, ListeningExecutorService serdeExecutor)
+    {
+        return serdeExecutor.submit(() -> {
+            PagesSerde batchSerde = idleSerdes.poll();
+            if (batchSerde == null) {
+                batchSerde = serdeSupplier.get();
+            }
+            try {
+                ImmutableList.Builder<SerializedPage> serializedPages = ImmutableList.builder();
+                for (Page page : pages) {
+                    serializedPages.add(batchSerde.serialize(page));
+                }
+                return serializedPages.build();
+            }
+            finally {
+                idleSerdes.offer(batchSerde);
+            }
+        });
+    }
+
+    private void writeSpilledPages(SliceOutput output, List<SerializedPage> serializedPages)
+    {
+        for (SerializedPage serializedPage : serializedPages) {
+            writeSpilledPage(output, serializedPage);
+        }
+    }
+
+    private void writeSpilledPage(SliceOutput output, SerializedPage serializedPage)
+    {
+        long pageSize = serializedPage.getSizeInBytes();
+        localSpillContext.updateBytes(pageSize);
+        spillerStats.addToTotalSpilledBytes(pageSize);
+        pageSizeList.add(pageSize);
+        writeSerializedPage(output, serializedPage);
+    }
+
     private Iterator<Page> readPages()
     {
         checkState(writable, "Repeated reads are disallowed to prevent potential resource leaks");
         writable = false;
 
         try {
-            InputStream input = closer.register(targetFile.newInputStream());
-            Iterator<Page> pages = PagesSerdeUtil.readPages(serde, new InputStreamSliceInput(input, BUFFER_SIZE));
+            InputStream input = closer.register(new TimedInputStream(targetFile.newInputStream(), spillPathStats));
+            Iterator<Page> pages;
+            if (serdeExecutor.isPresent()) {
+                Iterator<SerializedPage> serializedPages = PagesSerdeUtil.readSerializedPages(new InputStreamSliceInput(input, PIPELINE_BUFFER_SIZE));
+                // registered after the input, so that the prefetching stops before the input is closed
+                pages = closer.register(new PrefetchingPageIterator(serializedPages, serde, serdeExecutor.get()));
+            }
+            else {
+                pages = PagesSerdeUtil.readPages(serde, new InputStreamSliceInput(input, BUFFER_SIZE));
+            }
             return closeWhenExhausted(pages, input);
         }
         catch (IOException e) {
@@ -182,6 +324,12 @@ public class FileSingleStreamSpiller
         }
     }
 
+    private SyncedOutputStream newOutputStream()
+            throws IOException
+    {
+        return new SyncedOutputStream(targetFile.newFileChannel(WRITE, APPEND), spillPathStats);
+    }
+
     @Override
     public void close()
     {
@@ -224,6 +372,173 @@ public class FileSingleStreamSpiller
         };
     }
 
+    /**
+     * Reads and deserializes the next batch of spilled pages on the serde executor
+     * while the pages of the current batch are consumed
+     */
+    private static class PrefetchingPageIterator
+            extends AbstractIterator<Page>
+            implements Closeable
+    {
+        private final Iterator<SerializedPage> serializedPages;
+        private final PagesSerde serde;
+        private final ListeningExecutorService executor;
+
+        private Iterator<Page> currentBatch = ImmutableList.<Page>of().iterator();
+        // the spiller may be closed from another thread than the one consuming the pages
+        private volatile ListenableFuture<List<Page>> nextBatch;
+
+        PrefetchingPageIterator(Iterator<SerializedPage> serializedPages, PagesSerde serde, ListeningExecutorService executor)
+        {
+            this.serializedPages = requireNonNull(serializedPages, "serializedPages is null");
+            this.serde = requireNonNull(serde, "serde is null");
+            this.executor = requireNonNull(executor, "executor is null");
+        }
+
+        @Override
+        protected Page computeNext()
+        {
+            while (!currentBatch.hasNext()) {
+                if (nextBatch == null) {
+                    nextBatch = executor.submit(this::readBatch);
+                }
+                List<Page> batch = getFutureValue(nextBatch);
+                if (batch.isEmpty()) {
+                    return endOfData();
+                }
+                // only one batch is read at a time, so the input is never read concurrently
+                nextBatch = executor.submit(this::readBatch);
+                currentBatch = batch.iterator();
+            }
+            return currentBatch.next();
+        }
+
+        private List<Page> readBatch()
+        {
+            ImmutableList.Builder<Page> pages = ImmutableList.builder();
+            long batchSize = 0;
+            while (batchSize < PIPELINE_BATCH_SIZE && serializedPages.hasNext()) {
+                SerializedPage serializedPage = serializedPages.next();
+                batchSize += serializedPage.getSizeInBytes();
+                pages.add(serde.deserialize(serializedPage));
+            }
+            return pages.build();
+        }
+
+        @Override
+        public void close()
+        {
+            ListenableFuture<List<Page>> batch = nextBatch;
+            if (batch != null) {
+                batch.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Writes to the spill file and records its write throughput when the spilled pages are forced to the device,
+     * so that the rate reflects the device rather than how fast the writes are copied to the page cache
+     */
+    private static class SyncedOutputStream
+            extends OutputStream
+    {
+        private final FileChannel channel;
+        private final OutputStream output;
+        private final SpillPathStats stats;
+
+        private long unsyncedBytes;
+        private long unsyncedNanos;
+
+        SyncedOutputStream(FileChannel channel, SpillPathStats stats)
+        {
+            this.channel = requireNonNull(channel, "channel is null");
+            this.output = Channels.newOutputStream(channel);
+            this.stats = requireNonNull(stats, "stats is null");
+        }
+
+        @Override
+        public void write(int b)
+                throws IOException
+        {
+            long start = System.nanoTime();
+            output.write(b);
+            unsyncedNanos += System.nanoTime() - start;
+            unsyncedBytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len)
+                throws IOException
+        {
+            long start = System.nanoTime();
+            output.write(b, off, len);
+            unsyncedNanos += System.nanoTime() - start;
+            unsyncedBytes += len;
+        }
+
+        /**
+         * Forces the bytes written since the last sync to the device and records how long writing them took
+         */
+        void sync()
+                throws IOException
+        {
+            if (unsyncedBytes == 0) {
+                return;
+            }
+            long start = System.nanoTime();
+            channel.force(false);
+            stats.recordWrite(unsyncedBytes, unsyncedNanos + System.nanoTime() - start);
+            unsyncedBytes = 0;
+            unsyncedNanos = 0;
+        }
+
+        @Override
+        public void close()
+                throws IOException
+        {
+            output.close();
+        }
+    }
+
+    /**
+     * Records how long reading from the spill file takes, without the time spent deserializing pages
+     */
+    private static class TimedInputStream
+            extends FilterInputStream
+    {
+        private final SpillPathStats stats;
+
+        TimedInputStream(InputStream input, SpillPathStats stats)
+        {
+            super(input);
+            this.stats = requireNonNull(stats, "stats is null");
+        }
+
+        @Override
+        public int read()
+                throws IOException
+        {
+            long start = System.nanoTime();
+            int value = in.read();
+            if (value >= 0) {
+                stats.recordRead(1, System.nanoTime() - start);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len)
+                throws IOException
+        {
+            long start = System.nanoTime();
+            int bytes = in.read(b, off, len);
+            if (bytes > 0) {
+                stats.recordRead(bytes, System.nanoTime() - start);
+            }
+            return bytes;
+        }
+    }
+
     @Override
     public void deleteFile()
     {
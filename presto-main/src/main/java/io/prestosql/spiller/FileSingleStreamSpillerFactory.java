@@ -18,6 +18,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
 import io.airlift.log.Logger;
+import io.airlift.units.DataSize;
 import io.hetu.core.transport.execution.buffer.PagesSerde;
 import io.hetu.core.transport.execution.buffer.PagesSerdeFactory;
 import io.prestosql.memory.context.LocalMemoryContext;
@@ -37,10 +38,17 @@ import java.nio.file.DirectoryStream;
 import java.nio.file.FileStore;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.succinctBytes;
+import static io.prestosql.ExceededSpillLimitException.exceededSpillPathLimit;
 import static io.prestosql.spi.StandardErrorCode.OUT_OF_SPILL_SPACE;
 import static java.lang.String.format;
 import static java.nio.file.Files.createDirectories;
@@ -49,6 +57,7 @@ import static java.nio.file.Files.getFileStore;
 import static java.nio.file.Files.newDirectoryStream;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.function.Function.identity;
 
 public class FileSingleStreamSpillerFactory
         implements SingleStreamSpillerFactory
@@ -61,9 +70,16 @@ public class FileSingleStreamSpillerFactory
     static final String SPILL_FILE_SUFFIX = ".bin";
     private static final String SPILL_FILE_GLOB = "spill*.bin";
 
+    // write rates measured over less than this many bytes are too noisy to place spill files by
+    private static final double MIN_MEASURED_WRITTEN_BYTES = 16 * 1024 * 1024;
+    // spill paths whose expected write times are within this factor of each other are used in turns
+    private static final double SIMILAR_WRITE_COST_FACTOR = 1.5;
+
     private final ListeningExecutorService executor;
+    private final Optional<ListeningExecutorService> serdeExecutor;
     private final PagesSerdeFactory serdeFactory;
     private final List<Path> spillPaths;
+    private final Map<Path, SpillSpaceTracker> spillPathSpaceTrackers;
     private final SpillerStats spillerStats;
     private final double maxUsedSpaceThreshold;
     private final boolean spillEncryptionEnabled;
@@ -81,7 +97,9 @@ public class FileSingleStreamSpillerFactory
                 requireNonNull(featuresConfig, "featuresConfig is null").getSpillerSpillPaths(),
                 requireNonNull(featuresConfig, "featuresConfig is null").getSpillMaxUsedSpaceThreshold(),
                 requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillCompressionEnabled(),
-                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillEncryptionEnabled());
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillEncryptionEnabled(),
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").getSpillSerializationThreads(),
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").getMaxSpillPerPath());
     }
 
     @VisibleForTesting
@@ -94,11 +112,37 @@ public class FileSingleStreamSpillerFactory
             boolean spillCompressionEnabled,
             boolean spillEncryptionEnabled)
     {
+        this(executor, blockEncodingSerde, spillerStats, spillPaths, maxUsedSpaceThreshold, spillCompressionEnabled, spillEncryptionEnabled, 0, new DataSize(Long.MAX_VALUE, BYTE));
+    }
+
+    @VisibleForTesting
+    public FileSingleStreamSpillerFactory(
+            ListeningExecutorService executor,
+            BlockEncodingSerde blockEncodingSerde,
+            SpillerStats spillerStats,
+            List<Path> spillPaths,
+            double maxUsedSpaceThreshold,
+            boolean spillCompressionEnabled,
+            boolean spillEncryptionEnabled,
+            int spillSerializationThreads,
+            DataSize maxSpillPerPath)
+    {
+        checkArgument(spillSerializationThreads >= 0, "spillSerializationThreads is negative");
         this.serdeFactory = new PagesSerdeFactory(blockEncodingSerde, spillCompressionEnabled);
         this.executor = requireNonNull(executor, "executor is null");
+        if (spillSerializationThreads > 0) {
+            this.serdeExecutor = Optional.of(listeningDecorator(newFixedThreadPool(spillSerializationThreads, daemonThreadsNamed("spill-serializer-%s"))));
+        }
+        else {
+            this.serdeExecutor = Optional.empty();
+        }
         this.spillerStats = requireNonNull(spillerStats, "spillerStats can not be null");
         requireNonNull(spillPaths, "spillPaths is null");
         this.spillPaths = ImmutableList.copyOf(spillPaths);
+        requireNonNull(maxSpillPerPath, "maxSpillPerPath is null");
+        this.spillPathSpaceTrackers = this.spillPaths.stream()
+                .distinct()
+                .collect(toImmutableMap(identity(), path -> new SpillSpaceTracker(maxSpillPerPath)));
         spillPaths.forEach(path -> {
             try {
                 createDirectories(path);
@@ -127,6 +171,7 @@ public class FileSingleStreamSpillerFactory
     public void destroy()
     {
         executor.shutdownNow();
+        serdeExecutor.ifPresent(ListeningExecutorService::shutdownNow);
     }
 
     private static void cleanupOldSpillFiles(Path path)
@@ -150,29 +195,74 @@ public class FileSingleStreamSpillerFactory
     @Override
     public SingleStreamSpiller create(List<Type> types, SpillContext spillContext, LocalMemoryContext memoryContext)
     {
-        Optional<SpillCipher> spillCipher = Optional.empty();
-        if (spillEncryptionEnabled) {
-            spillCipher = Optional.of(new AesSpillCipher());
-        }
-        PagesSerde serde = serdeFactory.createPagesSerdeForSpill(spillCipher);
-        return new FileSingleStreamSpiller(serde, executor, getNextSpillPath(), spillerStats, spillContext, memoryContext, spillCipher);
+        Optional<SpillCipher> spillCipher = spillEncryptionEnabled ? Optional.of(new AesSpillCipher()) : Optional.empty();
+        Supplier<PagesSerde> serdeSupplier = () -> serdeFactory.createPagesSerdeForSpill(spillCipher);
+        Path spillPath = getNextSpillPath();
+        SpillContext spillPathContext = new SpillPathContext(spillContext, spillPath, spillPathSpaceTrackers.get(spillPath));
+        return new FileSingleStreamSpiller(serdeSupplier, executor, serdeExecutor, spillPath, spillerStats, spillPathContext, memoryContext, spillCipher);
     }
 
+    /**
+     * Places the spill file on the least loaded spill path with enough space, which is the path
+     * expected to write it the fastest given its recent write rate and the spills writing to it.
+     * Paths whose expected write times are similar are used in turns.
+     */
     private synchronized Path getNextSpillPath()
     {
         int spillPathsCount = spillPaths.size();
+        if (spillPathsCount == 0) {
+            throw new PrestoException(OUT_OF_SPILL_SPACE, "No spill paths configured");
+        }
+
+        // paths without a reliable write rate yet are expected to be as fast as the fastest one, so that they get tried
+        double fastestWriteRate = 1;
+        for (Path path : spillPaths) {
+            SpillPathStats stats = spillerStats.getSpillPathStats(path);
+            if (stats.getRecentWrittenBytes() >= MIN_MEASURED_WRITTEN_BYTES) {
+                fastestWriteRate = Math.max(fastestWriteRate, stats.getWriteRate());
+            }
+        }
+
+        double[] writeCosts = new double[spillPathsCount];
+        double minWriteCost = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < spillPathsCount; ++i) {
+            Path path = spillPaths.get(i);
+            if (hasEnoughDiskSpace(path) && hasSpillSpace(path)) {
+                writeCosts[i] = getWriteCost(spillerStats.getSpillPathStats(path), fastestWriteRate);
+                minWriteCost = Math.min(minWriteCost, writeCosts[i]);
+            }
+            else {
+                writeCosts[i] = Double.POSITIVE_INFINITY;
+            }
+        }
+        if (minWriteCost == Double.POSITIVE_INFINITY) {
+            throw new PrestoException(OUT_OF_SPILL_SPACE, "No free space available for spill");
+        }
+
         for (int i = 0; i < spillPathsCount; ++i) {
             int pathIndex = (roundRobinIndex + i) % spillPathsCount;
-            Path path = spillPaths.get(pathIndex);
-            if (hasEnoughDiskSpace(path)) {
-                roundRobinIndex = (roundRobinIndex + i + 1) % spillPathsCount;
-                return path;
+            if (writeCosts[pathIndex] <= minWriteCost * SIMILAR_WRITE_COST_FACTOR) {
+                roundRobinIndex = (pathIndex + 1) % spillPathsCount;
+                return spillPaths.get(pathIndex);
             }
         }
-        if (spillPaths.isEmpty()) {
-            throw new PrestoException(OUT_OF_SPILL_SPACE, "No spill paths configured");
+        throw new IllegalStateException("No spill path with the minimum write cost");
+    }
+
+    private static double getWriteCost(SpillPathStats stats, double fastestWriteRate)
+    {
+        double writeRate = fastestWriteRate;
+        if (stats.getRecentWrittenBytes() >= MIN_MEASURED_WRITTEN_BYTES) {
+            writeRate = stats.getWriteRate();
         }
-        throw new PrestoException(OUT_OF_SPILL_SPACE, "No free space available for spill");
+        // a new spill waits for the spills already writing to the path
+        return (stats.getActiveWrites() + 1) / writeRate;
+    }
+
+    private boolean hasSpillSpace(Path path)
+    {
+        SpillSpaceTracker spaceTracker = spillPathSpaceTrackers.get(path);
+        return spaceTracker.getCurrentBytes() < spaceTracker.getMaxBytes();
     }
 
     private boolean hasEnoughDiskSpace(Path path)
@@ -185,4 +275,42 @@ public class FileSingleStreamSpillerFactory
             throw new PrestoException(OUT_OF_SPILL_SPACE, "Cannot determine free space for spill", e);
         }
     }
+
+    /**
+     * Accounts the bytes spilled to a spill path against the quota of the path, as well as against the spill context of the spiller
+     */
+    private static class SpillPathContext
+            implements SpillContext
+    {
+        private final SpillContext parentSpillContext;
+        private final Path spillPath;
+        private final SpillSpaceTracker spaceTracker;
+
+        SpillPathContext(SpillContext parentSpillContext, Path spillPath, SpillSpaceTracker spaceTracker)
+        {
+            this.parentSpillContext = requireNonNull(parentSpillContext, "parentSpillContext is null");
+            this.spillPath = requireNonNull(spillPath, "spillPath is null");
+            this.spaceTracker = requireNonNull(spaceTracker, "spaceTracker is null");
+        }
+
+        @Override
+        public void updateBytes(long bytes)
+        {
+            if (bytes <= 0) {
+                parentSpillContext.updateBytes(bytes);
+                spaceTracker.free(-bytes);
+                return;
+            }
+            if (!spaceTracker.tryReserve(bytes)) {
+                throw exceededSpillPathLimit(succinctBytes(spaceTracker.getMaxBytes()), spillPath.toString());
+            }
+            try {
+                parentSpillContext.updateBytes(bytes);
+            }
+            catch (RuntimeException e) {
+                spaceTracker.free(bytes);
+                throw e;
+            }
+        }
+    }
 }
@@ -16,15 +16,18 @@ package io.prestosql.spiller;
 import io.airlift.configuration.Config;
 import io.airlift.units.DataSize;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 public class NodeSpillConfig
 {
     private DataSize maxSpillPerNode = new DataSize(100, DataSize.Unit.GIGABYTE);
     private DataSize queryMaxSpillPerNode = new DataSize(100, DataSize.Unit.GIGABYTE);
+    private DataSize maxSpillPerPath = new DataSize(100, DataSize.Unit.GIGABYTE);
 
     private boolean spillCompressionEnabled;
     private boolean spillEncryptionEnabled;
+    private int spillSerializationThreads;
 
     @NotNull
     public DataSize getMaxSpillPerNode()
@@ -52,6 +55,19 @@ public class NodeSpillConfig
         return this;
     }
 
+    @NotNull
+    public DataSize getMaxSpillPerPath()
+    {
+        return maxSpillPerPath;
+    }
+
+    @Config("experimental.max-spill-per-path")
+    public NodeSpillConfig setMaxSpillPerPath(DataSize maxSpillPerPath)
+    {
+        this.maxSpillPerPath = maxSpillPerPath;
+        return this;
+    }
+
     public boolean isSpillCompressionEnabled()
     {
         return spillCompressionEnabled;
@@ -75,4 +91,17 @@ public class NodeSpillConfig
         this.spillEncryptionEnabled = spillEncryptionEnabled;
         return this;
     }
+
+    @Min(0)
+    public int getSpillSerializationThreads()
+    {
+        return spillSerializationThreads;
+    }
+
+    @Config("experimental.spill-serialization-threads")
+    public NodeSpillConfig setSpillSerializationThreads(int spillSerializationThreads)
+    {
+        this.spillSerializationThreads = spillSerializationThreads;
+        return this;
+    }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spiller;
+
+import io.airlift.stats.DecayCounter;
+import io.airlift.stats.ExponentialDecay;
+import org.weakref.jmx.Managed;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * I/O statistics of the spill files written to one spill path, decayed over about a minute
+ * so that they follow the current load of the device behind the path.
+ */
+@ThreadSafe
+public class SpillPathStats
+{
+    private final DecayCounter writtenBytes = new DecayCounter(ExponentialDecay.oneMinute());
+    private final DecayCounter writeNanos = new DecayCounter(ExponentialDecay.oneMinute());
+    private final DecayCounter readBytes = new DecayCounter(ExponentialDecay.oneMinute());
+    private final DecayCounter readNanos = new DecayCounter(ExponentialDecay.oneMinute());
+    private final AtomicLong totalWrittenBytes = new AtomicLong();
+    private final AtomicLong totalReadBytes = new AtomicLong();
+    private final AtomicInteger activeWrites = new AtomicInteger();
+
+    public void recordWrite(long bytes, long nanos)
+    {
+        writtenBytes.add(bytes);
+        writeNanos.add(nanos);
+        totalWrittenBytes.addAndGet(bytes);
+    }
+
+    public void recordRead(long bytes, long nanos)
+    {
+        readBytes.add(bytes);
+        readNanos.add(nanos);
+        totalReadBytes.addAndGet(bytes);
+    }
+
+    public void writeStarted()
+    {
+        activeWrites.incrementAndGet();
+    }
+
+    public void writeFinished()
+    {
+        activeWrites.decrementAndGet();
+    }
+
+    /**
+     * Returns the number of bytes written recently, with older writes counting for less
+     */
+    @Managed
+    public double getRecentWrittenBytes()
+    {
+        return writtenBytes.getCount();
+    }
+
+    /**
+     * Returns the recent write throughput in bytes per second, or NaN if nothing was written recently
+     */
+    @Managed
+    public double getWriteRate()
+    {
+        return rate(writtenBytes, writeNanos);
+    }
+
+    /**
+     * Returns the recent read throughput in bytes per second, or NaN if nothing was read recently
+     */
+    @Managed
+    public double getReadRate()
+    {
+        return rate(readBytes, readNanos);
+    }
+
+    /**
+     * Returns the number of spills currently writing to the path
+     */
+    @Managed
+    public int getActiveWrites()
+    {
+        return activeWrites.get();
+    }
+
+    @Managed
+    public long getTotalWrittenBytes()
+    {
+        return totalWrittenBytes.get();
+    }
+
+    @Managed
+    public long getTotalReadBytes()
+    {
+        return totalReadBytes.get();
+    }
+
+    private static double rate(DecayCounter bytes, DecayCounter nanos)
+    {
+        double seconds = nanos.getCount() / TimeUnit.SECONDS.toNanos(1);
+        if (seconds <= 0) {
+            return Double.NaN;
+        }
+        return bytes.getCount() / seconds;
+    }
+}
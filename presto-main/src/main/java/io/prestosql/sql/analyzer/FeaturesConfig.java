@@ -94,6 +94,7 @@ public class FeaturesConfig
     private boolean pushLimitThroughSemiJoin = true;
     private boolean pushLimitThroughOuterJoin = true;
     private boolean exchangeCompressionEnabled;
+    private boolean exchangeColumnarEncodingEnabled;
     private boolean legacyMapSubscript;
     private boolean optimizeMixedDistinctAggregations;
     private boolean unwrapCasts = true;
@@ -150,6 +151,7 @@ public class FeaturesConfig
     private DynamicFilterDataType dynamicFilteringDataType = BLOOM_FILTER;
     private DataSize dynamicFilteringMaxPerDriverSize = new DataSize(1, MEGABYTE);
     private double dynamicFilteringBloomFilterFpp = 0.1D;
+    private boolean dynamicFilteringBloomFilterBlocked;
     // enable or disable execution plan cache functionality via Session properties
     private boolean enableExecutionPlanCache = true;
 
@@ -974,6 +976,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isDynamicFilteringBloomFilterBlocked()
+    {
+        return dynamicFilteringBloomFilterBlocked;
+    }
+
+    @Config("dynamic-filtering-bloom-filter-blocked")
+    @ConfigDescription("Use the cache line blocked BloomFilter layout for dynamic filters")
+    public FeaturesConfig setDynamicFilteringBloomFilterBlocked(boolean dynamicFilteringBloomFilterBlocked)
+    {
+        this.dynamicFilteringBloomFilterBlocked = dynamicFilteringBloomFilterBlocked;
+        return this;
+    }
+
     /**
      * Presto can only cache execution plans for supported connectors.
      * This method checks if the session property for enabled execution plan caching
@@ -1026,6 +1041,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isExchangeColumnarEncodingEnabled()
+    {
+        return exchangeColumnarEncodingEnabled;
+    }
+
+    @Config("exchange.columnar-encoding-enabled")
+    @ConfigDescription("Serialize exchanged pages with an encoding chosen for each block")
+    public FeaturesConfig setExchangeColumnarEncodingEnabled(boolean exchangeColumnarEncodingEnabled)
+    {
+        this.exchangeColumnarEncodingEnabled = exchangeColumnarEncodingEnabled;
+        return this;
+    }
+
     public boolean isEnableIntermediateAggregations()
     {
         return enableIntermediateAggregations;
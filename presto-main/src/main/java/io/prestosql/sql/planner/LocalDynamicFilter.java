@@ -33,6 +33,7 @@ import io.prestosql.spi.plan.Symbol;
 import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.spi.relation.RowExpression;
 import io.prestosql.spi.relation.VariableReferenceExpression;
+import io.prestosql.spi.statestore.StateMap;
 import io.prestosql.spi.statestore.StateSet;
 import io.prestosql.spi.statestore.StateStore;
 import io.prestosql.spi.util.BloomFilter;
@@ -52,11 +53,14 @@ import java.util.function.Consumer;
 import static com.google.common.base.Verify.verify;
 import static io.prestosql.SystemSessionProperties.getDynamicFilteringBloomFilterFpp;
 import static io.prestosql.SystemSessionProperties.getDynamicFilteringDataType;
+import static io.prestosql.SystemSessionProperties.isDynamicFilteringBloomFilterBlocked;
 import static io.prestosql.spi.dynamicfilter.BloomFilterDynamicFilter.convertBloomFilterToByteArray;
 import static io.prestosql.spi.dynamicfilter.DynamicFilter.DataType.BLOOM_FILTER;
+import static io.prestosql.spi.statestore.StateCollection.Type.MAP;
 import static io.prestosql.spi.statestore.StateCollection.Type.SET;
 import static io.prestosql.sql.DynamicFilters.Descriptor;
 import static io.prestosql.sql.DynamicFilters.extractDynamicFilters;
+import static io.prestosql.utils.DynamicFilterUtils.FINISHED_DYNAMIC_FILTER_TASKS;
 import static io.prestosql.utils.DynamicFilterUtils.PARTIALPREFIX;
 import static io.prestosql.utils.DynamicFilterUtils.TASKSPREFIX;
 import static io.prestosql.utils.DynamicFilterUtils.createKey;
@@ -85,6 +89,7 @@ public class LocalDynamicFilter
 
     private FeaturesConfig.DynamicFilterDataType dynamicFilterDataType;
     private final double bloomFilterFpp;
+    private final boolean bloomFilterBlocked;
     private final StateStoreProvider stateStoreProvider;
     private final TaskId taskId;
     private Map<String, DynamicFilterSourceOperator.Channel> channels = new HashMap<>();
@@ -93,12 +98,12 @@ public class LocalDynamicFilter
             TaskId taskId, StateStoreProvider stateStoreProvider)
     {
         this(probeSymbols, buildChannels, partitionCount, type, getDynamicFilteringDataType(session),
-                getDynamicFilteringBloomFilterFpp(session), taskId, stateStoreProvider);
+                getDynamicFilteringBloomFilterFpp(session), isDynamicFilteringBloomFilterBlocked(session), taskId, stateStoreProvider);
     }
 
     public LocalDynamicFilter(Multimap<String, Symbol> probeSymbols, Map<String, Integer> buildChannels, int partitionCount,
                               DynamicFilter.Type filterType, FeaturesConfig.DynamicFilterDataType dataType,
-                              double bloomFilterFpp, TaskId taskId, StateStoreProvider stateStoreProvider)
+                              double bloomFilterFpp, boolean bloomFilterBlocked, TaskId taskId, StateStoreProvider stateStoreProvider)
     {
         this.probeSymbols = requireNonNull(probeSymbols, "probeSymbols is null");
         this.buildChannels = requireNonNull(buildChannels, "buildChannels is null");
@@ -112,6 +117,7 @@ public class LocalDynamicFilter
         this.type = filterType;
         this.dynamicFilterDataType = requireNonNull(dataType, "dynamic filter data type is null");
         this.bloomFilterFpp = bloomFilterFpp;
+        this.bloomFilterBlocked = bloomFilterBlocked;
         this.taskId = requireNonNull(taskId, "taskId is null");
         this.stateStoreProvider = requireNonNull(stateStoreProvider, "stateStore is null");
     }
@@ -274,14 +280,20 @@ public class LocalDynamicFilter
             else {
                 ((StateSet) stateStore.getOrCreateStateCollection(key, SET)).add(filterValues);
             }
-            ((StateSet) stateStore.getOrCreateStateCollection(createKey(TASKSPREFIX, filterId, channel.getQueryId()), SET)).add(taskId.toString());
+            String tasksKey = createKey(TASKSPREFIX, filterId, channel.getQueryId());
+            ((StateSet) stateStore.getOrCreateStateCollection(tasksKey, SET)).add(taskId.toString());
+            // notify the coordinator, it merges the filter once all tasks are finished
+            StateMap finishedTasks = (StateMap) stateStore.getOrCreateStateCollection(FINISHED_DYNAMIC_FILTER_TASKS, MAP);
+            if (finishedTasks != null) {
+                finishedTasks.put(tasksKey, System.currentTimeMillis());
+            }
             log.debug("creating new " + dataType + " dynamic filter for size of: " + result.size() + ", key: " + key + ", taskId: " + taskId);
         }
     }
 
     private BloomFilter createBloomFilterFromSet(DynamicFilterSourceOperator.Channel channel, Set values, double bloomFilterFpp)
     {
-        BloomFilter bloomFilter = new BloomFilter(BloomFilterDynamicFilter.DEFAULT_DYNAMIC_FILTER_SIZE, bloomFilterFpp);
+        BloomFilter bloomFilter = new BloomFilter(BloomFilterDynamicFilter.DEFAULT_DYNAMIC_FILTER_SIZE, bloomFilterFpp, bloomFilterBlocked);
         if (channel.getType().getJavaType() == long.class) {
             for (Object value : values) {
                 long lv = (Long) value;
@@ -43,6 +43,9 @@ public class HetuConfig
     private Duration indexCacheLoadingDelay = new Duration(10, TimeUnit.SECONDS);
     private Duration indexCacheTTL = new Duration(24, TimeUnit.HOURS);
     private Boolean indexCacheSoftReference = Boolean.TRUE;
+    private boolean indexCacheDiskEnabled;
+    private String indexCacheDiskDirectory = "/tmp/hetu/index-cache";
+    private DataSize indexCacheDiskMaxSize = new DataSize(20, GIGABYTE);
     private String indexStoreUri = "/opt/hetu/indices/";
     private String indexStoreFileSystemProfile = "local-config-default";
     private boolean indexAutoload = true;
@@ -212,6 +215,48 @@ public class HetuConfig
         return this;
     }
 
+    public boolean isIndexCacheDiskEnabled()
+    {
+        return indexCacheDiskEnabled;
+    }
+
+    @Config(HetuConstant.FILTER_CACHE_DISK_ENABLED)
+    @ConfigDescription("Keep index files on local disk as a second cache level, so indices evicted from memory " +
+            "are reloaded from local disk instead of the index store")
+    public HetuConfig setIndexCacheDiskEnabled(boolean indexCacheDiskEnabled)
+    {
+        this.indexCacheDiskEnabled = indexCacheDiskEnabled;
+        return this;
+    }
+
+    @NotNull
+    public String getIndexCacheDiskDirectory()
+    {
+        return indexCacheDiskDirectory;
+    }
+
+    @Config(HetuConstant.FILTER_CACHE_DISK_DIRECTORY)
+    @ConfigDescription("Local directory used by the index cache disk level")
+    public HetuConfig setIndexCacheDiskDirectory(String indexCacheDiskDirectory)
+    {
+        this.indexCacheDiskDirectory = indexCacheDiskDirectory;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getIndexCacheDiskMaxSize()
+    {
+        return indexCacheDiskMaxSize;
+    }
+
+    @Config(HetuConstant.FILTER_CACHE_DISK_MAX_SIZE)
+    @ConfigDescription("The maximum size of index files kept by the index cache disk level")
+    public HetuConfig setIndexCacheDiskMaxSize(DataSize indexCacheDiskMaxSize)
+    {
+        this.indexCacheDiskMaxSize = indexCacheDiskMaxSize;
+        return this;
+    }
+
     public Boolean isEmbeddedStateStoreEnabled()
     {
         return this.enableEmbeddedStateStore;
@@ -27,6 +27,7 @@ import io.prestosql.spi.statestore.StateMap;
 import io.prestosql.spi.statestore.StateSet;
 import io.prestosql.spi.statestore.StateStore;
 import io.prestosql.sql.DynamicFilters;
+import io.prestosql.statestore.MockStateMap;
 import io.prestosql.statestore.StateStoreProvider;
 import io.prestosql.testing.assertions.Assert;
 import io.prestosql.utils.DynamicFilterUtils;
@@ -42,6 +43,7 @@ import java.util.function.Supplier;
 
 import static io.prestosql.SystemSessionProperties.DYNAMIC_FILTERING_DATA_TYPE;
 import static io.prestosql.spi.plan.JoinNode.DistributionType.PARTITIONED;
+import static io.prestosql.spi.statestore.StateCollection.Type.MAP;
 import static io.prestosql.testing.TestingSession.testSessionBuilder;
 import static io.prestosql.utils.DynamicFilterUtils.createKey;
 import static io.prestosql.utils.TestDynamicFilterUtil.registerDf;
@@ -50,6 +52,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 public class TestDynamicFilterServiceWithHashSet
@@ -130,6 +133,91 @@ public class TestDynamicFilterServiceWithHashSet
         assertEquals(stateStoreProvider.getStateStore().getStateCollection(createKey(DynamicFilterUtils.TASKSPREFIX, filterId, queryId)).size(), 0);
     }
 
+    @Test
+    public void testMergeWhenLastTaskFinished()
+            throws InterruptedException
+    {
+        String pushFilterId = "df3";
+        Session pushSession = testSessionBuilder()
+                .setQueryId(QueryId.valueOf("qq3"))
+                .setSystemProperty(DYNAMIC_FILTERING_DATA_TYPE, "HASHSET")
+                .build();
+        String queryId = pushSession.getQueryId().toString();
+        StateStore stateStore = setupMockStateStore(new HashMap<>(), new HashMap<>(), new HashSet<>(), new HashSet<>(), queryId, pushFilterId);
+        StateMap finishedTasks = new MockStateMap<>(DynamicFilterUtils.FINISHED_DYNAMIC_FILTER_TASKS, new HashMap<>());
+        when(stateStore.getOrCreateStateCollection(DynamicFilterUtils.FINISHED_DYNAMIC_FILTER_TASKS, MAP)).thenReturn(finishedTasks);
+        when(stateStore.getStateCollection(DynamicFilterUtils.FINISHED_DYNAMIC_FILTER_TASKS)).thenReturn(finishedTasks);
+        StateStoreProvider pushStateStoreProvider = mock(StateStoreProvider.class);
+        when(pushStateStoreProvider.getStateStore()).thenReturn(stateStore);
+
+        // not started, filters are only merged when workers report finished tasks
+        DynamicFilterService service = new DynamicFilterService(pushStateStoreProvider);
+        try {
+            registerDf(pushFilterId, pushSession, PARTITIONED, service);
+            String tasksKey = createKey(DynamicFilterUtils.TASKSPREFIX, pushFilterId, queryId);
+            StateMap mergedFilters = (StateMap) stateStore.getStateCollection(DynamicFilterUtils.MERGED_DYNAMIC_FILTERS);
+            String filterKey = createKey(DynamicFilterUtils.FILTERPREFIX, pushFilterId, queryId);
+
+            ((StateSet) stateStore.getStateCollection(createKey(DynamicFilterUtils.PARTIALPREFIX, pushFilterId, queryId))).add(new HashSet<>(Arrays.asList("1", "2")));
+            ((StateSet) stateStore.getStateCollection(tasksKey)).add("task1.0");
+            finishedTasks.put(tasksKey, System.currentTimeMillis());
+            Thread.sleep(200);
+            assertNull(mergedFilters.get(filterKey), "filter should not be merged before all tasks finished");
+
+            ((StateSet) stateStore.getStateCollection(createKey(DynamicFilterUtils.PARTIALPREFIX, pushFilterId, queryId))).add(new HashSet<>(Arrays.asList("3")));
+            ((StateSet) stateStore.getStateCollection(tasksKey)).add("task1.1");
+            finishedTasks.put(tasksKey, System.currentTimeMillis());
+            for (int i = 0; i < 50 && mergedFilters.get(filterKey) == null; i++) {
+                Thread.sleep(100);
+            }
+            assertEquals(mergedFilters.get(filterKey), new HashSet<>(Arrays.asList("1", "2", "3")));
+            assertEquals(service.getPublicationLatency().getCount(), 1.0);
+        }
+        finally {
+            service.stop();
+        }
+    }
+
+    @Test
+    public void testMergeWhenTasksFinishedBeforeRegistration()
+            throws InterruptedException
+    {
+        String earlyFilterId = "df4";
+        Session earlySession = testSessionBuilder()
+                .setQueryId(QueryId.valueOf("qq4"))
+                .setSystemProperty(DYNAMIC_FILTERING_DATA_TYPE, "HASHSET")
+                .build();
+        String queryId = earlySession.getQueryId().toString();
+        StateStore stateStore = setupMockStateStore(new HashMap<>(), new HashMap<>(), new HashSet<>(), new HashSet<>(), queryId, earlyFilterId);
+        StateMap finishedTasks = new MockStateMap<>(DynamicFilterUtils.FINISHED_DYNAMIC_FILTER_TASKS, new HashMap<>());
+        when(stateStore.getOrCreateStateCollection(DynamicFilterUtils.FINISHED_DYNAMIC_FILTER_TASKS, MAP)).thenReturn(finishedTasks);
+        when(stateStore.getStateCollection(DynamicFilterUtils.FINISHED_DYNAMIC_FILTER_TASKS)).thenReturn(finishedTasks);
+        StateStoreProvider earlyStateStoreProvider = mock(StateStoreProvider.class);
+        when(earlyStateStoreProvider.getStateStore()).thenReturn(stateStore);
+
+        // not started, the periodic scan can't merge the filter
+        DynamicFilterService service = new DynamicFilterService(earlyStateStoreProvider);
+        try {
+            String tasksKey = createKey(DynamicFilterUtils.TASKSPREFIX, earlyFilterId, queryId);
+            ((StateSet) stateStore.getStateCollection(createKey(DynamicFilterUtils.PARTIALPREFIX, earlyFilterId, queryId))).add(new HashSet<>(Arrays.asList("1", "2")));
+            ((StateSet) stateStore.getStateCollection(tasksKey)).add("task1.0");
+            ((StateSet) stateStore.getStateCollection(createKey(DynamicFilterUtils.PARTIALPREFIX, earlyFilterId, queryId))).add(new HashSet<>(Arrays.asList("3")));
+            ((StateSet) stateStore.getStateCollection(tasksKey)).add("task1.1");
+            finishedTasks.put(tasksKey, System.currentTimeMillis());
+
+            registerDf(earlyFilterId, earlySession, PARTITIONED, service);
+            StateMap mergedFilters = (StateMap) stateStore.getStateCollection(DynamicFilterUtils.MERGED_DYNAMIC_FILTERS);
+            String filterKey = createKey(DynamicFilterUtils.FILTERPREFIX, earlyFilterId, queryId);
+            for (int i = 0; i < 50 && mergedFilters.get(filterKey) == null; i++) {
+                Thread.sleep(100);
+            }
+            assertEquals(mergedFilters.get(filterKey), new HashSet<>(Arrays.asList("1", "2", "3")));
+        }
+        finally {
+            service.stop();
+        }
+    }
+
     private Set fetchDynamicFilterHashSet(String filterId, String queryId)
     {
         Set hashSet = (Set) ((StateMap) stateStoreProvider.getStateStore().getStateCollection(DynamicFilterUtils.MERGED_DYNAMIC_FILTERS))
@@ -286,7 +286,7 @@ public class TestSplitCacheStateInitializer
         @Override
         public void putAll(Map<K, V> map)
         {
-            map.putAll(map);
+            this.map.putAll(map);
         }
 
         @Override
@@ -255,7 +255,7 @@ public class TestSplitCacheStateUpdater
         @Override
         public void putAll(Map<K, V> map)
         {
-            map.putAll(map);
+            this.map.putAll(map);
         }
 
         @Override
@@ -16,6 +16,7 @@ package io.prestosql.execution;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
+import io.prestosql.execution.TaskManagerConfig.SplitWakeupMode;
 import org.testng.annotations.Test;
 
 import java.math.BigDecimal;
@@ -58,6 +59,8 @@ public class TestTaskManagerConfig
                 .setTaskNotificationThreads(5)
                 .setTaskYieldThreads(3)
                 .setLevelTimeMultiplier(new BigDecimal("2"))
+                .setSplitQueueShards(Math.max(1, Runtime.getRuntime().availableProcessors() / 16))
+                .setSplitWakeupMode(SplitWakeupMode.EXECUTOR)
                 .setStatisticsCpuTimerEnabled(true));
     }
 
@@ -90,6 +93,8 @@ public class TestTaskManagerConfig
                 .put("task.task-notification-threads", "13")
                 .put("task.task-yield-threads", "8")
                 .put("task.level-time-multiplier", "2.1")
+                .put("task.split-queue-shards", "4")
+                .put("task.split-wakeup-mode", "DIRECT")
                 .put("task.statistics-cpu-timer-enabled", "false")
                 .build();
 
@@ -119,6 +124,8 @@ public class TestTaskManagerConfig
                 .setTaskNotificationThreads(13)
                 .setTaskYieldThreads(8)
                 .setLevelTimeMultiplier(new BigDecimal("2.1"))
+                .setSplitQueueShards(4)
+                .setSplitWakeupMode(SplitWakeupMode.DIRECT)
                 .setStatisticsCpuTimerEnabled(false);
 
         assertFullMapping(properties, expected);
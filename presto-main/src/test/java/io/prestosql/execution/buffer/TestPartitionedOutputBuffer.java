@@ -42,6 +42,7 @@ import java.util.Optional;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.stream.Collectors;
 
+import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.prestosql.SessionTestUtils.TEST_SNAPSHOT_SESSION;
@@ -295,6 +296,7 @@ public class TestPartitionedOutputBuffer
             throws Exception
     {
         SnapshotUtils snapshotUtils = mock(SnapshotUtils.class);
+        when(snapshotUtils.storeStateAsync(anyObject(), anyObject())).thenReturn(immediateFuture(null));
         ScheduledExecutorService scheduler = newScheduledThreadPool(4, daemonThreadsNamed("test-%s"));
         ScheduledExecutorService scheduledExecutor = newScheduledThreadPool(2, daemonThreadsNamed("test-scheduledExecutor-%s"));
         TaskContext taskContext = createTaskContext(scheduler, scheduledExecutor, TEST_SNAPSHOT_SESSION, snapshotUtils);
@@ -331,8 +333,9 @@ public class TestPartitionedOutputBuffer
 
         ArgumentCaptor<SnapshotStateId> idArgument = ArgumentCaptor.forClass(SnapshotStateId.class);
         ArgumentCaptor<Object> stateArgument = ArgumentCaptor.forClass(Object.class);
-        // storeState is called once for each partition
-        verify(snapshotUtils, times(3)).storeState(idArgument.capture(), stateArgument.capture());
+        // state of each partition is stored in the background, then the consolidated state of the task is stored
+        verify(snapshotUtils, times(2)).storeStateAsync(idArgument.capture(), stateArgument.capture());
+        verify(snapshotUtils, times(1)).storeState(idArgument.capture(), stateArgument.capture());
         List<SnapshotStateId> ids = idArgument.getAllValues();
         List<Object> states = stateArgument.getAllValues();
         when(snapshotUtils.loadState(ids.get(0))).thenReturn(Optional.of(states.get(0)));
@@ -0,0 +1,156 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.executor;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.units.Duration;
+import io.prestosql.execution.SplitRunner;
+import io.prestosql.execution.TaskId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Throughput of the {@link TaskExecutor} running many short splits, by number of runner threads and split queue shards
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkTaskExecutor
+{
+    private static final int SPLITS = 10_000;
+    private static final int QUANTA_PER_SPLIT = 10;
+
+    @Benchmark
+    @OperationsPerInvocation(SPLITS * QUANTA_PER_SPLIT)
+    public Object benchmark(BenchmarkData data)
+    {
+        TaskHandle taskHandle = data.taskExecutor.addTask(new TaskId("benchmark", 0, data.nextTaskId.getAndIncrement()), () -> 0, 1, new Duration(1, MILLISECONDS), OptionalInt.empty());
+        ImmutableList.Builder<ShortSplit> splits = ImmutableList.builder();
+        for (int i = 0; i < SPLITS; i++) {
+            splits.add(new ShortSplit(data.workPerQuanta));
+        }
+        List<ListenableFuture<?>> finished = data.taskExecutor.enqueueSplits(taskHandle, true, splits.build());
+        Futures.getUnchecked(Futures.allAsList(finished));
+        data.taskExecutor.removeTask(taskHandle);
+        return finished;
+    }
+
+    @SuppressWarnings("FieldMayBeFinal")
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"8", "32", "128"})
+        private int runnerThreads = 8;
+
+        @Param({"1", "8"})
+        private int splitQueueShards = 1;
+
+        @Param({"0", "100"})
+        private int workPerQuanta;
+
+        private final AtomicInteger nextTaskId = new AtomicInteger();
+        private TaskExecutor taskExecutor;
+
+        @Setup
+        public void setup()
+        {
+            taskExecutor = new TaskExecutor(runnerThreads, runnerThreads * 2, 3, Integer.MAX_VALUE, new MultilevelSplitQueue(2, splitQueueShards), Ticker.systemTicker());
+            taskExecutor.start();
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            taskExecutor.stop();
+        }
+    }
+
+    private static class ShortSplit
+            implements SplitRunner
+    {
+        private final int workPerQuanta;
+        private int remainingQuanta = QUANTA_PER_SPLIT;
+
+        private ShortSplit(int workPerQuanta)
+        {
+            this.workPerQuanta = workPerQuanta;
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return remainingQuanta == 0;
+        }
+
+        @Override
+        public ListenableFuture<?> processFor(Duration duration)
+        {
+            Blackhole.consumeCPU(workPerQuanta);
+            remainingQuanta--;
+            return immediateFuture(null);
+        }
+
+        @Override
+        public String getInfo()
+        {
+            return "short split";
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    public static void main(String[] args)
+            throws Throwable
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkTaskExecutor.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
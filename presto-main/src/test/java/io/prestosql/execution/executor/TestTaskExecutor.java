@@ -21,6 +21,7 @@ import io.airlift.testing.TestingTicker;
 import io.airlift.units.Duration;
 import io.prestosql.execution.SplitRunner;
 import io.prestosql.execution.TaskId;
+import io.prestosql.execution.TaskManagerConfig.SplitWakeupMode;
 import org.testng.annotations.Test;
 
 import java.util.Arrays;
@@ -215,9 +216,23 @@ public class TestTaskExecutor
     @Test(invocationCount = 100)
     public void testLevelMultipliers()
             throws Exception
+    {
+        assertLevelMultipliers(new MultilevelSplitQueue(2));
+    }
+
+    @Test(invocationCount = 100)
+    public void testLevelMultipliersWithShardedQueue()
+            throws Exception
+    {
+        // splits are offered to the shards of the test thread and of the runner thread
+        assertLevelMultipliers(new MultilevelSplitQueue(2, 4));
+    }
+
+    private void assertLevelMultipliers(MultilevelSplitQueue splitQueue)
+            throws Exception
     {
         TestingTicker ticker = new TestingTicker();
-        TaskExecutor taskExecutor = new TaskExecutor(1, 3, 3, 4, new MultilevelSplitQueue(2), ticker);
+        TaskExecutor taskExecutor = new TaskExecutor(1, 3, 3, 4, splitQueue, ticker);
         taskExecutor.start();
         ticker.increment(20, MILLISECONDS);
 
@@ -449,6 +464,60 @@ public class TestTaskExecutor
         }
     }
 
+    @Test(timeOut = 30_000)
+    public void testDirectSplitWakeup()
+            throws Exception
+    {
+        TaskExecutor taskExecutor = new TaskExecutor(2, 4, 1, 4, new MultilevelSplitQueue(2), SplitWakeupMode.DIRECT, new TestingTicker());
+        taskExecutor.start();
+        try {
+            TaskHandle taskHandle = taskExecutor.addTask(new TaskId("test", 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
+            BlockingJob split = new BlockingJob();
+            ListenableFuture<?> finished = getOnlyElement(taskExecutor.enqueueSplits(taskHandle, false, ImmutableList.of(split)));
+
+            while (taskExecutor.getBlockedSplits() == 0) {
+                MILLISECONDS.sleep(10);
+            }
+
+            split.unblock();
+            finished.get();
+            assertEquals(taskExecutor.getBlockedSplits(), 0);
+            assertEquals(taskExecutor.getDirectSplitWakeupTime().getAllTime().getCount(), 1.0);
+            assertEquals(taskExecutor.getExecutorSplitWakeupTime().getAllTime().getCount(), 0.0);
+            taskExecutor.removeTask(taskHandle);
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
+    @Test(timeOut = 30_000)
+    public void testExecutorSplitWakeup()
+            throws Exception
+    {
+        TaskExecutor taskExecutor = new TaskExecutor(2, 4, 1, 4, new TestingTicker());
+        taskExecutor.start();
+        try {
+            TaskHandle taskHandle = taskExecutor.addTask(new TaskId("test", 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty());
+            BlockingJob split = new BlockingJob();
+            ListenableFuture<?> finished = getOnlyElement(taskExecutor.enqueueSplits(taskHandle, false, ImmutableList.of(split)));
+
+            while (taskExecutor.getBlockedSplits() == 0) {
+                MILLISECONDS.sleep(10);
+            }
+
+            split.unblock();
+            finished.get();
+            assertEquals(taskExecutor.getBlockedSplits(), 0);
+            assertEquals(taskExecutor.getExecutorSplitWakeupTime().getAllTime().getCount(), 1.0);
+            assertEquals(taskExecutor.getDirectSplitWakeupTime().getAllTime().getCount(), 0.0);
+            taskExecutor.removeTask(taskHandle);
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
     private void assertSplitStates(int endIndex, TestingJob[] splits)
     {
         // assert that splits up to and including endIndex are all started
@@ -475,6 +544,43 @@ public class TestTaskExecutor
         }
     }
 
+    private static class BlockingJob
+            implements SplitRunner
+    {
+        private final SettableFuture<?> blocked = SettableFuture.create();
+        private final AtomicInteger processCalls = new AtomicInteger();
+
+        public void unblock()
+        {
+            blocked.set(null);
+        }
+
+        @Override
+        public ListenableFuture<?> processFor(Duration duration)
+        {
+            // block on the first call and finish on the second
+            processCalls.incrementAndGet();
+            return blocked;
+        }
+
+        @Override
+        public String getInfo()
+        {
+            return "blocking-split";
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return processCalls.get() > 1;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
     private static class TestingJob
             implements SplitRunner
     {
@@ -436,6 +436,59 @@ public class TestNodeScheduler
         assertTrue(nodeIdToSplits.get(splitCacheMap.getCachedNodeId(split3Key).get()).contains(split3));
     }
 
+    @Test
+    public void testSplitCacheAwareSchedulingWithoutCachedNode()
+    {
+        setUpNodes();
+        PropertyService.setProperty(HetuConstant.SPLIT_CACHE_MAP_ENABLED, true);
+        SplitCacheMap splitCacheMap = SplitCacheMap.getInstance();
+        splitCacheMap.dropCache();
+
+        QualifiedName tableQN = QualifiedName.of(CONNECTOR_ID.toString(), TEST_SCHEMA, TEST_TABLE);
+        TupleDomain<ColumnMetadata> tupleDomainA = TupleDomain.withColumnDomains(
+                ImmutableMap.of(new ColumnMetadata("a", BIGINT), Domain.singleValue(BIGINT, 23L)));
+        splitCacheMap.addCache(tableQN, tupleDomainA, "a = 23");
+
+        Set<Split> splits = new LinkedHashSet<>();
+        for (int i = 0; i < 10; i++) {
+            MockSplit mock = new MockSplit("hdfs://hacluster/user/hive/warehouse/test_schema.db/test_table/a=23/00000" + i + "_0", 0, 10, System.currentTimeMillis(), true);
+            splits.add(new Split(CONNECTOR_ID, mock, Lifespan.taskWide()));
+        }
+
+        NodeSchedulerConfig nodeSchedulerConfig = new NodeSchedulerConfig()
+                .setMaxSplitsPerNode(20)
+                .setIncludeCoordinator(false)
+                .setMaxPendingSplitsPerTask(10);
+        TestNetworkTopology topology = new TestNetworkTopology();
+        NodeScheduler nodeScheduler = new NodeScheduler(new NetworkLocationCache(topology), topology, nodeManager, nodeSchedulerConfig, nodeTaskMap);
+        NodeSelector nodeSelector = nodeScheduler.createNodeSelector(CONNECTOR_ID, false, null);
+        assertTrue(nodeSelector instanceof SplitCacheAwareNodeSelector);
+
+        Map<Split, String> nodeIdBySplit = new HashMap<>();
+        nodeSelector.computeAssignments(splits, ImmutableList.copyOf(taskMap.values()), Optional.empty()).getAssignments()
+                .forEach((node, split) -> nodeIdBySplit.put(split, node.getNodeIdentifier()));
+        assertEquals(nodeIdBySplit.size(), splits.size());
+
+        // the recorded split to worker mapping is lost, but the splits are placed on the same workers again
+        splitCacheMap.dropCache();
+        splitCacheMap.addCache(tableQN, tupleDomainA, "a = 23");
+        nodeSelector.computeAssignments(splits, ImmutableList.copyOf(taskMap.values()), Optional.empty()).getAssignments()
+                .forEach((node, split) -> assertEquals(node.getNodeIdentifier(), nodeIdBySplit.get(split)));
+
+        // a new worker only takes splits over from the existing workers, the other splits stay where they are
+        InternalNode newNode = new InternalNode("other4", URI.create("http://10.0.0.1:14"), NodeVersion.UNKNOWN, false);
+        nodeManager.addNode(CONNECTOR_ID, newNode);
+        splitCacheMap.dropCache();
+        splitCacheMap.addCache(tableQN, tupleDomainA, "a = 23");
+        nodeSelector = new NodeScheduler(new NetworkLocationCache(topology), topology, nodeManager, nodeSchedulerConfig, nodeTaskMap)
+                .createNodeSelector(CONNECTOR_ID, false, null);
+        Multimap<InternalNode, Split> assignment = nodeSelector.computeAssignments(splits, ImmutableList.copyOf(taskMap.values()), Optional.empty()).getAssignments();
+        assertEquals(assignment.size(), splits.size());
+        assignment.forEach((node, split) -> assertTrue(node.equals(newNode) || node.getNodeIdentifier().equals(nodeIdBySplit.get(split))));
+
+        splitCacheMap.dropCache();
+    }
+
     @Test
     public void testScheduleRemote()
     {
@@ -176,7 +176,8 @@ public class TestIndexCache
         when(indexMetadata2.getLastModifiedTime()).thenReturn(testLastModifiedTime);
         Index index2 = mock(Index.class);
         when(indexMetadata2.getIndex()).thenReturn(index2);
-        when(index2.getMemoryUsage()).thenReturn(new DataSize(2, KILOBYTE).toBytes());
+        // a memory-mapped index, which is weighed by the size of its file
+        when(index2.getDiskUsage()).thenReturn(new DataSize(2, KILOBYTE).toBytes());
 
         // previous indexes should be evicted bc cache was at max weight limit and new ones should be added
         List<IndexMetadata> expectedIndices2 = new LinkedList<>();
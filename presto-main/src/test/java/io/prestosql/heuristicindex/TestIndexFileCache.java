@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.heuristicindex;
+
+import io.hetu.core.filesystem.HetuLocalFileSystemClient;
+import io.hetu.core.filesystem.LocalConfig;
+import org.apache.commons.io.IOUtils;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+import static org.testng.Assert.assertEquals;
+
+public class TestIndexFileCache
+{
+    private static final String ROOT_PATH_STR = "/tmp/test_index_file_cache";
+
+    @Test
+    public void testReadThroughLocalCopy()
+            throws IOException
+    {
+        HetuLocalFileSystemClient fs = new HetuLocalFileSystemClient(new LocalConfig(new Properties()), Paths.get(ROOT_PATH_STR));
+        IndexCacheStats stats = new IndexCacheStats();
+        Path indexFile = Paths.get(ROOT_PATH_STR, "store", "index.tar");
+        fs.deleteRecursively(Paths.get(ROOT_PATH_STR));
+        fs.createDirectories(indexFile.getParent());
+
+        try (IndexFileCache cache = new IndexFileCache(fs, Paths.get(ROOT_PATH_STR, "cache"), 1024, stats)) {
+            write(fs, indexFile, "first");
+            assertEquals(read(cache, indexFile), "first");
+            assertEquals(read(cache, indexFile), "first");
+            assertEquals(stats.getDiskMisses(), 1);
+            assertEquals(stats.getDiskHits(), 1);
+            assertEquals(cache.getCachedFileCount(), 1);
+
+            // a rewritten file is read from the index store again
+            write(fs, indexFile, "second version");
+            assertEquals(read(cache, indexFile), "second version");
+            assertEquals(stats.getDiskMisses(), 2);
+
+            cache.deleteRecursively(indexFile.getParent());
+            assertEquals(cache.getCachedFileCount(), 0);
+        }
+    }
+
+    private static void write(HetuLocalFileSystemClient fs, Path path, String content)
+            throws IOException
+    {
+        fs.deleteIfExists(path);
+        try (OutputStream out = fs.newOutputStream(path)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String read(IndexFileCache cache, Path path)
+            throws IOException
+    {
+        try (InputStream in = cache.newInputStream(path)) {
+            return IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+    }
+}
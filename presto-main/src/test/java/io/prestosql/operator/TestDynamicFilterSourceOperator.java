@@ -209,7 +209,7 @@ public class TestDynamicFilterSourceOperator
 
         TaskId taskId = new TaskId("test0.0");
         LocalDynamicFilter localDynamicFilter = new LocalDynamicFilter(probeSymbols,
-                buildChannelMap, partitionCount, dfType, dataType, 0.1D, taskId, stateStoreProvider);
+                buildChannelMap, partitionCount, dfType, dataType, 0.1D, false, taskId, stateStoreProvider);
 
         return new DynamicFilterSourceOperatorFactory(
                 0,
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import io.airlift.slice.Slice;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+public class TestExchangeBufferPool
+{
+    @Test
+    public void testReuse()
+    {
+        ExchangeBufferPool pool = new ExchangeBufferPool(1024 * 1024);
+
+        Slice first = pool.allocate(10_000);
+        assertEquals(first.length(), 10_000);
+        pool.release(first);
+        assertEquals(pool.getPooledBytes(), ((byte[]) first.getBase()).length);
+
+        // a slightly larger page fits into the same rounded up array
+        Slice second = pool.allocate(10_100);
+        assertEquals(second.length(), 10_100);
+        assertSame(second.getBase(), first.getBase());
+        assertEquals(pool.getPooledBytes(), 0);
+        assertEquals(pool.getReusedBytes(), 10_100);
+
+        // pages of a different size class do not
+        pool.release(second);
+        Slice third = pool.allocate(20_000);
+        assertNotSame(third.getBase(), first.getBase());
+    }
+
+    @Test
+    public void testSmallAllocationsAreNotPooled()
+    {
+        ExchangeBufferPool pool = new ExchangeBufferPool(1024 * 1024);
+
+        Slice slice = pool.allocate(100);
+        assertEquals(((byte[]) slice.getBase()).length, 100);
+        pool.release(slice);
+        assertEquals(pool.getPooledBytes(), 0);
+    }
+
+    @Test
+    public void testMaxPooledBytes()
+    {
+        ExchangeBufferPool pool = new ExchangeBufferPool(16 * 1024);
+
+        Slice first = pool.allocate(12 * 1024);
+        Slice second = pool.allocate(12 * 1024);
+        pool.release(first);
+        pool.release(second);
+        assertEquals(pool.getPooledBytes(), 12 * 1024);
+
+        pool.clear();
+        assertEquals(pool.getPooledBytes(), 0);
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        ExchangeBufferPool pool = new ExchangeBufferPool(0);
+
+        Slice slice = pool.allocate(10_000);
+        assertEquals(((byte[]) slice.getBase()).length, 10_000);
+        pool.release(slice);
+        assertEquals(pool.getPooledBytes(), 0);
+        assertEquals(pool.getAllocatedBytes(), 10_000);
+    }
+}
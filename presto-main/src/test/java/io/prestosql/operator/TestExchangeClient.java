@@ -57,6 +57,7 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
@@ -132,6 +133,47 @@ public class TestExchangeClient
         assertStatus(status.getPageBufferClientStatuses().get(0), location, "closed", 3, 3, 3, "not scheduled");
     }
 
+    @Test
+    public void testReleasedPageMemoryIsReused()
+    {
+        DataSize maxResponseSize = new DataSize(10, Unit.MEGABYTE);
+        MockExchangeRequestProcessor processor = new MockExchangeRequestProcessor(maxResponseSize);
+
+        URI location = URI.create("http://localhost:8080");
+        processor.addPage(location, createPage(10_000));
+
+        @SuppressWarnings("resource")
+        ExchangeClient exchangeClient = new ExchangeClient(
+                new DataSize(32, Unit.MEGABYTE),
+                maxResponseSize,
+                1,
+                new Duration(1, TimeUnit.MINUTES),
+                true,
+                new TestingHttpClient(processor, scheduler),
+                scheduler,
+                new SimpleLocalMemoryContext(newSimpleAggregatedMemoryContext(), "test"),
+                pageBufferClientCallbackExecutor,
+                new ExchangeBufferPool(new DataSize(1, Unit.MEGABYTE).toBytes()));
+
+        exchangeClient.addLocation(new TaskLocation(location, "testing instance id"));
+        exchangeClient.noMoreLocations();
+
+        SerializedPage firstPage = getNextPage(exchangeClient);
+        assertTrue(firstPage.isCompressed());
+        assertPageEquals(firstPage, createPage(10_000));
+        exchangeClient.releasePage(firstPage);
+        assertEquals(exchangeClient.getStatus().getReusedBytes(), 0);
+
+        // the second page is received after the first one was released, into the same array
+        processor.addPage(location, createPage(10_000));
+        processor.setComplete(location);
+        SerializedPage secondPage = getNextPage(exchangeClient);
+        assertSame(secondPage.getSlice().getBase(), firstPage.getSlice().getBase());
+        assertEquals(exchangeClient.getStatus().getReusedBytes(), secondPage.getSizeInBytes());
+        assertPageEquals(secondPage, createPage(10_000));
+        assertNull(getNextPage(exchangeClient));
+    }
+
     @Test
     public void testMarkers()
     {
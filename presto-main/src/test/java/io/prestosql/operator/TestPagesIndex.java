@@ -16,6 +16,7 @@ package io.prestosql.operator;
 import com.google.common.collect.ImmutableList;
 import io.hetu.core.transport.execution.buffer.PagesSerde;
 import io.prestosql.spi.Page;
+import io.prestosql.spi.block.SortOrder;
 import io.prestosql.spi.snapshot.SnapshotTestUtil;
 import io.prestosql.spi.type.Type;
 import io.prestosql.testing.TestingPagesSerdeFactory;
@@ -32,6 +33,8 @@ import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static java.lang.String.format;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 public class TestPagesIndex
@@ -70,6 +73,35 @@ public class TestPagesIndex
                 estimatedSizeAfterCompact));
     }
 
+    @Test
+    public void testDeltaSnapshot()
+    {
+        List<Type> types = ImmutableList.of(BIGINT);
+        PagesSerde serde = TestingPagesSerdeFactory.testingPagesSerde();
+
+        PagesIndex pagesIndex = newPagesIndex(types, 10, false);
+        pagesIndex.addPage(createSequencePage(types, 5, 0));
+        Object snapshot = pagesIndex.capture(serde);
+        pagesIndex.addPage(createSequencePage(types, 3, 5));
+        pagesIndex.compact();
+        Object delta = pagesIndex.captureDelta(serde);
+
+        PagesIndex restored = newPagesIndex(types, 10, false);
+        restored.restore(snapshot, serde);
+        assertEquals(restored.getPositionCount(), 5);
+        restored.restoreDelta(delta, serde);
+        assertEquals(restored.getPositionCount(), 8);
+        for (int position = 0; position < 8; position++) {
+            assertEquals(restored.getLong(0, position), position);
+        }
+
+        // sorting rewrites the value addresses, which can't be captured incrementally
+        restored.sort(ImmutableList.of(0), ImmutableList.of(SortOrder.DESC_NULLS_LAST));
+        assertNull(restored.captureDelta(serde));
+        restored.capture(serde);
+        assertNotNull(restored.captureDelta(serde));
+    }
+
     private Map<String, Object> createExpectedMapping()
     {
         Map<String, Object> expectedMapping = new HashMap<>();
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.snapshot;
+
+import com.google.common.collect.ImmutableList;
+import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.prestosql.operator.BigintGroupByHash;
+import io.prestosql.operator.GroupByHash;
+import io.prestosql.operator.PagesIndex;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.type.Type;
+import io.prestosql.testing.TestingPagesSerdeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static io.prestosql.SequencePageBuilder.createSequencePage;
+import static io.prestosql.operator.UpdateMemory.NOOP;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+
+/**
+ * Compares java serialization with {@link SnapshotStateSerializer} for captured operator states.
+ * Run main() to also print the number of bytes written by each.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkSnapshotStateSerializer
+{
+    private static final int POSITIONS_PER_PAGE = 1024;
+    private static final int PAGES = 100;
+
+    @Benchmark
+    public byte[] javaSerialize(BenchmarkData data)
+            throws IOException
+    {
+        return javaSerialize(data.getState());
+    }
+
+    @Benchmark
+    public byte[] binarySerialize(BenchmarkData data)
+            throws IOException
+    {
+        return binarySerialize(data.getState());
+    }
+
+    @Benchmark
+    public Object javaDeserialize(BenchmarkData data)
+            throws IOException, ClassNotFoundException
+    {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(data.getJavaSerialized()))) {
+            return input.readObject();
+        }
+    }
+
+    @Benchmark
+    public Object binaryDeserialize(BenchmarkData data)
+            throws IOException, ClassNotFoundException
+    {
+        return SnapshotUtils.deserializeState(new ByteArrayInputStream(data.getBinarySerialized()));
+    }
+
+    private static byte[] javaSerialize(Object state)
+            throws IOException
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutput = new ObjectOutputStream(output)) {
+            objectOutput.writeObject(state);
+        }
+        return output.toByteArray();
+    }
+
+    private static byte[] binarySerialize(Object state)
+            throws IOException
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        SnapshotUtils.serializeState(state, output);
+        return output.toByteArray();
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"AGGREGATION", "JOIN"})
+        private String stateType = "AGGREGATION";
+
+        private Object state;
+        private byte[] javaSerialized;
+        private byte[] binarySerialized;
+
+        @Setup
+        public void setup()
+                throws IOException
+        {
+            PagesSerde serde = TestingPagesSerdeFactory.testingPagesSerde();
+            switch (stateType) {
+                case "AGGREGATION": {
+                    // group by hash of a bigint aggregation: mostly long arrays
+                    GroupByHash groupByHash = new BigintGroupByHash(0, false, 10_000, NOOP);
+                    for (int i = 0; i < PAGES; i++) {
+                        groupByHash.addPage(createSequencePage(ImmutableList.of(BIGINT), POSITIONS_PER_PAGE, i * POSITIONS_PER_PAGE)).process();
+                    }
+                    state = groupByHash.capture(serde);
+                    break;
+                }
+                case "JOIN": {
+                    // build side of a join: serialized blocks and value addresses
+                    List<Type> types = ImmutableList.of(BIGINT, VARCHAR);
+                    PagesIndex pagesIndex = new PagesIndex.TestingFactory(false).newPagesIndex(types, PAGES * POSITIONS_PER_PAGE);
+                    for (int i = 0; i < PAGES; i++) {
+                        Page page = createSequencePage(types, POSITIONS_PER_PAGE, i * POSITIONS_PER_PAGE, i * POSITIONS_PER_PAGE);
+                        pagesIndex.addPage(page);
+                    }
+                    state = pagesIndex.capture(serde);
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("Unsupported state type " + stateType);
+            }
+            javaSerialized = javaSerialize(state);
+            binarySerialized = binarySerialize(state);
+        }
+
+        public Object getState()
+        {
+            return state;
+        }
+
+        public byte[] getJavaSerialized()
+        {
+            return javaSerialized;
+        }
+
+        public byte[] getBinarySerialized()
+        {
+            return binarySerialized;
+        }
+    }
+
+    public static void main(String[] args)
+            throws IOException, RunnerException
+    {
+        for (String stateType : ImmutableList.of("AGGREGATION", "JOIN")) {
+            BenchmarkData data = new BenchmarkData();
+            data.stateType = stateType;
+            data.setup();
+            System.out.printf("%s state: java serialization %d bytes, binary %d bytes%n", stateType, data.getJavaSerialized().length, data.getBinarySerialized().length);
+        }
+
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkSnapshotStateSerializer.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -26,20 +26,25 @@ import io.prestosql.spi.snapshot.MarkerPage;
 import io.prestosql.spi.snapshot.Restorable;
 import io.prestosql.spi.snapshot.RestorableConfig;
 import io.prestosql.testing.assertions.Assert;
+import org.mockito.ArgumentCaptor;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ScheduledExecutorService;
 
+import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static io.prestosql.SessionTestUtils.TEST_SNAPSHOT_SESSION;
 import static io.prestosql.testing.TestingTaskContext.createTaskContext;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -281,16 +286,104 @@ public class TestSingleInputSnapshotState
         verify(snapshotManager, times(1)).loadState(anyObject());
     }
 
-    @RestorableConfig(uncapturedFields = {"supportsConsolidatedWrites"})
+    @Test
+    public void testDeltaCapture()
+            throws Exception
+    {
+        TestingRestorable restorable = new TestingRestorable();
+        restorable.supportsDelta = true;
+        SingleInputSnapshotState state = new SingleInputSnapshotState(
+                restorable,
+                snapshotManager,
+                null,
+                TestSingleInputSnapshotState::createSnapshotStateId,
+                TestSingleInputSnapshotState::createSnapshotStateId);
+        when(snapshotManager.getFullCaptureInterval()).thenReturn(3);
+
+        int[] values = {10, 15, 17, 20};
+        for (int i = 0; i < values.length; i++) {
+            restorable.state = values[i];
+            state.processPage(MarkerPage.snapshotPage(i + 1));
+        }
+        ArgumentCaptor<Object> stateArgument = ArgumentCaptor.forClass(Object.class);
+        verify(snapshotManager, times(4)).storeState(anyObject(), stateArgument.capture());
+        List<Object> states = stateArgument.getAllValues();
+        Assert.assertEquals(states.get(0), 10);
+        Assert.assertEquals(((DeltaState) states.get(1)).getBaseSnapshotId(), 1L);
+        Assert.assertEquals(((DeltaState) states.get(1)).getDelta(), 5);
+        Assert.assertEquals(((DeltaState) states.get(2)).getBaseSnapshotId(), 2L);
+        Assert.assertEquals(((DeltaState) states.get(2)).getDelta(), 2);
+        // chain of deltas is limited by the full capture interval
+        Assert.assertEquals(states.get(3), 20);
+
+        // restore applies deltas on top of the full state they are based on
+        for (int i = 0; i < states.size(); i++) {
+            when(snapshotManager.loadState(createSnapshotStateId(i + 1))).thenReturn(Optional.of(states.get(i)));
+        }
+        restorable.state = 0;
+        state.processPage(MarkerPage.resumePage(3));
+        Assert.assertEquals(restorable.state, 17);
+
+        restorable.state = 0;
+        state.processPage(MarkerPage.resumePage(2));
+        Assert.assertEquals(restorable.state, 15);
+
+        // next capture is based on the restored snapshot
+        restorable.state = 18;
+        state.processPage(MarkerPage.snapshotPage(5));
+        stateArgument = ArgumentCaptor.forClass(Object.class);
+        verify(snapshotManager, times(5)).storeState(anyObject(), stateArgument.capture());
+        DeltaState delta = (DeltaState) stateArgument.getValue();
+        Assert.assertEquals(delta.getBaseSnapshotId(), 2L);
+        Assert.assertEquals(delta.getDelta(), 3);
+    }
+
+    @Test
+    public void testFullCaptureAfterFailedUpload()
+            throws Exception
+    {
+        TestingRestorable restorable = new TestingRestorable();
+        restorable.supportsDelta = true;
+        SingleInputSnapshotState state = new SingleInputSnapshotState(
+                restorable,
+                snapshotManager,
+                null,
+                TestSingleInputSnapshotState::createSnapshotStateId,
+                TestSingleInputSnapshotState::createSnapshotStateId);
+        when(snapshotManager.getFullCaptureInterval()).thenReturn(5);
+        // the upload of the first, full, capture fails in the background
+        doReturn(immediateFailedFuture(new IOException("upload failed")))
+                .doReturn(immediateFuture(null))
+                .when(snapshotManager).storeState(anyObject(), anyObject());
+
+        int[] values = {10, 15, 17};
+        for (int i = 0; i < values.length; i++) {
+            restorable.state = values[i];
+            state.processPage(MarkerPage.snapshotPage(i + 1));
+        }
+        ArgumentCaptor<Object> stateArgument = ArgumentCaptor.forClass(Object.class);
+        verify(snapshotManager, times(3)).storeState(anyObject(), stateArgument.capture());
+        List<Object> states = stateArgument.getAllValues();
+        Assert.assertEquals(states.get(0), 10);
+        // the base of a delta would never have been written, so the next capture is a full one
+        Assert.assertEquals(states.get(1), 15);
+        Assert.assertEquals(((DeltaState) states.get(2)).getBaseSnapshotId(), 2L);
+        Assert.assertEquals(((DeltaState) states.get(2)).getDelta(), 2);
+    }
+
+    @RestorableConfig(uncapturedFields = {"supportsConsolidatedWrites", "supportsDelta", "capturedState"})
     private static class TestingRestorable
             implements Restorable
     {
         int state;
         boolean supportsConsolidatedWrites;
+        boolean supportsDelta;
+        int capturedState;
 
         @Override
         public Object capture(BlockEncodingSerdeProvider serdeProvider)
         {
+            capturedState = state;
             return state;
         }
 
@@ -298,6 +391,25 @@ public class TestSingleInputSnapshotState
         public void restore(Object state, BlockEncodingSerdeProvider serdeProvider)
         {
             this.state = (Integer) state;
+            capturedState = this.state;
+        }
+
+        @Override
+        public Object captureDelta(BlockEncodingSerdeProvider serdeProvider)
+        {
+            if (!supportsDelta) {
+                return null;
+            }
+            int delta = state - capturedState;
+            capturedState = state;
+            return delta;
+        }
+
+        @Override
+        public void restoreDelta(Object delta, BlockEncodingSerdeProvider serdeProvider)
+        {
+            state += (Integer) delta;
+            capturedState = state;
         }
 
         @Override
@@ -16,6 +16,7 @@ package io.prestosql.snapshot;
 
 import com.google.common.collect.ImmutableMap;
 import io.airlift.configuration.testing.ConfigAssertions;
+import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import org.testng.annotations.Test;
 
@@ -33,7 +34,11 @@ public class TestSnapshotConfig
                 .setSnapshotTimeInterval(new Duration(5, TimeUnit.MINUTES))
                 .setSnapshotSplitCountInterval(1000)
                 .setSnapshotMaxRetries(10)
-                .setSnapshotRetryTimeout(new Duration(10, TimeUnit.MINUTES)));
+                .setSnapshotRetryTimeout(new Duration(10, TimeUnit.MINUTES))
+                .setSnapshotUploadThreads(4)
+                .setSnapshotUploadPartSize(new DataSize(8, DataSize.Unit.MEGABYTE))
+                .setSnapshotDeltaCaptureEnabled(false)
+                .setSnapshotFullCaptureInterval(10));
     }
 
     @Test
@@ -46,6 +51,10 @@ public class TestSnapshotConfig
                 .put("hetu.internal.snapshot.splitCountInterval", "1000000")
                 .put("hetu.snapshot.maxRetries", "20")
                 .put("hetu.snapshot.retryTimeout", "5m")
+                .put("hetu.snapshot.upload-threads", "8")
+                .put("hetu.snapshot.upload-part-size", "16MB")
+                .put("hetu.snapshot.delta-capture-enabled", "true")
+                .put("hetu.snapshot.full-capture-interval", "5")
                 .build();
 
         SnapshotConfig expected = new SnapshotConfig()
@@ -54,7 +63,11 @@ public class TestSnapshotConfig
                 .setSnapshotTimeInterval(new Duration(3, TimeUnit.MINUTES))
                 .setSnapshotSplitCountInterval(1000000)
                 .setSnapshotMaxRetries(20)
-                .setSnapshotRetryTimeout(new Duration(5, TimeUnit.MINUTES));
+                .setSnapshotRetryTimeout(new Duration(5, TimeUnit.MINUTES))
+                .setSnapshotUploadThreads(8)
+                .setSnapshotUploadPartSize(new DataSize(16, DataSize.Unit.MEGABYTE))
+                .setSnapshotDeltaCaptureEnabled(true)
+                .setSnapshotFullCaptureInterval(5);
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
@@ -16,12 +16,20 @@ package io.prestosql.snapshot;
 
 import io.hetu.core.filesystem.HetuLocalFileSystemClient;
 import io.hetu.core.filesystem.LocalConfig;
+import io.prestosql.execution.TaskId;
 import io.prestosql.testing.assertions.Assert;
 import org.testng.annotations.Test;
 
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 
 public class TestSnapshotFileBasedClient
 {
@@ -53,4 +61,34 @@ public class TestSnapshotFileBasedClient
         //resultMap = (LinkedHashMap<Long, SnapshotResult>) client.loadSnapshotResult(queryId);
         //Assert.assertEquals(resultMap.size(), 0);
     }
+
+    /**
+     * Test states that are split into multiple parts and uploaded in parallel
+     * @throws Exception
+     */
+    @Test
+    public void testMultipartState()
+            throws Exception
+    {
+        ExecutorService executor = newFixedThreadPool(2, daemonThreadsNamed("test-snapshot-upload-%s"));
+        try {
+            SnapshotFileBasedClient client = new SnapshotFileBasedClient(new HetuLocalFileSystemClient(new LocalConfig(new Properties()), Paths.get(ROOT_PATH_STR)), Paths.get(ROOT_PATH_STR), executor, 1024, Optional.empty());
+            List<String> state = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                state.add("value-" + i);
+            }
+
+            SnapshotStateId stateId = SnapshotStateId.forOperator(1L, new TaskId("multipartquery", 1, 0), 2, 3, 4);
+            client.storeStateAsync(stateId, state).get();
+            Assert.assertEquals(client.loadState(stateId).get(), state);
+
+            // synchronous store overwrites the previous state
+            state.add("last");
+            client.storeState(stateId, state);
+            Assert.assertEquals(client.loadState(stateId).get(), state);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
 }
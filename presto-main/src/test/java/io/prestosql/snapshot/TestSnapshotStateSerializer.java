@@ -0,0 +1,292 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.snapshot;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.DynamicSliceOutput;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockEncodingSerde;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static io.prestosql.block.BlockAssertions.assertBlockEquals;
+import static io.prestosql.block.BlockAssertions.createLongsBlock;
+import static io.prestosql.block.BlockAssertions.createStringsBlock;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.operator.PageAssertions.assertPageEquals;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestSnapshotStateSerializer
+{
+    private static final BlockEncodingSerde BLOCK_ENCODING_SERDE = createTestMetadataManager().getFunctionAndTypeManager().getBlockEncodingSerde();
+
+    // Tags of the encoding, used to write invalid states
+    private static final byte OBJECT = 23;
+    private static final byte JAVA_SERIALIZED = 25;
+
+    @Test
+    public void testRoundTrip()
+            throws Exception
+    {
+        TestingState child = new TestingState();
+        child.count = 3;
+        TestingState state = new TestingState();
+        state.count = 42;
+        state.total = Long.MAX_VALUE;
+        state.ratio = 0.5;
+        state.flag = true;
+        state.letter = 'x';
+        state.name = "state";
+        state.positions = new int[] {1, 2, 3};
+        state.values = new long[] {Long.MIN_VALUE, 0, Long.MAX_VALUE};
+        state.data = new byte[] {1, 2};
+        state.kind = TestingKind.SECOND;
+        state.children = new ArrayList<>(Arrays.asList(child, null, child));
+        state.names = new HashMap<>();
+        state.names.put("a", 1L);
+        state.names.put("b", null);
+        state.keys = new LinkedHashSet<>(Arrays.asList("z", "y"));
+        state.other = ImmutableList.of(1, 2, 3);
+        state.self = state;
+
+        TestingState result = (TestingState) roundTrip(state);
+        assertEquals(result.count, 42);
+        assertEquals(result.total, Long.MAX_VALUE);
+        assertEquals(result.ratio, 0.5);
+        assertTrue(result.flag);
+        assertEquals(result.letter, 'x');
+        assertEquals(result.name, "state");
+        assertEquals(result.positions, new int[] {1, 2, 3});
+        assertEquals(result.values, new long[] {Long.MIN_VALUE, 0, Long.MAX_VALUE});
+        assertEquals(result.data, new byte[] {1, 2});
+        assertSame(result.kind, TestingKind.SECOND);
+        assertEquals(result.children.size(), 3);
+        assertEquals(result.children.get(0).count, 3);
+        assertNull(result.children.get(1));
+        // shared references and cycles are preserved
+        assertSame(result.children.get(0), result.children.get(2));
+        assertSame(result.self, result);
+        assertEquals(result.names, state.names);
+        assertEquals(ImmutableList.copyOf(result.keys), ImmutableList.of("z", "y"));
+        assertEquals(result.other, ImmutableList.of(1, 2, 3));
+    }
+
+    @Test
+    public void testArrays()
+            throws Exception
+    {
+        Object[] state = new Object[] {new double[] {1.5, -2}, new boolean[] {true, false}, new String[] {"a", null}, 7, 'c', (byte) 1, (short) 2, 1.5f};
+        Object[] result = (Object[]) roundTrip(state);
+        assertEquals(result[0], new double[] {1.5, -2});
+        assertEquals(result[1], new boolean[] {true, false});
+        assertEquals(result[2], new String[] {"a", null});
+        assertEquals(Arrays.asList(result).subList(3, result.length), Arrays.asList(state).subList(3, state.length));
+    }
+
+    @Test
+    public void testJavaSerializedState()
+            throws Exception
+    {
+        // states stored before the binary encoding was introduced are still readable
+        TestingState state = new TestingState();
+        state.name = "legacy";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutput = new ObjectOutputStream(output)) {
+            objectOutput.writeObject(state);
+        }
+        TestingState result = (TestingState) SnapshotUtils.deserializeState(new ByteArrayInputStream(output.toByteArray()));
+        assertEquals(result.name, "legacy");
+    }
+
+    @Test
+    public void testBlocksAndPages()
+            throws Exception
+    {
+        TestingBlockState state = new TestingBlockState();
+        state.block = createLongsBlock(1L, null, 3L);
+        state.page = new Page(createLongsBlock(4L, 5L), createStringsBlock("a", null));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        SnapshotUtils.serializeState(state, output, Optional.of(BLOCK_ENCODING_SERDE));
+        TestingBlockState result = (TestingBlockState) SnapshotUtils.deserializeState(new ByteArrayInputStream(output.toByteArray()), Optional.of(BLOCK_ENCODING_SERDE));
+        assertBlockEquals(BIGINT, result.block, state.block);
+        assertPageEquals(ImmutableList.of(BIGINT, VARCHAR), result.page, state.page);
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = ".*no BlockEncodingSerde.*")
+    public void testBlockWithoutBlockEncodingSerde()
+            throws Exception
+    {
+        TestingBlockState state = new TestingBlockState();
+        state.block = createLongsBlock(1L);
+        roundTrip(state);
+    }
+
+    @Test(expectedExceptions = InvalidClassException.class, expectedExceptionsMessageRegExp = "java.net.URI; Class is not allowed in snapshot states")
+    public void testDisallowedClassNotWritten()
+            throws Exception
+    {
+        roundTrip(URI.create("file:///tmp"));
+    }
+
+    @Test(expectedExceptions = InvalidClassException.class, expectedExceptionsMessageRegExp = "java.net.URI; Class is not allowed in snapshot states")
+    public void testDisallowedStateClass()
+            throws Exception
+    {
+        DynamicSliceOutput output = newStateOutput();
+        output.writeByte(OBJECT);
+        output.writeInt(-1);
+        writeString(output, URI.class.getName());
+        deserialize(output);
+    }
+
+    @Test(expectedExceptions = InvalidClassException.class, expectedExceptionsMessageRegExp = "java.net.URI; Class is not allowed in snapshot states")
+    public void testDisallowedJavaSerializedClass()
+            throws Exception
+    {
+        byte[] serialized = javaSerialize(URI.create("file:///tmp"));
+        DynamicSliceOutput output = newStateOutput();
+        output.writeByte(JAVA_SERIALIZED);
+        output.writeInt(serialized.length);
+        output.writeBytes(serialized);
+        deserialize(output);
+    }
+
+    @Test(expectedExceptions = InvalidClassException.class, expectedExceptionsMessageRegExp = "java.net.URI; Class is not allowed in snapshot states")
+    public void testDisallowedLegacyJavaSerializedClass()
+            throws Exception
+    {
+        SnapshotUtils.deserializeState(new ByteArrayInputStream(javaSerialize(URI.create("file:///tmp"))));
+    }
+
+    @Test(expectedExceptions = InvalidClassException.class, expectedExceptionsMessageRegExp = ".*TestingBlockState; Snapshot state has 3 fields, but the class has 2 fields")
+    public void testFieldCountMismatch()
+            throws Exception
+    {
+        DynamicSliceOutput output = newStateOutput();
+        output.writeByte(OBJECT);
+        output.writeInt(-1);
+        writeString(output, TestingBlockState.class.getName());
+        output.writeInt(3);
+        output.writeInt(0);
+        deserialize(output);
+    }
+
+    @Test(expectedExceptions = InvalidClassException.class, expectedExceptionsMessageRegExp = ".*TestingBlockState; Snapshot state was written for different fields of the class")
+    public void testFieldLayoutMismatch()
+            throws Exception
+    {
+        DynamicSliceOutput output = newStateOutput();
+        output.writeByte(OBJECT);
+        output.writeInt(-1);
+        writeString(output, TestingBlockState.class.getName());
+        output.writeInt(2);
+        output.writeInt(0);
+        deserialize(output);
+    }
+
+    private static Object roundTrip(Object state)
+            throws IOException, ClassNotFoundException
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        SnapshotUtils.serializeState(state, output);
+        return SnapshotUtils.deserializeState(new ByteArrayInputStream(output.toByteArray()));
+    }
+
+    private static DynamicSliceOutput newStateOutput()
+    {
+        DynamicSliceOutput output = new DynamicSliceOutput(64);
+        output.writeInt(Integer.reverseBytes(SnapshotStateSerializer.MAGIC));
+        return output;
+    }
+
+    private static void writeString(DynamicSliceOutput output, String value)
+    {
+        byte[] bytes = value.getBytes(UTF_8);
+        output.writeInt(bytes.length);
+        output.writeBytes(bytes);
+    }
+
+    private static Object deserialize(DynamicSliceOutput output)
+            throws IOException, ClassNotFoundException
+    {
+        return SnapshotUtils.deserializeState(new ByteArrayInputStream(output.slice().getBytes()));
+    }
+
+    private static byte[] javaSerialize(Object value)
+            throws IOException
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutput = new ObjectOutputStream(output)) {
+            objectOutput.writeObject(value);
+        }
+        return output.toByteArray();
+    }
+
+    private enum TestingKind
+    {
+        FIRST,
+        SECOND
+    }
+
+    private static class TestingState
+            implements Serializable
+    {
+        private int count;
+        private long total;
+        private double ratio;
+        private boolean flag;
+        private char letter;
+        private String name;
+        private int[] positions;
+        private long[] values;
+        private byte[] data;
+        private TestingKind kind;
+        private List<TestingState> children;
+        private Map<String, Long> names;
+        private Set<String> keys;
+        private List<Integer> other;
+        private TestingState self;
+    }
+
+    private static class TestingBlockState
+            implements Serializable
+    {
+        private Block<?> block;
+        private Page page;
+    }
+}
@@ -17,6 +17,8 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterators;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import io.airlift.slice.InputStreamSliceInput;
+import io.airlift.slice.Slices;
+import io.airlift.units.DataSize;
 import io.hetu.core.transport.execution.buffer.PageCodecMarker;
 import io.hetu.core.transport.execution.buffer.PagesSerdeUtil;
 import io.hetu.core.transport.execution.buffer.SerializedPage;
@@ -31,6 +33,7 @@ import org.testng.annotations.Test;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -38,6 +41,7 @@ import static com.google.common.io.MoreFiles.deleteRecursively;
 import static com.google.common.io.MoreFiles.listFiles;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.spi.type.BigintType.BIGINT;
@@ -74,31 +78,86 @@ public class TestFileSingleStreamSpiller
     public void testSpill()
             throws Exception
     {
-        assertSpill(false, false);
+        assertSpill(false, false, 0);
     }
 
     @Test
     public void testSpillCompression()
             throws Exception
     {
-        assertSpill(true, false);
+        assertSpill(true, false, 0);
     }
 
     @Test
     public void testSpillEncryption()
             throws Exception
     {
-        assertSpill(false, true);
+        assertSpill(false, true, 0);
     }
 
     @Test
     public void testSpillEncryptionWithCompression()
             throws Exception
     {
-        assertSpill(true, true);
+        assertSpill(true, true, 0);
     }
 
-    private void assertSpill(boolean compression, boolean encryption)
+    @Test
+    public void testSpillPipelined()
+            throws Exception
+    {
+        assertSpill(false, false, 2);
+    }
+
+    @Test
+    public void testSpillPipelinedEncryptionWithCompression()
+            throws Exception
+    {
+        assertSpill(true, true, 2);
+    }
+
+    @Test
+    public void testSpillPipelinedManyBatches()
+            throws Exception
+    {
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                listeningDecorator(newCachedThreadPool()),
+                createTestMetadataManager().getFunctionAndTypeManager().getBlockEncodingSerde(),
+                new SpillerStats(),
+                ImmutableList.of(spillPath.toPath()),
+                1.0,
+                true,
+                true,
+                3,
+                new DataSize(1, GIGABYTE));
+        try {
+            LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+            SingleStreamSpiller spiller = spillerFactory.create(TYPES, bytes -> {}, memoryContext);
+
+            // enough pages for many batches to be serialized concurrently, and read back in many batches
+            List<Page> pages = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                pages.add(buildPage(i, 1000));
+            }
+            spiller.spill(pages.iterator()).get();
+            spiller.spill(pages.get(0)).get();
+
+            List<Page> spilledPages = ImmutableList.copyOf(spiller.getSpilledPages());
+            assertEquals(spilledPages.size(), pages.size() + 1);
+            for (int i = 0; i < pages.size(); i++) {
+                PageAssertions.assertPageEquals(TYPES, spilledPages.get(i), pages.get(i));
+            }
+            PageAssertions.assertPageEquals(TYPES, spilledPages.get(pages.size()), pages.get(0));
+
+            spiller.close();
+            assertEquals(memoryContext.getBytes(), 0);
+        }
+        finally {
+            spillerFactory.destroy();
+        }
+    }
+
+    private void assertSpill(boolean compression, boolean encryption, int serializationThreads)
             throws Exception
     {
         FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
@@ -108,7 +167,10 @@ public class TestFileSingleStreamSpiller
                 ImmutableList.of(spillPath.toPath()),
                 1.0,
                 compression,
-                encryption);
+                encryption,
+                serializationThreads,
+                new DataSize(1, GIGABYTE));
+        long bufferSize = serializationThreads > 0 ? FileSingleStreamSpiller.PIPELINE_MEMORY_SIZE : FileSingleStreamSpiller.BUFFER_SIZE;
         LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
         SingleStreamSpiller singleStreamSpiller = spillerFactory.create(TYPES, bytes -> {}, memoryContext);
         assertTrue(singleStreamSpiller instanceof FileSingleStreamSpiller);
@@ -117,7 +179,7 @@ public class TestFileSingleStreamSpiller
         Page page = buildPage();
 
         // The spillers will reserve memory in their constructors
-        assertEquals(memoryContext.getBytes(), 4096);
+        assertEquals(memoryContext.getBytes(), bufferSize);
         spiller.spill(page).get();
         spiller.spill(Iterators.forArray(page, page, page)).get();
         assertEquals(listFiles(spillPath.toPath()).size(), 1);
@@ -135,7 +197,7 @@ public class TestFileSingleStreamSpiller
         // they will have non-zero memory reservation.
 
         Iterator<Page> spilledPagesIterator = spiller.getSpilledPages();
-        assertEquals(memoryContext.getBytes(), FileSingleStreamSpiller.BUFFER_SIZE);
+        assertEquals(memoryContext.getBytes(), bufferSize);
         ImmutableList<Page> spilledPages = ImmutableList.copyOf(spilledPagesIterator);
         // The spillers release their memory reservations when they are closed, therefore at this point
         // they will have non-zero memory reservation.
@@ -162,4 +224,17 @@ public class TestFileSingleStreamSpiller
 
         return new Page(col1.build(), col2.build(), col3.build());
     }
+
+    private static Page buildPage(int seed, int positionCount)
+    {
+        BlockBuilder col1 = BIGINT.createBlockBuilder(null, positionCount);
+        BlockBuilder col2 = DOUBLE.createBlockBuilder(null, positionCount);
+        BlockBuilder col3 = VARBINARY.createBlockBuilder(null, positionCount);
+        for (int position = 0; position < positionCount; position++) {
+            BIGINT.writeLong(col1, seed * positionCount + position);
+            DOUBLE.writeDouble(col2, seed + position / 2.0);
+            VARBINARY.writeSlice(col3, Slices.utf8Slice("value" + seed + "_" + position));
+        }
+        return new Page(col1.build(), col2.build(), col3.build());
+    }
 }
@@ -17,6 +17,9 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.io.Closer;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.airlift.units.DataSize;
+import io.prestosql.ExceededSpillLimitException;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.block.BlockEncodingSerde;
@@ -36,6 +39,7 @@ import static com.google.common.io.MoreFiles.deleteRecursively;
 import static com.google.common.io.MoreFiles.listFiles;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static com.google.common.util.concurrent.Futures.getUnchecked;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.spi.type.BigintType.BIGINT;
@@ -43,7 +47,10 @@ import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_PRE
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUFFIX;
 import static java.nio.file.Files.createTempDirectory;
 import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 @Test(singleThreaded = true)
 public class TestFileSingleStreamSpillerFactory
@@ -106,6 +113,83 @@ public class TestFileSingleStreamSpillerFactory
         assertEquals(listFiles(spillPath2.toPath()).size(), 0);
     }
 
+    @Test
+    public void testPlacesSpillsByWriteCost()
+    {
+        List<Type> types = ImmutableList.of(BIGINT);
+        List<Path> spillPaths = ImmutableList.of(spillPath1.toPath(), spillPath2.toPath());
+        SpillerStats spillerStats = new SpillerStats();
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                executor, // executor won't be closed, because we don't call destroy() on the spiller factory
+                blockEncodingSerde,
+                spillerStats,
+                spillPaths,
+                1.0,
+                false,
+                false);
+
+        // the second path writes ten times faster than the first one
+        spillerStats.getSpillPathStats(spillPath1.toPath()).recordWrite(64 * 1024 * 1024, SECONDS.toNanos(10));
+        spillerStats.getSpillPathStats(spillPath2.toPath()).recordWrite(64 * 1024 * 1024, SECONDS.toNanos(1));
+
+        List<SingleStreamSpiller> spillers = new ArrayList<>();
+        for (int i = 0; i < 4; ++i) {
+            SingleStreamSpiller spiller = spillerFactory.create(types, bytes -> {}, newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"));
+            assertEquals(spiller.getFile().getParent(), spillPath2.toPath());
+            spillers.add(spiller);
+        }
+
+        // until enough spills are writing to it that a new spill is written faster on the first path
+        SpillPathStats fastPathStats = spillerStats.getSpillPathStats(spillPath2.toPath());
+        for (int i = 0; i < 20; ++i) {
+            fastPathStats.writeStarted();
+        }
+        SingleStreamSpiller spiller = spillerFactory.create(types, bytes -> {}, newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"));
+        assertEquals(spiller.getFile().getParent(), spillPath1.toPath());
+        spillers.add(spiller);
+
+        spillers.forEach(SingleStreamSpiller::close);
+    }
+
+    @Test
+    public void testSpillPathQuota()
+    {
+        List<Type> types = ImmutableList.of(BIGINT);
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                executor, // executor won't be closed, because we don't call destroy() on the spiller factory
+                blockEncodingSerde,
+                new SpillerStats(),
+                ImmutableList.of(spillPath1.toPath()),
+                1.0,
+                false,
+                false,
+                0,
+                new DataSize(1, KILOBYTE));
+
+        SingleStreamSpiller spiller = spillerFactory.create(types, bytes -> {}, newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"));
+        getUnchecked(spiller.spill(buildPage()));
+        try {
+            getUnchecked(spiller.spill(buildPage(1000)));
+            fail("expected spill to exceed the quota of the spill path");
+        }
+        catch (UncheckedExecutionException e) {
+            assertTrue(e.getCause() instanceof ExceededSpillLimitException);
+            assertEquals(e.getCause().getMessage(), "Spill path " + spillPath1.toPath() + " exceeded its node limit of 1kB");
+        }
+        finally {
+            spiller.close();
+        }
+    }
+
+    private Page buildPage(int positionCount)
+    {
+        BlockBuilder col1 = BIGINT.createBlockBuilder(null, positionCount);
+        for (int i = 0; i < positionCount; i++) {
+            BIGINT.writeLong(col1, i);
+        }
+        return new Page(col1.build());
+    }
+
     private Page buildPage()
     {
         BlockBuilder col1 = BIGINT.createBlockBuilder(null, 1);
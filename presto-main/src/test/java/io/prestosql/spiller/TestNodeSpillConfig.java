@@ -33,8 +33,10 @@ public class TestNodeSpillConfig
         assertRecordedDefaults(ConfigAssertions.recordDefaults(NodeSpillConfig.class)
                 .setMaxSpillPerNode(new DataSize(100, GIGABYTE))
                 .setQueryMaxSpillPerNode(new DataSize(100, GIGABYTE))
+                .setMaxSpillPerPath(new DataSize(100, GIGABYTE))
                 .setSpillCompressionEnabled(false)
-                .setSpillEncryptionEnabled(false));
+                .setSpillEncryptionEnabled(false)
+                .setSpillSerializationThreads(0));
     }
 
     @Test
@@ -43,15 +45,19 @@ public class TestNodeSpillConfig
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("experimental.max-spill-per-node", "10MB")
                 .put("experimental.query-max-spill-per-node", "15 MB")
+                .put("experimental.max-spill-per-path", "20MB")
                 .put("experimental.spill-compression-enabled", "true")
                 .put("experimental.spill-encryption-enabled", "true")
+                .put("experimental.spill-serialization-threads", "4")
                 .build();
 
         NodeSpillConfig expected = new NodeSpillConfig()
                 .setMaxSpillPerNode(new DataSize(10, MEGABYTE))
                 .setQueryMaxSpillPerNode(new DataSize(15, MEGABYTE))
+                .setMaxSpillPerPath(new DataSize(20, MEGABYTE))
                 .setSpillCompressionEnabled(true)
-                .setSpillEncryptionEnabled(true);
+                .setSpillEncryptionEnabled(true)
+                .setSpillSerializationThreads(4);
 
         assertFullMapping(properties, expected);
     }
@@ -39,6 +39,9 @@ public class TestHetuConfig
                 .setIndexCacheLoadingThreads(10L)
                 .setIndexCacheLoadingDelay(new Duration(10, TimeUnit.SECONDS))
                 .setIndexCacheSoftReferenceEnabled(true)
+                .setIndexCacheDiskEnabled(false)
+                .setIndexCacheDiskDirectory("/tmp/hetu/index-cache")
+                .setIndexCacheDiskMaxSize(new DataSize(20, GIGABYTE))
                 .setIndexAutoload(true)
                 .setExecutionPlanCacheEnabled(false)
                 .setExecutionPlanCacheTimeout(86400000L)
@@ -70,6 +73,9 @@ public class TestHetuConfig
                 .put("hetu.heuristicindex.filter.cache.loading-delay", "1000ms")
                 .put("hetu.heuristicindex.filter.cache.ttl", "20m")
                 .put("hetu.heuristicindex.filter.cache.soft-reference", "false")
+                .put("hetu.heuristicindex.filter.cache.disk.enabled", "true")
+                .put("hetu.heuristicindex.filter.cache.disk.directory", "/tmp/index-cache")
+                .put("hetu.heuristicindex.filter.cache.disk.max-size", "5GB")
                 .put("hetu.executionplan.cache.enabled", "true")
                 .put("hetu.executionplan.cache.timeout", "6000")
                 .put("hetu.executionplan.cache.limit", "20000")
@@ -96,6 +102,9 @@ public class TestHetuConfig
                 .setIndexCacheLoadingThreads(5L)
                 .setIndexCacheLoadingDelay(new Duration(1000, TimeUnit.MILLISECONDS))
                 .setIndexCacheSoftReferenceEnabled(false)
+                .setIndexCacheDiskEnabled(true)
+                .setIndexCacheDiskDirectory("/tmp/index-cache")
+                .setIndexCacheDiskMaxSize(new DataSize(5, GIGABYTE))
                 .setIndexAutoload(false)
                 .setExecutionPlanCacheEnabled(true)
                 .setExecutionPlanCacheTimeout(6000L)
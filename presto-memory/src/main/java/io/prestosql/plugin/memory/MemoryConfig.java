@@ -43,6 +43,8 @@ public class MemoryConfig
     private Duration processingDelay = new Duration(5, TimeUnit.SECONDS);
     private Path spillRoot;
     private int threadPoolSize = Math.max((Runtime.getRuntime().availableProcessors() / 2), 1);
+    private boolean mappedStorageEnabled;
+    private boolean rowIndexEnabled;
 
     @NotNull
     public Path getSpillRoot()
@@ -149,4 +151,30 @@ public class MemoryConfig
         this.threadPoolSize = threadPoolSize;
         return this;
     }
+
+    public boolean isMappedStorageEnabled()
+    {
+        return mappedStorageEnabled;
+    }
+
+    @Config("memory.mapped-storage-enabled")
+    @ConfigDescription("Keep processed LogicalParts in memory-mapped spill files and decode pages on scan instead of holding them on heap (default: false)")
+    public MemoryConfig setMappedStorageEnabled(boolean mappedStorageEnabled)
+    {
+        this.mappedStorageEnabled = mappedStorageEnabled;
+        return this;
+    }
+
+    public boolean isRowIndexEnabled()
+    {
+        return rowIndexEnabled;
+    }
+
+    @Config("memory.row-index-enabled")
+    @ConfigDescription("Build a row index on index columns so equality and IN lookups only return matching rows (default: false)")
+    public MemoryConfig setRowIndexEnabled(boolean rowIndexEnabled)
+    {
+        this.rowIndexEnabled = rowIndexEnabled;
+        return this;
+    }
 }
@@ -15,6 +15,7 @@ package io.prestosql.plugin.memory;
 
 import io.prestosql.plugin.memory.data.MemoryTableManager;
 import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorPageSource;
 import io.prestosql.spi.connector.ConnectorPageSourceProvider;
@@ -27,7 +28,6 @@ import io.prestosql.spi.dynamicfilter.DynamicFilter;
 import io.prestosql.spi.dynamicfilter.DynamicFilterSupplier;
 import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.spi.type.TypeManager;
-import io.prestosql.spi.type.TypeUtils;
 
 import javax.inject.Inject;
 
@@ -106,26 +106,31 @@ public final class MemoryPageSourceProvider
 
     private Page applyFilter(Page page, Optional<DynamicFilterSupplier> dynamicFilters, List<ColumnHandle> columns)
     {
-        if (!dynamicFilters.isPresent()) {
+        if (!dynamicFilters.isPresent() || dynamicFilters.get().getDynamicFilters().isEmpty()) {
             return page;
         }
-        int[] positions = new int[page.getPositionCount()];
-        int length = 0;
-        for (int i = 0; i < page.getPositionCount(); ++i) {
-            boolean union = false;
-            for (Map<ColumnHandle, DynamicFilter> filter : dynamicFilters.get().getDynamicFilters()) {
-                boolean match = true;
-                for (Map.Entry<ColumnHandle, DynamicFilter> entry : filter.entrySet()) {
-                    MemoryColumnHandle columnHandle = (MemoryColumnHandle) entry.getKey();
-                    DynamicFilter dynamicFilter = entry.getValue();
-                    Object value = TypeUtils.readNativeValue(columnHandle.getType(typeManager), page.getBlock(columns.indexOf(columnHandle)), i);
-                    if (!dynamicFilter.contains(value)) {
-                        match = false;
-                    }
-                }
-                union = union || match;
+        int positionCount = page.getPositionCount();
+        boolean[] union = new boolean[positionCount];
+        int[] candidates = new int[positionCount];
+        for (Map<ColumnHandle, DynamicFilter> filter : dynamicFilters.get().getDynamicFilters()) {
+            for (int i = 0; i < positionCount; ++i) {
+                candidates[i] = i;
+            }
+            int candidateCount = positionCount;
+            for (Map.Entry<ColumnHandle, DynamicFilter> entry : filter.entrySet()) {
+                MemoryColumnHandle columnHandle = (MemoryColumnHandle) entry.getKey();
+                DynamicFilter dynamicFilter = entry.getValue();
+                Block block = page.getBlock(columns.indexOf(columnHandle));
+                candidateCount = dynamicFilter.contains(block, columnHandle.getType(typeManager), candidates, candidateCount);
+            }
+            for (int i = 0; i < candidateCount; ++i) {
+                union[candidates[i]] = true;
             }
-            if (dynamicFilters.get().getDynamicFilters().isEmpty() || union) {
+        }
+        int[] positions = new int[positionCount];
+        int length = 0;
+        for (int i = 0; i < positionCount; ++i) {
+            if (union[i]) {
                 positions[length++] = i;
             }
         }
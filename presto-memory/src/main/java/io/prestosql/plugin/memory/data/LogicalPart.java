@@ -22,9 +22,11 @@ import io.airlift.slice.OutputStreamSliceOutput;
 import io.airlift.slice.Slice;
 import io.airlift.slice.SliceInput;
 import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
 import io.airlift.units.DataSize;
 import io.hetu.core.transport.execution.buffer.PagesSerde;
 import io.hetu.core.transport.execution.buffer.PagesSerdeUtil;
+import io.hetu.core.transport.execution.buffer.SerializedPage;
 import io.prestosql.plugin.memory.MemoryColumnHandle;
 import io.prestosql.plugin.memory.SortingColumn;
 import io.prestosql.spi.Page;
@@ -49,10 +51,14 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -91,6 +97,8 @@ public class LogicalPart
     private final int maxPageSizeBytes;
     private final int logicalPartNum;
     private final boolean compressionEnabled;
+    private final boolean mappedStorageEnabled;
+    private final boolean rowIndexEnabled;
 
     // indexes
     /*
@@ -125,6 +133,13 @@ public class LogicalPart
     private final TreeMap<Comparable, SparseValue> sparseIdx = new TreeMap<>();
     private final Map<Integer, BloomFilter> bloomIdx = new HashMap<>();
     private final Map<Integer, Map.Entry<Comparable, Comparable>> minMaxIdx = new HashMap<>();
+    /*
+    Row index is an optional inverted index on index columns. For each column it maps a value to
+    all the rows containing it, a row is encoded as (page index << 32 | position) and rows are kept in ascending order.
+    Equality and IN lookups use it to return only the matching positions of each page.
+    Not final, parts written before the row index existed are restored without it.
+     */
+    private Map<Integer, Map<Object, long[]>> rowIdx = new HashMap<>();
 
     private transient Path tableDataRoot;
     private transient PagesSerde pagesSerde;
@@ -133,6 +148,9 @@ public class LogicalPart
     private transient List<Type> types;
     // Using majority of memory and disk space. Serialized and deserialized separately. Only loaded when used.
     private transient List<Page> pages;
+    // Still encoded pages of the read-only mapping of the page file when mapped storage is used.
+    // Each one is a view of the mapping, so a scan decodes only the pages it reads.
+    private transient List<SerializedPage> mappedPages;
 
     public LogicalPart(
             List<MemoryColumnHandle> columns,
@@ -145,7 +163,9 @@ public class LogicalPart
             TypeManager typeManager,
             PagesSerde pagesSerde,
             int logicalPartNum,
-            boolean compressionEnabled)
+            boolean compressionEnabled,
+            boolean mappedStorageEnabled,
+            boolean rowIndexEnabled)
     {
         this.tableDataRoot = tableDataRoot;
         this.logicalPartNum = logicalPartNum;
@@ -153,6 +173,8 @@ public class LogicalPart
         this.maxLogicalPartBytes = maxLogicalPartBytes;
         this.maxPageSizeBytes = maxPageSizeBytes;
         this.compressionEnabled = compressionEnabled;
+        this.mappedStorageEnabled = mappedStorageEnabled;
+        this.rowIndexEnabled = rowIndexEnabled;
         this.pagesSerde = requireNonNull(pagesSerde, "pagesSerde is null");
         this.pageSorter = requireNonNull(pageSorter, "pageSorter is null");
         requireNonNull(columns, "columns is null");
@@ -230,6 +252,16 @@ public class LogicalPart
     void unloadPages()
     {
         pages = null;
+        mappedPages = null;
+    }
+
+    /**
+     * Gzip compressed page files can't be decoded in place, so those LogicalParts
+     * keep loading their pages onto the heap even if mapped storage is enabled.
+     */
+    private boolean isMappedStorage()
+    {
+        return mappedStorageEnabled && !compressionEnabled;
     }
 
     void finishAdding()
@@ -241,6 +273,9 @@ public class LogicalPart
     {
         if (!pageInMemory()) {
             try {
+                if (isMappedStorage()) {
+                    return readMappedPages();
+                }
                 readPages();
             }
             catch (Exception e) {
@@ -250,6 +285,22 @@ public class LogicalPart
         return pages;
     }
 
+    /**
+     * Get a single page, with mapped storage only this page is decoded
+     */
+    private Page getPage(int pageIndex)
+    {
+        if (!pageInMemory() && isMappedStorage()) {
+            try {
+                return pagesSerde.deserialize(mapPages().get(pageIndex));
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException("Failed to map pages from " + getPageFileName(), e);
+            }
+        }
+        return getPages().get(pageIndex);
+    }
+
     /**
      * The Domains in TupleDomain are all ANDed together,
      * this means if any one of the Domains don't match
@@ -265,6 +316,9 @@ public class LogicalPart
      * <p>
      * if the lookup value is 150, the sparse index returns false bc 150 is not found but
      * 150 is still in the list with key 100
+     * <p>
+     * If a column with a row index only has equality or IN predicates, the row index is used instead
+     * and only the matching positions of each page are returned.
      *
      * @param predicate
      * @return
@@ -279,6 +333,7 @@ public class LogicalPart
         Map<Integer, List<Range>> minmaxChannelsToRangesMap = new HashMap<>();
         Map<Integer, List<Range>> bloomChannelsToRangesMap = new HashMap<>();
         Map<Integer, List<Range>> sparseChannelsToRangesMap = new HashMap<>();
+        Map<Integer, List<Range>> rowChannelsToRangesMap = new HashMap<>();
         for (Map.Entry<ColumnHandle, Domain> e : predicate.getDomains().orElse(Collections.emptyMap()).entrySet()) {
             int expressionColumnIndex = ((MemoryColumnHandle) e.getKey()).getColumnIndex();
             List<Range> ranges = ((SortedRangeSet) e.getValue().getValues()).getOrderedRanges();
@@ -299,6 +354,15 @@ public class LogicalPart
             if (sortChannels.contains(expressionColumnIndex)) {
                 sparseChannelsToRangesMap.put(expressionColumnIndex, ranges);
             }
+
+            if (rowIdx.containsKey(expressionColumnIndex) && ranges.stream().allMatch(Range::isSingleValue)) {
+                rowChannelsToRangesMap.put(expressionColumnIndex, ranges);
+            }
+        }
+
+        // row index finds the exact rows, the page level indexes can't narrow it down further
+        if (!rowChannelsToRangesMap.isEmpty()) {
+            return getRowIndexedPages(rowChannelsToRangesMap);
         }
 
         // no index to help with filtering
@@ -567,7 +631,7 @@ public class LogicalPart
 
             List<Page> resultPageList = new ArrayList<>();
             for (Integer idx : result) {
-                resultPageList.add(getPages().get(idx));
+                resultPageList.add(getPage(idx));
             }
             return resultPageList;
         }
@@ -575,6 +639,85 @@ public class LogicalPart
         return getPages();
     }
 
+    /**
+     * Applies the row index. Rows matching any value of a column are ORed, and the rows of
+     * different columns are ANDed together. This method assumes that the row index exists for the provided columns.
+     *
+     * @param rowChannelsToRangesMap columns with equality or IN predicates only
+     * @return the matching positions of each page, as DictionaryBlock backed pages
+     */
+    List<Page> getRowIndexedPages(Map<Integer, List<Range>> rowChannelsToRangesMap)
+    {
+        long[] rows = null;
+        for (Map.Entry<Integer, List<Range>> e : rowChannelsToRangesMap.entrySet()) {
+            Map<Object, long[]> columnRowIdx = rowIdx.get(e.getKey());
+            List<long[]> matches = new ArrayList<>();
+            int matchCount = 0;
+            for (Range range : e.getValue()) {
+                long[] valueRows = columnRowIdx.get(getNativeValue(range.getSingleValue()));
+                if (valueRows != null) {
+                    matches.add(valueRows);
+                    matchCount += valueRows.length;
+                }
+            }
+
+            long[] columnRows = new long[matchCount];
+            int offset = 0;
+            for (long[] valueRows : matches) {
+                System.arraycopy(valueRows, 0, columnRows, offset, valueRows.length);
+                offset += valueRows.length;
+            }
+            // rows of different values never overlap, sorting restores page and position order
+            if (matches.size() > 1) {
+                Arrays.sort(columnRows);
+            }
+
+            rows = rows == null ? columnRows : intersect(rows, columnRows);
+            if (rows.length == 0) {
+                return Collections.emptyList();
+            }
+        }
+
+        List<Page> result = new ArrayList<>();
+        int start = 0;
+        while (start < rows.length) {
+            int pageIndex = (int) (rows[start] >>> 32);
+            int end = start + 1;
+            while (end < rows.length && (int) (rows[end] >>> 32) == pageIndex) {
+                end++;
+            }
+            int[] positions = new int[end - start];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = (int) rows[start + i];
+            }
+            result.add(getPage(pageIndex).getPositions(positions, 0, positions.length));
+            start = end;
+        }
+        return result;
+    }
+
+    private static long[] intersect(long[] rows1, long[] rows2)
+    {
+        long[] result = new long[Math.min(rows1.length, rows2.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < rows1.length && j < rows2.length) {
+            if (rows1[i] < rows2[j]) {
+                i++;
+            }
+            else if (rows1[i] > rows2[j]) {
+                j++;
+            }
+            else {
+                result[size++] = rows1[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
     private Integer getLowerPageIndex(Comparable lowestInDom, Comparable lowBound, boolean includeLowBound, Comparable highBound, boolean includeHighBound)
     {
         Map.Entry<Comparable, SparseValue> lowerSparseEntry;
@@ -716,10 +859,18 @@ public class LogicalPart
             }
 
             bloomIdx.put(indexChannel, filter);
+
+            if (rowIndexEnabled) {
+                createRowIndex(indexChannel);
+            }
         }
 
         try {
             writePages();
+            if (isMappedStorage()) {
+                // from now on pages are decoded from the mapped page file, release the heap copy
+                unloadPages();
+            }
         }
         catch (Exception e) {
             LOG.error("Error spilling LogicalPart " + getPageFileName() + " to disk. Restoring will be unavailable.", e);
@@ -727,6 +878,32 @@ public class LogicalPart
         this.processingState.set(LogicalPartState.COMPLETED);
     }
 
+    private void createRowIndex(int channel)
+    {
+        Map<Object, RowListBuilder> builders = new HashMap<>();
+        List<Page> pages = getPages();
+        for (int pageIndex = 0; pageIndex < pages.size(); pageIndex++) {
+            Block block = pages.get(pageIndex).getBlock(channel);
+            for (int position = 0; position < block.getPositionCount(); position++) {
+                Object value = getNativeValue(types.get(channel), block, position);
+                if (value == null) {
+                    continue;
+                }
+                if (!(value instanceof Long || value instanceof Double || value instanceof String)) {
+                    LOG.warn("Unsupported row index column type %s", value.getClass().getSimpleName());
+                    return;
+                }
+                builders.computeIfAbsent(value, k -> new RowListBuilder()).add(((long) pageIndex << 32) | position);
+            }
+        }
+
+        Map<Object, long[]> columnRowIdx = new HashMap<>(builders.size());
+        for (Map.Entry<Object, RowListBuilder> entry : builders.entrySet()) {
+            columnRowIdx.put(entry.getKey(), entry.getValue().build());
+        }
+        rowIdx.put(channel, columnRowIdx);
+    }
+
     private String getPageFileName()
     {
         return "logicalPartNumber" + logicalPartNum;
@@ -754,6 +931,42 @@ public class LogicalPart
         LOG.debug("[Load] %s completed. Time elapsed: %dms", pagesFile.toString(), dur);
     }
 
+    /**
+     * Decode pages from the memory-mapped page file. The decoded pages are not retained,
+     * so heap usage only lasts as long as the scan holding them.
+     */
+    private List<Page> readMappedPages()
+            throws IOException
+    {
+        List<Page> result = new ArrayList<>();
+        for (SerializedPage page : mapPages()) {
+            result.add(pagesSerde.deserialize(page));
+        }
+        return result;
+    }
+
+    /**
+     * Map the page file written by {@link #writePages()}, the mapping is shared by all scans of this LogicalPart.
+     * Only the page headers are read here, the page data is decoded when a scan asks for the page.
+     */
+    private synchronized List<SerializedPage> mapPages()
+            throws IOException
+    {
+        if (mappedPages == null) {
+            long start = System.currentTimeMillis();
+            Path pagesFile = tableDataRoot.resolve(TABLE_DATA_FOLDER).resolve(getPageFileName());
+            try (FileChannel channel = FileChannel.open(pagesFile, StandardOpenOption.READ)) {
+                Slice mapping = Slices.wrappedBuffer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+                List<SerializedPage> serializedPages = new ArrayList<>();
+                PagesSerdeUtil.readSerializedPages(mapping.getInput()).forEachRemaining(serializedPages::add);
+                mappedPages = serializedPages;
+            }
+            long dur = System.currentTimeMillis() - start;
+            LOG.debug("[Map] %s completed. Time elapsed: %dms", pagesFile.toString(), dur);
+        }
+        return mappedPages;
+    }
+
     /**
      * Serialize pages to disk
      * @throws IOException
@@ -909,6 +1122,9 @@ public class LogicalPart
             throws ClassNotFoundException, IOException
     {
         in.defaultReadObject();
+        if (rowIdx == null) {
+            rowIdx = new HashMap<>();
+        }
         int typeSize = in.readInt();
         this.typeSignatures = new ArrayList<>(typeSize);
         for (int i = 0; i < typeSize; i++) {
@@ -926,6 +1142,25 @@ public class LogicalPart
         }
     }
 
+    private static class RowListBuilder
+    {
+        private long[] rows = new long[4];
+        private int size;
+
+        void add(long row)
+        {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+
+        long[] build()
+        {
+            return Arrays.copyOf(rows, size);
+        }
+    }
+
     static class SparseValue
             implements Serializable
     {
@@ -80,6 +80,7 @@ public class Table
                     Number.class.getCanonicalName(),
                     Integer.class.getCanonicalName(),
                     Long.class.getCanonicalName(),
+                    Double.class.getCanonicalName(),
                     Table.class.getName(),
                     AtomicInteger.class.getName(),
                     List.class.getName(),
@@ -109,6 +110,8 @@ public class Table
     private final int maxPageSizeBytes;
     private final List<LogicalPart> logicalParts; // actual data (pages) stored here
     private final boolean compressionEnabled;
+    private final boolean mappedStorageEnabled;
+    private final boolean rowIndexEnabled;
     private TableState tableState;
     private long byteSize;
     private final long id;
@@ -128,6 +131,8 @@ public class Table
         this.maxLogicalPartBytes = config.getMaxLogicalPartSize().toBytes();
         this.maxPageSizeBytes = Long.valueOf(config.getMaxPageSize().toBytes()).intValue();
         this.compressionEnabled = compressionEnabled;
+        this.mappedStorageEnabled = config.isMappedStorageEnabled();
+        this.rowIndexEnabled = config.isRowIndexEnabled();
         this.columns = requireNonNull(columns, "columns is null");
         this.sortedBy = requireNonNull(sortedBy, "sortedBy is null");
         this.indexColumns = requireNonNull(indexColumns, "indexColumns is null");
@@ -161,7 +166,7 @@ public class Table
     public void add(Page page)
     {
         if (logicalParts.isEmpty() || !logicalParts.get(logicalParts.size() - 1).canAdd()) {
-            this.logicalParts.add(new LogicalPart(columns, sortedBy, indexColumns, tableDataRoot, pageSorter, maxLogicalPartBytes, maxPageSizeBytes, typeManager, pagesSerde, logicalParts.size() + 1, compressionEnabled));
+            this.logicalParts.add(new LogicalPart(columns, sortedBy, indexColumns, tableDataRoot, pageSorter, maxLogicalPartBytes, maxPageSizeBytes, typeManager, pagesSerde, logicalParts.size() + 1, compressionEnabled, mappedStorageEnabled, rowIndexEnabled));
         }
         logicalParts.get(logicalParts.size() - 1).add(page);
         byteSize += page.getSizeInBytes();
@@ -18,20 +18,28 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.hetu.core.transport.execution.buffer.PagesSerde;
 import io.prestosql.RowPagesBuilder;
+import io.prestosql.plugin.memory.MemoryColumnHandle;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageSorter;
 import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.DictionaryBlock;
 import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.predicate.SortedRangeSet;
+import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.spi.predicate.ValueSet;
 import io.prestosql.spi.type.IntegerType;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeManager;
+import io.prestosql.spi.type.testing.TestingTypeManager;
 import io.prestosql.spi.util.BloomFilter;
+import io.prestosql.testing.TestingPagesSerdeFactory;
 import org.mockito.Mockito;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.testng.annotations.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.AbstractMap;
 import java.util.ArrayList;
@@ -55,8 +63,11 @@ import static io.prestosql.spi.predicate.Range.range;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 public class TestLogicalPart
@@ -166,6 +177,8 @@ public class TestLogicalPart
                 mock(TypeManager.class),
                 mock(PagesSerde.class),
                 0,
+                false,
+                false,
                 false);
         AtomicReference<LogicalPart.LogicalPartState> processingState = new AtomicReference<>(LogicalPart.LogicalPartState.COMPLETED);
         ReflectionTestUtils.setField(logicalPart, "processingState", processingState);
@@ -857,6 +870,8 @@ public class TestLogicalPart
                 mock(TypeManager.class),
                 mock(PagesSerde.class),
                 0,
+                false,
+                false,
                 false);
 
         AtomicReference<LogicalPart.LogicalPartState> processingState = new AtomicReference<>(LogicalPart.LogicalPartState.COMPLETED);
@@ -1000,6 +1015,8 @@ public class TestLogicalPart
                 mock(TypeManager.class),
                 mock(PagesSerde.class),
                 0,
+                false,
+                false,
                 false);
 
         AtomicReference<LogicalPart.LogicalPartState> processingState = new AtomicReference<>(LogicalPart.LogicalPartState.COMPLETED);
@@ -2130,6 +2147,126 @@ public class TestLogicalPart
         assertTrue(areListPagesEqual(result, newPages.subList(1, 3)));
     }
 
+    @Test
+    public void testMappedStorage()
+            throws IOException
+    {
+        Path tableDataRoot = Files.createTempDirectory("test-logical-part");
+        LogicalPart logicalPart = new LogicalPart(
+                Collections.emptyList(),
+                Collections.emptyList(),
+                Collections.emptyList(),
+                tableDataRoot,
+                mock(PageSorter.class),
+                Long.MAX_VALUE,
+                0,
+                mock(TypeManager.class),
+                new TestingPagesSerdeFactory().createPagesSerde(),
+                1,
+                false,
+                true,
+                false);
+        List<Page> pages = buildFourByThreePagesList(PAGE_VALUES);
+        pages.forEach(logicalPart::add);
+        logicalPart.finishAdding();
+        logicalPart.process();
+
+        // pages are released from the heap once written and decoded from the mapped file on every scan
+        assertFalse(logicalPart.pageInMemory());
+        for (int scan = 0; scan < 2; scan++) {
+            List<Page> result = logicalPart.getPages();
+            assertEquals(result.size(), pages.size());
+            for (int i = 0; i < pages.size(); i++) {
+                assertEquals(result.get(i).getPositionCount(), pages.get(i).getPositionCount());
+                for (int position = 0; position < pages.get(i).getPositionCount(); position++) {
+                    assertEquals(IntegerType.INTEGER.getLong(result.get(i).getBlock(0), position), IntegerType.INTEGER.getLong(pages.get(i).getBlock(0), position));
+                }
+            }
+            assertFalse(logicalPart.pageInMemory());
+        }
+    }
+
+    @Test
+    public void testRowIndex()
+            throws IOException
+    {
+        MemoryColumnHandle column = new MemoryColumnHandle("a", 0, IntegerType.INTEGER.getTypeSignature());
+        LogicalPart logicalPart = new LogicalPart(
+                ImmutableList.of(column),
+                Collections.emptyList(),
+                ImmutableList.of("a"),
+                Files.createTempDirectory("test-logical-part"),
+                mock(PageSorter.class),
+                Long.MAX_VALUE,
+                0,
+                new TestingTypeManager(),
+                new TestingPagesSerdeFactory().createPagesSerde(),
+                1,
+                false,
+                false,
+                true);
+        buildFourByThreePagesList(PAGE_VALUES).forEach(logicalPart::add);
+        logicalPart.finishAdding();
+        logicalPart.process();
+
+        // 2 and 7 are in pages 0, 1 and 3
+        List<Page> result = logicalPart.getPages(TupleDomain.withColumnDomains(ImmutableMap.of(column, Domain.create(ValueSet.ofRanges(
+                equal(IntegerType.INTEGER, 2L), equal(IntegerType.INTEGER, 7L)), false))));
+        assertEquals(result.size(), 3);
+        assertEquals(result.get(0).getPositionCount(), 3);
+        assertEquals(result.get(1).getPositionCount(), 2);
+        assertEquals(result.get(2).getPositionCount(), 3);
+        for (Page page : result) {
+            assertTrue(page.getBlock(0) instanceof DictionaryBlock);
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                long value = IntegerType.INTEGER.getLong(page.getBlock(0), position);
+                assertTrue(value == 2L || value == 7L);
+            }
+        }
+
+        result = logicalPart.getPages(TupleDomain.withColumnDomains(ImmutableMap.of(column, Domain.singleValue(IntegerType.INTEGER, 4L))));
+        assertEquals(result.size(), 1);
+        assertEquals(result.get(0).getPositionCount(), 1);
+        assertEquals(IntegerType.INTEGER.getLong(result.get(0).getBlock(0), 0), 4L);
+
+        result = logicalPart.getPages(TupleDomain.withColumnDomains(ImmutableMap.of(column, Domain.singleValue(IntegerType.INTEGER, 6L))));
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void testRowIndexOnMappedStorage()
+            throws IOException
+    {
+        MemoryColumnHandle column = new MemoryColumnHandle("a", 0, IntegerType.INTEGER.getTypeSignature());
+        LogicalPart logicalPart = new LogicalPart(
+                ImmutableList.of(column),
+                Collections.emptyList(),
+                ImmutableList.of("a"),
+                Files.createTempDirectory("test-logical-part"),
+                mock(PageSorter.class),
+                Long.MAX_VALUE,
+                0,
+                new TestingTypeManager(),
+                new TestingPagesSerdeFactory().createPagesSerde(),
+                1,
+                false,
+                true,
+                true);
+        buildFourByThreePagesList(PAGE_VALUES).forEach(logicalPart::add);
+        logicalPart.finishAdding();
+        logicalPart.process();
+        assertFalse(logicalPart.pageInMemory());
+
+        // only the pages holding matching rows are decoded from the mapped file
+        LogicalPart spyLogicalPart = spy(logicalPart);
+        List<Page> result = spyLogicalPart.getPages(TupleDomain.withColumnDomains(ImmutableMap.of(column, Domain.singleValue(IntegerType.INTEGER, 4L))));
+        assertEquals(result.size(), 1);
+        assertEquals(result.get(0).getPositionCount(), 1);
+        assertEquals(IntegerType.INTEGER.getLong(result.get(0).getBlock(0), 0), 4L);
+        verify(spyLogicalPart, never()).getPages();
+        assertFalse(spyLogicalPart.pageInMemory());
+    }
+
     static class BlockComparator
             implements Comparator<long[]>
     {
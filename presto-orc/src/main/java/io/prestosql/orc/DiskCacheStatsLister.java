@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import com.google.inject.Inject;
+import org.weakref.jmx.Managed;
+
+public class DiskCacheStatsLister
+{
+    private final OrcDiskCacheStats stats;
+    private final OrcCacheStore orcCacheStore;
+
+    @Inject
+    public DiskCacheStatsLister(OrcCacheStore orcCacheStore)
+    {
+        this.orcCacheStore = orcCacheStore;
+        this.stats = orcCacheStore.getDiskCache().map(OrcDiskCache::getStats).orElseGet(OrcDiskCacheStats::new);
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return stats.getHitCount();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return stats.getMissCount();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        return stats.getHitRate();
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return stats.getEvictionCount();
+    }
+
+    @Managed
+    public long getReadBytes()
+    {
+        return stats.getReadBytes();
+    }
+
+    @Managed
+    public long getWrittenBytes()
+    {
+        return stats.getWrittenBytes();
+    }
+
+    @Managed
+    public long getWriteFailureCount()
+    {
+        return stats.getWriteFailureCount();
+    }
+
+    @Managed
+    public long getSkippedWriteCount()
+    {
+        return stats.getSkippedWriteCount();
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return orcCacheStore.getDiskCache().map(OrcDiskCache::getSize).orElse(0L);
+    }
+
+    @Managed
+    public long getBlockCount()
+    {
+        return orcCacheStore.getDiskCache().map(OrcDiskCache::getBlockCount).orElse(0L);
+    }
+}
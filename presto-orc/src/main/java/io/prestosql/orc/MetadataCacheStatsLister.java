@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2018-2020. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import com.google.inject.Inject;
+import org.weakref.jmx.Managed;
+
+public class MetadataCacheStatsLister
+{
+    private final OrcMetadataCache cache;
+
+    @Inject
+    public MetadataCacheStatsLister(OrcCacheStore orcCacheStore)
+    {
+        this.cache = orcCacheStore.getMetadataCache();
+    }
+
+    @Managed
+    public long getMaximumWeight()
+    {
+        return cache.getMaximumWeight();
+    }
+
+    @Managed
+    public long getWeight()
+    {
+        return cache.getWeight();
+    }
+}
@@ -18,13 +18,29 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.Weigher;
 import io.airlift.units.DataSize;
+import io.prestosql.orc.metadata.ColumnEncoding;
+import io.prestosql.orc.metadata.ColumnMetadata;
+import io.prestosql.orc.metadata.Footer;
+import io.prestosql.orc.metadata.OrcType;
+import io.prestosql.orc.metadata.PostScript;
 import io.prestosql.orc.metadata.RowGroupIndex;
 import io.prestosql.orc.metadata.StripeFooter;
+import io.prestosql.orc.metadata.StripeInformation;
+import io.prestosql.orc.metadata.statistics.ColumnStatistics;
 import io.prestosql.orc.metadata.statistics.HashableBloomFilter;
 import io.prestosql.spi.block.Block;
+import org.openjdk.jol.info.ClassLayout;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static io.airlift.slice.SizeOf.sizeOfCharArray;
+import static java.util.Objects.requireNonNull;
 
 public class OrcCacheStore
 {
@@ -34,11 +50,27 @@ public class OrcCacheStore
             null,
             null);
 
+    private static final int REFERENCE_SIZE = 4;
+    private static final int LIST_INSTANCE_SIZE = ClassLayout.parseClass(ArrayList.class).instanceSize();
+    private static final int STRING_INSTANCE_SIZE = ClassLayout.parseClass(String.class).instanceSize();
+    private static final int INTEGER_INSTANCE_SIZE = ClassLayout.parseClass(Integer.class).instanceSize();
+    private static final int FILE_TAIL_INSTANCE_SIZE = ClassLayout.parseClass(OrcFileTail.class).instanceSize()
+            + ClassLayout.parseClass(Footer.class).instanceSize()
+            + ClassLayout.parseClass(PostScript.class).instanceSize();
+    private static final int STRIPE_INFORMATION_INSTANCE_SIZE = ClassLayout.parseClass(StripeInformation.class).instanceSize() + REFERENCE_SIZE;
+    private static final int ORC_TYPE_INSTANCE_SIZE = ClassLayout.parseClass(OrcType.class).instanceSize() + REFERENCE_SIZE;
+    private static final int STRIPE_FOOTER_INSTANCE_SIZE = ClassLayout.parseClass(StripeFooter.class).instanceSize();
+    private static final int STREAM_INSTANCE_SIZE = ClassLayout.parseClass(io.prestosql.orc.metadata.Stream.class).instanceSize();
+    private static final int COLUMN_ENCODING_INSTANCE_SIZE = ClassLayout.parseClass(ColumnEncoding.class).instanceSize();
+    private static final int ROW_GROUP_INDEX_INSTANCE_SIZE = ClassLayout.parseClass(RowGroupIndex.class).instanceSize();
+
+    private OrcMetadataCache metadataCache;
     private Cache<OrcFileTailCacheKey, OrcFileTail> fileTailCache;
     private Cache<OrcStripeFooterCacheKey, StripeFooter> stripeFooterCache;
     private Cache<OrcRowIndexCacheKey, List<RowGroupIndex>> rowIndexCache;
     private Cache<OrcBloomFilterCacheKey, List<HashableBloomFilter>> bloomFiltersCache;
     private Cache<OrcRowDataCacheKey, Block> rowDataCache;
+    private Optional<OrcDiskCache> diskCache = Optional.empty();
 
     private OrcCacheStore()
     {
@@ -83,6 +115,85 @@ public class OrcCacheStore
         return rowDataCache;
     }
 
+    /**
+     * Cache holding the file tails, stripe footers, row indexes and bloom filters, null if nothing is cached
+     */
+    public OrcMetadataCache getMetadataCache()
+    {
+        return metadataCache;
+    }
+
+    /**
+     * Local disk cache of the file contents, if enabled
+     */
+    public Optional<OrcDiskCache> getDiskCache()
+    {
+        return diskCache;
+    }
+
+    static long getFileTailRetainedSize(OrcFileTail fileTail)
+    {
+        long size = FILE_TAIL_INSTANCE_SIZE;
+        Footer footer = fileTail.getFooter();
+        size += (long) footer.getStripes().size() * STRIPE_INFORMATION_INSTANCE_SIZE;
+        size += footer.getTypes().stream()
+                .mapToLong(type -> ORC_TYPE_INSTANCE_SIZE + (long) type.getFieldCount() * REFERENCE_SIZE * 2 + type.getFieldNames().stream().mapToLong(OrcCacheStore::getStringRetainedSize).sum())
+                .sum();
+        size += footer.getFileStats()
+                .map(OrcCacheStore::getStatisticsRetainedSize)
+                .orElse(0L);
+        size += footer.getUserMetadata().entrySet().stream()
+                .mapToLong(entry -> getStringRetainedSize(entry.getKey()) + entry.getValue().getRetainedSize())
+                .sum();
+        if (fileTail.getMetadata() != null) {
+            size += fileTail.getMetadata().getStripeStatsList().stream()
+                    .filter(Optional::isPresent)
+                    .mapToLong(statistics -> statistics.get().getRetainedSizeInBytes())
+                    .sum();
+        }
+        return size;
+    }
+
+    static long getStripeFooterRetainedSize(StripeFooter stripeFooter)
+    {
+        return STRIPE_FOOTER_INSTANCE_SIZE
+                + (long) stripeFooter.getStreams().size() * (STREAM_INSTANCE_SIZE + REFERENCE_SIZE)
+                + (long) stripeFooter.getColumnEncodings().size() * (COLUMN_ENCODING_INSTANCE_SIZE + REFERENCE_SIZE);
+    }
+
+    static long getRowGroupIndexesRetainedSize(List<RowGroupIndex> rowGroupIndexes)
+    {
+        long size = LIST_INSTANCE_SIZE;
+        for (RowGroupIndex rowGroupIndex : rowGroupIndexes) {
+            size += ROW_GROUP_INDEX_INSTANCE_SIZE + REFERENCE_SIZE
+                    + (long) rowGroupIndex.getPositions().size() * (INTEGER_INSTANCE_SIZE + REFERENCE_SIZE)
+                    + rowGroupIndex.getColumnStatistics().getRetainedSizeInBytes();
+        }
+        return size;
+    }
+
+    static long getBloomFiltersRetainedSize(List<HashableBloomFilter> bloomFilters)
+    {
+        long size = LIST_INSTANCE_SIZE;
+        for (HashableBloomFilter bloomFilter : bloomFilters) {
+            size += REFERENCE_SIZE + bloomFilter.getRetainedSizeInBytes();
+        }
+        return size;
+    }
+
+    private static long getStringRetainedSize(String value)
+    {
+        return STRING_INSTANCE_SIZE + sizeOfCharArray(value.length());
+    }
+
+    private static long getStatisticsRetainedSize(ColumnMetadata<ColumnStatistics> statistics)
+    {
+        return statistics.stream()
+                .filter(Objects::nonNull)
+                .mapToLong(ColumnStatistics::getRetainedSizeInBytes)
+                .sum();
+    }
+
     public static Builder builder()
     {
         return new Builder();
@@ -95,58 +206,47 @@ public class OrcCacheStore
             //default constructor
         }
 
-        public OrcCacheStore newCacheStore(long fileTailMaximumSize, Duration fileTailTtl,
-                long stripeFooterMaximumSize, Duration stripeFooterTtl,
-                long rowIndexMaximumSize, Duration rowIndexTtl,
-                long bloomFiltersMaximumSize, Duration bloomFiltersTtl,
+        /**
+         * @param metadataMaximumWeight memory budget shared by the file tail, stripe footer, row index and bloom filter caches
+         */
+        public OrcCacheStore newCacheStore(DataSize metadataMaximumWeight,
+                Duration fileTailTtl,
+                Duration stripeFooterTtl,
+                Duration rowIndexTtl,
+                Duration bloomFiltersTtl,
                 DataSize rowDataMaximumWeight, Duration rowDataTtl,
                 boolean isOrcCacheStatsMetricCollectionEnabled)
         {
-            OrcCacheStore store = new OrcCacheStore();
-            store.fileTailCache = buildOrcFileTailCache(fileTailMaximumSize, fileTailTtl, isOrcCacheStatsMetricCollectionEnabled);
-            store.stripeFooterCache = buildOrcStripeFooterCache(stripeFooterMaximumSize, stripeFooterTtl, isOrcCacheStatsMetricCollectionEnabled);
-            store.rowIndexCache = buildOrcRowGroupIndexCache(rowIndexMaximumSize, rowIndexTtl, isOrcCacheStatsMetricCollectionEnabled);
-            store.bloomFiltersCache = buildOrcBloomFilterCache(bloomFiltersMaximumSize, bloomFiltersTtl, isOrcCacheStatsMetricCollectionEnabled);
-            store.rowDataCache = buildOrcRowDataCache(rowDataMaximumWeight, rowDataTtl, isOrcCacheStatsMetricCollectionEnabled);
-            return store;
-        }
-
-        private Cache<OrcFileTailCacheKey, OrcFileTail> buildOrcFileTailCache(long maximumSize, Duration ttl, boolean isOrcCacheStatsMetricCollectionEnabled)
-        {
-            CacheBuilder cacheBuilder = CacheBuilder.newBuilder().maximumSize(maximumSize).expireAfterAccess(ttl);
-            if (isOrcCacheStatsMetricCollectionEnabled) {
-                cacheBuilder.recordStats();
-            }
-            return cacheBuilder.build();
-        }
-
-        private Cache<OrcStripeFooterCacheKey, StripeFooter> buildOrcStripeFooterCache(long maximumSize, Duration ttl, boolean isOrcCacheStatsMetricCollectionEnabled)
-        {
-            CacheBuilder cacheBuilder = CacheBuilder.newBuilder().maximumSize(maximumSize).expireAfterAccess(ttl);
-            if (isOrcCacheStatsMetricCollectionEnabled) {
-                cacheBuilder.recordStats();
-            }
-            return cacheBuilder.build();
+            return newCacheStore(metadataMaximumWeight, fileTailTtl, stripeFooterTtl, rowIndexTtl, bloomFiltersTtl, rowDataMaximumWeight, rowDataTtl,
+                    isOrcCacheStatsMetricCollectionEnabled, Optional.empty());
         }
 
-        private Cache<OrcRowIndexCacheKey, List<RowGroupIndex>> buildOrcRowGroupIndexCache(long maximumSize,
-                Duration ttl, boolean isOrcCacheStatsMetricCollectionEnabled)
+        /**
+         * @param diskCache local disk cache of the file contents
+         */
+        public OrcCacheStore newCacheStore(DataSize metadataMaximumWeight,
+                Duration fileTailTtl,
+                Duration stripeFooterTtl,
+                Duration rowIndexTtl,
+                Duration bloomFiltersTtl,
+                DataSize rowDataMaximumWeight, Duration rowDataTtl,
+                boolean isOrcCacheStatsMetricCollectionEnabled,
+                Optional<OrcDiskCache> diskCache)
         {
-            CacheBuilder cacheBuilder = CacheBuilder.newBuilder().maximumSize(maximumSize).expireAfterAccess(ttl);
-            if (isOrcCacheStatsMetricCollectionEnabled) {
-                cacheBuilder.recordStats();
-            }
-            return cacheBuilder.build();
-        }
+            Duration maximumTtl = Stream.of(fileTailTtl, stripeFooterTtl, rowIndexTtl, bloomFiltersTtl)
+                    .max(Comparator.naturalOrder())
+                    .get();
+            OrcMetadataCache metadataCache = new OrcMetadataCache(metadataMaximumWeight, maximumTtl);
 
-        private Cache<OrcBloomFilterCacheKey, List<HashableBloomFilter>> buildOrcBloomFilterCache(long maximumSize,
-                Duration ttl, boolean isOrcCacheStatsMetricCollectionEnabled)
-        {
-            CacheBuilder cacheBuilder = CacheBuilder.newBuilder().maximumSize(maximumSize).expireAfterAccess(ttl);
-            if (isOrcCacheStatsMetricCollectionEnabled) {
-                cacheBuilder.recordStats();
-            }
-            return cacheBuilder.build();
+            OrcCacheStore store = new OrcCacheStore();
+            store.metadataCache = metadataCache;
+            store.fileTailCache = metadataCache.newView(OrcCacheStore::getFileTailRetainedSize, fileTailTtl, isOrcCacheStatsMetricCollectionEnabled);
+            store.stripeFooterCache = metadataCache.newView(OrcCacheStore::getStripeFooterRetainedSize, stripeFooterTtl, isOrcCacheStatsMetricCollectionEnabled);
+            store.rowIndexCache = metadataCache.newView(OrcCacheStore::getRowGroupIndexesRetainedSize, rowIndexTtl, isOrcCacheStatsMetricCollectionEnabled);
+            store.bloomFiltersCache = metadataCache.newView(OrcCacheStore::getBloomFiltersRetainedSize, bloomFiltersTtl, isOrcCacheStatsMetricCollectionEnabled);
+            store.rowDataCache = buildOrcRowDataCache(rowDataMaximumWeight, rowDataTtl, isOrcCacheStatsMetricCollectionEnabled);
+            store.diskCache = requireNonNull(diskCache, "diskCache is null");
+            return store;
         }
 
         private Cache<OrcRowDataCacheKey, Block> buildOrcRowDataCache(DataSize maximumWeight, Duration ttl, boolean isOrcCacheStatsMetricCollectionEnabled)
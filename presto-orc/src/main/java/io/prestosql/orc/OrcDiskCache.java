@@ -0,0 +1,406 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.hash.Hashing;
+import io.airlift.log.Logger;
+import io.airlift.units.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Local disk tier below the {@link OrcDataSource}s.
+ * <p>
+ * Files are divided into blocks of a fixed size, and every block read from the remote file system is
+ * written to a local directory asynchronously, so the reading thread never waits on the local disk.
+ * Blocks are keyed by the path, last modified time and size of the file, a rewritten file is therefore
+ * never served from stale blocks. The total size of the blocks is bounded, least recently used blocks
+ * are evicted first.
+ * <p>
+ * Blocks are written to a temporary file and renamed once complete, so the directory only ever holds
+ * complete blocks. They are picked up again when the cache is created on the same directory after a restart.
+ */
+public class OrcDiskCache
+{
+    private static final Logger log = Logger.get(OrcDiskCache.class);
+    private static final String BLOCK_SUFFIX = ".block";
+    private static final String TEMP_SUFFIX = ".tmp";
+    // blocks waiting to be written are held in memory, further blocks are not cached past this many
+    private static final int MAX_PENDING_BLOCKS = 64;
+
+    private final Path directory;
+    private final int blockSize;
+    private final Executor executor;
+    private final OrcDiskCacheStats stats = new OrcDiskCacheStats();
+    private final Cache<BlockKey, Integer> blocks;
+    private final Set<BlockKey> pendingBlocks = ConcurrentHashMap.newKeySet();
+    private final AtomicLong size = new AtomicLong();
+
+    /**
+     * @param directory local directory to keep the blocks in, must not be shared with another cache
+     * @param maxSize maximum total size of the cached blocks
+     * @param blockSize size of the blocks files are cached in
+     * @param executor executor writing the blocks to the local directory
+     */
+    public OrcDiskCache(Path directory, DataSize maxSize, DataSize blockSize, Executor executor)
+            throws IOException
+    {
+        this.directory = requireNonNull(directory, "directory is null");
+        this.blockSize = toIntExact(requireNonNull(blockSize, "blockSize is null").toBytes());
+        checkArgument(this.blockSize > 0, "blockSize must be positive");
+        this.executor = requireNonNull(executor, "executor is null");
+        this.blocks = CacheBuilder.newBuilder()
+                // a single segment evicts in least recently used order across all blocks and enforces the size exactly,
+                // reads don't lock the segment and writes happen once per block
+                .concurrencyLevel(1)
+                .maximumWeight(requireNonNull(maxSize, "maxSize is null").toBytes())
+                .<BlockKey, Integer>weigher((key, length) -> length)
+                .removalListener(notification -> {
+                    if (notification.wasEvicted()) {
+                        stats.recordEviction();
+                    }
+                    size.addAndGet(-notification.getValue());
+                    // a replaced block has been renamed over the file of the previous one
+                    if (notification.getCause() != RemovalCause.REPLACED) {
+                        deleteBlockFile(getBlockPath(notification.getKey()));
+                    }
+                })
+                .build();
+
+        Files.createDirectories(directory);
+        loadBlocks();
+    }
+
+    public OrcDiskCacheStats getStats()
+    {
+        return stats;
+    }
+
+    /**
+     * Total size of the cached blocks in bytes
+     */
+    public long getSize()
+    {
+        return size.get();
+    }
+
+    public long getBlockCount()
+    {
+        return blocks.size();
+    }
+
+    /**
+     * Reads the given range of a file into the buffer. Cached blocks are read from the local directory,
+     * the others are read from the remote file system in whole blocks and cached.
+     *
+     * @param fileSize size of the file, used to validate the cached blocks
+     * @param remoteReader reader of the remote file
+     */
+    public void read(OrcDataSourceId id, long lastModifiedTime, long fileSize, long position, byte[] buffer, int bufferOffset, int length, RemoteReader remoteReader)
+            throws IOException
+    {
+        if (length == 0) {
+            return;
+        }
+        if (position + length > fileSize) {
+            // cached blocks can't be trusted if the file is not the expected size
+            remoteReader.readFully(position, buffer, bufferOffset, length);
+            return;
+        }
+
+        String fileKey = getFileKey(id, lastModifiedTime, fileSize);
+        long lastBlock = (position + length - 1) / blockSize;
+        long missingFrom = -1;
+        for (long block = position / blockSize; block <= lastBlock; block++) {
+            if (readCachedBlock(new BlockKey(fileKey, block), fileSize, position, buffer, bufferOffset, length)) {
+                if (missingFrom >= 0) {
+                    readRemoteBlocks(fileKey, fileSize, missingFrom, block - 1, position, buffer, bufferOffset, length, remoteReader);
+                    missingFrom = -1;
+                }
+            }
+            else {
+                stats.recordMiss();
+                if (missingFrom < 0) {
+                    missingFrom = block;
+                }
+            }
+        }
+        if (missingFrom >= 0) {
+            readRemoteBlocks(fileKey, fileSize, missingFrom, lastBlock, position, buffer, bufferOffset, length, remoteReader);
+        }
+    }
+
+    private boolean readCachedBlock(BlockKey key, long fileSize, long position, byte[] buffer, int bufferOffset, int length)
+    {
+        if (blocks.getIfPresent(key) == null) {
+            return false;
+        }
+
+        long blockStart = key.block * blockSize;
+        long blockLength = min(blockSize, fileSize - blockStart);
+        long from = max(blockStart, position);
+        long to = min(blockStart + blockLength, position + length);
+        Path path = getBlockPath(key);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() != blockLength) {
+                log.debug("Cached block %s has %s bytes instead of %s", path, channel.size(), blockLength);
+                blocks.invalidate(key);
+                return false;
+            }
+            ByteBuffer target = ByteBuffer.wrap(buffer, toIntExact(bufferOffset + from - position), toIntExact(to - from));
+            long filePosition = from - blockStart;
+            while (target.hasRemaining()) {
+                int read = channel.read(target, filePosition);
+                if (read < 0) {
+                    blocks.invalidate(key);
+                    return false;
+                }
+                filePosition += read;
+            }
+        }
+        catch (IOException e) {
+            // the block may have been evicted in the meantime, read it from the remote file system
+            log.debug(e, "Failed to read cached block %s", path);
+            blocks.invalidate(key);
+            return false;
+        }
+        stats.recordHit(to - from);
+        return true;
+    }
+
+    private void readRemoteBlocks(String fileKey, long fileSize, long fromBlock, long toBlock, long position, byte[] buffer, int bufferOffset, int length, RemoteReader remoteReader)
+            throws IOException
+    {
+        long rangeStart = fromBlock * blockSize;
+        long rangeEnd = min(fileSize, (toBlock + 1) * blockSize);
+        if (rangeEnd - rangeStart > Integer.MAX_VALUE) {
+            long from = max(rangeStart, position);
+            remoteReader.readFully(from, buffer, toIntExact(bufferOffset + from - position), toIntExact(min(rangeEnd, position + length) - from));
+            return;
+        }
+
+        byte[] data = new byte[toIntExact(rangeEnd - rangeStart)];
+        remoteReader.readFully(rangeStart, data, 0, data.length);
+
+        long from = max(rangeStart, position);
+        long to = min(rangeEnd, position + length);
+        System.arraycopy(data, toIntExact(from - rangeStart), buffer, toIntExact(bufferOffset + from - position), toIntExact(to - from));
+
+        for (long block = fromBlock; block <= toBlock; block++) {
+            int offset = toIntExact(block * blockSize - rangeStart);
+            scheduleWrite(new BlockKey(fileKey, block), data, offset, min(blockSize, data.length - offset));
+        }
+    }
+
+    private void scheduleWrite(BlockKey key, byte[] data, int offset, int length)
+    {
+        if (blocks.asMap().containsKey(key) || !pendingBlocks.add(key)) {
+            return;
+        }
+        if (pendingBlocks.size() > MAX_PENDING_BLOCKS) {
+            pendingBlocks.remove(key);
+            stats.recordSkippedWrite();
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    writeBlock(key, data, offset, length);
+                }
+                finally {
+                    pendingBlocks.remove(key);
+                }
+            });
+        }
+        catch (RejectedExecutionException e) {
+            pendingBlocks.remove(key);
+            stats.recordSkippedWrite();
+        }
+    }
+
+    private void writeBlock(BlockKey key, byte[] data, int offset, int length)
+    {
+        Path path = getBlockPath(key);
+        Path temporaryPath = path.resolveSibling(path.getFileName() + TEMP_SUFFIX);
+        try {
+            Files.createDirectories(path.getParent());
+            try (OutputStream out = Files.newOutputStream(temporaryPath)) {
+                out.write(data, offset, length);
+            }
+            Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (IOException e) {
+            log.debug(e, "Failed to write cached block %s", path);
+            stats.recordWriteFailure();
+            deleteBlockFile(temporaryPath);
+            return;
+        }
+        addBlock(key, length);
+        stats.recordWrite(length);
+    }
+
+    private void addBlock(BlockKey key, int length)
+    {
+        size.addAndGet(length);
+        blocks.put(key, length);
+    }
+
+    /**
+     * Adds the blocks left in the directory by a previous run, least recently modified first so these are evicted first
+     */
+    private void loadBlocks()
+            throws IOException
+    {
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(directory, 2)) {
+            files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+
+        List<Path> blockFiles = files.stream()
+                .filter(file -> file.getFileName().toString().endsWith(BLOCK_SUFFIX))
+                .sorted(Comparator.comparingLong(OrcDiskCache::getLastModifiedTime))
+                .collect(Collectors.toList());
+        files.stream()
+                .filter(file -> !file.getFileName().toString().endsWith(BLOCK_SUFFIX))
+                .forEach(OrcDiskCache::deleteBlockFile);
+
+        for (Path file : blockFiles) {
+            String name = file.getFileName().toString();
+            try {
+                long block = Long.parseLong(name.substring(0, name.length() - BLOCK_SUFFIX.length()));
+                long length = Files.size(file);
+                if (file.getParent().equals(directory) || length == 0 || length > blockSize) {
+                    deleteBlockFile(file);
+                    continue;
+                }
+                addBlock(new BlockKey(file.getParent().getFileName().toString(), block), toIntExact(length));
+            }
+            catch (NumberFormatException | IOException e) {
+                deleteBlockFile(file);
+            }
+        }
+        log.info("Loaded %s cached ORC blocks of %s bytes from %s", blocks.size(), size.get(), directory);
+    }
+
+    private String getFileKey(OrcDataSourceId id, long lastModifiedTime, long fileSize)
+    {
+        return Hashing.sha256().newHasher()
+                .putString(id.toString(), UTF_8)
+                .putLong(lastModifiedTime)
+                .putLong(fileSize)
+                .putInt(blockSize)
+                .hash()
+                .toString();
+    }
+
+    private Path getBlockPath(BlockKey key)
+    {
+        return directory.resolve(key.fileKey).resolve(key.block + BLOCK_SUFFIX);
+    }
+
+    private static long getLastModifiedTime(Path file)
+    {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        }
+        catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteBlockFile(Path file)
+    {
+        try {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException e) {
+            log.debug(e, "Failed to delete cached block %s", file);
+        }
+    }
+
+    public interface RemoteReader
+    {
+        void readFully(long position, byte[] buffer, int bufferOffset, int length)
+                throws IOException;
+    }
+
+    private static final class BlockKey
+    {
+        private final String fileKey;
+        private final long block;
+
+        private BlockKey(String fileKey, long block)
+        {
+            this.fileKey = requireNonNull(fileKey, "fileKey is null");
+            this.block = block;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            BlockKey other = (BlockKey) o;
+            return block == other.block && fileKey.equals(other.fileKey);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(fileKey, block);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("fileKey", fileKey)
+                    .add("block", block)
+                    .toString();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import org.weakref.jmx.Managed;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hit, miss and write statistics of the {@link OrcDiskCache}
+ */
+public class OrcDiskCacheStats
+{
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong readBytes = new AtomicLong();
+    private final AtomicLong writtenBytes = new AtomicLong();
+    private final AtomicLong writeFailures = new AtomicLong();
+    private final AtomicLong skippedWrites = new AtomicLong();
+
+    public void recordHit(long bytes)
+    {
+        hits.incrementAndGet();
+        readBytes.addAndGet(bytes);
+    }
+
+    public void recordMiss()
+    {
+        misses.incrementAndGet();
+    }
+
+    public void recordEviction()
+    {
+        evictions.incrementAndGet();
+    }
+
+    public void recordWrite(long bytes)
+    {
+        writtenBytes.addAndGet(bytes);
+    }
+
+    public void recordWriteFailure()
+    {
+        writeFailures.incrementAndGet();
+    }
+
+    public void recordSkippedWrite()
+    {
+        skippedWrites.incrementAndGet();
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return hits.get();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return misses.get();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        long hitCount = hits.get();
+        long requestCount = hitCount + misses.get();
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return evictions.get();
+    }
+
+    @Managed
+    public long getReadBytes()
+    {
+        return readBytes.get();
+    }
+
+    @Managed
+    public long getWrittenBytes()
+    {
+        return writtenBytes.get();
+    }
+
+    @Managed
+    public long getWriteFailureCount()
+    {
+        return writeFailures.get();
+    }
+
+    @Managed
+    public long getSkippedWriteCount()
+    {
+        return skippedWrites.get();
+    }
+}
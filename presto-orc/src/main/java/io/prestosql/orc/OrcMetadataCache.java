@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import com.google.common.cache.AbstractCache;
+import com.google.common.cache.AbstractCache.SimpleStatsCounter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import io.airlift.units.DataSize;
+
+import javax.annotation.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Byte-bounded cache shared by the ORC metadata caches.
+ * <p>
+ * Every kind of metadata is cached in a {@link View} of one weighted cache, so all of them are drawn from
+ * the same memory budget. Entries of all kinds are evicted in least recently used order, the budget is thus
+ * partitioned between the kinds of metadata according to how often they are used rather than statically.
+ * Each view keeps its own statistics, weight and time to live.
+ */
+public class OrcMetadataCache
+{
+    private final long maximumWeight;
+    private final Cache<Object, Entry> cache;
+
+    public OrcMetadataCache(DataSize maximumWeight, Duration maximumTtl)
+    {
+        this.maximumWeight = requireNonNull(maximumWeight, "maximumWeight is null").toBytes();
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(this.maximumWeight)
+                .weigher((Object key, Entry entry) -> entry.weight)
+                .expireAfterAccess(requireNonNull(maximumTtl, "maximumTtl is null"))
+                .removalListener((RemovalNotification<Object, Entry> notification) -> notification.getValue().view.removed(notification.getValue(), notification.getCause()))
+                .build();
+    }
+
+    /**
+     * @param weigher estimated retained size of a value in bytes
+     * @param ttl time to live of the entries after their last access, at most the one of this cache
+     */
+    public <K, V> View<K, V> newView(ToLongFunction<V> weigher, Duration ttl, boolean recordStats)
+    {
+        return new View<>(weigher, ttl, recordStats);
+    }
+
+    public long getMaximumWeight()
+    {
+        return maximumWeight;
+    }
+
+    public long getWeight()
+    {
+        cache.cleanUp();
+        long weight = 0;
+        for (Entry entry : cache.asMap().values()) {
+            weight += entry.weight;
+        }
+        return weight;
+    }
+
+    public class View<K, V>
+            extends AbstractCache<K, V>
+    {
+        private final ToLongFunction<V> weigher;
+        private final long ttlNanos;
+        private final boolean recordStats;
+        private final SimpleStatsCounter statsCounter = new SimpleStatsCounter();
+        private final AtomicLong size = new AtomicLong();
+        private final AtomicLong weight = new AtomicLong();
+
+        private View(ToLongFunction<V> weigher, Duration ttl, boolean recordStats)
+        {
+            this.weigher = requireNonNull(weigher, "weigher is null");
+            this.ttlNanos = requireNonNull(ttl, "ttl is null").toNanos();
+            this.recordStats = recordStats;
+        }
+
+        @Nullable
+        @Override
+        public V getIfPresent(Object key)
+        {
+            Entry entry = getEntry(key);
+            if (entry == null) {
+                recordMisses(1);
+                return null;
+            }
+            recordHits(1);
+            return (V) entry.value;
+        }
+
+        @Override
+        public V get(K key, Callable<? extends V> loader)
+                throws ExecutionException
+        {
+            Entry entry = getEntry(key);
+            if (entry != null) {
+                recordHits(1);
+                return (V) entry.value;
+            }
+            recordMisses(1);
+
+            long start = System.nanoTime();
+            boolean[] loaded = new boolean[1];
+            try {
+                entry = cache.get(key, () -> {
+                    loaded[0] = true;
+                    return newEntry(loader.call());
+                });
+            }
+            catch (ExecutionException | RuntimeException | Error e) {
+                if (loaded[0] && recordStats) {
+                    statsCounter.recordLoadException(System.nanoTime() - start);
+                }
+                throw e;
+            }
+            if (loaded[0] && recordStats) {
+                statsCounter.recordLoadSuccess(System.nanoTime() - start);
+            }
+            return (V) entry.value;
+        }
+
+        @Override
+        public void put(K key, V value)
+        {
+            cache.put(key, newEntry(value));
+        }
+
+        @Override
+        public void invalidate(Object key)
+        {
+            Entry entry = cache.getIfPresent(key);
+            if (entry != null && entry.view == this) {
+                cache.invalidate(key);
+            }
+        }
+
+        @Override
+        public void invalidateAll()
+        {
+            cache.asMap().values().removeIf(entry -> entry.view == this);
+        }
+
+        @Override
+        public long size()
+        {
+            return size.get();
+        }
+
+        /**
+         * Estimated retained size of the entries of this view in bytes
+         */
+        public long getWeight()
+        {
+            return weight.get();
+        }
+
+        @Override
+        public void cleanUp()
+        {
+            cache.cleanUp();
+        }
+
+        @Override
+        public CacheStats stats()
+        {
+            return statsCounter.snapshot();
+        }
+
+        @Nullable
+        private Entry getEntry(Object key)
+        {
+            Entry entry = cache.getIfPresent(key);
+            if (entry == null || entry.view != this) {
+                return null;
+            }
+            long now = System.nanoTime();
+            if (now - entry.lastAccessNanos > ttlNanos) {
+                // entries of this view expire earlier than the ones of the shared cache
+                cache.asMap().remove(key, entry);
+                if (recordStats) {
+                    statsCounter.recordEviction();
+                }
+                return null;
+            }
+            entry.lastAccessNanos = now;
+            return entry;
+        }
+
+        private Entry newEntry(V value)
+        {
+            requireNonNull(value, "value is null");
+            long valueWeight = weigher.applyAsLong(value);
+            checkArgument(valueWeight >= 0, "weight is negative");
+            Entry entry = new Entry(this, value, (int) max(1, min(valueWeight, Integer.MAX_VALUE)));
+            size.incrementAndGet();
+            weight.addAndGet(entry.weight);
+            return entry;
+        }
+
+        private void removed(Entry entry, RemovalCause cause)
+        {
+            size.decrementAndGet();
+            weight.addAndGet(-entry.weight);
+            if (cause.wasEvicted() && recordStats) {
+                statsCounter.recordEviction();
+            }
+        }
+
+        private void recordHits(int count)
+        {
+            if (recordStats) {
+                statsCounter.recordHits(count);
+            }
+        }
+
+        private void recordMisses(int count)
+        {
+            if (recordStats) {
+                statsCounter.recordMisses(count);
+            }
+        }
+    }
+
+    private static class Entry
+    {
+        private final View<?, ?> view;
+        private final Object value;
+        private final int weight;
+        private volatile long lastAccessNanos = System.nanoTime();
+
+        private Entry(View<?, ?> view, Object value, int weight)
+        {
+            this.view = view;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
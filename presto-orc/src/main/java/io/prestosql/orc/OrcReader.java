@@ -14,6 +14,7 @@
 package io.prestosql.orc;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.airlift.log.Logger;
 import io.airlift.units.DataSize;
 import io.prestosql.memory.context.AggregatedMemoryContext;
@@ -334,6 +335,68 @@ public class OrcReader
             Map<Integer, Function<Block, Block>> coercer,
             Map<String, List<Domain>> orDomains,
             Set<Integer> missingColumns) throws OrcCorruptionException
+    {
+        return createSelectiveRecordReader(
+                fileColumns,
+                fileReadColumns,
+                readTypes,
+                outputColumns,
+                includedColumns,
+                filters,
+                constantValues,
+                predicate,
+                offset,
+                length,
+                legacyFileTimeZone,
+                systemMemoryUsage,
+                initialBatchSize,
+                exceptionTransform,
+                indexes,
+                domains,
+                orcCacheStore,
+                orcCacheProperties,
+                writeValidation,
+                disjunctFilters,
+                positions,
+                useDataCache,
+                coercer,
+                orDomains,
+                missingColumns,
+                ImmutableMap.of(),
+                ImmutableMap.of());
+    }
+
+    /**
+     * @param subfieldFilters filters on the nested fields of STRUCT columns, by column index and field path
+     * @param requiredSubfields paths of the nested fields of STRUCT columns which are read, by column index
+     */
+    public OrcSelectiveRecordReader createSelectiveRecordReader(
+            List<OrcColumn> fileColumns,
+            List<OrcColumn> fileReadColumns,
+            List<Type> readTypes,
+            List<Integer> outputColumns,
+            Map<Integer, Type> includedColumns,
+            Map<Integer, TupleDomainFilter> filters,
+            Map<Integer, Object> constantValues,
+            OrcPredicate predicate,
+            long offset,
+            long length,
+            DateTimeZone legacyFileTimeZone,
+            AggregatedMemoryContext systemMemoryUsage,
+            int initialBatchSize,
+            Function<Exception, RuntimeException> exceptionTransform,
+            Optional<List<IndexMetadata>> indexes,
+            Map<String, Domain> domains,
+            OrcCacheStore orcCacheStore,
+            OrcCacheProperties orcCacheProperties,
+            Optional<OrcWriteValidation> writeValidation,
+            Map<Integer, List<TupleDomainFilter>> disjunctFilters,
+            List<Integer> positions, boolean useDataCache,
+            Map<Integer, Function<Block, Block>> coercer,
+            Map<String, List<Domain>> orDomains,
+            Set<Integer> missingColumns,
+            Map<Integer, Map<String, TupleDomainFilter>> subfieldFilters,
+            Map<Integer, Set<String>> requiredSubfields) throws OrcCorruptionException
     {
         return new OrcSelectiveRecordReader(
                 outputColumns,
@@ -374,7 +437,9 @@ public class OrcReader
                 useDataCache,
                 coercer,
                 orDomains,
-                missingColumns);
+                missingColumns,
+                requireNonNull(subfieldFilters, "subfieldFilters is null"),
+                requireNonNull(requiredSubfields, "requiredSubfields is null"));
     }
 
     public static OrcDataSource wrapWithCacheIfTiny(OrcDataSource dataSource, DataSize maxCacheSize)
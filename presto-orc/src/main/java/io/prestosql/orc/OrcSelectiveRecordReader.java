@@ -13,6 +13,7 @@
  */
 package io.prestosql.orc;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.PeekingIterator;
 import io.airlift.log.Logger;
 import io.airlift.slice.Slice;
@@ -99,6 +100,9 @@ public class OrcSelectiveRecordReader
      * @param useDataCache Enabled/disable use of data cache.
      * @param coercers Map of coercion function corresponding to column index.
      * @param missingColumns List of all columns which are not file but part of scan.
+     * @param subfieldFilters Map of each STRUCT column index with the filters on its nested fields, by field path.
+     * @param requiredSubfields Map of each STRUCT column index with the paths of its nested fields which are read,
+     *                          all nested fields of columns which are not in the map are read.
      * @throws OrcCorruptionException
      */
     public OrcSelectiveRecordReader(
@@ -140,7 +144,9 @@ public class OrcSelectiveRecordReader
             boolean useDataCache,
             Map<Integer, Function<Block, Block>> coercers,
             Map<String, List<Domain>> orDomains,
-            Set<Integer> missingColumns)
+            Set<Integer> missingColumns,
+            Map<Integer, Map<String, TupleDomainFilter>> subfieldFilters,
+            Map<Integer, Set<String>> requiredSubfields)
             throws OrcCorruptionException
     {
         super(fileReadColumns,
@@ -203,7 +209,7 @@ public class OrcSelectiveRecordReader
                 systemMemoryUsage.newAggregatedMemoryContext(),
                 new OrcBlockFactory(exceptionTransform, true),
                 orcCacheStore, orcCacheProperties,
-                predicate, filters, hiveStorageTimeZone,
+                predicate, filters, subfieldFilters, requiredSubfields, hiveStorageTimeZone,
                 outputColumns, includedColumns, orcTypes, useDataCache));
     }
 
@@ -439,6 +445,8 @@ public class OrcSelectiveRecordReader
             OrcCacheProperties orcCacheProperties,
             OrcPredicate predicate,
             Map<Integer, TupleDomainFilter> filters,
+            Map<Integer, Map<String, TupleDomainFilter>> subfieldFilters,
+            Map<Integer, Set<String>> requiredSubfields,
             DateTimeZone hiveStorageTimeZone,
             List<Integer> outputColumns,
             Map<Integer, Type> includedColumns,
@@ -463,7 +471,8 @@ public class OrcSelectiveRecordReader
                 boolean outputRequired = outputColumns.contains(i);
                 SelectiveColumnReader columnReader = null;
 
-                if (useDataCache && orcCacheProperties.isRowDataCacheEnabled()) {
+                // the cached column readers read whole columns, so they can't evaluate filters on nested fields
+                if (useDataCache && orcCacheProperties.isRowDataCacheEnabled() && !subfieldFilters.containsKey(i)) {
                     ColumnReader cr = ColumnReaders.createColumnReader(
                             includedColumns.get(i),
                             column,
@@ -473,19 +482,22 @@ public class OrcSelectiveRecordReader
                 }
                 else {
                     columnReader = createColumnReader(
-                            orcTypes.get(column.getColumnId()),
+                            orcTypes,
                             column,
                             Optional.ofNullable(filters.get(i)),
+                            subfieldFilters.getOrDefault(i, ImmutableMap.of()),
+                            Optional.ofNullable(requiredSubfields.get(i)),
                             outputRequired ? Optional.of(includedColumns.get(i)) : Optional.empty(),
                             hiveStorageTimeZone,
                             systemMemoryContext);
-                    if (orcCacheProperties.isRowDataCacheEnabled()) {
+                    // cached results are keyed by the predicate, which does not cover nested filters or pruned fields
+                    if (orcCacheProperties.isRowDataCacheEnabled() && !subfieldFilters.containsKey(i) && !requiredSubfields.containsKey(i)) {
                         columnReader = SelectiveColumnReaders.wrapWithResultCachingStreamReader(columnReader, column,
                                 predicate, orcCacheStore.getRowDataCache());
                     }
                 }
                 columnReaders[columnIndex] = columnReader;
-                if (filters.get(i) != null) {
+                if (filters.get(i) != null || subfieldFilters.containsKey(i)) {
                     colReaderWithFilter.add(columnIndex);
                 }
                 else if (disjuctFilters.get(i) != null && disjuctFilters.get(i).size() > 0) {
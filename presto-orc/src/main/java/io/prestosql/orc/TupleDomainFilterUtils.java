@@ -57,6 +57,13 @@ public class TupleDomainFilterUtils
     public static TupleDomainFilter toFilter(Domain domain)
     {
         ValueSet values = domain.getValues();
+        // value sets of types which are not orderable, e.g. MAP, are not range sets
+        if (values.isNone() && domain.isNullAllowed()) {
+            return IS_NULL;
+        }
+        if (values.isAll() && !domain.isNullAllowed()) {
+            return IS_NOT_NULL;
+        }
         checkArgument(values instanceof SortedRangeSet, "Unexpected domain type: " + values.getClass().getSimpleName());
 
         List<Range> ranges = ((SortedRangeSet) values).getOrderedRanges();
@@ -244,7 +244,7 @@ public abstract class AbstractDecimalSelectiveColumnReader<T>
         checkState(positionCount <= outputPositionCount, "Not enough values");
 
         if (allNulls) {
-            return new RunLengthEncodedBlock(nullBlock, outputPositionCount);
+            return new RunLengthEncodedBlock(nullBlock, positionCount);
         }
 
         boolean includeNulls = nullsAllowed && presentStream != null;
@@ -0,0 +1,362 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc.reader;
+
+import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.orc.OrcColumn;
+import io.prestosql.orc.TupleDomainFilter;
+import io.prestosql.orc.metadata.ColumnEncoding;
+import io.prestosql.orc.metadata.ColumnMetadata;
+import io.prestosql.orc.stream.BooleanInputStream;
+import io.prestosql.orc.stream.InputStreamSource;
+import io.prestosql.orc.stream.InputStreamSources;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.block.RunLengthEncodedBlock;
+import io.prestosql.spi.type.Type;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static io.prestosql.orc.metadata.Stream.StreamKind.PRESENT;
+import static io.prestosql.orc.stream.MissingInputStreamSource.missingStreamSource;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Common part of the selective readers of STRUCT, LIST and MAP columns.
+ * <p>
+ * Every row that is read is mapped to a range of positions in the nested columns: one position for a
+ * non-null struct, and as many positions as entries for a list or a map. Subclasses read the nested
+ * columns with selective readers at exactly the positions of the rows that passed the filter, so the
+ * nested values of the other rows are skipped instead of being decoded.
+ * <p>
+ * Filters on the column itself can only test for null, filters on nested values are handled by subclasses.
+ */
+abstract class AbstractNestedSelectiveColumnReader<T>
+        implements SelectiveColumnReader<T>
+{
+    protected final OrcColumn column;
+    protected final boolean outputRequired;
+    @Nullable
+    protected final Type outputType;
+    protected final LocalMemoryContext systemMemoryContext;
+
+    protected final boolean nullsAllowed;
+    private final boolean nonNullsAllowed;
+
+    private InputStreamSource<BooleanInputStream> presentStreamSource = missingStreamSource(BooleanInputStream.class);
+    @Nullable
+    private BooleanInputStream presentStream;
+
+    private boolean rowGroupOpen;
+    private int readOffset;
+    // number of nested positions before readOffset
+    private int nestedReadOffset;
+
+    @Nullable
+    protected int[] outputPositions;
+    @Nullable
+    protected boolean[] nulls;
+    // start and length of the nested positions of each output row, relative to nestedOffset
+    @Nullable
+    protected int[] nestedOffsets;
+    @Nullable
+    protected int[] nestedLengths;
+    protected int outputPositionCount;
+    protected int nestedOffset;
+
+    protected AbstractNestedSelectiveColumnReader(OrcColumn column, Optional<TupleDomainFilter> filter, Optional<Type> outputType, LocalMemoryContext systemMemoryContext)
+    {
+        this.column = requireNonNull(column, "column is null");
+        this.outputRequired = requireNonNull(outputType, "outputType is null").isPresent();
+        this.outputType = outputType.orElse(null);
+        this.systemMemoryContext = requireNonNull(systemMemoryContext, "systemMemoryContext is null");
+
+        TupleDomainFilter columnFilter = requireNonNull(filter, "filter is null").orElse(null);
+        checkArgument(columnFilter == null
+                        || columnFilter instanceof TupleDomainFilter.IsNull
+                        || columnFilter instanceof TupleDomainFilter.IsNotNull,
+                "Only IS NULL and IS NOT NULL filters are supported on %s columns", column.getColumnType());
+        this.nullsAllowed = columnFilter == null || columnFilter.testNull();
+        this.nonNullsAllowed = !(columnFilter instanceof TupleDomainFilter.IsNull);
+    }
+
+    /**
+     * Opens the streams of the nested lengths, if any
+     */
+    protected abstract void openNestedStreams()
+            throws IOException;
+
+    /**
+     * @return number of nested positions of the next non-null row
+     */
+    protected abstract int readNestedLength()
+            throws IOException;
+
+    /**
+     * @return number of nested positions of the next non-null rows
+     */
+    protected abstract int skipNestedLengths(int nonNullRows)
+            throws IOException;
+
+    /**
+     * Reads the nested columns of the output rows, may remove output rows that do not pass nested filters
+     *
+     * @return number of output rows
+     */
+    protected abstract int readNested()
+            throws IOException;
+
+    /**
+     * Builds the block of the given output rows from the nested values read by {@link #readNested}
+     *
+     * @param nestedPositions nested positions of the rows, relative to nestedOffset
+     */
+    protected abstract Block<T> createBlock(int positionCount, Optional<boolean[]> rowIsNull, int[] offsets, int[] nestedPositions, int nestedPositionCount);
+
+    protected abstract void startNestedStripe(ZoneId fileTimeZone, InputStreamSources dictionaryStreamSources, ColumnMetadata<ColumnEncoding> encoding)
+            throws IOException;
+
+    protected abstract void startNestedRowGroup(InputStreamSources dataStreamSources)
+            throws IOException;
+
+    protected abstract long getNestedRetainedSizeInBytes();
+
+    @Override
+    public int read(int offset, int[] positions, int positionCount, TupleDomainFilter filter)
+            throws IOException
+    {
+        if (!rowGroupOpen) {
+            openRowGroup();
+        }
+
+        if (readOffset < offset) {
+            nestedReadOffset += skipRows(offset - readOffset);
+        }
+
+        ensureCapacity(positionCount);
+        nestedOffset = nestedReadOffset;
+
+        outputPositionCount = 0;
+        int streamPosition = 0;
+        int nestedPosition = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            if (position > streamPosition) {
+                nestedPosition += skipRows(position - streamPosition);
+                streamPosition = position;
+            }
+
+            if (presentStream != null && !presentStream.nextBit()) {
+                if (nullsAllowed) {
+                    addOutputPosition(position, true, nestedPosition, 0);
+                }
+            }
+            else {
+                int length = readNestedLength();
+                if (nonNullsAllowed) {
+                    addOutputPosition(position, false, nestedPosition, length);
+                }
+                nestedPosition += length;
+            }
+            streamPosition++;
+        }
+
+        readOffset = offset + streamPosition;
+        nestedReadOffset = nestedOffset + nestedPosition;
+
+        if (outputPositionCount > 0) {
+            outputPositionCount = readNested();
+        }
+        systemMemoryContext.setBytes(getRetainedSizeInBytes());
+        return outputPositionCount;
+    }
+
+    private void addOutputPosition(int position, boolean isNull, int nestedPosition, int length)
+    {
+        outputPositions[outputPositionCount] = position;
+        nulls[outputPositionCount] = isNull;
+        nestedOffsets[outputPositionCount] = nestedPosition;
+        nestedLengths[outputPositionCount] = length;
+        outputPositionCount++;
+    }
+
+    private int skipRows(int rows)
+            throws IOException
+    {
+        int nonNullRows = presentStream == null ? rows : presentStream.countBitsSet(rows);
+        return nonNullRows == 0 ? 0 : skipNestedLengths(nonNullRows);
+    }
+
+    /**
+     * Nested positions of all non-null output rows, in order
+     */
+    protected int collectNestedPositions(int[] nestedPositions)
+    {
+        int count = 0;
+        for (int i = 0; i < outputPositionCount; i++) {
+            for (int j = 0; j < nestedLengths[i]; j++) {
+                nestedPositions[count++] = nestedOffsets[i] + j;
+            }
+        }
+        return count;
+    }
+
+    protected int getNestedPositionCount()
+    {
+        int count = 0;
+        for (int i = 0; i < outputPositionCount; i++) {
+            count += nestedLengths[i];
+        }
+        return count;
+    }
+
+    @Override
+    public int[] getReadPositions()
+    {
+        return outputPositions;
+    }
+
+    @Override
+    public Block<T> getBlock(int[] positions, int positionCount)
+    {
+        checkArgument(outputPositionCount > 0, "outputPositionCount must be greater than zero");
+        checkState(outputRequired, "This stream reader doesn't produce output");
+        checkState(positionCount <= outputPositionCount, "Not enough values");
+
+        boolean[] rowIsNull = new boolean[positionCount];
+        boolean hasNulls = false;
+        int[] offsets = new int[positionCount + 1];
+        int[] rows = new int[positionCount];
+        int positionIndex = 0;
+        for (int i = 0; i < outputPositionCount && positionIndex < positionCount; i++) {
+            if (outputPositions[i] < positions[positionIndex]) {
+                continue;
+            }
+            rows[positionIndex] = i;
+            rowIsNull[positionIndex] = nulls[i];
+            hasNulls |= nulls[i];
+            offsets[positionIndex + 1] = offsets[positionIndex] + nestedLengths[i];
+            positionIndex++;
+        }
+        checkState(positionIndex == positionCount, "Positions were not read");
+
+        int nestedPositionCount = offsets[positionCount];
+        int[] nestedPositions = new int[nestedPositionCount];
+        int nestedIndex = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int row = rows[i];
+            for (int j = 0; j < nestedLengths[row]; j++) {
+                nestedPositions[nestedIndex++] = nestedOffsets[row] + j;
+            }
+        }
+
+        return createBlock(positionCount, hasNulls ? Optional.of(rowIsNull) : Optional.empty(), offsets, nestedPositions, nestedPositionCount);
+    }
+
+    /**
+     * Block of nested values at the given positions, the reader must have read them
+     */
+    protected static Block getNestedBlock(@Nullable SelectiveColumnReader reader, Type type, int[] nestedPositions, int nestedPositionCount)
+    {
+        if (nestedPositionCount == 0) {
+            return type.createBlockBuilder(null, 0).build();
+        }
+        if (reader == null) {
+            // column is pruned or does not exist in the file
+            return RunLengthEncodedBlock.create(type, null, nestedPositionCount);
+        }
+        return reader.getBlock(nestedPositions, nestedPositionCount);
+    }
+
+    @Override
+    public Block<T> mergeBlocks(List<Block<T>> blocks, int positionCount)
+    {
+        BlockBuilder blockBuilder = outputType.createBlockBuilder(null, positionCount);
+        for (Block<T> block : blocks) {
+            for (int i = 0; i < block.getPositionCount(); i++) {
+                outputType.appendTo(block, i, blockBuilder);
+            }
+        }
+        return blockBuilder.build();
+    }
+
+    private void openRowGroup()
+            throws IOException
+    {
+        presentStream = presentStreamSource.openStream();
+        openNestedStreams();
+        rowGroupOpen = true;
+    }
+
+    private void ensureCapacity(int capacity)
+    {
+        if (outputPositions == null || outputPositions.length < capacity) {
+            outputPositions = new int[capacity];
+            nulls = new boolean[capacity];
+            nestedOffsets = new int[capacity];
+            nestedLengths = new int[capacity];
+        }
+    }
+
+    @Override
+    public void startStripe(ZoneId fileTimeZone, InputStreamSources dictionaryStreamSources, ColumnMetadata<ColumnEncoding> encoding)
+            throws IOException
+    {
+        presentStreamSource = missingStreamSource(BooleanInputStream.class);
+        presentStream = null;
+        readOffset = 0;
+        nestedReadOffset = 0;
+        rowGroupOpen = false;
+
+        startNestedStripe(fileTimeZone, dictionaryStreamSources, encoding);
+    }
+
+    @Override
+    public void startRowGroup(InputStreamSources dataStreamSources)
+            throws IOException
+    {
+        presentStreamSource = dataStreamSources.getInputStreamSource(column, PRESENT, BooleanInputStream.class);
+        presentStream = null;
+        readOffset = 0;
+        nestedReadOffset = 0;
+        rowGroupOpen = false;
+
+        startNestedRowGroup(dataStreamSources);
+    }
+
+    @Override
+    public void close()
+    {
+        outputPositions = null;
+        nulls = null;
+        nestedOffsets = null;
+        nestedLengths = null;
+        systemMemoryContext.close();
+    }
+
+    @Override
+    public long getRetainedSizeInBytes()
+    {
+        return sizeOf(outputPositions) + sizeOf(nulls) + sizeOf(nestedOffsets) + sizeOf(nestedLengths) + getNestedRetainedSizeInBytes();
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc.reader;
+
+import io.prestosql.memory.context.AggregatedMemoryContext;
+import io.prestosql.orc.OrcColumn;
+import io.prestosql.orc.OrcCorruptionException;
+import io.prestosql.orc.TupleDomainFilter;
+import io.prestosql.orc.metadata.ColumnEncoding;
+import io.prestosql.orc.metadata.ColumnMetadata;
+import io.prestosql.orc.metadata.OrcType;
+import io.prestosql.orc.stream.InputStreamSource;
+import io.prestosql.orc.stream.InputStreamSources;
+import io.prestosql.orc.stream.LongInputStream;
+import io.prestosql.spi.block.ArrayBlock;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.type.ArrayType;
+import io.prestosql.spi.type.Type;
+import org.joda.time.DateTimeZone;
+import org.openjdk.jol.info.ClassLayout;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import static io.airlift.slice.SizeOf.sizeOf;
+import static io.prestosql.orc.metadata.Stream.StreamKind.LENGTH;
+import static io.prestosql.orc.reader.SelectiveColumnReaders.createColumnReader;
+import static io.prestosql.orc.stream.MissingInputStreamSource.missingStreamSource;
+import static java.lang.Math.toIntExact;
+
+/**
+ * Selective reader of LIST columns, the elements are only read for the rows which passed the filter
+ * and only when the column is projected.
+ */
+public class ListSelectiveColumnReader<T>
+        extends AbstractNestedSelectiveColumnReader<T>
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(ListSelectiveColumnReader.class).instanceSize();
+
+    @Nullable
+    private final Type elementType;
+    @Nullable
+    private final SelectiveColumnReader elementReader;
+
+    private InputStreamSource<LongInputStream> lengthStreamSource = missingStreamSource(LongInputStream.class);
+    @Nullable
+    private LongInputStream lengthStream;
+
+    private int[] elementPositions;
+
+    public ListSelectiveColumnReader(
+            ColumnMetadata<OrcType> orcTypes,
+            OrcColumn column,
+            Optional<TupleDomainFilter> filter,
+            Optional<Type> outputType,
+            DateTimeZone hiveStorageTimeZone,
+            AggregatedMemoryContext systemMemoryContext)
+    {
+        super(column, filter, outputType, systemMemoryContext.newLocalMemoryContext(ListSelectiveColumnReader.class.getSimpleName()));
+
+        if (outputType.isPresent()) {
+            this.elementType = ((ArrayType) outputType.get()).getElementType();
+            this.elementReader = createColumnReader(
+                    orcTypes,
+                    column.getNestedColumns().get(0),
+                    Optional.empty(),
+                    Optional.of(elementType),
+                    hiveStorageTimeZone,
+                    systemMemoryContext);
+        }
+        else {
+            this.elementType = null;
+            this.elementReader = null;
+        }
+    }
+
+    @Override
+    protected void openNestedStreams()
+            throws IOException
+    {
+        lengthStream = lengthStreamSource.openStream();
+    }
+
+    @Override
+    protected int readNestedLength()
+            throws IOException
+    {
+        return toIntExact(getLengthStream().next());
+    }
+
+    @Override
+    protected int skipNestedLengths(int nonNullRows)
+            throws IOException
+    {
+        return toIntExact(getLengthStream().sum(nonNullRows));
+    }
+
+    private LongInputStream getLengthStream()
+            throws OrcCorruptionException
+    {
+        if (lengthStream == null) {
+            throw new OrcCorruptionException(column.getOrcDataSourceId(), "Value is not null but data stream is not present");
+        }
+        return lengthStream;
+    }
+
+    @Override
+    protected int readNested()
+            throws IOException
+    {
+        if (elementReader == null) {
+            return outputPositionCount;
+        }
+
+        int elementCount = getNestedPositionCount();
+        if (elementCount > 0) {
+            if (elementPositions == null || elementPositions.length < elementCount) {
+                elementPositions = new int[elementCount];
+            }
+            collectNestedPositions(elementPositions);
+            elementReader.read(nestedOffset, elementPositions, elementCount, null);
+        }
+        return outputPositionCount;
+    }
+
+    @Override
+    protected Block<T> createBlock(int positionCount, Optional<boolean[]> rowIsNull, int[] offsets, int[] nestedPositions, int nestedPositionCount)
+    {
+        Block elements = getNestedBlock(elementReader, elementType, nestedPositions, nestedPositionCount);
+        return ArrayBlock.fromElementBlock(positionCount, rowIsNull, offsets, elements);
+    }
+
+    @Override
+    protected void startNestedStripe(ZoneId fileTimeZone, InputStreamSources dictionaryStreamSources, ColumnMetadata<ColumnEncoding> encoding)
+            throws IOException
+    {
+        lengthStreamSource = missingStreamSource(LongInputStream.class);
+        lengthStream = null;
+        if (elementReader != null) {
+            elementReader.startStripe(fileTimeZone, dictionaryStreamSources, encoding);
+        }
+    }
+
+    @Override
+    protected void startNestedRowGroup(InputStreamSources dataStreamSources)
+            throws IOException
+    {
+        lengthStreamSource = dataStreamSources.getInputStreamSource(column, LENGTH, LongInputStream.class);
+        lengthStream = null;
+        if (elementReader != null) {
+            elementReader.startRowGroup(dataStreamSources);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if (elementReader != null) {
+            elementReader.close();
+        }
+        elementPositions = null;
+        super.close();
+    }
+
+    @Override
+    protected long getNestedRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(elementPositions) + (elementReader == null ? 0 : elementReader.getRetainedSizeInBytes());
+    }
+}
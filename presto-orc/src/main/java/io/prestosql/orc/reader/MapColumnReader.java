@@ -172,7 +172,7 @@ public class MapColumnReader<T>
         return type.createBlockFromKeyValue(Optional.ofNullable(nullVector), offsetVector, keyValueBlock[0], keyValueBlock[1]);
     }
 
-    private static Block[] createKeyValueBlock(int positionCount, Block keys, Block values, int[] lengths)
+    static Block[] createKeyValueBlock(int positionCount, Block keys, Block values, int[] lengths)
     {
         if (!hasNull(keys)) {
             return new Block[] {keys, values};
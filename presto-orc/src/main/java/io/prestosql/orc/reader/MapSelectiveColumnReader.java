@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc.reader;
+
+import io.prestosql.memory.context.AggregatedMemoryContext;
+import io.prestosql.orc.OrcColumn;
+import io.prestosql.orc.OrcCorruptionException;
+import io.prestosql.orc.TupleDomainFilter;
+import io.prestosql.orc.metadata.ColumnEncoding;
+import io.prestosql.orc.metadata.ColumnMetadata;
+import io.prestosql.orc.metadata.OrcType;
+import io.prestosql.orc.stream.InputStreamSource;
+import io.prestosql.orc.stream.InputStreamSources;
+import io.prestosql.orc.stream.LongInputStream;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.type.MapType;
+import io.prestosql.spi.type.Type;
+import org.joda.time.DateTimeZone;
+import org.openjdk.jol.info.ClassLayout;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import static io.airlift.slice.SizeOf.sizeOf;
+import static io.prestosql.orc.metadata.Stream.StreamKind.LENGTH;
+import static io.prestosql.orc.reader.MapColumnReader.createKeyValueBlock;
+import static io.prestosql.orc.reader.SelectiveColumnReaders.createColumnReader;
+import static io.prestosql.orc.stream.MissingInputStreamSource.missingStreamSource;
+import static java.lang.Math.toIntExact;
+
+/**
+ * Selective reader of MAP columns, the keys and values are only read for the rows which passed the filter
+ * and only when the column is projected.
+ */
+public class MapSelectiveColumnReader<T>
+        extends AbstractNestedSelectiveColumnReader<T>
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(MapSelectiveColumnReader.class).instanceSize();
+
+    @Nullable
+    private final MapType mapType;
+    @Nullable
+    private final SelectiveColumnReader keyReader;
+    @Nullable
+    private final SelectiveColumnReader valueReader;
+
+    private InputStreamSource<LongInputStream> lengthStreamSource = missingStreamSource(LongInputStream.class);
+    @Nullable
+    private LongInputStream lengthStream;
+
+    private int[] entryPositions;
+
+    public MapSelectiveColumnReader(
+            ColumnMetadata<OrcType> orcTypes,
+            OrcColumn column,
+            Optional<TupleDomainFilter> filter,
+            Optional<Type> outputType,
+            DateTimeZone hiveStorageTimeZone,
+            AggregatedMemoryContext systemMemoryContext)
+    {
+        super(column, filter, outputType, systemMemoryContext.newLocalMemoryContext(MapSelectiveColumnReader.class.getSimpleName()));
+
+        if (outputType.isPresent()) {
+            this.mapType = (MapType) outputType.get();
+            this.keyReader = createColumnReader(
+                    orcTypes,
+                    column.getNestedColumns().get(0),
+                    Optional.empty(),
+                    Optional.of(mapType.getKeyType()),
+                    hiveStorageTimeZone,
+                    systemMemoryContext);
+            this.valueReader = createColumnReader(
+                    orcTypes,
+                    column.getNestedColumns().get(1),
+                    Optional.empty(),
+                    Optional.of(mapType.getValueType()),
+                    hiveStorageTimeZone,
+                    systemMemoryContext);
+        }
+        else {
+            this.mapType = null;
+            this.keyReader = null;
+            this.valueReader = null;
+        }
+    }
+
+    @Override
+    protected void openNestedStreams()
+            throws IOException
+    {
+        lengthStream = lengthStreamSource.openStream();
+    }
+
+    @Override
+    protected int readNestedLength()
+            throws IOException
+    {
+        return toIntExact(getLengthStream().next());
+    }
+
+    @Override
+    protected int skipNestedLengths(int nonNullRows)
+            throws IOException
+    {
+        return toIntExact(getLengthStream().sum(nonNullRows));
+    }
+
+    private LongInputStream getLengthStream()
+            throws OrcCorruptionException
+    {
+        if (lengthStream == null) {
+            throw new OrcCorruptionException(column.getOrcDataSourceId(), "Value is not null but data stream is not present");
+        }
+        return lengthStream;
+    }
+
+    @Override
+    protected int readNested()
+            throws IOException
+    {
+        if (keyReader == null) {
+            return outputPositionCount;
+        }
+
+        int entryCount = getNestedPositionCount();
+        if (entryCount > 0) {
+            if (entryPositions == null || entryPositions.length < entryCount) {
+                entryPositions = new int[entryCount];
+            }
+            collectNestedPositions(entryPositions);
+            keyReader.read(nestedOffset, entryPositions, entryCount, null);
+            valueReader.read(nestedOffset, entryPositions, entryCount, null);
+        }
+        return outputPositionCount;
+    }
+
+    @Override
+    protected Block<T> createBlock(int positionCount, Optional<boolean[]> rowIsNull, int[] offsets, int[] nestedPositions, int nestedPositionCount)
+    {
+        Block keys = getNestedBlock(keyReader, mapType.getKeyType(), nestedPositions, nestedPositionCount);
+        Block values = getNestedBlock(valueReader, mapType.getValueType(), nestedPositions, nestedPositionCount);
+
+        int[] lengths = new int[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            lengths[i] = offsets[i + 1] - offsets[i];
+        }
+        Block[] keyValueBlock = createKeyValueBlock(positionCount, keys, values, lengths);
+        for (int i = 0; i < positionCount; i++) {
+            offsets[i + 1] = offsets[i] + lengths[i];
+        }
+        return (Block<T>) mapType.createBlockFromKeyValue(rowIsNull, offsets, keyValueBlock[0], keyValueBlock[1]);
+    }
+
+    @Override
+    protected void startNestedStripe(ZoneId fileTimeZone, InputStreamSources dictionaryStreamSources, ColumnMetadata<ColumnEncoding> encoding)
+            throws IOException
+    {
+        lengthStreamSource = missingStreamSource(LongInputStream.class);
+        lengthStream = null;
+        if (keyReader != null) {
+            keyReader.startStripe(fileTimeZone, dictionaryStreamSources, encoding);
+            valueReader.startStripe(fileTimeZone, dictionaryStreamSources, encoding);
+        }
+    }
+
+    @Override
+    protected void startNestedRowGroup(InputStreamSources dataStreamSources)
+            throws IOException
+    {
+        lengthStreamSource = dataStreamSources.getInputStreamSource(column, LENGTH, LongInputStream.class);
+        lengthStream = null;
+        if (keyReader != null) {
+            keyReader.startRowGroup(dataStreamSources);
+            valueReader.startRowGroup(dataStreamSources);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if (keyReader != null) {
+            keyReader.close();
+            valueReader.close();
+        }
+        entryPositions = null;
+        super.close();
+    }
+
+    @Override
+    protected long getNestedRetainedSizeInBytes()
+    {
+        long retainedSizeInBytes = INSTANCE_SIZE + sizeOf(entryPositions);
+        if (keyReader != null) {
+            retainedSizeInBytes += keyReader.getRetainedSizeInBytes() + valueReader.getRetainedSizeInBytes();
+        }
+        return retainedSizeInBytes;
+    }
+}
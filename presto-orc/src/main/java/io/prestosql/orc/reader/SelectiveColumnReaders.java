@@ -14,17 +14,21 @@
 package io.prestosql.orc.reader;
 
 import com.google.common.cache.Cache;
+import com.google.common.collect.ImmutableMap;
 import io.prestosql.memory.context.AggregatedMemoryContext;
 import io.prestosql.orc.OrcColumn;
 import io.prestosql.orc.OrcPredicate;
 import io.prestosql.orc.OrcRowDataCacheKey;
 import io.prestosql.orc.TupleDomainFilter;
+import io.prestosql.orc.metadata.ColumnMetadata;
 import io.prestosql.orc.metadata.OrcType;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.type.Type;
 import org.joda.time.DateTimeZone;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static io.prestosql.spi.type.Decimals.MAX_SHORT_PRECISION;
 
@@ -33,13 +37,31 @@ public final class SelectiveColumnReaders
     private SelectiveColumnReaders() {}
 
     public static SelectiveColumnReader createColumnReader(
-            OrcType orcType,
+            ColumnMetadata<OrcType> orcTypes,
             OrcColumn column,
             Optional<TupleDomainFilter> filter,
             Optional<Type> outputType,
             DateTimeZone hiveStorageTimeZone,
             AggregatedMemoryContext systemMemoryContext)
     {
+        return createColumnReader(orcTypes, column, filter, ImmutableMap.of(), Optional.empty(), outputType, hiveStorageTimeZone, systemMemoryContext);
+    }
+
+    /**
+     * @param subfieldFilters filters on the fields nested in a STRUCT column, by field path relative to the column
+     * @param requiredSubfields field paths of a STRUCT column which are read, all fields are read when absent
+     */
+    public static SelectiveColumnReader createColumnReader(
+            ColumnMetadata<OrcType> orcTypes,
+            OrcColumn column,
+            Optional<TupleDomainFilter> filter,
+            Map<String, TupleDomainFilter> subfieldFilters,
+            Optional<Set<String>> requiredSubfields,
+            Optional<Type> outputType,
+            DateTimeZone hiveStorageTimeZone,
+            AggregatedMemoryContext systemMemoryContext)
+    {
+        OrcType orcType = orcTypes.get(column.getColumnId());
         switch (column.getColumnType()) {
             case BOOLEAN:
                 return new BooleanSelectiveColumnReader(column, filter, outputType.isPresent(), systemMemoryContext.newLocalMemoryContext(SelectiveColumnReaders.class.getSimpleName()));
@@ -64,11 +86,14 @@ public final class SelectiveColumnReaders
                 return new DoubleSelectiveColumnReader(column, filter, outputType.isPresent(), systemMemoryContext.newLocalMemoryContext(SelectiveColumnReaders.class.getSimpleName()));
             case FLOAT:
                 return new FloatSelectiveColumnReader(column, filter, outputType.isPresent(), systemMemoryContext.newLocalMemoryContext(SelectiveColumnReader.class.getSimpleName()));
-            case BYTE:
             case LIST:
+                return new ListSelectiveColumnReader(orcTypes, column, filter, outputType, hiveStorageTimeZone, systemMemoryContext);
             case STRUCT:
-            case UNION:
+                return new StructSelectiveColumnReader(orcTypes, column, filter, subfieldFilters, requiredSubfields, outputType, hiveStorageTimeZone, systemMemoryContext);
             case MAP:
+                return new MapSelectiveColumnReader(orcTypes, column, filter, outputType, hiveStorageTimeZone, systemMemoryContext);
+            case BYTE:
+            case UNION:
             default:
                 throw new IllegalArgumentException("Unsupported type: " + column.getColumnType());
         }
@@ -0,0 +1,330 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc.reader;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Closer;
+import io.prestosql.memory.context.AggregatedMemoryContext;
+import io.prestosql.orc.OrcColumn;
+import io.prestosql.orc.TupleDomainFilter;
+import io.prestosql.orc.metadata.ColumnEncoding;
+import io.prestosql.orc.metadata.ColumnMetadata;
+import io.prestosql.orc.metadata.OrcType;
+import io.prestosql.orc.stream.InputStreamSources;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.RowBlock;
+import io.prestosql.spi.type.RowType;
+import io.prestosql.spi.type.RowType.Field;
+import io.prestosql.spi.type.Type;
+import org.joda.time.DateTimeZone;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static io.prestosql.orc.reader.SelectiveColumnReaders.createColumnReader;
+
+/**
+ * Selective reader of STRUCT columns.
+ * <p>
+ * Only the fields which are required are read, the other fields of the output type are returned as nulls.
+ * Filters on fields are evaluated by the field readers, one after the other, each one reading only the rows
+ * which passed the previous filters, before any field without filter is read.
+ */
+public class StructSelectiveColumnReader<T>
+        extends AbstractNestedSelectiveColumnReader<T>
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(StructSelectiveColumnReader.class).instanceSize();
+
+    private final List<Type> outputFieldTypes;
+    // reader of each field of the output type, null for fields which are pruned or missing in the file
+    private final SelectiveColumnReader[] outputFieldReaders;
+    private final List<SelectiveColumnReader> filterReaders;
+    private final List<SelectiveColumnReader> projectionReaders;
+    private final List<SelectiveColumnReader> fieldReaders;
+    // whether a null struct passes the filters on its fields, which are null then
+    private final boolean nullsPassFieldFilters;
+    // a filter on a field missing in the file rejects nulls
+    private final boolean fieldFiltersAlwaysFalse;
+
+    private int[] nestedPositions;
+
+    /**
+     * @param subfieldFilters filters on nested fields, by field path relative to this column, e.g. "a" or "a.b"
+     * @param requiredSubfields field paths which are read, all fields are read when absent
+     */
+    public StructSelectiveColumnReader(
+            ColumnMetadata<OrcType> orcTypes,
+            OrcColumn column,
+            Optional<TupleDomainFilter> filter,
+            Map<String, TupleDomainFilter> subfieldFilters,
+            Optional<Set<String>> requiredSubfields,
+            Optional<Type> outputType,
+            DateTimeZone hiveStorageTimeZone,
+            AggregatedMemoryContext systemMemoryContext)
+    {
+        super(column, filter, outputType, systemMemoryContext.newLocalMemoryContext(StructSelectiveColumnReader.class.getSimpleName()));
+
+        Map<String, OrcColumn> nestedColumns = column.getNestedColumns().stream()
+                .collect(toImmutableMap(nested -> nested.getColumnName().toLowerCase(Locale.ENGLISH), nested -> nested));
+
+        // group the filters and the required subfields by field
+        Map<String, TupleDomainFilter> fieldFilters = new HashMap<>();
+        Map<String, Map<String, TupleDomainFilter>> nestedFieldFilters = new HashMap<>();
+        boolean nullsPass = true;
+        boolean alwaysFalse = false;
+        for (Map.Entry<String, TupleDomainFilter> entry : subfieldFilters.entrySet()) {
+            String path = entry.getKey().toLowerCase(Locale.ENGLISH);
+            String fieldName = getFieldName(path);
+            nullsPass &= entry.getValue().testNull();
+            if (!nestedColumns.containsKey(fieldName)) {
+                alwaysFalse |= !entry.getValue().testNull();
+            }
+            else if (fieldName.equals(path)) {
+                fieldFilters.put(fieldName, entry.getValue());
+            }
+            else {
+                nestedFieldFilters.computeIfAbsent(fieldName, name -> new HashMap<>()).put(path.substring(fieldName.length() + 1), entry.getValue());
+            }
+        }
+        this.nullsPassFieldFilters = nullsPass;
+        this.fieldFiltersAlwaysFalse = alwaysFalse;
+
+        Map<String, Optional<Set<String>>> requiredFields = null;
+        if (requiredSubfields.isPresent()) {
+            requiredFields = new HashMap<>();
+            for (String subfield : requiredSubfields.get()) {
+                String path = subfield.toLowerCase(Locale.ENGLISH);
+                String fieldName = getFieldName(path);
+                if (fieldName.equals(path)) {
+                    requiredFields.put(fieldName, Optional.empty());
+                }
+                else {
+                    Optional<Set<String>> nested = requiredFields.computeIfAbsent(fieldName, name -> Optional.of(new HashSet<>()));
+                    nested.ifPresent(paths -> paths.add(path.substring(fieldName.length() + 1)));
+                }
+            }
+        }
+
+        Map<String, SelectiveColumnReader> readers = new LinkedHashMap<>();
+        ImmutableList.Builder<Type> outputFieldTypes = ImmutableList.builder();
+        ImmutableList.Builder<SelectiveColumnReader> projectionReaders = ImmutableList.builder();
+        List<SelectiveColumnReader> outputFieldReaders = new ArrayList<>();
+        if (outputType.isPresent()) {
+            for (Field field : ((RowType) outputType.get()).getFields()) {
+                String fieldName = field.getName()
+                        .orElseThrow(() -> new IllegalArgumentException("ROW type does not have field names declared: " + outputType.get()))
+                        .toLowerCase(Locale.ENGLISH);
+                outputFieldTypes.add(field.getType());
+
+                OrcColumn fieldColumn = nestedColumns.get(fieldName);
+                boolean required = requiredFields == null || requiredFields.containsKey(fieldName);
+                if (fieldColumn == null || !required) {
+                    outputFieldReaders.add(null);
+                    continue;
+                }
+                SelectiveColumnReader reader = createColumnReader(
+                        orcTypes,
+                        fieldColumn,
+                        Optional.ofNullable(fieldFilters.get(fieldName)),
+                        nestedFieldFilters.getOrDefault(fieldName, ImmutableMap.of()),
+                        requiredFields == null ? Optional.empty() : requiredFields.get(fieldName),
+                        Optional.of(field.getType()),
+                        hiveStorageTimeZone,
+                        systemMemoryContext);
+                readers.put(fieldName, reader);
+                outputFieldReaders.add(reader);
+                if (!fieldFilters.containsKey(fieldName) && !nestedFieldFilters.containsKey(fieldName)) {
+                    projectionReaders.add(reader);
+                }
+            }
+        }
+
+        // fields which are only filtered on
+        ImmutableList.Builder<SelectiveColumnReader> filterReaders = ImmutableList.builder();
+        Set<String> filteredFields = new HashSet<>(fieldFilters.keySet());
+        filteredFields.addAll(nestedFieldFilters.keySet());
+        for (String fieldName : filteredFields) {
+            SelectiveColumnReader reader = readers.get(fieldName);
+            if (reader == null) {
+                reader = createColumnReader(
+                        orcTypes,
+                        nestedColumns.get(fieldName),
+                        Optional.ofNullable(fieldFilters.get(fieldName)),
+                        nestedFieldFilters.getOrDefault(fieldName, ImmutableMap.of()),
+                        Optional.of(ImmutableSet.of()),
+                        Optional.empty(),
+                        hiveStorageTimeZone,
+                        systemMemoryContext);
+                readers.put(fieldName, reader);
+            }
+            filterReaders.add(reader);
+        }
+
+        this.outputFieldTypes = outputFieldTypes.build();
+        this.outputFieldReaders = outputFieldReaders.toArray(new SelectiveColumnReader[0]);
+        this.filterReaders = filterReaders.build();
+        this.projectionReaders = projectionReaders.build();
+        this.fieldReaders = ImmutableList.copyOf(readers.values());
+    }
+
+    private static String getFieldName(String path)
+    {
+        int separator = path.indexOf('.');
+        return separator < 0 ? path : path.substring(0, separator);
+    }
+
+    @Override
+    protected void openNestedStreams()
+    {
+    }
+
+    @Override
+    protected int readNestedLength()
+    {
+        return 1;
+    }
+
+    @Override
+    protected int skipNestedLengths(int nonNullRows)
+    {
+        return nonNullRows;
+    }
+
+    @Override
+    protected int readNested()
+            throws IOException
+    {
+        if (fieldFiltersAlwaysFalse) {
+            return 0;
+        }
+
+        if (nestedPositions == null || nestedPositions.length < outputPositionCount) {
+            nestedPositions = new int[outputPositionCount];
+        }
+        int[] positions = nestedPositions;
+        int positionCount = collectNestedPositions(positions);
+
+        for (int i = 0; i < filterReaders.size() && positionCount > 0; i++) {
+            SelectiveColumnReader reader = filterReaders.get(i);
+            positionCount = reader.read(nestedOffset, positions, positionCount, null);
+            positions = reader.getReadPositions();
+        }
+        if (!filterReaders.isEmpty()) {
+            removeFilteredRows(positions, positionCount);
+        }
+
+        if (outputRequired && positionCount > 0) {
+            for (SelectiveColumnReader reader : projectionReaders) {
+                reader.read(nestedOffset, positions, positionCount, null);
+            }
+        }
+        return outputPositionCount;
+    }
+
+    private void removeFilteredRows(int[] positions, int positionCount)
+    {
+        int rowCount = 0;
+        int positionIndex = 0;
+        for (int i = 0; i < outputPositionCount; i++) {
+            boolean passed;
+            if (nulls[i]) {
+                passed = nullsPassFieldFilters;
+            }
+            else {
+                while (positionIndex < positionCount && positions[positionIndex] < nestedOffsets[i]) {
+                    positionIndex++;
+                }
+                passed = positionIndex < positionCount && positions[positionIndex] == nestedOffsets[i];
+            }
+
+            if (passed) {
+                outputPositions[rowCount] = outputPositions[i];
+                nulls[rowCount] = nulls[i];
+                nestedOffsets[rowCount] = nestedOffsets[i];
+                nestedLengths[rowCount] = nestedLengths[i];
+                rowCount++;
+            }
+        }
+        outputPositionCount = rowCount;
+    }
+
+    @Override
+    protected Block<T> createBlock(int positionCount, Optional<boolean[]> rowIsNull, int[] offsets, int[] nestedPositions, int nestedPositionCount)
+    {
+        Block[] blocks = new Block[outputFieldTypes.size()];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = getNestedBlock(outputFieldReaders[i], outputFieldTypes.get(i), nestedPositions, nestedPositionCount);
+        }
+        return RowBlock.fromFieldBlocks(positionCount, rowIsNull, blocks);
+    }
+
+    @Override
+    protected void startNestedStripe(ZoneId fileTimeZone, InputStreamSources dictionaryStreamSources, ColumnMetadata<ColumnEncoding> encoding)
+            throws IOException
+    {
+        for (SelectiveColumnReader reader : fieldReaders) {
+            reader.startStripe(fileTimeZone, dictionaryStreamSources, encoding);
+        }
+    }
+
+    @Override
+    protected void startNestedRowGroup(InputStreamSources dataStreamSources)
+            throws IOException
+    {
+        for (SelectiveColumnReader reader : fieldReaders) {
+            reader.startRowGroup(dataStreamSources);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        try (Closer closer = Closer.create()) {
+            for (SelectiveColumnReader reader : fieldReaders) {
+                closer.register(reader::close);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        nestedPositions = null;
+        super.close();
+    }
+
+    @Override
+    protected long getNestedRetainedSizeInBytes()
+    {
+        long retainedSizeInBytes = INSTANCE_SIZE + sizeOf(nestedPositions);
+        for (SelectiveColumnReader reader : fieldReaders) {
+            retainedSizeInBytes += reader.getRetainedSizeInBytes();
+        }
+        return retainedSizeInBytes;
+    }
+}
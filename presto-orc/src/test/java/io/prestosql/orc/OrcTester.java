@@ -524,6 +524,19 @@ public class OrcTester
             int initialBatchSize,
             Map<Integer, TupleDomainFilter> filters)
             throws IOException
+    {
+        return createCustomOrcSelectiveRecordReader(tempFile, predicate, types, initialBatchSize, filters, ImmutableMap.of(), ImmutableMap.of());
+    }
+
+    static OrcSelectiveRecordReader createCustomOrcSelectiveRecordReader(
+            TempFile tempFile,
+            OrcPredicate predicate,
+            List<Type> types,
+            int initialBatchSize,
+            Map<Integer, TupleDomainFilter> filters,
+            Map<Integer, Map<String, TupleDomainFilter>> subfieldFilters,
+            Map<Integer, Set<String>> requiredSubfields)
+            throws IOException
     {
         OrcDataSource orcDataSource = new FileOrcDataSource(tempFile.getFile(), new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE), true, tempFile.getFile().lastModified());
         OrcReader orcReader = new OrcReader(orcDataSource, OrcFileTail.readFrom(orcDataSource, Optional.empty()), new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE));
@@ -560,7 +573,9 @@ public class OrcTester
                 false,
                 ImmutableMap.of(),
                 ImmutableMap.of(),
-                new HashSet<>());
+                new HashSet<>(),
+                subfieldFilters,
+                requiredSubfields);
     }
 
     private static List<String> makeColumnNames(int columns)
@@ -595,7 +610,10 @@ public class OrcTester
                     return false;
                 }
             }
-            else {
+            else if (filter instanceof TupleDomainFilter.IsNull) {
+                return false;
+            }
+            else if (!(filter instanceof TupleDomainFilter.IsNotNull)) {
                 Type type = types.get(column);
                 if (type == BOOLEAN) {
                     if (!filter.testBoolean((Boolean) value)) {
@@ -1371,7 +1389,7 @@ public class OrcTester
         return asList(input, input, input, input);
     }
 
-    private static Type arrayType(Type elementType)
+    public static Type arrayType(Type elementType)
     {
         return METADATA.getFunctionAndTypeManager().getParameterizedType(StandardTypes.ARRAY, ImmutableList.of(TypeSignatureParameter.of(elementType.getTypeSignature())));
     }
@@ -1381,7 +1399,7 @@ public class OrcTester
         return METADATA.getFunctionAndTypeManager().getParameterizedType(StandardTypes.MAP, ImmutableList.of(TypeSignatureParameter.of(keyType.getTypeSignature()), TypeSignatureParameter.of(valueType.getTypeSignature())));
     }
 
-    private static Type rowType(Type... fieldTypes)
+    public static Type rowType(Type... fieldTypes)
     {
         ImmutableList.Builder<TypeSignatureParameter> typeSignatureParameters = ImmutableList.builder();
         for (int i = 0; i < fieldTypes.length; i++) {
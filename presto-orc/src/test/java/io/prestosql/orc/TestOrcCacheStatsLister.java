@@ -83,20 +83,22 @@ public class TestOrcCacheStatsLister
 
     private OrcCacheStore newOrcCacheStore()
     {
-        return OrcCacheStore.builder().newCacheStore(100, Duration.ofMinutes(10),
-                100, Duration.ofMinutes(10),
-                100, Duration.ofMinutes(10),
-                100, Duration.ofMinutes(10),
+        return OrcCacheStore.builder().newCacheStore(new DataSize(100, MEGABYTE),
+                Duration.ofMinutes(10),
+                Duration.ofMinutes(10),
+                Duration.ofMinutes(10),
+                Duration.ofMinutes(10),
                 new DataSize(100, MEGABYTE), Duration.ofMinutes(10),
                 true);
     }
 
     private OrcCacheStore newSmallOrcCacheStore()
     {
-        return OrcCacheStore.builder().newCacheStore(1, Duration.ofMinutes(10),
-                1, Duration.ofMinutes(10),
-                1, Duration.ofMinutes(10),
-                1, Duration.ofMinutes(10),
+        return OrcCacheStore.builder().newCacheStore(new DataSize(1, MEGABYTE),
+                Duration.ofMinutes(10),
+                Duration.ofMinutes(10),
+                Duration.ofMinutes(10),
+                Duration.ofMinutes(10),
                 new DataSize(0, MEGABYTE), Duration.ofMinutes(10),
                 true);
     }
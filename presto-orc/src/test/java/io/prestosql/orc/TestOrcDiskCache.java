@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import io.airlift.units.DataSize;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+public class TestOrcDiskCache
+{
+    private static final OrcDataSourceId ID = new OrcDataSourceId("hdfs://test/file.orc");
+    private static final DataSize BLOCK_SIZE = new DataSize(100, BYTE);
+    private static final DataSize MAX_SIZE = new DataSize(1000, BYTE);
+
+    private final byte[] file = new byte[950];
+    private Path directory;
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        for (int i = 0; i < file.length; i++) {
+            file[i] = (byte) i;
+        }
+        directory = Files.createTempDirectory("orc-disk-cache");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(directory, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testReadThroughCache()
+            throws IOException
+    {
+        OrcDiskCache cache = new OrcDiskCache(directory, MAX_SIZE, BLOCK_SIZE, directExecutor());
+        CountingReader remote = new CountingReader();
+
+        assertRead(cache, remote, 150, 100);
+        assertEquals(cache.getStats().getMissCount(), 2);
+        assertEquals(cache.getBlockCount(), 2);
+        assertEquals(cache.getSize(), 200);
+        assertEquals(remote.reads.get(), 1);
+
+        // the cached blocks are read from local disk, only the missing one from the remote file
+        assertRead(cache, remote, 120, 250);
+        assertEquals(cache.getStats().getHitCount(), 2);
+        assertEquals(cache.getStats().getMissCount(), 3);
+        assertEquals(remote.reads.get(), 2);
+
+        // last block of the file is shorter than the block size
+        assertRead(cache, remote, 900, 50);
+        assertRead(cache, remote, 920, 30);
+        assertEquals(remote.reads.get(), 3);
+        assertEquals(cache.getSize(), 350);
+    }
+
+    @Test
+    public void testModifiedFile()
+            throws IOException
+    {
+        OrcDiskCache cache = new OrcDiskCache(directory, MAX_SIZE, BLOCK_SIZE, directExecutor());
+        CountingReader remote = new CountingReader();
+
+        byte[] buffer = new byte[10];
+        cache.read(ID, 1, file.length, 0, buffer, 0, buffer.length, remote);
+        cache.read(ID, 2, file.length, 0, buffer, 0, buffer.length, remote);
+        assertEquals(remote.reads.get(), 2);
+        assertEquals(cache.getBlockCount(), 2);
+    }
+
+    @Test
+    public void testEviction()
+            throws IOException
+    {
+        OrcDiskCache cache = new OrcDiskCache(directory, new DataSize(300, BYTE), BLOCK_SIZE, directExecutor());
+        CountingReader remote = new CountingReader();
+
+        assertRead(cache, remote, 0, 500);
+        assertEquals(cache.getSize(), 300);
+        assertEquals(cache.getStats().getEvictionCount(), 2);
+        try (Stream<Path> files = Files.walk(directory)) {
+            assertEquals(files.filter(Files::isRegularFile).count(), 3);
+        }
+    }
+
+    @Test
+    public void testRestart()
+            throws IOException
+    {
+        OrcDiskCache cache = new OrcDiskCache(directory, MAX_SIZE, BLOCK_SIZE, directExecutor());
+        CountingReader remote = new CountingReader();
+        assertRead(cache, remote, 0, 300);
+        Files.write(directory.resolve("stale.tmp"), new byte[1]);
+
+        OrcDiskCache restarted = new OrcDiskCache(directory, MAX_SIZE, BLOCK_SIZE, directExecutor());
+        assertEquals(restarted.getBlockCount(), 3);
+        assertEquals(restarted.getSize(), 300);
+        assertRead(restarted, remote, 50, 200);
+        assertEquals(remote.reads.get(), 1);
+        assertEquals(restarted.getStats().getHitCount(), 3);
+        assertFalse(Files.exists(directory.resolve("stale.tmp")));
+    }
+
+    private void assertRead(OrcDiskCache cache, CountingReader remote, long position, int length)
+            throws IOException
+    {
+        byte[] buffer = new byte[length + 2];
+        cache.read(ID, 1, file.length, position, buffer, 1, length, remote);
+        assertEquals(Arrays.copyOfRange(buffer, 1, length + 1), Arrays.copyOfRange(file, (int) position, (int) position + length));
+    }
+
+    private class CountingReader
+            implements OrcDiskCache.RemoteReader
+    {
+        private final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public void readFully(long position, byte[] buffer, int bufferOffset, int length)
+        {
+            reads.incrementAndGet();
+            System.arraycopy(file, (int) position, buffer, bufferOffset, length);
+        }
+    }
+}
@@ -78,10 +78,11 @@ public class TestOrcReaderCache
 
     private OrcCacheStore newOrcCacheStore()
     {
-        return OrcCacheStore.builder().newCacheStore(100, Duration.ofMinutes(10),
-                100, Duration.ofMinutes(10),
-                100, Duration.ofMinutes(10),
-                100, Duration.ofMinutes(10),
+        return OrcCacheStore.builder().newCacheStore(new DataSize(100, MEGABYTE),
+                Duration.ofMinutes(10),
+                Duration.ofMinutes(10),
+                Duration.ofMinutes(10),
+                Duration.ofMinutes(10),
                 new DataSize(100, MEGABYTE), Duration.ofMinutes(10),
                 false);
     }
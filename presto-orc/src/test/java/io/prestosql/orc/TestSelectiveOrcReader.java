@@ -19,25 +19,32 @@ import com.google.common.collect.ContiguousSet;
 import com.google.common.collect.DiscreteDomain;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Range;
 import io.prestosql.orc.TupleDomainFilter.BigintRange;
 import io.prestosql.orc.TupleDomainFilter.BooleanValue;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
 import io.prestosql.spi.type.CharType;
 import io.prestosql.spi.type.DecimalType;
 import io.prestosql.spi.type.SqlDate;
 import io.prestosql.spi.type.SqlDecimal;
 import io.prestosql.spi.type.SqlTimestamp;
+import io.prestosql.spi.type.Type;
 import org.joda.time.DateTimeZone;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.io.IOException;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Random;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.IntStream;
 
@@ -46,11 +53,17 @@ import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.cycle;
 import static com.google.common.collect.Iterables.limit;
 import static com.google.common.collect.Lists.newArrayList;
+import static io.prestosql.orc.OrcReader.MAX_BATCH_SIZE;
 import static io.prestosql.orc.OrcTester.HIVE_STORAGE_TIME_ZONE;
+import static io.prestosql.orc.OrcTester.arrayType;
+import static io.prestosql.orc.OrcTester.createCustomOrcSelectiveRecordReader;
 import static io.prestosql.orc.OrcTester.mapType;
 import static io.prestosql.orc.OrcTester.quickSelectiveOrcTester;
+import static io.prestosql.orc.OrcTester.rowType;
+import static io.prestosql.orc.OrcTester.writeOrcColumnPresto;
 import static io.prestosql.orc.TupleDomainFilterUtils.IS_NOT_NULL;
 import static io.prestosql.orc.TupleDomainFilterUtils.IS_NULL;
+import static io.prestosql.orc.metadata.CompressionKind.ZLIB;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.BooleanType.BOOLEAN;
 import static io.prestosql.spi.type.CharType.createCharType;
@@ -59,8 +72,11 @@ import static io.prestosql.spi.type.DoubleType.DOUBLE;
 import static io.prestosql.spi.type.IntegerType.INTEGER;
 import static io.prestosql.spi.type.SmallintType.SMALLINT;
 import static io.prestosql.spi.type.TimestampType.TIMESTAMP;
+import static io.prestosql.spi.type.TinyintType.TINYINT;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static io.prestosql.testing.DateTimeTestingUtils.sqlTimestampOf;
+import static io.prestosql.testing.TestingConnectorSession.SESSION;
+import static java.util.Arrays.asList;
 import static java.util.Collections.nCopies;
 import static java.util.stream.Collectors.toList;
 import static org.testng.Assert.assertEquals;
@@ -268,11 +284,150 @@ public class TestSelectiveOrcReader
         tester.testRoundTrip(DECIMAL_TYPE_PRECISION_2, decimalSequence("-30", "1", 60, 2, 1), filters);
     }
 
-    @Test(expectedExceptions = IllegalArgumentException.class)
-    public void testUnknowType()
+    @Test
+    public void testStructs()
+            throws Exception
+    {
+        List<Map<Integer, TupleDomainFilter>> filters = ImmutableList.of(
+                ImmutableMap.of(0, IS_NULL),
+                ImmutableMap.of(0, IS_NOT_NULL));
+
+        tester.testRoundTrip(
+                rowType(BIGINT, VARCHAR, BIGINT),
+                createList(30_000, i -> i % 7 == 0 ? null : asList((long) i, "value" + i, i % 3 == 0 ? null : (long) i * 2)),
+                filters);
+    }
+
+    @Test
+    public void testArrays()
+            throws Exception
+    {
+        List<Map<Integer, TupleDomainFilter>> filters = ImmutableList.of(
+                ImmutableMap.of(0, IS_NULL),
+                ImmutableMap.of(0, IS_NOT_NULL));
+
+        tester.testRoundTrip(
+                arrayType(BIGINT),
+                createList(30_000, i -> i % 5 == 0 ? null : createList(i % 4, j -> (long) i + j)),
+                filters);
+    }
+
+    @Test
+    public void testMaps()
+            throws Exception
+    {
+        List<Map<Integer, TupleDomainFilter>> filters = ImmutableList.of(
+                ImmutableMap.of(0, IS_NULL),
+                ImmutableMap.of(0, IS_NOT_NULL));
+
+        tester.testRoundTrip(mapType(INTEGER, INTEGER), createList(30_000, i -> i % 11 == 0 ? null : createMap(i)), filters);
+    }
+
+    @Test
+    public void testArraysOfStructs()
+            throws Exception
+    {
+        List<Map<Integer, TupleDomainFilter>> filters = ImmutableList.of(
+                ImmutableMap.of(0, IS_NULL),
+                ImmutableMap.of(0, IS_NOT_NULL));
+
+        tester.testRoundTrip(
+                arrayType(rowType(BIGINT, VARCHAR)),
+                createList(30_000, i -> i % 5 == 0 ? null : createList(i % 4, j -> asList((long) i + j, j % 2 == 0 ? null : "value" + j))),
+                filters);
+    }
+
+    @Test
+    public void testMapsOfStructs()
             throws Exception
     {
-        tester.testRoundTrip(mapType(INTEGER, INTEGER), createList(1, i -> createMap(1)));
+        List<Map<Integer, TupleDomainFilter>> filters = ImmutableList.of(
+                ImmutableMap.of(0, IS_NULL),
+                ImmutableMap.of(0, IS_NOT_NULL));
+
+        tester.testRoundTrip(
+                mapType(INTEGER, rowType(BIGINT)),
+                createList(30_000, i -> i % 11 == 0 ? null : ImmutableMap.of(i, asList(i % 3 == 0 ? null : (long) i))),
+                filters);
+    }
+
+    @Test
+    public void testStructSubfields()
+            throws Exception
+    {
+        Type type = rowType(BIGINT, VARCHAR, rowType(BIGINT, BIGINT));
+        List<List<?>> values = createList(30_000, i -> i % 7 == 0 ? null : asList((long) i, "value" + i, i % 3 == 0 ? null : asList((long) i * 2, (long) (i % 10))));
+
+        try (TempFile tempFile = new TempFile()) {
+            writeOrcColumnPresto(tempFile.getFile(), ZLIB, type, values.iterator(), new OrcWriterStats());
+
+            // filter on a field
+            assertStructRead(type, tempFile, ImmutableMap.of("field_0", BigintRange.of(100, 20_000, false)), Optional.empty(),
+                    values.stream()
+                            .filter(value -> value != null && (long) value.get(0) >= 100 && (long) value.get(0) <= 20_000)
+                            .collect(toList()));
+
+            // filter on a field of a nested struct, which is null when the nested struct is
+            assertStructRead(type, tempFile, ImmutableMap.of("field_2.field_1", BigintRange.of(3, 3, false)), Optional.empty(),
+                    values.stream()
+                            .filter(value -> value != null && value.get(2) != null && (long) ((List<?>) value.get(2)).get(1) == 3)
+                            .collect(toList()));
+
+            // IS NULL filter on a field also passes null structs
+            assertStructRead(type, tempFile, ImmutableMap.of("field_2", IS_NULL), Optional.empty(),
+                    values.stream()
+                            .filter(value -> value == null || value.get(2) == null)
+                            .collect(toList()));
+
+            // fields which are not required are returned as nulls
+            assertStructRead(type, tempFile, ImmutableMap.of(), Optional.of(ImmutableSet.of("field_1")),
+                    values.stream()
+                            .map(value -> value == null ? null : asList(null, value.get(1), null))
+                            .collect(toList()));
+
+            // filters on fields which are not required, and a pruned nested struct
+            assertStructRead(
+                    type,
+                    tempFile,
+                    ImmutableMap.of("field_0", BigintRange.of(0, 999, false), "field_2.field_1", BigintRange.of(0, 4, false)),
+                    Optional.of(ImmutableSet.of("field_1", "field_2.field_0")),
+                    values.stream()
+                            .filter(value -> value != null && (long) value.get(0) <= 999 && value.get(2) != null && (long) ((List<?>) value.get(2)).get(1) <= 4)
+                            .map(value -> asList(null, value.get(1), asList(((List<?>) value.get(2)).get(0), null)))
+                            .collect(toList()));
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Unsupported type: BYTE")
+    public void testUnsupportedType()
+            throws Exception
+    {
+        tester.testRoundTrip(TINYINT, createList(1, i -> (byte) i));
+    }
+
+    private static void assertStructRead(Type type, TempFile tempFile, Map<String, TupleDomainFilter> subfieldFilters, Optional<Set<String>> requiredSubfields, List<?> expectedValues)
+            throws IOException
+    {
+        try (OrcSelectiveRecordReader recordReader = createCustomOrcSelectiveRecordReader(
+                tempFile,
+                OrcPredicate.TRUE,
+                ImmutableList.of(type),
+                MAX_BATCH_SIZE,
+                ImmutableMap.of(),
+                subfieldFilters.isEmpty() ? ImmutableMap.of() : ImmutableMap.of(0, subfieldFilters),
+                requiredSubfields.isPresent() ? ImmutableMap.of(0, requiredSubfields.get()) : ImmutableMap.of())) {
+            List<Object> actualValues = new ArrayList<>();
+            for (Page page = recordReader.getNextPage(); page != null; page = recordReader.getNextPage()) {
+                if (page.getPositionCount() == 0) {
+                    continue;
+                }
+                Block block = page.getBlock(0);
+                for (int position = 0; position < block.getPositionCount(); position++) {
+                    actualValues.add(type.getObjectValue(SESSION, block, position));
+                }
+            }
+            assertEquals(actualValues, expectedValues);
+        }
     }
 
     private static <T> List<T> createList(int size, Function<Integer, T> createElement)
@@ -28,8 +28,11 @@ import io.prestosql.plugin.jdbc.BlockReadFunction;
 import io.prestosql.plugin.jdbc.BlockWriteFunction;
 import io.prestosql.plugin.jdbc.ColumnMapping;
 import io.prestosql.plugin.jdbc.ConnectionFactory;
+import io.prestosql.plugin.jdbc.CopyTextBulkLoader;
+import io.prestosql.plugin.jdbc.JdbcBulkLoader;
 import io.prestosql.plugin.jdbc.JdbcColumnHandle;
 import io.prestosql.plugin.jdbc.JdbcIdentity;
+import io.prestosql.plugin.jdbc.JdbcOutputTableHandle;
 import io.prestosql.plugin.jdbc.JdbcTableHandle;
 import io.prestosql.plugin.jdbc.JdbcTypeHandle;
 import io.prestosql.plugin.jdbc.LongWriteFunction;
@@ -159,6 +162,15 @@ public abstract class BasePostgreSqlClient
         return statement;
     }
 
+    @Override
+    public Optional<JdbcBulkLoader> getBulkLoader(ConnectorSession session, JdbcOutputTableHandle handle)
+    {
+        return CopyTextBulkLoader.forTable(
+                handle.getColumnTypes(),
+                quoted(handle.getCatalogName(), handle.getSchemaName(), handle.getTemporaryTableName()),
+                (connection, sql, data) -> connection.unwrap(PgConnection.class).getCopyAPI().copyIn(sql, data));
+    }
+
     @Override
     protected ResultSet getTables(Connection connection, Optional<String> schemaName, Optional<String> tableName)
             throws SQLException
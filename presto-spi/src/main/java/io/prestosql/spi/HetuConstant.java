@@ -31,6 +31,9 @@ public class HetuConstant
     public static final String FILTER_CACHE_SOFT_REFERENCE = "hetu.heuristicindex.filter.cache.soft-reference";
     public static final String FILTER_CACHE_PRELOAD_INDICES = "hetu.heuristicindex.filter.cache.preload-indices";
     public static final String FILTER_CACHE_AUTOLOAD_DEFAULT = "hetu.heuristicindex.filter.cache.autoload-default";
+    public static final String FILTER_CACHE_DISK_ENABLED = "hetu.heuristicindex.filter.cache.disk.enabled";
+    public static final String FILTER_CACHE_DISK_DIRECTORY = "hetu.heuristicindex.filter.cache.disk.directory";
+    public static final String FILTER_CACHE_DISK_MAX_SIZE = "hetu.heuristicindex.filter.cache.disk.max-size";
     public static final String INDEXSTORE_URI = "hetu.heuristicindex.indexstore.uri";
     public static final String INDEXSTORE_FILESYSTEM_PROFILE = "hetu.heuristicindex.indexstore.filesystem.profile";
     public static final String DATA_CENTER_CONNECTOR_NAME = "dc";
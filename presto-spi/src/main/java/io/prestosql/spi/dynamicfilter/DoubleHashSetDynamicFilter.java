@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.dynamicfilter;
+
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.connector.ColumnHandle;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static java.lang.Double.doubleToLongBits;
+import static java.lang.Double.longBitsToDouble;
+
+/**
+ * HashSetDynamicFilter specialization for double values, stored by their bit
+ * pattern so that equality matches {@link Double#equals(Object)}
+ *
+ * @since 2021-08-01
+ */
+public class DoubleHashSetDynamicFilter
+        extends LongHashSetDynamicFilter
+{
+    public DoubleHashSetDynamicFilter(String filterId, ColumnHandle columnHandle, long[] doubleBits, Type type)
+    {
+        super(filterId, columnHandle, doubleBits, type);
+    }
+
+    private DoubleHashSetDynamicFilter(DoubleHashSetDynamicFilter other)
+    {
+        super(other);
+    }
+
+    public static boolean isSupported(Set<?> values)
+    {
+        for (Object value : values) {
+            if (!(value instanceof Double)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static DoubleHashSetDynamicFilter fromSet(String filterId, ColumnHandle columnHandle, Set<?> values, Type type)
+    {
+        long[] bits = new long[values.size()];
+        int index = 0;
+        for (Object value : values) {
+            bits[index++] = doubleToLongBits((Double) value);
+        }
+        return new DoubleHashSetDynamicFilter(filterId, columnHandle, bits, type);
+    }
+
+    @Override
+    public Set getSetValues()
+    {
+        Set<Double> values = new HashSet<>();
+        for (long bits : toLongArray()) {
+            values.add(longBitsToDouble(bits));
+        }
+        return values;
+    }
+
+    @Override
+    public boolean contains(Object value)
+    {
+        if (!(value instanceof Double)) {
+            return false;
+        }
+        return containsLong(doubleToLongBits((Double) value));
+    }
+
+    @Override
+    public int contains(Block block, io.prestosql.spi.type.Type valueType, int[] positions, int positionCount)
+    {
+        if (valueType.getJavaType() != double.class) {
+            return readNativeAndFilter(block, valueType, positions, positionCount);
+        }
+        int matched = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            if (!block.isNull(position) && containsLong(doubleToLongBits(valueType.getDouble(block, position)))) {
+                positions[matched++] = position;
+            }
+        }
+        return matched;
+    }
+
+    @Override
+    public DynamicFilter clone()
+    {
+        DynamicFilter clone = new DoubleHashSetDynamicFilter(this);
+        clone.setMin(min);
+        clone.setMax(max);
+        return clone;
+    }
+}
@@ -14,10 +14,13 @@
  */
 package io.prestosql.spi.dynamicfilter;
 
+import io.prestosql.spi.block.Block;
 import io.prestosql.spi.connector.ColumnHandle;
 
 import java.util.Objects;
 
+import static io.prestosql.spi.type.TypeUtils.readNativeValue;
+
 /**
  * DynamicFilter contains dynamic filter information and
  * one of value set, bloom filter, min/max values for filtering
@@ -83,6 +86,33 @@ public abstract class DynamicFilter
      */
     public abstract boolean contains(Object value);
 
+    /**
+     * Batch contains for the given positions of a block. Matching positions are
+     * compacted to the beginning of the positions array.
+     *
+     * @param block block to probe
+     * @param valueType type of the values in the block
+     * @param positions positions of the block to probe, overwritten with the matching positions
+     * @param positionCount number of valid entries in positions
+     * @return number of matching positions
+     */
+    public int contains(Block block, io.prestosql.spi.type.Type valueType, int[] positions, int positionCount)
+    {
+        return readNativeAndFilter(block, valueType, positions, positionCount);
+    }
+
+    protected final int readNativeAndFilter(Block block, io.prestosql.spi.type.Type valueType, int[] positions, int positionCount)
+    {
+        int matched = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            if (contains(readNativeValue(valueType, block, position))) {
+                positions[matched++] = position;
+            }
+        }
+        return matched;
+    }
+
     /**
      * Get the size of the current DynamicFilter
      *
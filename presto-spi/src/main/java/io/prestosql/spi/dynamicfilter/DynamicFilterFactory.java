@@ -33,8 +33,23 @@ public class DynamicFilterFactory
         return new BloomFilterDynamicFilter(filterId, columnHandle, serializedBloomFilter, type);
     }
 
+    /**
+     * Create a hash set based dynamic filter, choosing a primitive specialized
+     * implementation when all the values share a supported native type
+     */
     public static HashSetDynamicFilter create(String filterId, ColumnHandle columnHandle, Set values, DynamicFilter.Type type)
     {
+        if (!values.isEmpty()) {
+            if (LongHashSetDynamicFilter.isSupported(values)) {
+                return LongHashSetDynamicFilter.fromSet(filterId, columnHandle, values, type);
+            }
+            if (DoubleHashSetDynamicFilter.isSupported(values)) {
+                return DoubleHashSetDynamicFilter.fromSet(filterId, columnHandle, values, type);
+            }
+            if (SliceHashSetDynamicFilter.isSupported(values)) {
+                return SliceHashSetDynamicFilter.fromSet(filterId, columnHandle, values, type);
+            }
+        }
         return new HashSetDynamicFilter(filterId, columnHandle, values, type);
     }
 
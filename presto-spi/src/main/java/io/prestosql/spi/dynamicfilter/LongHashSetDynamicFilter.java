@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.dynamicfilter;
+
+import io.airlift.slice.XxHash64;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.connector.ColumnHandle;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * HashSetDynamicFilter specialization for bigint, integer, date and other types
+ * whose native stack representation is long. Values are kept unboxed in an
+ * open-addressing table, so neither the build side nor the probe side allocates.
+ *
+ * @since 2021-08-01
+ */
+public class LongHashSetDynamicFilter
+        extends HashSetDynamicFilter
+{
+    private static final int MAX_FILL_DENOMINATOR = 2;
+    // 0 is used as the empty slot marker, membership of 0 is tracked separately
+    private static final long EMPTY = 0L;
+
+    private final long[] table;
+    private final int mask;
+    private final boolean containsZero;
+    private final int size;
+
+    public LongHashSetDynamicFilter(String filterId, ColumnHandle columnHandle, long[] values, Type type)
+    {
+        super(filterId, columnHandle, null, type);
+        int capacity = tableCapacity(values.length);
+        long[] newTable = new long[capacity];
+        int newMask = capacity - 1;
+        boolean hasZero = false;
+        int count = 0;
+        for (long value : values) {
+            if (value == EMPTY) {
+                if (!hasZero) {
+                    hasZero = true;
+                    count++;
+                }
+                continue;
+            }
+            int slot = slot(value, newMask);
+            while (newTable[slot] != EMPTY && newTable[slot] != value) {
+                slot = (slot + 1) & newMask;
+            }
+            if (newTable[slot] == EMPTY) {
+                newTable[slot] = value;
+                count++;
+            }
+        }
+        this.table = newTable;
+        this.mask = newMask;
+        this.containsZero = hasZero;
+        this.size = count;
+    }
+
+    protected LongHashSetDynamicFilter(LongHashSetDynamicFilter other)
+    {
+        super(other.filterId, other.columnHandle, null, other.type);
+        this.table = other.table;
+        this.mask = other.mask;
+        this.containsZero = other.containsZero;
+        this.size = other.size;
+    }
+
+    /**
+     * Check whether all values of the set can be represented by this filter
+     *
+     * @param values set of values from the build side
+     * @return true if every value is a Long
+     */
+    public static boolean isSupported(Set<?> values)
+    {
+        for (Object value : values) {
+            if (!(value instanceof Long)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static LongHashSetDynamicFilter fromSet(String filterId, ColumnHandle columnHandle, Set<?> values, Type type)
+    {
+        long[] longs = new long[values.size()];
+        int index = 0;
+        for (Object value : values) {
+            longs[index++] = (Long) value;
+        }
+        return new LongHashSetDynamicFilter(filterId, columnHandle, longs, type);
+    }
+
+    protected final boolean containsLong(long value)
+    {
+        if (value == EMPTY) {
+            return containsZero;
+        }
+        int slot = slot(value, mask);
+        long current = table[slot];
+        while (current != EMPTY) {
+            if (current == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+            current = table[slot];
+        }
+        return false;
+    }
+
+    protected final long[] toLongArray()
+    {
+        long[] values = new long[size];
+        int index = 0;
+        if (containsZero) {
+            values[index++] = EMPTY;
+        }
+        for (long value : table) {
+            if (value != EMPTY) {
+                values[index++] = value;
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public Set getSetValues()
+    {
+        Set<Long> values = new HashSet<>();
+        for (long value : toLongArray()) {
+            values.add(value);
+        }
+        return values;
+    }
+
+    @Override
+    public boolean contains(Object value)
+    {
+        if (!(value instanceof Long)) {
+            return false;
+        }
+        return containsLong((Long) value);
+    }
+
+    @Override
+    public int contains(Block block, io.prestosql.spi.type.Type valueType, int[] positions, int positionCount)
+    {
+        if (valueType.getJavaType() != long.class) {
+            return super.contains(block, valueType, positions, positionCount);
+        }
+        int matched = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            if (!block.isNull(position) && containsLong(valueType.getLong(block, position))) {
+                positions[matched++] = position;
+            }
+        }
+        return matched;
+    }
+
+    @Override
+    public long getSize()
+    {
+        return size;
+    }
+
+    @Override
+    public DynamicFilter clone()
+    {
+        DynamicFilter clone = new LongHashSetDynamicFilter(this);
+        clone.setMin(min);
+        clone.setMax(max);
+        return clone;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    private static int slot(long value, int mask)
+    {
+        return (int) XxHash64.hash(value) & mask;
+    }
+
+    private static int tableCapacity(int expectedSize)
+    {
+        long capacity = Long.highestOneBit(Math.max(2L, (long) expectedSize * MAX_FILL_DENOMINATOR) - 1) << 1;
+        if (capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Too many values for dynamic filter: " + expectedSize);
+        }
+        return (int) capacity;
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.dynamicfilter;
+
+import io.airlift.slice.Slice;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.connector.ColumnHandle;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * HashSetDynamicFilter specialization for varchar, char and varbinary values.
+ * Slices are kept in an open-addressing table together with their hash codes,
+ * which avoids the per entry objects of a java.util.HashSet.
+ *
+ * @since 2021-08-01
+ */
+public class SliceHashSetDynamicFilter
+        extends HashSetDynamicFilter
+{
+    private static final int MAX_FILL_DENOMINATOR = 2;
+
+    private final Slice[] table;
+    private final int[] hashes;
+    private final int mask;
+    private final int size;
+
+    public SliceHashSetDynamicFilter(String filterId, ColumnHandle columnHandle, Slice[] values, Type type)
+    {
+        super(filterId, columnHandle, null, type);
+        int capacity = tableCapacity(values.length);
+        Slice[] newTable = new Slice[capacity];
+        int[] newHashes = new int[capacity];
+        int newMask = capacity - 1;
+        int count = 0;
+        for (Slice value : values) {
+            int hash = value.hashCode();
+            int slot = hash & newMask;
+            while (newTable[slot] != null && !(newHashes[slot] == hash && newTable[slot].equals(value))) {
+                slot = (slot + 1) & newMask;
+            }
+            if (newTable[slot] == null) {
+                newTable[slot] = value;
+                newHashes[slot] = hash;
+                count++;
+            }
+        }
+        this.table = newTable;
+        this.hashes = newHashes;
+        this.mask = newMask;
+        this.size = count;
+    }
+
+    private SliceHashSetDynamicFilter(SliceHashSetDynamicFilter other)
+    {
+        super(other.filterId, other.columnHandle, null, other.type);
+        this.table = other.table;
+        this.hashes = other.hashes;
+        this.mask = other.mask;
+        this.size = other.size;
+    }
+
+    public static boolean isSupported(Set<?> values)
+    {
+        for (Object value : values) {
+            if (!(value instanceof Slice)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static SliceHashSetDynamicFilter fromSet(String filterId, ColumnHandle columnHandle, Set<?> values, Type type)
+    {
+        Slice[] slices = new Slice[values.size()];
+        int index = 0;
+        for (Object value : values) {
+            slices[index++] = (Slice) value;
+        }
+        return new SliceHashSetDynamicFilter(filterId, columnHandle, slices, type);
+    }
+
+    private boolean containsSlice(Slice value)
+    {
+        int hash = value.hashCode();
+        int slot = hash & mask;
+        Slice current = table[slot];
+        while (current != null) {
+            if (hashes[slot] == hash && current.equals(value)) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+            current = table[slot];
+        }
+        return false;
+    }
+
+    @Override
+    public Set getSetValues()
+    {
+        Set<Slice> values = new HashSet<>();
+        for (Slice value : table) {
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public boolean contains(Object value)
+    {
+        if (!(value instanceof Slice)) {
+            return false;
+        }
+        return containsSlice((Slice) value);
+    }
+
+    @Override
+    public int contains(Block block, io.prestosql.spi.type.Type valueType, int[] positions, int positionCount)
+    {
+        if (valueType.getJavaType() != Slice.class) {
+            return super.contains(block, valueType, positions, positionCount);
+        }
+        int matched = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            if (!block.isNull(position) && containsSlice(valueType.getSlice(block, position))) {
+                positions[matched++] = position;
+            }
+        }
+        return matched;
+    }
+
+    @Override
+    public long getSize()
+    {
+        return size;
+    }
+
+    @Override
+    public DynamicFilter clone()
+    {
+        DynamicFilter clone = new SliceHashSetDynamicFilter(this);
+        clone.setMin(min);
+        clone.setMax(max);
+        return clone;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    private static int tableCapacity(int expectedSize)
+    {
+        long capacity = Long.highestOneBit(Math.max(2L, (long) expectedSize * MAX_FILL_DENOMINATOR) - 1) << 1;
+        if (capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Too many values for dynamic filter: " + expectedSize);
+        }
+        return (int) capacity;
+    }
+}
@@ -14,6 +14,7 @@
  */
 package io.prestosql.spi.metastore;
 
+import java.util.Map;
 import java.util.concurrent.Callable;
 
 public interface HetuCache<K, V>
@@ -25,4 +26,6 @@ public interface HetuCache<K, V>
     V getIfAbsent(K key, Callable<? extends V> loader);
 
     V getIfPresent(K key);
+
+    void putAll(Map<K, V> map);
 }
@@ -41,6 +41,30 @@ public interface Restorable
         throw new UnsupportedOperationException(getClass().getName() + " does not support restore()");
     }
 
+    /**
+     * Capture the changes to this object's internal state since it was last captured or restored.
+     * The default implementation returns null, which means the changes can't be captured incrementally,
+     * and {@link #capture} is used instead.
+     *
+     * @param serdeProvider
+     * @return An object representing the changes, or null if a full capture is needed
+     */
+    default Object captureDelta(BlockEncodingSerdeProvider serdeProvider)
+    {
+        return null;
+    }
+
+    /**
+     * Apply changes captured by {@link #captureDelta} on top of the state restored so far
+     *
+     * @param delta an object that represents the changes, as returned by captureDelta
+     * @param serdeProvider
+     */
+    default void restoreDelta(Object delta, BlockEncodingSerdeProvider serdeProvider)
+    {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support restoreDelta()");
+    }
+
     /**
      * Indicates if an object's internal state snapshot can be written into a consolidated file
      *
@@ -53,6 +53,13 @@ import static java.lang.Double.doubleToLongBits;
  * collisions for specific sequence of repeating bytes. Check the following link for more info
  * https://code.google.com/p/smhasher/wiki/MurmurHash2Flaw
  * <p>
+ * A blocked (split block) variant can be created with {@link #BloomFilter(long, double, boolean)}.
+ * It confines all the bits of a value to one 512 bit block, the size of a cache line, and sets
+ * one bit in each of the 8 words of the block. A test therefore touches a single cache line
+ * instead of numHashFunctions random ones, at the cost of a slightly higher false positive
+ * probability for the same number of bits. The variant is recorded in the serialized form
+ * by negating the number of hash functions, so {@link #readFrom(InputStream)} reads both.
+ * <p>
  * This class was forked from {@code org.apache.orc.util.BloomFilter}.
  */
 public class BloomFilter
@@ -63,18 +70,46 @@ public class BloomFilter
     // from 64-bit linear congruential generator
     private static final long NULL_HASHCODE = 2862933555777941757L;
 
+    // number of 64 bit words in one block of the blocked variant, 8 words fill a 64 byte cache line
+    private static final int BLOCK_WORDS = 8;
+    private static final int BLOCK_BITS = BLOCK_WORDS * Long.SIZE;
+    // salts of the split block bloom filter, one per word of a block
+    private static final int[] BLOCK_SALTS = {
+            0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d, 0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31};
+
     private final BitSet bitSet;
     private final int numHashFunctions;
+    private final boolean blocked;
     private int numBits;
 
     public BloomFilter(long expectedEntries, double fpp)
+    {
+        this(expectedEntries, fpp, false);
+    }
+
+    /**
+     * Create an empty BloomFilter
+     *
+     * @param expectedEntries expected number of entries
+     * @param fpp expected false positive probability
+     * @param blocked whether to use the cache line blocked variant
+     */
+    public BloomFilter(long expectedEntries, double fpp, boolean blocked)
     {
         checkArgument(expectedEntries > 0, "expectedEntries should be > 0");
         checkArgument(fpp > 0.0 && fpp < 1.0, "False positive probability should be > 0.0 & < 1.0");
         int nb = optimalNumOfBits(expectedEntries, fpp);
-        // make 'm' multiple of 64
-        this.numBits = nb + (Long.SIZE - (nb % Long.SIZE));
-        this.numHashFunctions = optimalNumOfHashFunctions(expectedEntries, numBits);
+        this.blocked = blocked;
+        if (blocked) {
+            // make 'm' multiple of the block size
+            this.numBits = nb + (BLOCK_BITS - (nb % BLOCK_BITS));
+            this.numHashFunctions = BLOCK_WORDS;
+        }
+        else {
+            // make 'm' multiple of 64
+            this.numBits = nb + (Long.SIZE - (nb % Long.SIZE));
+            this.numHashFunctions = optimalNumOfHashFunctions(expectedEntries, numBits);
+        }
         this.bitSet = new BitSet(numBits);
     }
 
@@ -86,9 +121,23 @@ public class BloomFilter
      */
     public BloomFilter(long[] bits, int numFuncs)
     {
+        this(bits, numFuncs, false);
+    }
+
+    /**
+     * A constructor to support rebuilding the BloomFilter from a serialized representation.
+     *
+     * @param bits the serialized bits
+     * @param numFuncs the number of functions used
+     * @param blocked whether the bits were produced by the cache line blocked variant
+     */
+    public BloomFilter(long[] bits, int numFuncs, boolean blocked)
+    {
+        checkArgument(!blocked || (bits.length % BLOCK_WORDS == 0 && numFuncs == BLOCK_WORDS), "Invalid blocked BloomFilter");
         bitSet = new BitSet(bits);
         this.numBits = (int) bitSet.bitSize();
         numHashFunctions = numFuncs;
+        this.blocked = blocked;
     }
 
     static int optimalNumOfHashFunctions(long n, long m)
@@ -131,12 +180,16 @@ public class BloomFilter
             DataInputStream dataInputStream = new DataInputStream(in);
             numHashFunctions = dataInputStream.readInt();
             numBits = dataInputStream.readInt();
+            boolean blocked = numHashFunctions < 0;
+            if (blocked) {
+                numHashFunctions = -numHashFunctions;
+            }
 
             long[] bits = new long[numBits];
             for (int i = 0; i < numBits; i++) {
                 bits[i] = dataInputStream.readLong();
             }
-            return new BloomFilter(bits, numHashFunctions);
+            return new BloomFilter(bits, numHashFunctions, blocked);
         }
         catch (IOException e) {
             throw new IOException("Failed to deserialize BloomFilter, numHashFunctions: "
@@ -167,6 +220,10 @@ public class BloomFilter
             throw new IllegalArgumentException("BloomFilter to merge must have same number of hash functions");
         }
 
+        if (blocked != that.blocked) {
+            throw new IllegalArgumentException("BloomFilter to merge must use the same layout");
+        }
+
         bitSet.merge(that.bitSet);
         this.numBits = (int) bitSet.bitSize();
     }
@@ -183,13 +240,14 @@ public class BloomFilter
                 (other.getClass() == getClass()) &&
                 (numBits == ((BloomFilter) other).numBits) &&
                 (numHashFunctions == ((BloomFilter) other).numHashFunctions) &&
+                (blocked == ((BloomFilter) other).blocked) &&
                 bitSet.equals(((BloomFilter) other).bitSet);
     }
 
     @Override
     public int hashCode()
     {
-        return bitSet.hashCode() + numHashFunctions * 5;
+        return bitSet.hashCode() + numHashFunctions * 5 + (blocked ? 1 : 0);
     }
 
     public void add(byte[] val)
@@ -206,6 +264,10 @@ public class BloomFilter
 
     private void addHash(long hash64)
     {
+        if (blocked) {
+            addBlockedHash(hash64);
+            return;
+        }
         int hash1 = (int) hash64;
         int hash2 = (int) (hash64 >>> 32);
 
@@ -260,6 +322,9 @@ public class BloomFilter
 
     private boolean testHash(long hash64)
     {
+        if (blocked) {
+            return testBlockedHash(hash64);
+        }
         int hash1 = (int) hash64;
         int hash2 = (int) (hash64 >>> 32);
 
@@ -282,6 +347,61 @@ public class BloomFilter
         return testHash(getLongHash(val));
     }
 
+    /**
+     * Batch version of {@link #test(long)}. Hashes are computed for all the values first,
+     * so the hashing loop has no data dependent branches and can be vectorized.
+     *
+     * @param values values to test
+     * @param out result for each value, must be at least as long as values
+     */
+    public void test(long[] values, boolean[] out)
+    {
+        checkArgument(out.length >= values.length, "out is shorter than values");
+        long[] hashes = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            hashes[i] = getLongHash(values[i]);
+        }
+        if (blocked) {
+            for (int i = 0; i < hashes.length; i++) {
+                out[i] = testBlockedHash(hashes[i]);
+            }
+        }
+        else {
+            for (int i = 0; i < hashes.length; i++) {
+                out[i] = testHash(hashes[i]);
+            }
+        }
+    }
+
+    private int blockOffset(long hash64)
+    {
+        // map the upper 32 bits of the hash onto the blocks without a modulo
+        long numBlocks = numBits / BLOCK_BITS;
+        return (int) (((hash64 >>> 32) * numBlocks) >>> 32) * BLOCK_WORDS;
+    }
+
+    private void addBlockedHash(long hash64)
+    {
+        int offset = blockOffset(hash64);
+        int key = (int) hash64;
+        for (int i = 0; i < BLOCK_WORDS; i++) {
+            bitSet.setWordBits(offset + i, 1L << ((key * BLOCK_SALTS[i]) >>> 26));
+        }
+    }
+
+    private boolean testBlockedHash(long hash64)
+    {
+        int offset = blockOffset(hash64);
+        int key = (int) hash64;
+        long[] data = bitSet.getData();
+        long missing = 0;
+        for (int i = 0; i < BLOCK_WORDS; i++) {
+            long mask = 1L << ((key * BLOCK_SALTS[i]) >>> 26);
+            missing |= ~data[offset + i] & mask;
+        }
+        return missing == 0;
+    }
+
     public boolean test(double val)
     {
         return test(doubleToLongBits(val));
@@ -302,6 +422,11 @@ public class BloomFilter
         return numHashFunctions;
     }
 
+    public boolean isBlocked()
+    {
+        return blocked;
+    }
+
     public long[] getBitSet()
     {
         return bitSet.getData();
@@ -353,7 +478,7 @@ public class BloomFilter
     {
         DataOutputStream dataOutputStream = new DataOutputStream(out);
         long[] bits = bitSet.getData();
-        dataOutputStream.writeInt(numHashFunctions);
+        dataOutputStream.writeInt(blocked ? -numHashFunctions : numHashFunctions);
         dataOutputStream.writeInt(bits.length);
         for (int i = 0; i < bits.length; i++) {
             dataOutputStream.writeLong(bits[i]);
@@ -366,6 +491,7 @@ public class BloomFilter
         return toStringHelper(this)
                 .add("m", numBits)
                 .add("k", numHashFunctions)
+                .add("blocked", blocked)
                 .toString();
     }
 
@@ -443,6 +569,22 @@ public class BloomFilter
             }
         }
 
+        /**
+         * Sets the given bits of the word at the specified word index.
+         *
+         * @param wordIndex - index of the 64 bit word
+         * @param bits - bits to set
+         */
+        public void setWordBits(int wordIndex, long bits)
+        {
+            long oldWord = data[wordIndex];
+            long newWord = oldWord | bits;
+            if (newWord != oldWord) {
+                data[wordIndex] = newWord;
+                bitCount += Long.bitCount(newWord) - Long.bitCount(oldWord);
+            }
+        }
+
         /**
          * Returns true if the bit is set in the specified index.
          *
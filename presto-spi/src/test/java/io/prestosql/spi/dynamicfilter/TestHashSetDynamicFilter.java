@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2018-2021. Huawei Technologies Co., Ltd. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.dynamicfilter;
+
+import com.google.common.collect.ImmutableSet;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.spi.dynamicfilter.DynamicFilter.Type.LOCAL;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestHashSetDynamicFilter
+{
+    @Test
+    public void testFactoryChoosesSpecializedFilter()
+    {
+        assertEquals(DynamicFilterFactory.create("1", null, ImmutableSet.of(1L, 2L), LOCAL).getClass(), LongHashSetDynamicFilter.class);
+        assertEquals(DynamicFilterFactory.create("2", null, ImmutableSet.of(1.5, 2.5), LOCAL).getClass(), DoubleHashSetDynamicFilter.class);
+        assertEquals(DynamicFilterFactory.create("3", null, ImmutableSet.of(utf8Slice("a")), LOCAL).getClass(), SliceHashSetDynamicFilter.class);
+        assertEquals(DynamicFilterFactory.create("4", null, ImmutableSet.of(1L, "a"), LOCAL).getClass(), HashSetDynamicFilter.class);
+        assertEquals(DynamicFilterFactory.create("5", null, ImmutableSet.of(), LOCAL).getClass(), HashSetDynamicFilter.class);
+    }
+
+    @Test
+    public void testLongFilter()
+    {
+        ImmutableSet.Builder<Long> values = ImmutableSet.builder();
+        for (long i = -500; i < 500; i += 2) {
+            values.add(i);
+        }
+        HashSetDynamicFilter filter = DynamicFilterFactory.create("1", null, values.build(), LOCAL);
+
+        assertEquals(filter.getSize(), 500);
+        assertFalse(filter.isEmpty());
+        assertTrue(filter.contains(0L));
+        assertTrue(filter.contains(-500L));
+        assertFalse(filter.contains(1L));
+        assertFalse(filter.contains(500L));
+        assertFalse(filter.contains(null));
+        assertEquals(filter.getSetValues(), values.build());
+        assertTrue(filter.clone().contains(498L));
+    }
+
+    @Test
+    public void testDoubleFilter()
+    {
+        HashSetDynamicFilter filter = DynamicFilterFactory.create("1", null, ImmutableSet.of(0.0, 1.5, Double.NaN), LOCAL);
+
+        assertTrue(filter.contains(0.0));
+        assertTrue(filter.contains(1.5));
+        assertTrue(filter.contains(Double.NaN));
+        assertFalse(filter.contains(-0.0));
+        assertFalse(filter.contains(2.5));
+        assertEquals(filter.getSetValues(), ImmutableSet.of(0.0, 1.5, Double.NaN));
+    }
+
+    @Test
+    public void testSliceFilter()
+    {
+        HashSetDynamicFilter filter = DynamicFilterFactory.create("1", null, ImmutableSet.of(utf8Slice("a"), utf8Slice("bc")), LOCAL);
+
+        assertEquals(filter.getSize(), 2);
+        assertTrue(filter.contains(utf8Slice("a")));
+        assertTrue(filter.contains(utf8Slice("bc")));
+        assertFalse(filter.contains(utf8Slice("b")));
+        assertFalse(filter.contains("a"));
+    }
+
+    @Test
+    public void testBatchContains()
+    {
+        BlockBuilder bigintBuilder = BIGINT.createBlockBuilder(null, 5);
+        BlockBuilder integerBuilder = INTEGER.createBlockBuilder(null, 5);
+        BlockBuilder doubleBuilder = DOUBLE.createBlockBuilder(null, 5);
+        BlockBuilder varcharBuilder = VARCHAR.createBlockBuilder(null, 5);
+        for (int i = 0; i < 4; i++) {
+            BIGINT.writeLong(bigintBuilder, i);
+            INTEGER.writeLong(integerBuilder, i);
+            DOUBLE.writeDouble(doubleBuilder, i);
+            VARCHAR.writeSlice(varcharBuilder, utf8Slice(String.valueOf(i)));
+        }
+        bigintBuilder.appendNull();
+        integerBuilder.appendNull();
+        doubleBuilder.appendNull();
+        varcharBuilder.appendNull();
+
+        DynamicFilter longFilter = DynamicFilterFactory.create("1", null, ImmutableSet.of(1L, 3L), LOCAL);
+        assertBatchContains(longFilter, bigintBuilder.build(), BIGINT, 1, 3);
+        assertBatchContains(longFilter, integerBuilder.build(), INTEGER, 1, 3);
+
+        DynamicFilter doubleFilter = DynamicFilterFactory.create("2", null, ImmutableSet.of(0.0, 2.0), LOCAL);
+        assertBatchContains(doubleFilter, doubleBuilder.build(), DOUBLE, 0, 2);
+
+        DynamicFilter sliceFilter = DynamicFilterFactory.create("3", null, ImmutableSet.of(utf8Slice("2"), utf8Slice("3")), LOCAL);
+        assertBatchContains(sliceFilter, varcharBuilder.build(), VARCHAR, 2, 3);
+
+        DynamicFilter genericFilter = new HashSetDynamicFilter("4", null, ImmutableSet.of(0L, 3L), LOCAL);
+        assertBatchContains(genericFilter, bigintBuilder.build(), BIGINT, 0, 3);
+    }
+
+    private static void assertBatchContains(DynamicFilter filter, Block block, io.prestosql.spi.type.Type type, int... expected)
+    {
+        int[] positions = new int[block.getPositionCount()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        int matched = filter.contains(block, type, positions, positions.length);
+        assertEquals(Arrays.copyOf(positions, matched), expected);
+    }
+}
@@ -21,6 +21,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Random;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
@@ -117,4 +118,67 @@ public class TestBloomFilter
         BloomFilter deserializedBloomFilter1 = BloomFilter.readFrom(new ByteArrayInputStream(out1.toByteArray()));
         assertFalse(deserializedBloomFilter1.isEmpty());
     }
+
+    @Test
+    public void testBlocked()
+            throws IOException
+    {
+        BloomFilter bloomFilter = new BloomFilter(2 * COUNT, 0.1, true);
+        assertTrue(bloomFilter.isBlocked());
+        assertTrue(bloomFilter.isEmpty());
+        for (int i = 0; i < COUNT; i++) {
+            bloomFilter.add((long) i * 7);
+            bloomFilter.add(values[i].getBytes());
+        }
+
+        long[] probes = new long[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            probes[i] = (long) i * 7;
+            assertTrue(bloomFilter.test(values[i].getBytes()));
+        }
+        boolean[] result = new boolean[COUNT];
+        bloomFilter.test(probes, result);
+        for (int i = 0; i < COUNT; i++) {
+            assertTrue(result[i]);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bloomFilter.writeTo(out);
+        BloomFilter deserializedBloomFilter = BloomFilter.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        assertTrue(deserializedBloomFilter.isBlocked());
+        assertEquals(deserializedBloomFilter, bloomFilter);
+
+        int falsePositives = 0;
+        for (int i = 0; i < COUNT; i++) {
+            if (deserializedBloomFilter.test(-1L - i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue((double) falsePositives / COUNT < 0.2, "false positive rate too high: " + falsePositives);
+    }
+
+    @Test
+    public void testBatchTest()
+    {
+        BloomFilter bloomFilter = new BloomFilter(COUNT, 0.01);
+        long[] probes = new long[1000];
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = i;
+            if (i % 2 == 0) {
+                bloomFilter.add((long) i);
+            }
+        }
+        boolean[] result = new boolean[probes.length];
+        bloomFilter.test(probes, result);
+        for (int i = 0; i < probes.length; i++) {
+            assertEquals(result[i], bloomFilter.test(probes[i]));
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMergeDifferentLayouts()
+    {
+        BloomFilter bloomFilter = new BloomFilter(COUNT, 0.1, true);
+        bloomFilter.merge(new BloomFilter(bloomFilter.getBitSet().clone(), bloomFilter.getNumHashFunctions()));
+    }
 }